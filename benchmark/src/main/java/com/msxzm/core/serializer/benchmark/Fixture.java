@@ -0,0 +1,55 @@
+package com.msxzm.core.serializer.benchmark;
+
+import com.msxzm.core.serializer.benchmark.model.BenchmarkMessage;
+import com.msxzm.core.serializer.benchmark.model.DeepCollections;
+import com.msxzm.core.serializer.benchmark.model.FlatPrimitives;
+import com.msxzm.core.serializer.benchmark.model.MultiArrays;
+import com.msxzm.core.serializer.benchmark.model.Nested;
+import com.msxzm.core.serializer.benchmark.model.Wrappers;
+
+import java.util.function.Supplier;
+
+/**
+ * 基准测试的消息样本
+ * @author zenghongming
+ * @date 2026/10/18 20:50
+ */
+public enum Fixture {
+    /** 扁平基础类型 */
+    FLAT(FlatPrimitives::sample, FlatPrimitives::new),
+    /** 包装类型 */
+    WRAPPER(Wrappers::sample, Wrappers::new),
+    /** 嵌套对象 */
+    NESTED(Nested::sample, Nested::new),
+    /** 多层集合、Map */
+    COLLECTION(DeepCollections::sample, DeepCollections::new),
+    /** 多维数组 */
+    ARRAY(MultiArrays::sample, MultiArrays::new),
+    ;
+
+    /** 填好数据的样本 */
+    private final Supplier<BenchmarkMessage> sample;
+    /** 空对象(读的目标) */
+    private final Supplier<BenchmarkMessage> empty;
+
+    Fixture(Supplier<BenchmarkMessage> sample, Supplier<BenchmarkMessage> empty) {
+        this.sample = sample;
+        this.empty = empty;
+    }
+
+    /**
+     * 填好数据的样本
+     * @return 消息
+     */
+    public BenchmarkMessage sample() {
+        return sample.get();
+    }
+
+    /**
+     * 空对象
+     * @return 消息
+     */
+    public BenchmarkMessage newInstance() {
+        return empty.get();
+    }
+}
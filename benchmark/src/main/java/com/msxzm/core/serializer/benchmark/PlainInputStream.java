@@ -0,0 +1,67 @@
+package com.msxzm.core.serializer.benchmark;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 不实现BulkInput、SliceInput的输入流(模拟基础流)，生成代码走逐个元素调用流方法的路径
+ * 格式与ByteBufferInputStream相同，只是不能整块读、截取
+ * @author zenghongming
+ * @date 2026/10/18 23:55
+ */
+public class PlainInputStream extends InputStream {
+    /** 实际读取的流 */
+    private final ByteBufferInputStream delegate;
+
+    public PlainInputStream(ByteBuffer buffer) {
+        this.delegate = new ByteBufferInputStream(buffer);
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return delegate.readBoolean();
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return delegate.readByte();
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return delegate.readShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return delegate.readInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return delegate.readLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return delegate.readFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return delegate.readDouble();
+    }
+
+    @Override
+    public String readString() throws IOException {
+        return delegate.readString();
+    }
+
+    @Override
+    public <T> T read() throws IOException {
+        return delegate.read();
+    }
+}
@@ -0,0 +1,67 @@
+package com.msxzm.core.serializer.benchmark;
+
+import com.msxzm.base.stream.OutputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferOutputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 不实现BulkOutput的输出流(模拟基础流)，生成代码走逐个元素调用流方法的路径
+ * 格式与ByteBufferOutputStream相同，只是不能整块写
+ * @author zenghongming
+ * @date 2026/10/18 23:55
+ */
+public class PlainOutputStream extends OutputStream {
+    /** 实际写入的流 */
+    private final ByteBufferOutputStream delegate;
+
+    public PlainOutputStream(ByteBuffer buffer) {
+        this.delegate = new ByteBufferOutputStream(buffer);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws IOException {
+        delegate.writeBoolean(value);
+    }
+
+    @Override
+    public void writeByte(byte value) throws IOException {
+        delegate.writeByte(value);
+    }
+
+    @Override
+    public void writeShort(short value) throws IOException {
+        delegate.writeShort(value);
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException {
+        delegate.writeInt(value);
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        delegate.writeLong(value);
+    }
+
+    @Override
+    public void writeFloat(float value) throws IOException {
+        delegate.writeFloat(value);
+    }
+
+    @Override
+    public void writeDouble(double value) throws IOException {
+        delegate.writeDouble(value);
+    }
+
+    @Override
+    public void writeString(String value) throws IOException {
+        delegate.writeString(value);
+    }
+
+    @Override
+    public void write(Object value) throws IOException {
+        delegate.write(value);
+    }
+}
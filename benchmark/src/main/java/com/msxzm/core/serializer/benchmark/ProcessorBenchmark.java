@@ -0,0 +1,167 @@
+package com.msxzm.core.serializer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * SerializerProcessor编译耗时基准测试
+ * 生成N个带各种字段类型的序列化类源码，每次调用javac(带处理器)完整编译一遍
+ * 需要能拿到系统编译器(JDK 8把tools.jar放到classpath上)
+ * @author zenghongming
+ * @date 2026/10/18 21:40
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xms2g", "-Xmx2g",
+        // JDK 9以上处理器要访问javac内部API，JDK 8忽略这些参数
+        "-XX:+IgnoreUnrecognizedVMOptions",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.api=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.code=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.processing=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.tree=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.util=ALL-UNNAMED"})
+public class ProcessorBenchmark {
+    /** 处理器 */
+    private static final String PROCESSOR = "com.msxzm.core.serializer.SerializerProcessor";
+    /** 生成类的包名 */
+    private static final String PACKAGE = "generated";
+
+    /** 生成的类个数 */
+    @Param({"1000", "4000"})
+    private int classes;
+
+    /** 系统编译器 */
+    private JavaCompiler compiler;
+    /** 源码目录 */
+    private Path sourceDir;
+    /** 输出目录 */
+    private Path outputDir;
+    /** javac参数 */
+    private List<String> arguments;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("system java compiler not found, run on a JDK (JDK 8 needs tools.jar on the classpath)");
+        }
+        sourceDir = Files.createTempDirectory("serializer-sources");
+        outputDir = Files.createTempDirectory("serializer-classes");
+        Path packageDir = Files.createDirectories(sourceDir.resolve(PACKAGE));
+        arguments = new ArrayList<>();
+        arguments.add("-nowarn");
+        arguments.add("-encoding");
+        arguments.add(StandardCharsets.UTF_8.name());
+        arguments.add("-cp");
+        arguments.add(System.getProperty("java.class.path"));
+        arguments.add("-processor");
+        arguments.add(PROCESSOR);
+        arguments.add("-d");
+        arguments.add(outputDir.toString());
+        for (int i = 0; i < classes; ++i) {
+            Path file = packageDir.resolve(className(i) + ".java");
+            Files.write(file, source(i).getBytes(StandardCharsets.UTF_8));
+            arguments.add(file.toString());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        delete(sourceDir);
+        delete(outputDir);
+    }
+
+    @Benchmark
+    public int compile() {
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int result = compiler.run(null, null, errors, arguments.toArray(new String[0]));
+        if (result != 0) {
+            throw new IllegalStateException("compile failed:\n" + new String(errors.toByteArray(), StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    /**
+     * 生成类名
+     * @param index 序号
+     * @return 类名
+     */
+    private static String className(int index) {
+        return "Message" + index;
+    }
+
+    /**
+     * 生成一个序列化类的源码(除第一个外都引用前一个类，覆盖嵌套对象的展开)
+     * @param index 序号
+     * @return 源码
+     */
+    private static String source(int index) {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(PACKAGE).append(";\n\n");
+        source.append("import com.msxzm.base.serializer.Serializable;\n");
+        source.append("import com.msxzm.base.serializer.SerializerField;\n");
+        source.append("import com.msxzm.core.serializer.benchmark.model.BenchmarkMessage;\n");
+        source.append("import java.util.*;\n\n");
+        source.append("@Serializable\n");
+        source.append("public class ").append(className(index)).append(" extends BenchmarkMessage {\n");
+        source.append("    @SerializerField private int id;\n");
+        source.append("    @SerializerField private long uid;\n");
+        source.append("    @SerializerField private double value;\n");
+        source.append("    @SerializerField private Integer count;\n");
+        source.append("    @SerializerField private String name;\n");
+        source.append("    @SerializerField private int[][] grid;\n");
+        source.append("    @SerializerField private List<Integer> ids;\n");
+        source.append("    @SerializerField private Set<String> tags;\n");
+        source.append("    @SerializerField private Map<String, List<Long>> groups;\n");
+        source.append("    @SerializerField private ArrayDeque<Map<Integer, Set<String>>> history;\n");
+        if (index > 0) {
+            source.append("    @SerializerField private ").append(className(index - 1)).append(" previous;\n");
+            source.append("    @SerializerField private List<").append(className(index - 1)).append("> children;\n");
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * 删除目录
+     * @param dir 目录
+     * @throws IOException IOException
+     */
+    private static void delete(Path dir) throws IOException {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
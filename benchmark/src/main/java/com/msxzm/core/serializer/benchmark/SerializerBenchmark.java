@@ -0,0 +1,101 @@
+package com.msxzm.core.serializer.benchmark;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+import com.msxzm.core.serializer.benchmark.model.BenchmarkMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成的doWrite/doRead/serializedSize基准测试
+ * 吞吐(Throughput)和延迟分布(SampleTime)一起跑，分配用 -prof gc 看 gc.alloc.rate.norm
+ * 读写都在预先分配好的堆缓冲上进行，测的只是生成代码本身，不含流实现的扩容拷贝
+ * stream参数区分ByteBuffer流(整块读写数组)和基础流的路径(逐个元素调用流方法)
+ * @author zenghongming
+ * @date 2026/10/18 20:50
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseParallelGC"})
+public class SerializerBenchmark {
+    /** 消息样本 */
+    @Param
+    private Fixture fixture;
+    /** 读写用的流 */
+    @Param
+    private StreamKind stream;
+
+    /** 要写的消息 */
+    private BenchmarkMessage message;
+    /** 读的目标对象(每次读覆盖全部字段，可以复用) */
+    private BenchmarkMessage target;
+    /** 写缓冲 */
+    private ByteBuffer writeBuffer;
+    /** 写流 */
+    private OutputStream outputStream;
+    /** 已编码好的数据 */
+    private ByteBuffer readBuffer;
+    /** 读流 */
+    private InputStream inputStream;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        message = fixture.sample();
+        target = fixture.newInstance();
+        int size = message.serializedSize();
+        writeBuffer = ByteBuffer.allocate(size);
+        outputStream = stream.output(writeBuffer);
+        message.doWrite(outputStream);
+        if (writeBuffer.position() != size) {
+            throw new IllegalStateException(fixture + ": serializedSize " + size + " != written " + writeBuffer.position());
+        }
+        readBuffer = ByteBuffer.allocate(size);
+        writeBuffer.flip();
+        readBuffer.put(writeBuffer).flip();
+        inputStream = stream.input(readBuffer);
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        writeBuffer.clear();
+        message.doWrite(outputStream);
+        return writeBuffer.position();
+    }
+
+    @Benchmark
+    public BenchmarkMessage read() throws IOException {
+        readBuffer.rewind();
+        target.doRead(inputStream);
+        return target;
+    }
+
+    @Benchmark
+    public BenchmarkMessage readNew() throws IOException {
+        readBuffer.rewind();
+        BenchmarkMessage result = fixture.newInstance();
+        result.doRead(inputStream);
+        return result;
+    }
+
+    @Benchmark
+    public int serializedSize() {
+        return message.serializedSize();
+    }
+}
@@ -0,0 +1,55 @@
+package com.msxzm.core.serializer.benchmark;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferOutputStream;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 基准测试读写用的流
+ * @author zenghongming
+ * @date 2026/10/18 23:55
+ */
+public enum StreamKind {
+    /** ByteBuffer流(实现BulkOutput/BulkInput，数组整块读写) */
+    BUFFER {
+        @Override
+        public OutputStream output(ByteBuffer buffer) {
+            return new ByteBufferOutputStream(buffer);
+        }
+
+        @Override
+        public InputStream input(ByteBuffer buffer) {
+            return new ByteBufferInputStream(buffer);
+        }
+    },
+    /** 基础流的路径(不实现Bulk接口，逐个元素读写) */
+    PLAIN {
+        @Override
+        public OutputStream output(ByteBuffer buffer) {
+            return new PlainOutputStream(buffer);
+        }
+
+        @Override
+        public InputStream input(ByteBuffer buffer) {
+            return new PlainInputStream(buffer);
+        }
+    },
+    ;
+
+    /**
+     * 写入缓冲的输出流
+     * @param buffer 缓冲
+     * @return 输出流
+     */
+    public abstract OutputStream output(ByteBuffer buffer);
+
+    /**
+     * 读取缓冲的输入流
+     * @param buffer 缓冲
+     * @return 输入流
+     */
+    public abstract InputStream input(ByteBuffer buffer);
+}
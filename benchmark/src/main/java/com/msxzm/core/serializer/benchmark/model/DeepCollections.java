@@ -0,0 +1,75 @@
+package com.msxzm.core.serializer.benchmark.model;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 多层集合、Map嵌套的消息
+ * @author zenghongming
+ * @date 2026/10/18 20:40
+ */
+@Serializable
+public class DeepCollections extends BenchmarkMessage {
+    @SerializerField
+    private List<Integer> ids;
+    @SerializerField
+    private Map<String, List<Integer>> groups;
+    @SerializerField
+    private List<Map<Integer, String>> pages;
+    @SerializerField
+    private Map<Integer, Set<Long>> friends;
+    @SerializerField
+    private List<List<String>> matrix;
+
+    /**
+     * 样本数据
+     * @return 消息
+     */
+    public static DeepCollections sample() {
+        DeepCollections message = new DeepCollections();
+        message.ids = new ArrayList<>();
+        for (int i = 0; i < 32; ++i) {
+            message.ids.add(i * 37);
+        }
+        message.groups = new HashMap<>();
+        for (int i = 0; i < 8; ++i) {
+            List<Integer> group = new ArrayList<>();
+            for (int j = 0; j < 8; ++j) {
+                group.add(i * 100 + j);
+            }
+            message.groups.put("group" + i, group);
+        }
+        message.pages = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            Map<Integer, String> page = new HashMap<>();
+            for (int j = 0; j < 8; ++j) {
+                page.put(j, "entry" + j);
+            }
+            message.pages.add(page);
+        }
+        message.friends = new HashMap<>();
+        for (int i = 0; i < 8; ++i) {
+            Set<Long> set = new HashSet<>();
+            for (int j = 0; j < 8; ++j) {
+                set.add(1_000_000L * i + j);
+            }
+            message.friends.put(i, set);
+        }
+        message.matrix = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            List<String> row = new ArrayList<>();
+            for (int j = 0; j < 4; ++j) {
+                row.add(i + "x" + j);
+            }
+            message.matrix.add(row);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,52 @@
+package com.msxzm.core.serializer.benchmark.model;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+/**
+ * 只有基础类型字段的扁平消息
+ * @author zenghongming
+ * @date 2026/10/18 20:40
+ */
+@Serializable
+public class FlatPrimitives extends BenchmarkMessage {
+    @SerializerField
+    private boolean online;
+    @SerializerField
+    private byte level;
+    @SerializerField
+    private short job;
+    @SerializerField
+    private int id;
+    @SerializerField
+    private int gold;
+    @SerializerField
+    private long uid;
+    @SerializerField
+    private long loginTime;
+    @SerializerField
+    private float speed;
+    @SerializerField
+    private double power;
+    @SerializerField
+    private String name;
+
+    /**
+     * 样本数据
+     * @return 消息
+     */
+    public static FlatPrimitives sample() {
+        FlatPrimitives message = new FlatPrimitives();
+        message.online = true;
+        message.level = 86;
+        message.job = 3;
+        message.id = 100_234;
+        message.gold = 1_987_654;
+        message.uid = 20_261_018_000_123L;
+        message.loginTime = 1_792_300_000_000L;
+        message.speed = 1.25F;
+        message.power = 123_456.789D;
+        message.name = "benchmark_player";
+        return message;
+    }
+}
@@ -0,0 +1,31 @@
+package com.msxzm.core.serializer.benchmark.model;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+/**
+ * 嵌套消息的元素
+ * @author zenghongming
+ * @date 2026/10/18 20:40
+ */
+@Serializable
+public class Item extends BenchmarkMessage {
+    @SerializerField
+    private long uid;
+    @SerializerField
+    private int configId;
+    @SerializerField
+    private int count;
+    @SerializerField
+    private String source;
+
+    public Item() {
+    }
+
+    Item(long uid, int configId, int count, String source) {
+        this.uid = uid;
+        this.configId = configId;
+        this.count = count;
+        this.source = source;
+    }
+}
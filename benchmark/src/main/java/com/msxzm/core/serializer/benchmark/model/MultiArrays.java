@@ -0,0 +1,62 @@
+package com.msxzm.core.serializer.benchmark.model;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+/**
+ * 多维数组的消息
+ * @author zenghongming
+ * @date 2026/10/18 20:40
+ */
+@Serializable
+public class MultiArrays extends BenchmarkMessage {
+    @SerializerField
+    private int[] scores;
+    @SerializerField
+    private int[][] grid;
+    @SerializerField
+    private long[][][] cube;
+    @SerializerField
+    private double[][] weights;
+    @SerializerField
+    private String[][] labels;
+
+    /**
+     * 样本数据
+     * @return 消息
+     */
+    public static MultiArrays sample() {
+        MultiArrays message = new MultiArrays();
+        message.scores = new int[64];
+        for (int i = 0; i < message.scores.length; ++i) {
+            message.scores[i] = i * i;
+        }
+        message.grid = new int[16][16];
+        for (int i = 0; i < 16; ++i) {
+            for (int j = 0; j < 16; ++j) {
+                message.grid[i][j] = i * 16 + j;
+            }
+        }
+        message.cube = new long[4][4][4];
+        for (int i = 0; i < 4; ++i) {
+            for (int j = 0; j < 4; ++j) {
+                for (int k = 0; k < 4; ++k) {
+                    message.cube[i][j][k] = 1L << (i + j + k);
+                }
+            }
+        }
+        message.weights = new double[8][8];
+        for (int i = 0; i < 8; ++i) {
+            for (int j = 0; j < 8; ++j) {
+                message.weights[i][j] = i / 8.0D + j;
+            }
+        }
+        message.labels = new String[4][4];
+        for (int i = 0; i < 4; ++i) {
+            for (int j = 0; j < 4; ++j) {
+                message.labels[i][j] = "L" + i + j;
+            }
+        }
+        return message;
+    }
+}
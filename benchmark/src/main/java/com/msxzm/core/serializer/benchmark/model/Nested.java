@@ -0,0 +1,43 @@
+package com.msxzm.core.serializer.benchmark.model;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 嵌套自定义对象的消息
+ * @author zenghongming
+ * @date 2026/10/18 20:40
+ */
+@Serializable
+public class Nested extends BenchmarkMessage {
+    @SerializerField
+    private int id;
+    @SerializerField
+    private FlatPrimitives owner;
+    @SerializerField
+    private Item weapon;
+    @SerializerField
+    private Item armor;
+    @SerializerField
+    private List<Item> bag;
+
+    /**
+     * 样本数据
+     * @return 消息
+     */
+    public static Nested sample() {
+        Nested message = new Nested();
+        message.id = 7;
+        message.owner = FlatPrimitives.sample();
+        message.weapon = new Item(1L, 10_001, 1, "drop");
+        message.armor = new Item(2L, 20_001, 1, "shop");
+        message.bag = new ArrayList<>();
+        for (int i = 0; i < 16; ++i) {
+            message.bag.add(new Item(100L + i, 30_000 + i, i + 1, "bag"));
+        }
+        return message;
+    }
+}
@@ -0,0 +1,52 @@
+package com.msxzm.core.serializer.benchmark.model;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+/**
+ * 包装类型为主的消息(含null字段，走null位图)
+ * @author zenghongming
+ * @date 2026/10/18 20:40
+ */
+@Serializable
+public class Wrappers extends BenchmarkMessage {
+    @SerializerField
+    private Boolean vip;
+    @SerializerField
+    private Byte camp;
+    @SerializerField
+    private Short title;
+    @SerializerField
+    private Integer guildId;
+    @SerializerField
+    private Integer teamId;
+    @SerializerField
+    private Long roleId;
+    @SerializerField
+    private Long lastChat;
+    @SerializerField
+    private Float rate;
+    @SerializerField
+    private Double exp;
+    @SerializerField
+    private String sign;
+
+    /**
+     * 样本数据
+     * @return 消息
+     */
+    public static Wrappers sample() {
+        Wrappers message = new Wrappers();
+        message.vip = Boolean.TRUE;
+        message.camp = 2;
+        message.title = 17;
+        message.guildId = 5_001;
+        message.teamId = null;
+        message.roleId = 9_000_000_001L;
+        message.lastChat = null;
+        message.rate = 0.35F;
+        message.exp = 98_765.4321D;
+        message.sign = "hello";
+        return message;
+    }
+}
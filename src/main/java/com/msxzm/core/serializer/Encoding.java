@@ -0,0 +1,18 @@
+package com.msxzm.core.serializer;
+
+/**
+ * 整数编码方式(作用于int、long、short及其包装类型，以及数组、集合、Map的长度)
+ * @author zenghongming
+ * @date 2026/10/18 13:40
+ */
+public enum Encoding {
+
+    /** 未指定(字段跟随类，类未指定则为FIXED) */
+    DEFAULT,
+    /** 定长 */
+    FIXED,
+    /** 变长(适合非负的小整数) */
+    VARINT,
+    /** ZigZag变长(适合绝对值小的有符号整数) */
+    ZIGZAG,
+}
@@ -0,0 +1,99 @@
+package com.msxzm.core.serializer;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 序列化类的附加选项(配合Serializable注解使用)
+ * @author zenghongming
+ * @date 2026/10/18 13:40
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface SerializableOptions {
+
+    /**
+     * 整数编码方式，字段未指定时使用
+     * @return 编码方式
+     */
+    Encoding encoding() default Encoding.DEFAULT;
+
+    /**
+     * 读取时复用已有的嵌套对象，清空后复用已有的集合，复用长度一致的数组，而不是每次都new
+     * 适合高频反序列化到同一个对象的场景
+     * @return 是否复用
+     */
+    boolean reuse() default false;
+
+    /**
+     * 读取时嵌套对象(包括集合、数组中的元素，Map的key和value)从Pools注册的对象池借出，而不是new
+     * 同时生成release()方法，把整个对象图中的嵌套对象归还到池中
+     * @return 是否使用对象池
+     */
+    boolean pooled() default false;
+
+    /**
+     * 多态类型id(大于0，所有模块中唯一)
+     * 字段类型是抽象类或接口时，如果本次编译中它所有可实例化的序列化子类都指定了typeId，
+     * 就按 变长typeId + 子类内容 读写，否则仍按Object读写；子类要是public的，有public无参构造函数
+     * 字段类型是指定了typeId的非final类时也这样读写(子类都要指定typeId)，字段里放子类对象读回来还是子类；
+     * 没有指定typeId的非抽象类按声明的类型读写，字段里不能放它的子类对象
+     * 同一次编译的子类直接分派(-Aserializer.incremental=aggregating时只走注册表)；编译时不认识的子类(其他模块的、增量编译没有重新处理的)运行时从SerializableTypes.getDefault()
+     * (各模块生成的索引)按类或typeId查找，所以typeId要在所有模块中唯一
+     * @return 类型id，0为不指定
+     */
+    int typeId() default 0;
+
+    /**
+     * tagged模式：每个非null字段按 变长(字段编号&lt;&lt;3|类型) [+ 变长长度] + 内容 写出，以0结束
+     * 嵌套对象、字符串、数组、集合、Map带长度前缀；读取时不认识的字段直接按长度跳过，缺失的字段置为默认值
+     * 新旧版本可以互相读取，适合滚动升级和长期存储的数据；每个字段都要用SerializerFieldOptions.tag指定编号
+     * @return 是否tagged模式
+     */
+    boolean tagged() default false;
+
+    /**
+     * 生成按字段掩码读取的doRead(InputStream, long fieldMask)和每个字段的掩码常量FIELD_XXX
+     * 只解码选中的字段(前64个字段可选，之后的总是读取)，没选中的按定长或长度跳过，保持原值；父类字段总是全部读取
+     * 没选中的嵌套对象、多态对象调生成的静态方法skipFrom(InputStream)跳过，不new对象；非静态内部类、跟踪引用的类没有skipFrom，读出来丢弃
+     * @return 是否生成
+     */
+    boolean projection() default false;
+
+    /**
+     * 脏标记：每个字段一位，生成的set方法赋值时置位，clearDirty()清除，isDirty()判断是否有变更
+     * 同时生成doWriteDelta(OutputStream)/doReadDelta(InputStream)，只读写 变更位图 + 变更了的字段，
+     * 适合每帧同步只有少量字段变化的大对象；直接给字段赋值或修改嵌套对象内部不会置位，父类也开启时才包含父类字段
+     * @return 是否脏标记
+     */
+    boolean dirty() default false;
+
+    /**
+     * 字符串表：一次doWrite中重复的字符串只写一次，之后按变长编号引用，适合键、名字大量重复的消息
+     * 每个字符串多一个变长引用，只在本类的字段(包括集合、数组、Map中的字符串)范围内去重，嵌套对象按自己的选项处理；
+     * 延迟解码的字段不使用，不能与tagged一起使用
+     * @return 是否使用字符串表
+     */
+    boolean stringTable() default false;
+
+    /**
+     * 跟踪引用：同一次doWrite中出现多次的自定义序列化对象只写一次，之后按变长编号引用，读取时还原成同一个实例，环形引用也能读写
+     * 编号在整个对象图(同一个流)内共用；只跟踪自定义序列化对象，不跟踪集合、数组；
+     * 读取时不复用已有对象，不能与tagged、pooled、lazy一起使用，也不要放在tagged类或延迟解码的字段中
+     * @return 是否跟踪引用
+     */
+    boolean references() default false;
+
+    /**
+     * 可恢复读取：额外生成doReadResumable(ResumableInput)，数据不够时回退到上一个提交点并返回false，
+     * 追加数据后再次调用从那里继续，读完一个对象返回true；按字段提交，顶层的集合、Map按元素提交，其他字段(包括嵌套对象)整个读完才提交
+     * 读取进度保存在对象的transient字段中，读完之前不要用同一个对象做别的读取；父类是序列化类时父类也要开启；
+     * 不能与tagged、stringTable、references一起使用
+     * @return 是否生成可恢复读取方法
+     */
+    boolean resumable() default false;
+}
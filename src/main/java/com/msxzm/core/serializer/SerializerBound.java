@@ -2,6 +2,10 @@ package com.msxzm.core.serializer;
 
 import com.msxzm.base.stream.InputStream;
 import com.msxzm.base.stream.OutputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferOutputStream;
+
+import java.nio.ByteBuffer;
 
 /**
  * 序列化方向
@@ -13,7 +17,11 @@ public enum SerializerBound {
     /** read */
     READ("readFrom", "doRead", "inputStream", InputStream.class),
     /** write */
-    WRITE("writeTo", "doWrite", "outputStream", OutputStream.class);
+    WRITE("writeTo", "doWrite", "outputStream", OutputStream.class),
+    /** read ByteBuffer(包装成流后调用doRead) */
+    READ_BUFFER("readFrom", "doRead", "byteBuffer", ByteBuffer.class, ByteBufferInputStream.class),
+    /** write ByteBuffer(包装成流后调用doWrite) */
+    WRITE_BUFFER("writeTo", "doWrite", "byteBuffer", ByteBuffer.class, ByteBufferOutputStream.class);
 
     /** 方法名 */
     String accessName;
@@ -23,12 +31,19 @@ public enum SerializerBound {
     String paramName;
     /** 操作流 */
     Class<?> stream;
+    /** 包装成基础流的适配类(直接操作基础流的为null) */
+    Class<?> adapter;
 
     SerializerBound(String accessName, String serializerExec, String paramName, Class<?> streamClass) {
+        this(accessName, serializerExec, paramName, streamClass, null);
+    }
+
+    SerializerBound(String accessName, String serializerExec, String paramName, Class<?> streamClass, Class<?> adapter) {
         this.accessName = accessName;
         this.serializerExec = serializerExec;
         this.paramName = paramName;
         this.stream = streamClass;
+        this.adapter = adapter;
     }
 
     /**
@@ -38,4 +53,12 @@ public enum SerializerBound {
     String getStreamClass() {
         return stream.getTypeName();
     }
+
+    /**
+     * 适配类完全限定名
+     * @return 适配类完全限定名
+     */
+    String getAdapterClass() {
+        return adapter.getTypeName();
+    }
 }
@@ -0,0 +1,79 @@
+package com.msxzm.core.serializer;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 序列化字段的附加选项(配合SerializerField注解使用)
+ * @author zenghongming
+ * @date 2026/10/18 13:40
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface SerializerFieldOptions {
+
+    /**
+     * 整数编码方式，未指定则跟随类的SerializableOptions
+     * @return 编码方式
+     */
+    Encoding encoding() default Encoding.DEFAULT;
+
+    /**
+     * 读取时集合或Map的实现类，未指定(Void)则接口用默认实现，具体类用声明的类型
+     * 实现类需要能赋值给字段类型，有int构造函数时按元素个数预分配容量
+     * @return 实现类
+     */
+    Class<?> impl() default Void.class;
+
+    /**
+     * 数值包装类型集合(List&lt;Integer&gt;等)按紧凑格式编码：元素null位图 + 连续的定长块，不逐个写null标记
+     * 只减少写出的字节和逐个元素的调用，读取时元素仍要装箱放进集合；完全不装箱要用IntArrayList、LongArrayList字段
+     * 只能用于Collection，Map的键值不支持
+     * @return 是否紧凑编码
+     */
+    boolean packed() default false;
+
+    /**
+     * 紧凑编码时元素不会为null，不写元素null位图(出现null写入时抛出NullPointerException)
+     * @return 元素是否不为null
+     */
+    boolean nonNull() default false;
+
+    /**
+     * tagged模式下字段的编号(大于0，类中唯一)，tagged模式的每个字段都必须指定
+     * 字段编号一旦使用就不要再改，新增字段用新的编号
+     * @return 字段编号
+     */
+    int tag() default 0;
+
+    /**
+     * 延迟解码(只能用于自定义序列化对象、集合或Map字段)：字段带长度前缀写出，
+     * 读取时输入流实现了SliceInput则只截取这段数据，第一次调用生成的getter时才解码，否则直接解码
+     * 类内部直接访问字段不会触发解码，需要通过getter访问
+     * 截取的数据由对象持有到解码为止(ByteBufferInputStream截取时会复制，读完后源缓冲可以复用)
+     * @return 是否延迟解码
+     */
+    boolean lazy() default false;
+
+    /**
+     * 分块编码(大于0时生效，只能用于集合、Map或Iterable字段)：不预先写元素总数，
+     * 按每块最多chunkSize个元素写出(变长int块长度 + 元素)，最后写0结束，写出时只缓冲一块元素
+     * Iterable字段可以是延迟生成的数据源，写出时只迭代一次(serializedSize会另外迭代一次)，读取时得到ArrayList
+     * 不能与packed、lazy、tagged模式同时使用
+     * @return 每块最多元素个数
+     */
+    int chunkSize() default 0;
+
+    /**
+     * 流式读取(只能用于集合、Map或分块编码的Iterable字段)：类额外生成doReadStream方法，
+     * 每个流式字段对应一个ElementConsumer或EntryConsumer参数(按字段声明顺序，参数名为字段名 + Consumer)，
+     * 读出一个元素就回调一次，不放进集合，读完后字段为null；doRead不受影响
+     * 不能与packed、lazy、tagged模式同时使用
+     * @return 是否流式读取
+     */
+    boolean stream() default false;
+}
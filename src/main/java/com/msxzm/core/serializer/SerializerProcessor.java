@@ -3,6 +3,8 @@ package com.msxzm.core.serializer;
 import com.google.auto.service.AutoService;
 import com.msxzm.base.serializer.Serializable;
 import com.msxzm.base.serializer.SerializerField;
+import com.msxzm.core.serializer.TypeInfos.TypeInfo;
+import com.msxzm.core.serializer.runtime.TaggedCodec;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.api.JavacTrees;
@@ -21,13 +23,25 @@ import com.sun.tools.javac.util.List;
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.function.Consumer;
 
@@ -44,6 +58,8 @@ public class SerializerProcessor extends AbstractProcessor {
     private static final String MAP_ENTRY = "java.util.Map.Entry";
     /** Iterator */
     private static final String ITERATOR = "java.util.Iterator";
+    /** Iterable */
+    private static final String ITERABLE = "java.lang.Iterable";
     /** List的实例化类 */
     private static final String LIST_IMPL = "java.util.ArrayList";
     /** Set的实例化类 */
@@ -52,9 +68,148 @@ public class SerializerProcessor extends AbstractProcessor {
     private static final String QUEUE_IMPL = "java.util.ArrayDeque";
     /** Map的实例化类 */
     private static final String MAP_IMPL = "java.util.HashMap";
+    /** Hash集合的负载因子 */
+    private static final float HASH_LOAD_FACTOR = 0.75F;
+    /** 变长整数编解码 */
+    private static final String VARINT = "com.msxzm.core.serializer.runtime.Varint";
+    /** 基础类型数组整块编解码 */
+    private static final String ARRAY_CODEC = "com.msxzm.core.serializer.runtime.ArrayCodec";
+    /** 序列化长度计算 */
+    private static final String SIZES = "com.msxzm.core.serializer.runtime.Sizes";
+    /** 紧凑集合编解码 */
+    private static final String PACKED_CODEC = "com.msxzm.core.serializer.runtime.PackedCodec";
+    /** int列表 */
+    private static final String INT_LIST = "com.msxzm.core.serializer.runtime.IntArrayList";
+    /** long列表 */
+    private static final String LONG_LIST = "com.msxzm.core.serializer.runtime.LongArrayList";
+    /** 对象池 */
+    private static final String OBJECT_POOL = "com.msxzm.core.serializer.runtime.ObjectPool";
+    /** 对象池注册表 */
+    private static final String POOLS = "com.msxzm.core.serializer.runtime.Pools";
+    /** 枚举编解码 */
+    private static final String ENUMS = "com.msxzm.core.serializer.runtime.Enums";
+    /** EnumSet */
+    private static final String ENUM_SET = "java.util.EnumSet";
+    /** EnumMap */
+    private static final String ENUM_MAP = "java.util.EnumMap";
+    /** 分块编码 */
+    private static final String CHUNKS = "com.msxzm.core.serializer.runtime.Chunks";
+    /** 流式读取集合元素的回调 */
+    private static final String ELEMENT_CONSUMER = "com.msxzm.core.serializer.runtime.ElementConsumer";
+    /** 流式读取Map键值对的回调 */
+    private static final String ENTRY_CONSUMER = "com.msxzm.core.serializer.runtime.EntryConsumer";
 
     /** 元素后缀 */
     private static final String ELEMENT = "Element";
+    /** null位图局部变量前缀 */
+    private static final String NULL_BITS = "nullBits";
+    /** 生成的索引 */
+    private static final String SERIALIZABLE_INDEX = "com.msxzm.core.serializer.runtime.SerializableIndex";
+    /** 序列化类注册表(多态字段编译时不认识的子类运行时从默认注册表读写) */
+    private static final String SERIALIZABLE_TYPES = "com.msxzm.core.serializer.runtime.SerializableTypes";
+    /** 生成的索引类名(可以用-Aserializer.index=完整类名指定) */
+    private static final String INDEX_OPTION = "serializer.index";
+    /** 默认的索引类名(后面再加上所含类的摘要) */
+    private static final String INDEX_CLASS_NAME = "GeneratedSerializableIndex";
+    /** 索引类名里摘要的字节数 */
+    private static final int INDEX_DIGEST_BYTES = 8;
+    /** 是否生成统计代码(-Aserializer.metrics=true) */
+    private static final String METRICS_OPTION = "serializer.metrics";
+    /** Gradle增量编译模式(-Aserializer.incremental=aggregating或isolating，不指定时不声明增量编译，每次全量处理) */
+    private static final String INCREMENTAL_OPTION = "serializer.incremental";
+    /** aggregating模式 */
+    private static final String AGGREGATING = "aggregating";
+    /** isolating模式 */
+    private static final String ISOLATING = "isolating";
+    /** Gradle增量编译: 声明为isolating */
+    private static final String GRADLE_ISOLATING = "org.gradle.annotation.processing.isolating";
+    /** Gradle增量编译: 声明为aggregating */
+    private static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+    /** 统计注册表 */
+    private static final String SERIALIZER_METRICS = "com.msxzm.core.serializer.runtime.SerializerMetrics";
+    /** 类的统计 */
+    private static final String CLASS_METRICS = "com.msxzm.core.serializer.runtime.ClassMetrics";
+    /** 统计静态字段名后缀 */
+    private static final String METRICS = "_METRICS";
+    /** 统计局部变量名(非静态内部类不能声明静态字段，每次查找) */
+    private static final String METRICS_NAME = "serializerMetrics";
+    /** 统计开始位置局部变量名 */
+    private static final String METRICS_POSITION = "metricsPosition";
+    /** 统计采样起点局部变量名 */
+    private static final String METRICS_START = "metricsStart";
+
+    /** 序列化长度方法名(也用作累加的局部变量名) */
+    private static final String SERIALIZED_SIZE = "serializedSize";
+    /** 归还对象池方法名 */
+    private static final String RELEASE = "release";
+    /** 对象池静态字段后缀 */
+    private static final String POOL = "_POOL";
+    /** 多态类型id局部变量后缀 */
+    private static final String TYPE_ID = "_type";
+    /** null的多态类型id */
+    private static final int NULL_TYPE_ID = 0;
+    /** tagged模式读取时的字段标记局部变量 */
+    private static final String FIELD_TAG = "fieldTag";
+    /** tagged模式字段长度局部变量 */
+    private static final String FIELD_SIZE = "fieldSize";
+    /** tagged模式已读字段位图局部变量前缀 */
+    private static final String PRESENT_BITS = "presentBits";
+    /** tagged模式字段标记 */
+    private static final String TAGGED_CODEC = "com.msxzm.core.serializer.runtime.TaggedCodec";
+    /** 可截取的输入流 */
+    private static final String SLICE_INPUT = "com.msxzm.core.serializer.runtime.SliceInput";
+    /** 延迟解码的字段后缀(保存未解码的输入流) */
+    private static final String LAZY = "_lazy";
+    /** 跳过数据 */
+    private static final String SKIPS = "com.msxzm.core.serializer.runtime.Skips";
+    /** 跳过一个对象的静态方法名 */
+    private static final String SKIP_FROM = "skipFrom";
+    /** 按字段读取的掩码参数名 */
+    private static final String FIELD_MASK = "fieldMask";
+    /** 字段掩码常量前缀 */
+    private static final String FIELD_MASK_CONSTANT = "FIELD_";
+    /** 字符串快速编解码 */
+    private static final String STRINGS = "com.msxzm.core.serializer.runtime.Strings";
+    /** 字符串表 */
+    private static final String STRING_TABLE = "com.msxzm.core.serializer.runtime.StringTable";
+    /** 字符串表局部变量名 */
+    private static final String STRING_TABLE_NAME = "stringTable";
+    /** 引用表 */
+    private static final String REFERENCE_TABLE = "com.msxzm.core.serializer.runtime.ReferenceTable";
+    /** 引用表局部变量名 */
+    private static final String REFERENCES_NAME = "references";
+    /** 读引用的局部变量后缀 */
+    private static final String REF = "_ref";
+    /** 脏标记位图字段名 */
+    private static final String DIRTY_BITS = "dirtyBits";
+    /** 增量读取的变更位图局部变量名 */
+    private static final String DELTA_BITS = "deltaBits";
+    /** 增量写方法名 */
+    private static final String WRITE_DELTA = "doWriteDelta";
+    /** 增量读方法名 */
+    private static final String READ_DELTA = "doReadDelta";
+    /** 流式读方法名 */
+    private static final String READ_STREAM = "doReadStream";
+    /** 流式读取回调参数名后缀 */
+    private static final String CONSUMER = "Consumer";
+    /** 可恢复读方法名 */
+    private static final String READ_RESUMABLE = "doReadResumable";
+    /** 可恢复读取的输入流 */
+    private static final String RESUMABLE_INPUT = "com.msxzm.core.serializer.runtime.ResumableInput";
+    /** 可恢复读取时数据不够 */
+    private static final String NEED_MORE_DATA = "com.msxzm.core.serializer.runtime.NeedMoreDataException";
+    /** 可恢复读取的进度字段 */
+    private static final String RESUME_STATE = "resumeState";
+    /** 可恢复读取时顶层集合剩余的元素个数字段 */
+    private static final String RESUME_REMAINING = "resumeRemaining";
+    /** 可恢复读取的null位图字段前缀 */
+    private static final String RESUME_NULL_BITS = "resumeNullBits";
+    /** 可恢复读取的当前步骤局部变量 */
+    private static final String RESUME_STEP = "resumeStep";
+    /** 清除脏标记方法名 */
+    private static final String CLEAR_DIRTY = "clearDirty";
+    /** 是否有脏标记方法名 */
+    private static final String IS_DIRTY = "isDirty";
 
     /** 局部变量修饰符 */
     private static final int LOCAL_VARIABLE_MODIFIERS = 0;
@@ -63,6 +218,8 @@ public class SerializerProcessor extends AbstractProcessor {
 
     /** 编译信息输出 */
     private Messager messager;
+    /** 生成文件 */
+    private Filer filer;
     /** 抽象语法树 */
     private JavacTrees trees;
     /** 抽象语法树构造 */
@@ -71,6 +228,30 @@ public class SerializerProcessor extends AbstractProcessor {
     private Types types;
     /** 名字 */
     private Names names;
+    /** 元素 */
+    private Elements elements;
+    /** 本轮编译的自定义序列化类 */
+    private List<TypeElement> serializableElements = List.nil();
+    /** 多态类型的子类(抽象类型 -> 本轮编译的子类，不能多态编码的为空) */
+    private Map<String, List<TypeElement>> polymorphicTypes = new HashMap<>();
+    /** 本轮编译中生成serializedSize的类(擦除后的类型名) */
+    private final Set<String> sizedTypes = new HashSet<>();
+    /** 本轮编译中有序列化字段但不生成serializedSize的类(擦除后的类型名) */
+    private final Set<String> unsizedTypes = new HashSet<>();
+    /** 本轮编译中生成skipFrom的类(擦除后的类型名) */
+    private final Set<String> skippableTypes = new HashSet<>();
+    /** 本轮编译中有序列化字段但不生成skipFrom的类(擦除后的类型名) */
+    private final Set<String> unskippableTypes = new HashSet<>();
+    /** 是否已经生成索引(一次编译只生成一个) */
+    private boolean indexGenerated;
+    /** 类型信息缓存 */
+    private TypeInfos typeInfos;
+    /** 是否生成统计代码 */
+    private boolean metrics;
+    /** 是否aggregating模式(没有变更的类不会重新生成，多态字段只通过索引分派子类) */
+    private boolean aggregating;
+    /** 是否isolating模式(每个类只依赖自身AST可达的类型，不生成索引、不支持多态字段) */
+    private boolean isolating;
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
@@ -79,8 +260,15 @@ public class SerializerProcessor extends AbstractProcessor {
         this.trees = JavacTrees.instance(processingEnv);
         this.treeMaker = TreeMaker.instance(context);
         this.messager = processingEnv.getMessager();
+        this.filer = processingEnv.getFiler();
         this.names = Names.instance(context);
         this.types = processingEnv.getTypeUtils();
+        this.elements = processingEnv.getElementUtils();
+        this.typeInfos = new TypeInfos(types);
+        this.metrics = Boolean.parseBoolean(processingEnv.getOptions().get(METRICS_OPTION));
+        String incremental = processingEnv.getOptions().get(INCREMENTAL_OPTION);
+        this.aggregating = AGGREGATING.equalsIgnoreCase(incremental);
+        this.isolating = ISOLATING.equalsIgnoreCase(incremental);
     }
 
     @Override
@@ -89,9 +277,15 @@ public class SerializerProcessor extends AbstractProcessor {
         if (roundEnv.processingOver() || serialElement.isEmpty()) {
             return false;
         }
+        // 收集多态子类的typeId
+        collectTypeIds(roundEnv);
         JavaSourceWrapper javaSourceWrapper = new JavaSourceWrapper();
         serialElement.forEach(element -> {
             JCTree jcVariableTree = trees.getTree(element);
+            // 增量编译时没有变更的类从class文件加载，没有语法树(上次编译已经生成过)
+            if (jcVariableTree == null) {
+                return;
+            }
             jcVariableTree.accept(new TreeTranslator() {
                 @Override
                 public void visitVarDef(JCVariableDecl jcVariableDecl) {
@@ -103,22 +297,582 @@ public class SerializerProcessor extends AbstractProcessor {
                 }
             });
         });
+        // 确定哪些类能生成serializedSize
+        checkSerializedSize(javaSourceWrapper);
+        // 确定哪些类能生成ByteBuffer读写方法
+        checkBuffered(javaSourceWrapper);
+        // 确定哪些类能生成skipFrom
+        checkSkippable(javaSourceWrapper);
+        // 生成所有序列化类的索引
+        generateIndex();
         javaSourceWrapper.forEach(classWrapper -> {
             classWrapper.forEach(variableDecl -> {
-                // 增加Getter、Setter方法
+                // 延迟解码的字段增加Getter、Setter方法
+                if (variableDecl.lazy) {
+                    classWrapper.addVariableDecl(makeLazyVariableDecl(variableDecl));
+                    classWrapper.addMethodDecl(makeGetterMethodDecl(variableDecl));
+                    classWrapper.addMethodDecl(makeSetterMethodDecl(variableDecl));
+                } else if (variableDecl.dirtyBit >= 0) {
+                    // 脏标记需要通过Setter赋值
+                    classWrapper.addMethodDecl(makeSetterMethodDecl(variableDecl));
+                }
             });
             // 增加必要的import
             classWrapper.addImport(treeMaker.Import(memberAccess(IO_EXCEPTION), false));
             // 增加write方法
             classWrapper.addImport(treeMaker.Import(memberAccess(SerializerBound.WRITE.getStreamClass()), false));
-            classWrapper.addMethodDecl(makeReadWriteMethodDecl(classWrapper, SerializerBound.WRITE));
+            classWrapper.addMethodDecl(makeReadWriteMethodDecl(GenerationContext.NONE, classWrapper, SerializerBound.WRITE));
             // 增加read方法
             classWrapper.addImport(treeMaker.Import(memberAccess(SerializerBound.READ.getStreamClass()), false));
-            classWrapper.addMethodDecl(makeReadWriteMethodDecl(classWrapper, SerializerBound.READ));
+            classWrapper.addMethodDecl(makeReadWriteMethodDecl(GenerationContext.NONE, classWrapper, SerializerBound.READ));
+            // 增加直接读写ByteBuffer的方法(有通用对象字段时不生成)
+            if (classWrapper.buffered) {
+                classWrapper.addMethodDecl(makeAdapterMethodDecl(SerializerBound.WRITE_BUFFER));
+                classWrapper.addMethodDecl(makeAdapterMethodDecl(SerializerBound.READ_BUFFER));
+            }
+            // 增加按字段掩码读取的read方法
+            if (classWrapper.isProjection()) {
+                classWrapper.addMethodDecl(makeReadWriteMethodDecl(GenerationContext.NONE.withProjection(), classWrapper, SerializerBound.READ));
+                classWrapper.addFieldMaskConstants();
+            }
+            // 增加流式读取的read方法
+            if (classWrapper.isStreaming()) {
+                classWrapper.addMethodDecl(makeReadWriteMethodDecl(GenerationContext.NONE.withStreaming(), classWrapper, SerializerBound.READ));
+            }
+            // 增加serializedSize方法(有无法计算长度的字段时不生成)
+            if (classWrapper.sized) {
+                classWrapper.addMethodDecl(makeSerializedSizeMethodDecl(classWrapper));
+            }
+            // 增加跳过整个对象的静态方法
+            if (classWrapper.skippable) {
+                classWrapper.addMethodDecl(makeSkipMethodDecl(classWrapper));
+            }
+            // 脏标记的增加位图字段和增量读写方法
+            if (classWrapper.dirty) {
+                classWrapper.addDirtyFields();
+                classWrapper.addMethodDecl(makeDeltaMethodDecl(classWrapper, SerializerBound.WRITE));
+                classWrapper.addMethodDecl(makeDeltaMethodDecl(classWrapper, SerializerBound.READ));
+                classWrapper.addMethodDecl(makeClearDirtyMethodDecl(classWrapper));
+                classWrapper.addMethodDecl(makeIsDirtyMethodDecl(classWrapper));
+            }
+            // 可恢复读取的增加进度字段和doReadResumable方法
+            if (classWrapper.resumable) {
+                classWrapper.addResumeFields();
+                classWrapper.addMethodDecl(makeResumableReadMethodDecl(classWrapper));
+            }
+            // 使用对象池的增加release方法和池字段
+            if (classWrapper.pooled) {
+                classWrapper.addMethodDecl(makeReleaseMethodDecl(classWrapper));
+                classWrapper.addPoolFields();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 收集本轮编译的自定义序列化类，检查typeId是否重复
+     * @param roundEnv 本轮环境
+     */
+    private void collectTypeIds(RoundEnvironment roundEnv) {
+        serializableElements = List.nil();
+        polymorphicTypes.clear();
+        Map<Integer, TypeElement> typeIds = new HashMap<>();
+        for (TypeElement element : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(Serializable.class))) {
+            serializableElements = serializableElements.append(element);
+            int typeId = getTypeId(element);
+            if (typeId == NULL_TYPE_ID) {
+                continue;
+            }
+            if (typeId < 0) {
+                printError(element.getSimpleName().toString(), "typeId必须大于0，请检查!");
+                continue;
+            }
+            TypeElement exist = typeIds.putIfAbsent(typeId, element);
+            if (exist != null) {
+                printError(element.getSimpleName().toString(), "typeId与" + exist.getQualifiedName() + "重复，请检查! typeId: " + typeId);
+            }
+        }
+    }
+
+    /**
+     * 确定本轮的类能否生成serializedSize: 字段走通用write(Object)、父类或字段类型没有serializedSize的类不生成
+     * 不生成的类又会影响引用它的类，反复检查直到不再变化
+     * @param javaSourceWrapper 本轮的类
+     */
+    private void checkSerializedSize(JavaSourceWrapper javaSourceWrapper) {
+        sizedTypes.clear();
+        unsizedTypes.clear();
+        javaSourceWrapper.forEach(classWrapper -> sizedTypes.add(types.erasure(classWrapper.element.asType()).toString()));
+        Map<JavaClassWrapper, String> reasons = new LinkedHashMap<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (JavaClassWrapper classWrapper : javaSourceWrapper.classMap.values()) {
+                if (!classWrapper.sized) {
+                    continue;
+                }
+                String reason = classWrapper.getUnsizedReason();
+                if (reason != null) {
+                    String typeName = types.erasure(classWrapper.element.asType()).toString();
+                    sizedTypes.remove(typeName);
+                    unsizedTypes.add(typeName);
+                    classWrapper.sized = false;
+                    reasons.put(classWrapper, reason);
+                    changed = true;
+                }
+            }
+        }
+        reasons.forEach((classWrapper, reason) -> printWarning(classWrapper.getSimpleName(), "无法计算长度，不生成serializedSize! " + reason));
+        // 延迟解码和tagged模式的长度前缀字段写出时就要计算长度
+        javaSourceWrapper.forEach(classWrapper -> classWrapper.forEach(variableWrapper -> {
+            TypeMirror type = variableWrapper.element.asType();
+            boolean lengthPrefixed = variableWrapper.lazy || (classWrapper.tagged && getWireType(type, variableWrapper.encoding) == TaggedCodec.WIRE_LENGTH);
+            if (lengthPrefixed && !isSizeable(type)) {
+                printError(classWrapper.getSimpleName(), "lazy或tagged模式的长度前缀字段写出时要计算长度，不能是通用对象或没有serializedSize的类型，请检查! Variable: " + variableWrapper.variable.getName());
+            }
+        }));
+    }
+
+    /**
+     * 确定本轮编译的每个类能否生成ByteBuffer读写方法
+     * ByteBuffer流不支持通用对象，自身或者父类(本轮编译的)有通用对象字段的不生成，给出警告
+     * @param javaSourceWrapper 类包装
+     */
+    private void checkBuffered(JavaSourceWrapper javaSourceWrapper) {
+        Set<String> unbufferedTypes = new HashSet<>();
+        Map<JavaClassWrapper, String> reasons = new LinkedHashMap<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (JavaClassWrapper classWrapper : javaSourceWrapper.classMap.values()) {
+                if (!classWrapper.buffered) {
+                    continue;
+                }
+                String reason = classWrapper.getUnbufferedReason(unbufferedTypes);
+                if (reason != null) {
+                    unbufferedTypes.add(types.erasure(classWrapper.element.asType()).toString());
+                    classWrapper.buffered = false;
+                    reasons.put(classWrapper, reason);
+                    changed = true;
+                }
+            }
+        }
+        reasons.forEach((classWrapper, reason) -> printWarning(classWrapper.getSimpleName(), "ByteBuffer流不支持通用对象，不生成doWrite(ByteBuffer)/doRead(ByteBuffer)! " + reason));
+    }
+
+    /**
+     * 确定本轮的类能否生成skipFrom: 非静态内部类、跟踪引用的类不生成，
+     * 父类或者需要new出来读掉的字段类型(非静态内部类)没有skipFrom的也不生成，反复检查直到不再变化
+     * 不生成的类被跳过时退回到读出来丢弃，不给出警告
+     * @param javaSourceWrapper 本轮的类
+     */
+    private void checkSkippable(JavaSourceWrapper javaSourceWrapper) {
+        skippableTypes.clear();
+        unskippableTypes.clear();
+        javaSourceWrapper.forEach(classWrapper -> {
+            String typeName = types.erasure(classWrapper.element.asType()).toString();
+            boolean skippable = !isInnerClass(classWrapper.element) && !classWrapper.references;
+            (skippable ? skippableTypes : unskippableTypes).add(typeName);
+        });
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (JavaClassWrapper classWrapper : javaSourceWrapper.classMap.values()) {
+                String typeName = types.erasure(classWrapper.element.asType()).toString();
+                if (skippableTypes.contains(typeName) && !classWrapper.isSkippable()) {
+                    skippableTypes.remove(typeName);
+                    unskippableTypes.add(typeName);
+                    changed = true;
+                }
+            }
+        }
+        javaSourceWrapper.forEach(classWrapper -> classWrapper.skippable = skippableTypes.contains(types.erasure(classWrapper.element.asType()).toString()));
+    }
+
+    /**
+     * 类型本身有没有skipFrom方法(本轮生成的，或者class文件、源码里已有的)
+     * 静态方法会被子类继承，只看类型自己声明的
+     * @param type 类型
+     * @return 有 true
+     */
+    private boolean hasSkipFrom(TypeMirror type) {
+        TypeMirror t = types.erasure(type);
+        if (t.getKind() != TypeKind.DECLARED || unskippableTypes.contains(t.toString())) {
+            return false;
+        }
+        if (skippableTypes.contains(t.toString())) {
+            return true;
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(types.asElement(t).getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(SKIP_FROM) && method.getModifiers().contains(Modifier.STATIC) && method.getParameters().size() == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 类型能否在静态的skipFrom里跳过(与skipVariable的类型展开一致): 没有skipFrom的对象要new出来读掉，非静态内部类不行
+     * @param type 类型
+     * @return 能 true
+     */
+    private boolean isStaticSkippable(TypeMirror type) {
+        if (isArray(type)) {
+            return isStaticSkippable(((ArrayType) type).getComponentType());
+        }
+        if (isPrimitiveList(type) || isEnumSet(type) || isPrimitiveType(type) || isEnum(type)) {
+            return true;
+        }
+        if (isCollection(type) || isIterable(type) || isMap(type)) {
+            for (Type typeArgument : ((Type) type).getTypeArguments()) {
+                if (!isStaticSkippable(typeArgument)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        List<TypeElement> subTypes = getPolymorphicTypes(type);
+        if (subTypes != null) {
+            for (TypeElement subType : getDirectTypes(subTypes)) {
+                if (!hasSkipFrom(subType.asType()) && isInnerClass(subType)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (isDirectSerializable(type)) {
+            return hasSkipFrom(type) || !isInnerClass((TypeElement) types.asElement(type));
+        }
+        return true;
+    }
+
+    /**
+     * 是否非静态内部类(不能声明静态成员，也不能在静态方法里new)
+     * @param element 类元素
+     * @return 是 true
+     */
+    private boolean isInnerClass(TypeElement element) {
+        return element.getNestingKind().isNested() && !element.getModifiers().contains(Modifier.STATIC);
+    }
+
+    /**
+     * 类型写出时是否会用到通用对象(outputStream.write(Object))，与writeVariable的类型展开一致
+     * @param type 类型
+     * @return 会用到 true
+     */
+    private boolean isObjectPath(TypeMirror type) {
+        if (isArray(type)) {
+            return isObjectPath(((ArrayType) type).getComponentType());
+        }
+        if (isPrimitiveList(type) || isEnumSet(type) || isPrimitiveType(type) || isEnum(type)) {
+            return false;
+        }
+        if (isCollection(type) || isIterable(type) || isMap(type)) {
+            List<Type> typeArguments = ((Type) type).getTypeArguments();
+            if (typeArguments.isEmpty()) {
+                return true;
+            }
+            for (Type typeArgument : typeArguments) {
+                if (isObjectPath(typeArgument)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return getPolymorphicTypes(type) == null && !isSerializable(type);
+    }
+
+    /**
+     * 类型本身或父类是否有serializedSize方法(本轮生成的，或者class文件、源码里已有的)
+     * @param type 类型
+     * @return 有 true
+     */
+    private boolean hasSerializedSize(TypeMirror type) {
+        for (TypeMirror t = types.erasure(type); t.getKind() == TypeKind.DECLARED; ) {
+            String typeName = t.toString();
+            if (unsizedTypes.contains(typeName)) {
+                return false;
+            }
+            if (sizedTypes.contains(typeName)) {
+                return true;
+            }
+            TypeElement element = (TypeElement) types.asElement(t);
+            for (ExecutableElement method : ElementFilter.methodsIn(element.getEnclosedElements())) {
+                if (method.getSimpleName().contentEquals(SERIALIZED_SIZE) && method.getParameters().isEmpty()) {
+                    return true;
+                }
+            }
+            t = types.erasure(element.getSuperclass());
+        }
+        return false;
+    }
+
+    /**
+     * 类型的长度能否在serializedSize里计算(与sizeVariable的类型展开一致)
+     * @param type 类型
+     * @return 能 true
+     */
+    private boolean isSizeable(TypeMirror type) {
+        if (isArray(type)) {
+            return isSizeable(((ArrayType) type).getComponentType());
+        }
+        if (isPrimitiveList(type) || isEnumSet(type) || isPrimitiveType(type) || isEnum(type)) {
+            return true;
+        }
+        if (isCollection(type) || isIterable(type) || isMap(type)) {
+            List<Type> typeArguments = ((Type) type).getTypeArguments();
+            if (typeArguments.isEmpty()) {
+                return false;
+            }
+            for (Type typeArgument : typeArguments) {
+                if (!isSizeable(typeArgument)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        List<TypeElement> subTypes = getPolymorphicTypes(type);
+        if (subTypes != null) {
+            for (TypeElement subType : subTypes) {
+                if (!hasSerializedSize(subType.asType())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return isSerializable(type) && hasSerializedSize(type);
+    }
+
+    /**
+     * 类指定的多态类型id
+     * @param element 类元素
+     * @return typeId，没有指定为0
+     */
+    private int getTypeId(Element element) {
+        SerializableOptions classOptions = element.getAnnotation(SerializableOptions.class);
+        return classOptions == null ? NULL_TYPE_ID : classOptions.typeId();
+    }
+
+    /**
+     * 获取多态字段类型的子类(本轮编译中可实例化的自定义序列化子类，包括类型本身，都指定了typeId才能多态编码)
+     * 抽象类型总是多态编码；非抽象类型指定了typeId并且不是final的也多态编码，
+     * 子类可能在别的模块，所以不按本轮有没有子类决定格式
+     * @param type 字段类型
+     * @return 按typeId排好序的子类(非aggregating模式下读写时直接分派，其他子类从注册表按typeId查找)，不能多态编码返回null
+     */
+    private List<TypeElement> getPolymorphicTypes(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED || !isSerializable(type)) {
+            return null;
+        }
+        boolean abstractType = isAbstract(type);
+        if (!abstractType) {
+            Element typeElement = types.asElement(type);
+            if (isolating || getTypeId(typeElement) <= NULL_TYPE_ID || typeElement.getModifiers().contains(Modifier.FINAL)) {
+                return null;
+            }
+        }
+        TypeMirror erasureType = types.erasure(type);
+        List<TypeElement> subTypes = polymorphicTypes.computeIfAbsent(erasureType.toString(), k -> {
+            // 多态读写依赖索引，isolating模式不生成索引
+            if (isolating) {
+                printError(k, "isolating模式下不生成索引，不支持多态字段，请检查!");
+                return List.nil();
+            }
+            ArrayList<TypeElement> concreteTypes = new ArrayList<>();
+            for (TypeElement element : serializableElements) {
+                if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+                    continue;
+                }
+                if (!types.isAssignable(types.erasure(element.asType()), erasureType)) {
+                    continue;
+                }
+                if (getTypeId(element) <= NULL_TYPE_ID || !element.getTypeParameters().isEmpty()) {
+                    if (!abstractType) {
+                        // 类型本身按多态编码，这个子类的对象写出时注册表里找不到
+                        printError(element.getSimpleName().toString(), k + "指定了typeId，它的序列化子类也要指定typeId并且不能带泛型参数，请检查!");
+                        continue;
+                    }
+                    printWarning(element.getSimpleName().toString(), "没有指定typeId或带泛型参数，" + k + "仍按Object读写");
+                    return List.nil();
+                }
+                // 读取时由索引里的构造函数引用创建
+                if (!isAccessible(element) || !isInstantiable(element)) {
+                    printError(element.getSimpleName().toString(), "多态子类要是public的类并且有public无参构造函数，请检查!");
+                    return List.nil();
+                }
+                concreteTypes.add(element);
+            }
+            concreteTypes.sort(Comparator.comparingInt(this::getTypeId));
+            return List.from(concreteTypes);
         });
+        // 非抽象类型本身可能不在本轮编译中(class文件)，没有找到子类也按多态编码
+        return subTypes.isEmpty() && abstractType ? null : subTypes;
+    }
+
+    /**
+     * 生成序列化类索引: 一个实现SerializableIndex的类(登记每个类和它的构造函数引用)，
+     * 和META-INF/services下的登记文件，运行时ServiceLoader加载一个类就拿到所有序列化类
+     */
+    private void generateIndex() {
+        if (indexGenerated || serializableElements.isEmpty()) {
+            return;
+        }
+        indexGenerated = true;
+        String indexName = processingEnv.getOptions().get(INDEX_OPTION);
+        // 索引汇总所有类，只能在aggregating模式下生成
+        if (isolating) {
+            if (indexName != null && !indexName.isEmpty()) {
+                printWarning(indexName, "isolating模式下不生成序列化类索引");
+            }
+            return;
+        }
+        if (indexName == null || indexName.isEmpty()) {
+            // 同一个根包下的不同模块公共包名可能相同，类名再带上所含类的摘要，避免同名的索引只被加载一个
+            String packageName = getCommonPackage(serializableElements);
+            String className = INDEX_CLASS_NAME + "_" + getIndexDigest(serializableElements);
+            indexName = packageName.isEmpty() ? className : packageName + "." + className;
+        }
+        int lastDot = indexName.lastIndexOf('.');
+        String packageName = lastDot < 0 ? "" : indexName.substring(0, lastDot);
+        String simpleName = indexName.substring(lastDot + 1);
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/** 生成的序列化类索引 */\n");
+        source.append("public final class ").append(simpleName).append(" implements ").append(SERIALIZABLE_INDEX).append(" {\n");
+        source.append("    @Override\n");
+        source.append("    public void registerTo(").append(SERIALIZABLE_INDEX).append(".Registrar registrar) {\n");
+        Element[] originatingElements = new Element[serializableElements.size()];
+        int i = 0;
+        for (TypeElement element : serializableElements) {
+            originatingElements[i++] = element;
+            if (!isAccessible(element)) {
+                continue;
+            }
+            String className = element.getQualifiedName().toString();
+            String constructor = isInstantiable(element) ? className + "::new" : "null";
+            source.append("        registrar.register(").append(className).append(".class, ").append(getTypeId(element)).append(", ").append(constructor).append(");\n");
+            // 多态子类登记读写方法，其他模块的多态字段运行时按typeId找到它
+            if (getTypeId(element) > NULL_TYPE_ID && isInstantiable(element)) {
+                String sizer = hasSerializedSize(element.asType()) ? className + "::" + SERIALIZED_SIZE : "null";
+                source.append("        registrar.registerCodec(").append(className).append(".class, ")
+                        .append(className).append("::").append(SerializerBound.WRITE.accessName).append(", ")
+                        .append(className).append("::").append(SerializerBound.READ.accessName).append(", ")
+                        .append(sizer).append(");\n");
+            }
+        }
+        source.append("    }\n");
+        source.append("}\n");
+        try {
+            try (Writer writer = filer.createSourceFile(indexName, originatingElements).openWriter()) {
+                writer.write(source.toString());
+            }
+            FileObject services = filer.createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + SERIALIZABLE_INDEX, originatingElements);
+            try (Writer writer = services.openWriter()) {
+                writer.write(indexName + "\n");
+            }
+        } catch (IOException e) {
+            printError(simpleName, "生成序列化类索引失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 索引所含类的摘要(类名排序后SHA-1的前8字节，同样的类生成同样的名字，不同模块几乎不会重名)
+     * @param elements 类元素
+     * @return 16位十六进制
+     */
+    private String getIndexDigest(List<TypeElement> elements) {
+        ArrayList<String> classNames = new ArrayList<>();
+        for (TypeElement element : elements) {
+            classNames.add(element.getQualifiedName().toString());
+        }
+        Collections.sort(classNames);
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1").digest(String.join(",", classNames).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // 每个Java平台都必须支持SHA-1
+            throw new IllegalStateException(e);
+        }
+        StringBuilder hex = new StringBuilder(INDEX_DIGEST_BYTES * 2);
+        for (int i = 0; i < INDEX_DIGEST_BYTES; ++i) {
+            hex.append(String.format("%02x", digest[i]));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 所有类的公共包名
+     * @param elements 类元素
+     * @return 公共包名
+     */
+    private String getCommonPackage(List<TypeElement> elements) {
+        String common = null;
+        for (TypeElement element : elements) {
+            String packageName = this.elements.getPackageOf(element).getQualifiedName().toString();
+            if (common == null) {
+                common = packageName;
+                continue;
+            }
+            while (!common.isEmpty() && !packageName.equals(common) && !packageName.startsWith(common + ".")) {
+                int lastDot = common.lastIndexOf('.');
+                common = lastDot < 0 ? "" : common.substring(0, lastDot);
+            }
+        }
+        return common == null ? "" : common;
+    }
+
+    /**
+     * 生成的索引类能否访问该类(public，外部类也都是public)
+     * @param element 类元素
+     * @return 能 true
+     */
+    private boolean isAccessible(TypeElement element) {
+        for (Element e = element; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (!e.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+        }
         return true;
     }
 
+    /**
+     * 能否直接用构造函数引用实例化(非抽象、非内部类、有public无参构造)
+     * @param element 类元素
+     * @return 能 true
+     */
+    private boolean isInstantiable(TypeElement element) {
+        if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        if (isInnerClass(element)) {
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new LinkedHashSet<>();
+        options.add(INDEX_OPTION);
+        options.add(METRICS_OPTION);
+        options.add(INCREMENTAL_OPTION);
+        // Gradle增量编译(META-INF/gradle/incremental.annotation.processors里登记为dynamic)，都不声明时Gradle全量编译
+        if (aggregating) {
+            options.add(GRADLE_AGGREGATING);
+        } else if (isolating) {
+            options.add(GRADLE_ISOLATING);
+        }
+        return options;
+    }
+
     @Override
     public Set<String> getSupportedAnnotationTypes() {
         Set<String> annotations = new LinkedHashSet<>();
@@ -149,11 +903,12 @@ public class SerializerProcessor extends AbstractProcessor {
     }
 
     /**
-     * 生成get方法
-     * @param jcVariableDecl 变量定义
+     * 生成get方法(延迟解码的字段第一次get时解码)
+     * @param variableWrapper 字段包装
      * @return get方法定义
      */
-    private JCMethodDecl makeGetterMethodDecl(JCVariableDecl jcVariableDecl) {
+    private JCMethodDecl makeGetterMethodDecl(VariableWrapper variableWrapper) {
+        JCVariableDecl jcVariableDecl = variableWrapper.variable;
         String fieldName = jcVariableDecl.getName().toString();
         Name methodName = names.fromString("get" + Utils.toUpperCaseFirst(fieldName));
         // 访问标志
@@ -162,6 +917,9 @@ public class SerializerProcessor extends AbstractProcessor {
         JCExpression resType = jcVariableDecl.vartype;
         // 方法体
         ListBuffer<JCStatement> statements = new ListBuffer<>();
+        if (variableWrapper.lazy) {
+            decodeLazy(statements, variableWrapper);
+        }
         // return this.xxx;
         statements.append(treeMaker.Return(memberAccess(names.fromString("this"), jcVariableDecl.name)));
         JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, statements.toList());
@@ -170,11 +928,12 @@ public class SerializerProcessor extends AbstractProcessor {
     }
 
     /**
-     * 生成set方法
-     * @param jcVariableDecl 变量定义
+     * 生成set方法(延迟解码的字段丢弃未解码的数据，脏标记的字段置脏标记)
+     * @param variableWrapper 字段包装
      * @return set方法定义
      */
-    private JCMethodDecl makeSetterMethodDecl(JCVariableDecl jcVariableDecl) {
+    private JCMethodDecl makeSetterMethodDecl(VariableWrapper variableWrapper) {
+        JCVariableDecl jcVariableDecl = variableWrapper.variable;
         String fieldName = jcVariableDecl.getName().toString();
         Name methodName = names.fromString("set" + Utils.toUpperCaseFirst(fieldName));
         // 访问标志
@@ -185,670 +944,3175 @@ public class SerializerProcessor extends AbstractProcessor {
         JCVariableDecl param = treeMaker.VarDef(treeMaker.Modifiers(Flags.PARAMETER), jcVariableDecl.getName(), jcVariableDecl.vartype, null);
         // 方法体
         ListBuffer<JCStatement> statements = new ListBuffer<>();
+        // this.xxx_lazy = null;
+        if (variableWrapper.lazy) {
+            statements.append(treeMaker.Exec(treeMaker.Assign(memberAccess(names.fromString("this"), lazyName(variableWrapper)), literalNull())));
+        }
         // this.xxx
         JCExpression jcFieldAccess = memberAccess(names.fromString("this"), jcVariableDecl.getName());
         // this.xxx = xxx;
         JCAssign jcAssign = treeMaker.Assign(jcFieldAccess, treeMaker.Ident(jcVariableDecl.getName()));
+        statements.append(treeMaker.Exec(jcAssign));
+        // this.dirtyBitsN |= mask;
+        if (variableWrapper.dirtyBit >= 0) {
+            JCExpression dirtyBits = memberAccess(names.fromString("this"), dirtyBitsName(variableWrapper.dirtyBit / Long.SIZE));
+            statements.append(treeMaker.Exec(treeMaker.Assignop(Tag.BITOR_ASG, dirtyBits, nullBitMask(variableWrapper.dirtyBit))));
+        }
         // 加入方法体
-        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, statements.append(treeMaker.Exec(jcAssign)).toList());
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, statements.toList());
         // MethodDef(mods, name, restype, typarams, params, thrown, body, defaultValue)
         return treeMaker.MethodDef(modifiers, methodName, resType, List.nil(), List.of(param), List.nil(), body, null);
     }
 
     /**
-     * 生成read write方法
-     * @param classWrapper 类包装
-     * @param bound 序列化方向 read write
-     * @return 方法定义
+     * 生成保存未解码输入流的字段: private transient InputStream xxx_lazy;
+     * @param variableWrapper 字段包装
+     * @return 字段定义
      */
-    private JCMethodDecl makeReadWriteMethodDecl(JavaClassWrapper classWrapper, SerializerBound bound) {
-        ListBuffer<JCStatement> statements = new ListBuffer<>();
-        // 访问标志
-        JCModifiers modifiers = treeMaker.Modifiers(Flags.PUBLIC);
-        // 方法名
-        Name methodName = names.fromString(bound.serializerExec);
-        // 参数名
-        Name paramName = names.fromString(bound.paramName);
-        // 参数类型
-        JCExpression paramType = memberAccess(bound.getStreamClass());
-        // 方法参数
-        JCVariableDecl param = treeMaker.VarDef(treeMaker.Modifiers(Flags.PARAMETER), paramName, paramType, null);
-        // throws IOException
-        JCExpression thrown = memberAccess(IO_EXCEPTION);
-        // return void
-        JCExpression resType = treeMaker.TypeIdent(TypeTag.VOID);
-        // 看父类是否实现了Serializable接口
-        if (isSerializableAssignableFrom(classWrapper.element.asType())) {
-            // super read write
-            JCExpression args = treeMaker.Ident(names.fromString(bound.paramName));
-            JCExpression superExec = memberAccess(names.fromString("super"), bound.serializerExec);
-            statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), superExec, List.of(args))));
-        }
-        // read write 字段
-        classWrapper.forEach(variableWrapper -> {
-            // map遍历需要Entry,Iterator
-            if (isMap(variableWrapper.element.asType())) {
-                classWrapper.addImport(treeMaker.Import(memberAccess(MAP_ENTRY), false));
-                classWrapper.addImport(treeMaker.Import(memberAccess(ITERATOR), false));
-            }
-            if (bound == SerializerBound.WRITE) {
-                writeVariable(statements, variableWrapper.element.asType(), variableWrapper.variable);
-            } else {
-                readVariable(statements, variableWrapper.element.asType(), variableWrapper.variable);
-            }
-        });
-        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, statements.toList());
-        // MethodDef(mods, name, restype, typarams, params, thrown, body, defaultValue)
-        return treeMaker.MethodDef(modifiers, methodName, resType, List.nil(), List.of(param), List.of(thrown), body, null);
+    private JCVariableDecl makeLazyVariableDecl(VariableWrapper variableWrapper) {
+        JCModifiers modifiers = treeMaker.Modifiers(Flags.PRIVATE | Flags.TRANSIENT);
+        return treeMaker.VarDef(modifiers, lazyName(variableWrapper), memberAccess(SerializerBound.READ.getStreamClass()), null);
     }
 
     /**
-     * 写一个变量(递归一直到基础类型，或者自定义序列化对象)
+     * 第一次get时解码
+     * if (xxx_lazy != null) {
+     *     InputStream inputStream = xxx_lazy;
+     *     xxx_lazy = null;
+     *     try { read xxx } catch (IOException e) { throw new UncheckedIOException(e); }
+     * }
      * @param statements 方法体stats
-     * @param type 变量类型
-     * @param variable 变量
+     * @param variableWrapper 字段包装
      */
-    private void writeVariable(ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable) {
-        // 数组
-        if (isArray(type)) {
-            writeArray(statements, (ArrayType) type, variable);
-            return;
+    private void decodeLazy(ListBuffer<JCStatement> statements, VariableWrapper variableWrapper) {
+        Name lazyName = lazyName(variableWrapper);
+        Name paramName = names.fromString(SerializerBound.READ.paramName);
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        thenStatements.append(localVariableDef(paramName, memberAccess(SerializerBound.READ.getStreamClass()), treeMaker.Ident(lazyName)));
+        thenStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(lazyName), literalNull())));
+        // try { read xxx }
+        ListBuffer<JCStatement> tryStatements = new ListBuffer<>();
+        GenerationContext context = GenerationContext.NONE.withVariable(variableWrapper);
+        readVariable(context, tryStatements, variableWrapper.element.asType(), variableWrapper.variable, treeMaker.Literal(true));
+        // catch (IOException e) { throw new UncheckedIOException(e); }
+        Name exceptionName = names.fromString("e");
+        JCVariableDecl exception = treeMaker.VarDef(treeMaker.Modifiers(Flags.PARAMETER), exceptionName, memberAccess(IO_EXCEPTION), null);
+        JCExpression unchecked = treeMaker.NewClass(null, List.nil(), memberAccess("java.io.UncheckedIOException"), List.of(treeMaker.Ident(exceptionName)), null);
+        JCBlock catchBody = treeMaker.Block(BLOCK_MODIFIERS, List.of(treeMaker.Throw(unchecked)));
+        JCBlock tryBody = treeMaker.Block(BLOCK_MODIFIERS, tryStatements.toList());
+        thenStatements.append(treeMaker.Try(tryBody, List.of(treeMaker.Catch(exception, catchBody)), null));
+        JCExpression isLazy = treeMaker.Binary(Tag.NE, treeMaker.Ident(lazyName), literalNull());
+        statements.append(treeMaker.If(isLazy, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null));
+    }
+
+    /**
+     * 写出或计算长度前先把还没解码的字段解码: getXxx();
+     * @param statements 方法体stats
+     * @param classWrapper 类包装
+     */
+    private void decodeLazyFields(ListBuffer<JCStatement> statements, JavaClassWrapper classWrapper) {
+        classWrapper.forEach(variableWrapper -> {
+            if (variableWrapper.lazy) {
+                Name getterName = names.fromString("get" + Utils.toUpperCaseFirst(variableWrapper.variable.getName().toString()));
+                statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), treeMaker.Ident(getterName), List.nil())));
+            }
+        });
+    }
+
+    /**
+     * 写延迟解码的字段: [null标记] + 变长长度 + 内容
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param variableWrapper 字段包装
+     * @param nullMarker 是否写null标记
+     */
+    private void writeLazy(GenerationContext context, ListBuffer<JCStatement> statements, VariableWrapper variableWrapper, boolean nullMarker) {
+        JCExpression notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variableWrapper.variable.name), literalNull());
+        writeNullMarker(context, statements, notNull, nullMarker);
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        makeFieldSize(context, thenStatements, variableWrapper);
+        thenStatements.append(writeVarInt(treeMaker.Ident(names.fromString(FIELD_SIZE))));
+        writeVariable(context, thenStatements, variableWrapper.element.asType(), variableWrapper.variable, false);
+        statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null));
+    }
+
+    /**
+     * 读延迟解码的字段: 输入流支持截取时只保存截取的流，否则直接解码
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param variableWrapper 字段包装
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
+     */
+    private void readLazy(GenerationContext context, ListBuffer<JCStatement> statements, VariableWrapper variableWrapper, JCExpression notNull) {
+        notNull = readNullMarker(context, notNull);
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        // int fieldSize = Varint.readLength(inputStream);
+        JCExpression inputStream = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        JCExpression readLength = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".readLength"), List.of(inputStream));
+        thenStatements.append(localVariableDef(names.fromString(FIELD_SIZE), treeMaker.TypeIdent(TypeTag.INT), readLength));
+        readLazyBody(context, thenStatements, variableWrapper, treeMaker.Ident(names.fromString(FIELD_SIZE)));
+        // else { xxx = null; xxx_lazy = null; }
+        ListBuffer<JCStatement> elseStatements = new ListBuffer<>();
+        elseStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(variableWrapper.variable.name), literalNull())));
+        elseStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(lazyName(variableWrapper)), literalNull())));
+        statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), treeMaker.Block(BLOCK_MODIFIERS, elseStatements.toList())));
+    }
+
+    /**
+     * 长度已读，保存截取的流或者直接解码
+     * if (inputStream instanceof SliceInput) { xxx_lazy = ((SliceInput) inputStream).slice(length); xxx = null; }
+     * else { xxx_lazy = null; read xxx }
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param variableWrapper 字段包装
+     * @param length 长度
+     */
+    private void readLazyBody(GenerationContext context, ListBuffer<JCStatement> statements, VariableWrapper variableWrapper, JCExpression length) {
+        Name name = variableWrapper.variable.name;
+        Name lazyName = lazyName(variableWrapper);
+        JCExpression inputStream = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        ListBuffer<JCStatement> sliceStatements = new ListBuffer<>();
+        JCExpression sliceExec = treeMaker.Select(treeMaker.Parens(treeMaker.TypeCast(memberAccess(SLICE_INPUT), inputStream)), names.fromString("slice"));
+        sliceStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(lazyName), treeMaker.Apply(List.nil(), sliceExec, List.of(length)))));
+        sliceStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(name), literalNull())));
+        ListBuffer<JCStatement> readStatements = new ListBuffer<>();
+        readStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(lazyName), literalNull())));
+        readVariable(context, readStatements, variableWrapper.element.asType(), variableWrapper.variable, treeMaker.Literal(true));
+        JCExpression sliceable = treeMaker.TypeTest(treeMaker.Ident(names.fromString(SerializerBound.READ.paramName)), memberAccess(SLICE_INPUT));
+        statements.append(treeMaker.If(sliceable, treeMaker.Block(BLOCK_MODIFIERS, sliceStatements.toList()), treeMaker.Block(BLOCK_MODIFIERS, readStatements.toList())));
+    }
+
+    /**
+     * 计算延迟解码字段的长度: [null标记] + 变长长度 + 内容
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param variableWrapper 字段包装
+     * @param nullMarker 是否有null标记
+     */
+    private void sizeLazy(GenerationContext context, ListBuffer<JCStatement> statements, VariableWrapper variableWrapper, boolean nullMarker) {
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        makeFieldSize(context, thenStatements, variableWrapper);
+        JCExpression fieldSize = treeMaker.Ident(names.fromString(FIELD_SIZE));
+        JCExpression lengthSize = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".sizeOfVarInt"), List.of(fieldSize));
+        addSize(context, thenStatements, treeMaker.Binary(Tag.PLUS, lengthSize, treeMaker.Ident(names.fromString(FIELD_SIZE))));
+        sizeNullable(context, statements, treeMaker.Ident(variableWrapper.variable.name), thenStatements, nullMarker);
+    }
+
+    /**
+     * 保存未解码输入流的字段名
+     * @param variableWrapper 字段包装
+     * @return xxx_lazy
+     */
+    private Name lazyName(VariableWrapper variableWrapper) {
+        return names.fromString(variableWrapper.variable.getName() + LAZY);
+    }
+
+    /**
+     * 生成read write方法
+     * @param methodContext 生成哪种方法(按字段掩码读取、流式读取)
+     * @param classWrapper 类包装
+     * @param bound 序列化方向 read write
+     * @return 方法定义
+     */
+    private JCMethodDecl makeReadWriteMethodDecl(GenerationContext methodContext, JavaClassWrapper classWrapper, SerializerBound bound) {
+        ListBuffer<JCStatement> statements = new ListBuffer<>();
+        // 访问标志
+        JCModifiers modifiers = treeMaker.Modifiers(Flags.PUBLIC);
+        // 方法名
+        Name methodName = names.fromString(bound.serializerExec);
+        // 参数名
+        Name paramName = names.fromString(bound.paramName);
+        // 参数类型
+        JCExpression paramType = memberAccess(bound.getStreamClass());
+        // 方法参数
+        JCVariableDecl param = treeMaker.VarDef(treeMaker.Modifiers(Flags.PARAMETER), paramName, paramType, null);
+        List<JCVariableDecl> params = List.of(param);
+        // 按字段掩码读取: doRead(InputStream inputStream, long fieldMask)
+        if (methodContext.projection) {
+            params = params.append(treeMaker.VarDef(treeMaker.Modifiers(Flags.PARAMETER), names.fromString(FIELD_MASK), treeMaker.TypeIdent(TypeTag.LONG), null));
+        }
+        // 流式读取: doReadStream(InputStream inputStream, ElementConsumer<E> xxxConsumer, ...)
+        if (methodContext.streaming) {
+            methodName = names.fromString(READ_STREAM);
+            for (VariableWrapper variableWrapper : classWrapper.variableList) {
+                if (variableWrapper.streamed) {
+                    params = params.append(makeConsumerParam(variableWrapper));
+                }
+            }
+        }
+        // throws IOException
+        JCExpression thrown = memberAccess(IO_EXCEPTION);
+        // return void
+        JCExpression resType = treeMaker.TypeIdent(TypeTag.VOID);
+        // 看父类是否实现了Serializable接口
+        if (isSerializableAssignableFrom(classWrapper.element.asType())) {
+            // super read write
+            JCExpression args = treeMaker.Ident(names.fromString(bound.paramName));
+            JCExpression superExec = memberAccess(names.fromString("super"), bound.serializerExec);
+            statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), superExec, List.of(args))));
+        }
+        // 字符串表、引用跟踪
+        GenerationContext classContext = methodContext.withStringTable(classWrapper.stringTable).withReferences(classWrapper.references);
+        // 复用模式、对象池
+        GenerationContext context = bound == SerializerBound.READ ? classContext.reading(classWrapper) : classContext;
+        makeStringTable(context, statements);
+        // 可为null的字段合并成一个位图放在最前面
+        if (bound == SerializerBound.WRITE) {
+            decodeLazyFields(statements, classWrapper);
+            writeNullBitmap(statements, classWrapper);
+        } else {
+            readNullBitmap(statements, classWrapper);
+        }
+        // tagged模式
+        if (classWrapper.tagged) {
+            if (bound == SerializerBound.WRITE) {
+                writeTaggedFields(context, statements, classWrapper);
+            } else {
+                readTaggedFields(context, statements, classWrapper);
+            }
+        }
+        // read write 字段
+        classWrapper.forEach(variableWrapper -> {
+            if (classWrapper.tagged) {
+                return;
+            }
+            // map遍历需要Entry,Iterator
+            if (isMap(variableWrapper.element.asType())) {
+                classWrapper.addImport(treeMaker.Import(memberAccess(MAP_ENTRY), false));
+                classWrapper.addImport(treeMaker.Import(memberAccess(ITERATOR), false));
+            }
+            // 已经记在位图里的字段不需要再单独标记null
+            boolean inBitmap = variableWrapper.nullBit >= 0;
+            GenerationContext fieldContext = context.withVariable(variableWrapper);
+            if (bound == SerializerBound.WRITE) {
+                if (variableWrapper.lazy) {
+                    writeLazy(fieldContext, statements, variableWrapper, !inBitmap);
+                } else {
+                    writeVariable(fieldContext, statements, variableWrapper.element.asType(), variableWrapper.variable, !inBitmap);
+                }
+            } else {
+                // 按字段掩码读取，没选中的字段跳过
+                int index = classWrapper.variableList.indexOf(variableWrapper);
+                ListBuffer<JCStatement> readStatements = context.projection && index < Long.SIZE ? new ListBuffer<>() : statements;
+                JCExpression notNull = inBitmap ? testNullBit(variableWrapper.nullBit) : null;
+                if (variableWrapper.lazy) {
+                    readLazy(fieldContext, readStatements, variableWrapper, notNull);
+                } else {
+                    readVariable(fieldContext, readStatements, variableWrapper.element.asType(), variableWrapper.variable, notNull);
+                }
+                if (readStatements != statements) {
+                    ListBuffer<JCStatement> skipStatements = new ListBuffer<>();
+                    skipField(fieldContext, skipStatements, variableWrapper, inBitmap ? testNullBit(variableWrapper.nullBit) : null);
+                    JCBlock readBlock = treeMaker.Block(BLOCK_MODIFIERS, readStatements.toList());
+                    statements.append(treeMaker.If(isFieldSelected(index), readBlock, treeMaker.Block(BLOCK_MODIFIERS, skipStatements.toList())));
+                }
+            }
+        });
+        List<JCStatement> bodyStatements = statements.toList();
+        if (context.references) {
+            JCExpression enter = memberAccess(REFERENCE_TABLE + (bound == SerializerBound.WRITE ? ".enterWrite" : ".enterRead"));
+            bodyStatements = wrapReferences(bodyStatements, treeMaker.Apply(List.nil(), enter, List.of(treeMaker.Ident(paramName), treeMaker.Ident(names._this))));
+        }
+        if (metrics) {
+            bodyStatements = wrapMetrics(bodyStatements, classWrapper, bound);
+        }
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, bodyStatements);
+        // MethodDef(mods, name, restype, typarams, params, thrown, body, defaultValue)
+        return treeMaker.MethodDef(modifiers, methodName, resType, List.nil(), params, List.of(thrown), body, null);
+    }
+
+    /**
+     * 流式读取字段的回调参数: ElementConsumer&lt;E&gt; xxxConsumer 或 EntryConsumer&lt;K, V&gt; xxxConsumer
+     * @param variableWrapper 字段包装
+     * @return 参数定义
+     */
+    private JCVariableDecl makeConsumerParam(VariableWrapper variableWrapper) {
+        Type type = (Type) variableWrapper.element.asType();
+        ListBuffer<JCExpression> typeArgs = new ListBuffer<>();
+        type.getTypeArguments().forEach(t -> typeArgs.append(treeMaker.Type(t)));
+        JCExpression consumerType = treeMaker.TypeApply(memberAccess(isMap(type) ? ENTRY_CONSUMER : ELEMENT_CONSUMER), typeArgs.toList());
+        return treeMaker.VarDef(treeMaker.Modifiers(Flags.PARAMETER), consumerName(variableWrapper.variable.name), consumerType, null);
+    }
+
+    /**
+     * 流式读取字段的回调参数名
+     * @param name 字段名
+     * @return xxxConsumer
+     */
+    private Name consumerName(Name name) {
+        return name.append(names.fromString(CONSUMER));
+    }
+
+    /**
+     * 方法体前后加上统计(类的统计是静态字段XXX_METRICS，非静态内部类每次从SerializerMetrics.of查找)
+     * long metricsPosition = SerializerMetrics.position(outputStream);
+     * long metricsStart = XXX_METRICS.begin();
+     * ...
+     * XXX_METRICS.endWrite(outputStream, metricsPosition, metricsStart);
+     * @param bodyStatements 方法体
+     * @param classWrapper 类包装
+     * @param bound 序列化方向 read write
+     * @return 加上统计的方法体
+     */
+    private List<JCStatement> wrapMetrics(List<JCStatement> bodyStatements, JavaClassWrapper classWrapper, SerializerBound bound) {
+        Name positionName = names.fromString(METRICS_POSITION);
+        Name startName = names.fromString(METRICS_START);
+        JCExpression stream = treeMaker.Ident(names.fromString(bound.paramName));
+        ListBuffer<JCStatement> statements = new ListBuffer<>();
+        Name metricsName = classWrapper.getMetricsName();
+        if (metricsName == null) {
+            // ClassMetrics serializerMetrics = SerializerMetrics.of(Xxx.class);
+            metricsName = names.fromString(METRICS_NAME);
+            statements.append(localVariableDef(metricsName, memberAccess(CLASS_METRICS), metricsOf(classWrapper.element)));
+        }
+        JCExpression position = treeMaker.Apply(List.nil(), memberAccess(SERIALIZER_METRICS + ".position"), List.of(stream));
+        statements.append(localVariableDef(positionName, treeMaker.TypeIdent(TypeTag.LONG), position));
+        JCExpression begin = treeMaker.Apply(List.nil(), memberAccess(metricsName, "begin"), List.nil());
+        statements.append(localVariableDef(startName, treeMaker.TypeIdent(TypeTag.LONG), begin));
+        statements.appendList(bodyStatements);
+        String end = bound == SerializerBound.WRITE ? "endWrite" : "endRead";
+        List<JCExpression> endArgs = List.of(treeMaker.Ident(names.fromString(bound.paramName)), treeMaker.Ident(positionName), treeMaker.Ident(startName));
+        statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(metricsName, end), endArgs)));
+        return statements.toList();
+    }
+
+    /**
+     * 查找类的统计
+     * @param element 类元素
+     * @return SerializerMetrics.of(Xxx.class)
+     */
+    private JCExpression metricsOf(TypeElement element) {
+        JCExpression classLiteral = treeMaker.Select(treeMaker.Type((Type) types.erasure(element.asType())), names._class);
+        return treeMaker.Apply(List.nil(), memberAccess(SERIALIZER_METRICS + ".of"), List.of(classLiteral));
+    }
+
+    /**
+     * 生成增量读写方法: 父类开启了脏标记则先读写父类的增量，然后按64位一组写变长long的变更位图，
+     * 再按声明顺序读写变更了的字段(可为null的带null标记)
+     * @param classWrapper 类包装
+     * @param bound 序列化方向 read write
+     * @return doWriteDelta(OutputStream) 或 doReadDelta(InputStream)
+     */
+    private JCMethodDecl makeDeltaMethodDecl(JavaClassWrapper classWrapper, SerializerBound bound) {
+        ListBuffer<JCStatement> statements = new ListBuffer<>();
+        JCModifiers modifiers = treeMaker.Modifiers(Flags.PUBLIC);
+        String methodName = bound == SerializerBound.WRITE ? WRITE_DELTA : READ_DELTA;
+        Name paramName = names.fromString(bound.paramName);
+        JCVariableDecl param = treeMaker.VarDef(treeMaker.Modifiers(Flags.PARAMETER), paramName, memberAccess(bound.getStreamClass()), null);
+        JCExpression thrown = memberAccess(IO_EXCEPTION);
+        // super.doWriteDelta(outputStream);
+        if (classWrapper.isSuperDirty()) {
+            JCExpression superExec = memberAccess(names.fromString("super"), methodName);
+            statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), superExec, List.of(treeMaker.Ident(paramName)))));
+        }
+        // 变更位图
+        int words = classWrapper.getDirtyBitmapWords();
+        for (int i = 0; i < words; ++i) {
+            if (bound == SerializerBound.WRITE) {
+                // Varint.writeVarLong(outputStream, this.dirtyBitsN);
+                JCExpression dirtyBits = memberAccess(names.fromString("this"), dirtyBitsName(i));
+                statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(VARINT + ".writeVarLong"), List.of(treeMaker.Ident(paramName), dirtyBits))));
+            } else {
+                // long deltaBitsN = Varint.readVarLong(inputStream);
+                JCExpression readBits = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".readVarLong"), List.of(treeMaker.Ident(paramName)));
+                statements.append(localVariableDef(names.fromString(DELTA_BITS + i), treeMaker.TypeIdent(TypeTag.LONG), readBits));
+            }
+        }
+        GenerationContext context = bound == SerializerBound.READ ? GenerationContext.NONE.reading(classWrapper) : GenerationContext.NONE;
+        // if ((bitsN & mask) != 0L) { read write xxx }
+        classWrapper.forEach(variableWrapper -> {
+            int dirtyBit = variableWrapper.dirtyBit;
+            GenerationContext fieldContext = context.withVariable(variableWrapper);
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            JCExpression bits;
+            if (bound == SerializerBound.WRITE) {
+                bits = memberAccess(names.fromString("this"), dirtyBitsName(dirtyBit / Long.SIZE));
+                if (variableWrapper.lazy) {
+                    Name getterName = names.fromString("get" + Utils.toUpperCaseFirst(variableWrapper.variable.getName().toString()));
+                    thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), treeMaker.Ident(getterName), List.nil())));
+                    writeLazy(fieldContext, thenStatements, variableWrapper, true);
+                } else {
+                    writeVariable(fieldContext, thenStatements, variableWrapper.element.asType(), variableWrapper.variable, true);
+                }
+            } else {
+                bits = treeMaker.Ident(names.fromString(DELTA_BITS + dirtyBit / Long.SIZE));
+                if (variableWrapper.lazy) {
+                    readLazy(fieldContext, thenStatements, variableWrapper, null);
+                } else {
+                    readVariable(fieldContext, thenStatements, variableWrapper.element.asType(), variableWrapper.variable, null);
+                }
+            }
+            JCExpression masked = treeMaker.Parens(treeMaker.Binary(Tag.BITAND, bits, nullBitMask(dirtyBit)));
+            JCExpression changed = treeMaker.Binary(Tag.NE, masked, treeMaker.Literal(0L));
+            statements.append(treeMaker.If(changed, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null));
+        });
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, statements.toList());
+        return treeMaker.MethodDef(modifiers, names.fromString(methodName), treeMaker.TypeIdent(TypeTag.VOID), List.nil(), List.of(param), List.of(thrown), body, null);
+    }
+
+    /**
+     * 生成清除脏标记方法(增量发送完之后调用)
+     * public void clearDirty() { super.clearDirty(); this.dirtyBitsN = 0L; }
+     * @param classWrapper 类包装
+     * @return 方法定义
+     */
+    private JCMethodDecl makeClearDirtyMethodDecl(JavaClassWrapper classWrapper) {
+        ListBuffer<JCStatement> statements = new ListBuffer<>();
+        if (classWrapper.isSuperDirty()) {
+            statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(names.fromString("super"), CLEAR_DIRTY), List.nil())));
+        }
+        for (int i = 0; i < classWrapper.getDirtyBitmapWords(); ++i) {
+            JCExpression dirtyBits = memberAccess(names.fromString("this"), dirtyBitsName(i));
+            statements.append(treeMaker.Exec(treeMaker.Assign(dirtyBits, treeMaker.Literal(0L))));
+        }
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, statements.toList());
+        return treeMaker.MethodDef(treeMaker.Modifiers(Flags.PUBLIC), names.fromString(CLEAR_DIRTY), treeMaker.TypeIdent(TypeTag.VOID), List.nil(), List.nil(), List.nil(), body, null);
+    }
+
+    /**
+     * 生成是否有脏标记方法(没有变更时可以不发送增量)
+     * public boolean isDirty() { return super.isDirty() || this.dirtyBitsN != 0L; }
+     * @param classWrapper 类包装
+     * @return 方法定义
+     */
+    private JCMethodDecl makeIsDirtyMethodDecl(JavaClassWrapper classWrapper) {
+        JCExpression dirty = classWrapper.isSuperDirty()
+                ? treeMaker.Apply(List.nil(), memberAccess(names.fromString("super"), IS_DIRTY), List.nil())
+                : treeMaker.Literal(false);
+        for (int i = 0; i < classWrapper.getDirtyBitmapWords(); ++i) {
+            JCExpression notZero = treeMaker.Binary(Tag.NE, memberAccess(names.fromString("this"), dirtyBitsName(i)), treeMaker.Literal(0L));
+            dirty = i == 0 && !classWrapper.isSuperDirty() ? notZero : treeMaker.Binary(Tag.OR, dirty, notZero);
+        }
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, List.of(treeMaker.Return(dirty)));
+        return treeMaker.MethodDef(treeMaker.Modifiers(Flags.PUBLIC), names.fromString(IS_DIRTY), treeMaker.TypeIdent(TypeTag.BOOLEAN), List.nil(), List.nil(), List.nil(), body, null);
+    }
+
+    /**
+     * 脏标记位图字段名
+     * @param word 第几组
+     * @return dirtyBitsN
+     */
+    private Name dirtyBitsName(int word) {
+        return names.fromString(DIRTY_BITS + word);
+    }
+
+    /**
+     * 生成可恢复读取方法: 按字段顺序分步读取，每步读完提交，数据不够时回退到上一个提交点并记下当前步骤
+     * public boolean doReadResumable(ResumableInput inputStream) throws IOException {
+     *     int resumeStep = this.resumeState;
+     *     long nullBitsN = this.resumeNullBitsN;
+     *     try {
+     *         if (resumeStep == 0) { if (!super.doReadResumable(inputStream)) { return false; } resumeStep = 1; }
+     *         if (resumeStep == 1) { nullBitsN = Varint.readVarLong(inputStream); this.resumeNullBitsN = nullBitsN; inputStream.commit(); resumeStep = 2; }
+     *         if (resumeStep == 2) { read xxx; inputStream.commit(); resumeStep = 3; }
+     *         ...
+     *         this.resumeState = 0;
+     *         return true;
+     *     } catch (NeedMoreDataException needMoreData) {
+     *         inputStream.rollback();
+     *         this.resumeState = resumeStep;
+     *         return false;
+     *     }
+     * }
+     * @param classWrapper 类包装
+     * @return 方法定义
+     */
+    private JCMethodDecl makeResumableReadMethodDecl(JavaClassWrapper classWrapper) {
+        Name paramName = names.fromString(SerializerBound.READ.paramName);
+        Name stepName = names.fromString(RESUME_STEP);
+        Name thisName = names.fromString("this");
+        JCVariableDecl param = treeMaker.VarDef(treeMaker.Modifiers(Flags.PARAMETER), paramName, memberAccess(RESUMABLE_INPUT), null);
+        ListBuffer<JCStatement> statements = new ListBuffer<>();
+        statements.append(localVariableDef(stepName, treeMaker.TypeIdent(TypeTag.INT), memberAccess(thisName, RESUME_STATE)));
+        int words = classWrapper.getNullBitmapWords();
+        for (int i = 0; i < words; ++i) {
+            statements.append(localVariableDef(nullBitsName(i), treeMaker.TypeIdent(TypeTag.LONG), memberAccess(thisName, RESUME_NULL_BITS + i)));
+        }
+        ListBuffer<JCStatement> tryStatements = new ListBuffer<>();
+        int step = 0;
+        // 父类: if (!super.doReadResumable(inputStream)) { return false; }
+        if (isSerializableAssignableFrom(classWrapper.element.asType())) {
+            JCExpression superExec = treeMaker.Apply(List.nil(), memberAccess(names.fromString("super"), READ_RESUMABLE), List.of(treeMaker.Ident(paramName)));
+            JCStatement superStatement = treeMaker.If(treeMaker.Unary(Tag.NOT, superExec), treeMaker.Return(treeMaker.Literal(false)), null);
+            tryStatements.append(resumeStep(step, List.of(superStatement, setResumeStep(step + 1))));
+            ++step;
+        }
+        // null位图
+        if (words > 0) {
+            ListBuffer<JCStatement> bitmapStatements = new ListBuffer<>();
+            for (int i = 0; i < words; ++i) {
+                JCExpression readBits = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".readVarLong"), List.of(treeMaker.Ident(paramName)));
+                bitmapStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(nullBitsName(i)), readBits)));
+            }
+            for (int i = 0; i < words; ++i) {
+                bitmapStatements.append(treeMaker.Exec(treeMaker.Assign(memberAccess(thisName, RESUME_NULL_BITS + i), treeMaker.Ident(nullBitsName(i)))));
+            }
+            bitmapStatements.appendList(commitStep(step + 1));
+            tryStatements.append(resumeStep(step, bitmapStatements.toList()));
+            ++step;
+        }
+        // 字段
+        GenerationContext context = GenerationContext.NONE.reading(classWrapper);
+        for (VariableWrapper variableWrapper : classWrapper.variableList) {
+            TypeMirror type = variableWrapper.element.asType();
+            JCExpression notNull = variableWrapper.nullBit >= 0 ? testNullBit(variableWrapper.nullBit) : null;
+            GenerationContext fieldContext = context.withVariable(variableWrapper);
+            // 顶层的集合、Map按元素提交
+            boolean elementWise = isCollection(type) || isIterable(type) || isMap(type);
+            if (elementWise && !variableWrapper.lazy && !variableWrapper.packed && !isPrimitiveList(type) && !isEnumSet(type)) {
+                readResumableCollection(fieldContext, tryStatements, type, variableWrapper.variable, notNull, step);
+                step += 2;
+                continue;
+            }
+            ListBuffer<JCStatement> fieldStatements = new ListBuffer<>();
+            if (variableWrapper.lazy) {
+                readLazy(fieldContext, fieldStatements, variableWrapper, notNull);
+            } else {
+                readVariable(fieldContext, fieldStatements, type, variableWrapper.variable, notNull);
+            }
+            fieldStatements.appendList(commitStep(step + 1));
+            tryStatements.append(resumeStep(step, fieldStatements.toList()));
+            ++step;
+        }
+        // 读完了: this.resumeState = 0; return true;
+        tryStatements.append(treeMaker.Exec(treeMaker.Assign(memberAccess(thisName, RESUME_STATE), treeMaker.Literal(0))));
+        tryStatements.append(treeMaker.Return(treeMaker.Literal(true)));
+        // catch (NeedMoreDataException needMoreData) { inputStream.rollback(); this.resumeState = resumeStep; return false; }
+        JCVariableDecl exception = treeMaker.VarDef(treeMaker.Modifiers(Flags.PARAMETER), names.fromString("needMoreData"), memberAccess(NEED_MORE_DATA), null);
+        ListBuffer<JCStatement> catchStatements = new ListBuffer<>();
+        catchStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(paramName, "rollback"), List.nil())));
+        catchStatements.append(treeMaker.Exec(treeMaker.Assign(memberAccess(thisName, RESUME_STATE), treeMaker.Ident(stepName))));
+        catchStatements.append(treeMaker.Return(treeMaker.Literal(false)));
+        JCBlock tryBody = treeMaker.Block(BLOCK_MODIFIERS, tryStatements.toList());
+        JCBlock catchBody = treeMaker.Block(BLOCK_MODIFIERS, catchStatements.toList());
+        statements.append(treeMaker.Try(tryBody, List.of(treeMaker.Catch(exception, catchBody)), null));
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, statements.toList());
+        JCModifiers modifiers = treeMaker.Modifiers(Flags.PUBLIC);
+        return treeMaker.MethodDef(modifiers, names.fromString(READ_RESUMABLE), treeMaker.TypeIdent(TypeTag.BOOLEAN), List.nil(), List.of(param), List.of(memberAccess(IO_EXCEPTION)), body, null);
+    }
+
+    /**
+     * 可恢复读取顶层的集合、Map，占两步: 先读null标记、长度并创建集合，再逐个元素读取并提交
+     * if (resumeStep == n) {
+     *     if (notNull) { int xxxLen = readLength; xxx = new ArrayList&lt;&gt;(xxxLen); this.resumeRemaining = xxxLen; inputStream.commit(); resumeStep = n + 1; }
+     *     else { inputStream.commit(); resumeStep = n + 2; }
+     * }
+     * if (resumeStep == n + 1) {
+     *     while (this.resumeRemaining &gt; 0) { read xxxElement; xxx.add(xxxElement); --this.resumeRemaining; inputStream.commit(); }
+     *     resumeStep = n + 2;
+     * }
+     * 分块编码的元素循环在剩余个数为0时读下一块的长度，读到0结束
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
+     * @param step 第一步的编号
+     */
+    private void readResumableCollection(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable, JCExpression notNull, int step) {
+        Name paramName = names.fromString(SerializerBound.READ.paramName);
+        Name thisName = names.fromString("this");
+        Type collectionType = (Type) type;
+        List<Type> typeArgs = collectionType.getTypeArguments();
+        boolean chunked = getChunkSize(context, variable) > 0;
+        Name lenName = variable.name.append(names.fromString("Len"));
+        // 第一步: null标记、长度、创建集合
+        ListBuffer<JCStatement> headStatements = new ListBuffer<>();
+        if (!chunked) {
+            JCVariableDecl length = localVariableDef(lenName, treeMaker.TypeIdent(TypeTag.INT), null);
+            readLength(context, headStatements.append(length), treeMaker.Ident(lenName));
+        }
+        ListBuffer<JCExpression> typeArgExprs = new ListBuffer<>();
+        typeArgs.forEach(t -> typeArgExprs.append(treeMaker.Type(t)));
+        String defaultImpl = isMap(type) ? MAP_IMPL : (isSet(collectionType) ? SET_IMPL : (isQueue(collectionType) ? QUEUE_IMPL : LIST_IMPL));
+        JCNewClass newCollection = newCollection(collectionType, getImplType(context, variable), defaultImpl, typeArgExprs.toList(), chunked ? null : lenName);
+        headStatements.append(isIterable(type) ? treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(variable.name), newCollection)) : assignOrClear(context, variable.name, newCollection));
+        JCExpression remaining = chunked ? treeMaker.Literal(0) : treeMaker.Ident(lenName);
+        headStatements.append(treeMaker.Exec(treeMaker.Assign(memberAccess(thisName, RESUME_REMAINING), remaining)));
+        headStatements.appendList(commitStep(step + 1));
+        JCBlock thenBlock = treeMaker.Block(BLOCK_MODIFIERS, headStatements.toList());
+        JCBlock elseBlock = treeMaker.Block(BLOCK_MODIFIERS, commitStep(step + 2));
+        statements.append(resumeStep(step, List.of(treeMaker.If(readNullMarker(context, notNull), thenBlock, elseBlock))));
+        // 第二步: 逐个元素读取，每个元素读完提交
+        ListBuffer<JCStatement> elementStatements = new ListBuffer<>();
+        if (isMap(type)) {
+            ListBuffer<JCExpression> putArgs = new ListBuffer<>();
+            readMapArgs(context, variable.name.append(names.fromString("Key")), elementStatements, putArgs, typeArgs.head);
+            readMapArgs(context, variable.name.append(names.fromString("Value")), elementStatements, putArgs, typeArgs.last());
+            elementStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(variable.name, "put"), putArgs.toList())));
+        } else {
+            Type elementType = typeArgs.head;
+            Name elementName = variable.name.append(names.fromString(ELEMENT));
+            JCVariableDecl element = localVariableDef(elementName, treeMaker.Type(elementType), literalNull());
+            readVariable(context, elementStatements.append(element), elementType, element, null);
+            // Iterable字段读的时候是ArrayList: ((ArrayList<E>) xxx).add(xxxElement)
+            JCExpression target = treeMaker.Ident(variable.name);
+            if (isIterable(type)) {
+                JCExpression listType = treeMaker.TypeApply(memberAccess(LIST_IMPL), List.of(treeMaker.Type(elementType)));
+                target = treeMaker.Parens(treeMaker.TypeCast(listType, target));
+            }
+            JCExpression addExec = treeMaker.Select(target, names.fromString("add"));
+            elementStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), addExec, List.of(treeMaker.Ident(elementName)))));
+        }
+        elementStatements.append(treeMaker.Exec(treeMaker.Unary(Tag.PREDEC, memberAccess(thisName, RESUME_REMAINING))));
+        elementStatements.append(commit());
+        ListBuffer<JCStatement> loopStatements = new ListBuffer<>();
+        JCStatement loop;
+        if (chunked) {
+            // if (this.resumeRemaining == 0) { int xxxLen = Chunks.readLength(inputStream); if (xxxLen == 0) { break; } this.resumeRemaining = xxxLen; inputStream.commit(); }
+            ListBuffer<JCStatement> chunkStatements = new ListBuffer<>();
+            JCExpression readChunk = treeMaker.Apply(List.nil(), memberAccess(CHUNKS + ".readLength"), List.of(treeMaker.Ident(paramName)));
+            chunkStatements.append(localVariableDef(lenName, treeMaker.TypeIdent(TypeTag.INT), readChunk));
+            JCExpression end = treeMaker.Binary(Tag.EQ, treeMaker.Ident(lenName), treeMaker.Literal(0));
+            chunkStatements.append(treeMaker.If(end, treeMaker.Block(BLOCK_MODIFIERS, List.of(treeMaker.Break(null))), null));
+            chunkStatements.append(treeMaker.Exec(treeMaker.Assign(memberAccess(thisName, RESUME_REMAINING), treeMaker.Ident(lenName))));
+            chunkStatements.append(commit());
+            JCExpression chunkDone = treeMaker.Binary(Tag.EQ, memberAccess(thisName, RESUME_REMAINING), treeMaker.Literal(0));
+            elementStatements.prepend(treeMaker.If(chunkDone, treeMaker.Block(BLOCK_MODIFIERS, chunkStatements.toList()), null));
+            loop = treeMaker.WhileLoop(treeMaker.Literal(true), treeMaker.Block(BLOCK_MODIFIERS, elementStatements.toList()));
+            // 结束标记读完也要提交
+            loopStatements.append(loop);
+            loopStatements.appendList(commitStep(step + 2));
+        } else {
+            JCExpression hasRemaining = treeMaker.Binary(Tag.GT, memberAccess(thisName, RESUME_REMAINING), treeMaker.Literal(0));
+            loop = treeMaker.WhileLoop(hasRemaining, treeMaker.Block(BLOCK_MODIFIERS, elementStatements.toList()));
+            loopStatements.append(loop);
+            loopStatements.append(setResumeStep(step + 2));
+        }
+        statements.append(resumeStep(step + 1, loopStatements.toList()));
+    }
+
+    /**
+     * 一个读取步骤: if (resumeStep == step) {...}
+     * @param step 步骤编号
+     * @param stepStatements 步骤内容
+     * @return if语句
+     */
+    private JCStatement resumeStep(int step, List<JCStatement> stepStatements) {
+        JCExpression isStep = treeMaker.Binary(Tag.EQ, treeMaker.Ident(names.fromString(RESUME_STEP)), treeMaker.Literal(step));
+        return treeMaker.If(isStep, treeMaker.Block(BLOCK_MODIFIERS, stepStatements), null);
+    }
+
+    /**
+     * 提交并进入下一步: inputStream.commit(); resumeStep = next;
+     * @param next 下一步的编号
+     * @return stats
+     */
+    private List<JCStatement> commitStep(int next) {
+        return List.of(commit(), setResumeStep(next));
+    }
+
+    /**
+     * 提交已经读了的数据: inputStream.commit();
+     * @return 语句
+     */
+    private JCStatement commit() {
+        Name paramName = names.fromString(SerializerBound.READ.paramName);
+        return treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(paramName, "commit"), List.nil()));
+    }
+
+    /**
+     * 进入下一步: resumeStep = next;
+     * @param next 下一步的编号
+     * @return 语句
+     */
+    private JCStatement setResumeStep(int next) {
+        return treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(names.fromString(RESUME_STEP)), treeMaker.Literal(next)));
+    }
+
+    /**
+     * 生成包装成基础流再读写的方法
+     * public void doWrite(ByteBuffer byteBuffer) throws IOException { doWrite(new ByteBufferOutputStream(byteBuffer)); }
+     * @param bound 序列化方向 READ_BUFFER WRITE_BUFFER
+     * @return 方法定义
+     */
+    private JCMethodDecl makeAdapterMethodDecl(SerializerBound bound) {
+        Name paramName = names.fromString(bound.paramName);
+        JCVariableDecl param = treeMaker.VarDef(treeMaker.Modifiers(Flags.PARAMETER), paramName, memberAccess(bound.getStreamClass()), null);
+        JCExpression adapter = treeMaker.NewClass(null, List.nil(), memberAccess(bound.getAdapterClass()), List.of(treeMaker.Ident(paramName)), null);
+        JCExpression serializerExec = treeMaker.Apply(List.nil(), treeMaker.Ident(names.fromString(bound.serializerExec)), List.of(adapter));
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, List.of(treeMaker.Exec(serializerExec)));
+        JCExpression thrown = memberAccess(IO_EXCEPTION);
+        return treeMaker.MethodDef(treeMaker.Modifiers(Flags.PUBLIC), names.fromString(bound.serializerExec), treeMaker.TypeIdent(TypeTag.VOID), List.nil(), List.of(param), List.of(thrown), body, null);
+    }
+
+    /**
+     * 写null位图(每个可为null的字段占一位，非null置1，按64位一组写变长long)
+     * @param statements 方法体stats
+     * @param classWrapper 类包装
+     */
+    private void writeNullBitmap(ListBuffer<JCStatement> statements, JavaClassWrapper classWrapper) {
+        int words = makeNullBitmap(statements, classWrapper);
+        // Varint.writeVarLong(outputStream, nullBitsN);
+        for (int i = 0; i < words; ++i) {
+            JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+            JCExpression writeExec = memberAccess(VARINT + ".writeVarLong");
+            statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), writeExec, List.of(args, treeMaker.Ident(nullBitsName(i))))));
+        }
+    }
+
+    /**
+     * 根据字段是否为null生成位图局部变量
+     * @param statements 方法体stats
+     * @param classWrapper 类包装
+     * @return 位图long个数
+     */
+    private int makeNullBitmap(ListBuffer<JCStatement> statements, JavaClassWrapper classWrapper) {
+        int words = classWrapper.getNullBitmapWords();
+        // long nullBitsN = 0L;
+        for (int i = 0; i < words; ++i) {
+            statements.append(localVariableDef(nullBitsName(i), treeMaker.TypeIdent(TypeTag.LONG), treeMaker.Literal(0L)));
+        }
+        // if (xxx != null) nullBitsN |= mask;
+        classWrapper.forEach(variableWrapper -> {
+            int nullBit = variableWrapper.nullBit;
+            if (nullBit < 0) {
+                return;
+            }
+            JCBinary notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variableWrapper.variable.name), literalNull());
+            JCExpression mark = treeMaker.Assignop(Tag.BITOR_ASG, treeMaker.Ident(nullBitsName(nullBit / Long.SIZE)), nullBitMask(nullBit));
+            statements.append(treeMaker.If(notNull, treeMaker.Exec(mark), null));
+        });
+        return words;
+    }
+
+    /**
+     * 读null位图
+     * @param statements 方法体stats
+     * @param classWrapper 类包装
+     */
+    private void readNullBitmap(ListBuffer<JCStatement> statements, JavaClassWrapper classWrapper) {
+        int words = classWrapper.getNullBitmapWords();
+        // long nullBitsN = Varint.readVarLong(inputStream);
+        for (int i = 0; i < words; ++i) {
+            JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+            JCExpression readExec = memberAccess(VARINT + ".readVarLong");
+            JCMethodInvocation readBits = treeMaker.Apply(List.nil(), readExec, List.of(args));
+            statements.append(localVariableDef(nullBitsName(i), treeMaker.TypeIdent(TypeTag.LONG), readBits));
+        }
+    }
+
+    /**
+     * 检查位图中字段是否非null
+     * @param nullBit 字段在位图中的位置
+     * @return (nullBitsN & mask) != 0L
+     */
+    private JCExpression testNullBit(int nullBit) {
+        JCExpression bits = treeMaker.Ident(nullBitsName(nullBit / Long.SIZE));
+        JCExpression masked = treeMaker.Parens(treeMaker.Binary(Tag.BITAND, bits, nullBitMask(nullBit)));
+        return treeMaker.Binary(Tag.NE, masked, treeMaker.Literal(0L));
+    }
+
+    /**
+     * 位图掩码
+     * @param nullBit 字段在位图中的位置
+     * @return 掩码常量
+     */
+    private JCLiteral nullBitMask(int nullBit) {
+        return treeMaker.Literal(1L << (nullBit % Long.SIZE));
+    }
+
+    /**
+     * 位图局部变量名
+     * @param word 第几组
+     * @return nullBitsN
+     */
+    private Name nullBitsName(int word) {
+        return names.fromString(NULL_BITS + word);
+    }
+
+    /**
+     * 写一个变量(递归一直到基础类型，或者自定义序列化对象)
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param nullMarker 可为null的类型是否写null标记
+     */
+    private void writeVariable(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable, boolean nullMarker) {
+        // 数组
+        if (isArray(type)) {
+            writeArray(context, statements, (ArrayType) type, variable, nullMarker);
+            return;
+        }
+        // 基础类型列表
+        if (isPrimitiveList(type)) {
+            writePrimitiveList(context, statements, type, variable, nullMarker);
+            return;
+        }
+        // EnumSet(位图)
+        if (isEnumSet(type)) {
+            writeEnum(context, statements, variable, ENUMS + ".writeEnumSet", nullMarker);
+            return;
+        }
+        // Collection(分块编码的字段也可以是Iterable)
+        if (isCollection(type) || isIterable(type)) {
+            writeCollection(context, statements, type, variable, nullMarker);
+            return;
+        }
+        // Map
+        if (isMap(type)) {
+            writeMap(context, statements, type, variable, nullMarker);
+            return;
+        }
+        // 基础类型
+        if (isPrimitiveType(type)) {
+            writePrimitive(context, statements, type, variable, nullMarker);
+            return;
+        }
+        // 枚举(ordinal)
+        if (isEnum(type)) {
+            writeEnum(context, statements, variable, null, nullMarker);
+            return;
+        }
+        // 多态对象
+        List<TypeElement> subTypes = getPolymorphicTypes(type);
+        if (subTypes != null) {
+            writePolymorphic(context, statements, subTypes, treeMaker.Ident(variable.getName()));
+            return;
+        }
+        // 自定义序列化对象
+        if (isSerializable(type)) {
+            writeSerializable(context, statements, treeMaker.Ident(variable.getName()), nullMarker);
+            return;
+        }
+        // 其他类型
+        writeObject(statements, treeMaker.Ident(variable.getName()));
+    }
+
+    /**
+     * 写枚举或EnumSet
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param variable 变量
+     * @param access EnumSet的写方法(枚举为null，写ordinal)
+     * @param nullMarker 是否写null标记
+     */
+    private void writeEnum(GenerationContext context, ListBuffer<JCStatement> statements, JCVariableDecl variable, String access, boolean nullMarker) {
+        JCBinary notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variable.name), literalNull());
+        writeNullMarker(context, statements, notNull, nullMarker);
+        JCStatement writeStatement;
+        if (access == null) {
+            // Varint.writeVarInt(outputStream, xxx.ordinal());
+            JCExpression ordinal = treeMaker.Apply(List.nil(), memberAccess(variable.name, "ordinal"), List.nil());
+            writeStatement = writeVarInt(ordinal);
+        } else {
+            // Enums.writeEnumSet(outputStream, xxx);
+            JCExpression outputStream = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+            writeStatement = treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(access), List.of(outputStream, treeMaker.Ident(variable.name))));
+        }
+        statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, List.of(writeStatement)), null));
+    }
+
+    /**
+     * 写基础类型
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param nullMarker 包装类型是否写null标记
+     */
+    private void writePrimitive(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable, boolean nullMarker) {
+        // 包装类型得先写个null
+        if (isWrapper(type)) {
+            JCBinary notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variable.name), literalNull());
+            // 先写一个布尔值标记集合是否为null
+            writeNullMarker(context, statements, notNull, nullMarker);
+            // 如果不为null则写值
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            writePrimitive(context, thenStatements, getPrimitiveClass(type), treeMaker.Ident(variable.getName()));
+            JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
+            statements.append(treeMaker.If(notNull, body, null));
+        } else {
+            writePrimitive(context, statements, getPrimitiveClass(type), treeMaker.Ident(variable.getName()));
+        }
+    }
+
+    /**
+     * 写基础类型
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     */
+    private void writePrimitive(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCExpression variable) {
+        // 包装类型得先写个null
+        if (isWrapper(type)) {
+            JCBinary notNull = treeMaker.Binary(Tag.NE, variable, literalNull());
+            // 先写一个布尔值标记集合是否为null
+            writePrimitive(context, statements, boolean.class, notNull);
+            // 如果不为null则写值
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            writePrimitive(context, thenStatements, getPrimitiveClass(type), variable);
+            JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
+            statements.append(treeMaker.If(notNull, body, null));
+        } else {
+            writePrimitive(context, statements, getPrimitiveClass(type), variable);
+        }
+    }
+
+    /**
+     * 写一个基础类型
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param primitiveClass 基础类型类
+     * @param variable 变量
+     */
+    private void writePrimitive(GenerationContext context, ListBuffer<JCStatement> statements, Class<?> primitiveClass, JCExpression variable) {
+        // 变长编码
+        String varintAccess = Utils.getVarintAccess("write", primitiveClass, context.encoding);
+        if (varintAccess != null) {
+            JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+            statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(VARINT + "." + varintAccess), List.of(args, variable))));
+            return;
+        }
+        // 字符串: stringTable.write(outputStream, xxx) 或 Strings.writeString(outputStream, xxx)
+        if (primitiveClass == String.class) {
+            JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+            JCExpression writeExec = isStringTable(context) ? memberAccess(names.fromString(STRING_TABLE_NAME), "write") : memberAccess(STRINGS + ".writeString");
+            statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), writeExec, List.of(args, variable))));
+            return;
+        }
+        String writeAccess = "write" + Utils.toUpperCaseFirst(primitiveClass.getSimpleName());
+        JCExpression writeExec = memberAccess(names.fromString(SerializerBound.WRITE.paramName), writeAccess);
+        statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), writeExec, List.of(variable))));
+    }
+
+    /**
+     * 当前字段是否使用字符串表(延迟解码的字段之后单独解码，不能引用消息里的字符串表)
+     * @param context 生成上下文
+     * @return 使用 true
+     */
+    private boolean isStringTable(GenerationContext context) {
+        return context.stringTable && (context.variable == null || !context.variable.lazy);
+    }
+
+    /**
+     * 声明字符串表局部变量: StringTable stringTable = new StringTable();
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     */
+    private void makeStringTable(GenerationContext context, ListBuffer<JCStatement> statements) {
+        if (context.stringTable) {
+            JCExpression newTable = treeMaker.NewClass(null, List.nil(), memberAccess(STRING_TABLE), List.nil(), null);
+            statements.append(localVariableDef(names.fromString(STRING_TABLE_NAME), memberAccess(STRING_TABLE), newTable));
+        }
+    }
+
+    /**
+     * 写长度(数组、集合、Map)，非定长编码时写变长int
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param length 长度
+     */
+    private void writeLength(GenerationContext context, ListBuffer<JCStatement> statements, JCExpression length) {
+        // 长度不会是负数
+        GenerationContext lengthContext = context.encoding == Encoding.ZIGZAG ? context.withEncoding(Encoding.VARINT) : context;
+        writePrimitive(lengthContext, statements, int.class, length);
+    }
+
+    /**
+     * 写一个数组
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param nullMarker 是否写null标记
+     */
+    private void writeArray(GenerationContext context, ListBuffer<JCStatement> statements, ArrayType type, JCVariableDecl variable, boolean nullMarker) {
+        JCBinary notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variable.name), literalNull());
+        // 先写一个布尔值标记集合是否为null
+        writeNullMarker(context, statements, notNull, nullMarker);
+        // 如果不为null则展开数组
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+
+        // 先写一个长度
+        JCExpression jcFieldAccess = memberAccess(variable.getName(), "length");
+        writeLength(context, thenStatements, jcFieldAccess);
+        // 基础类型数组整块写
+        String bulkAccess = getBulkArrayAccess(context, SerializerBound.WRITE, type.elemtype);
+        if (bulkAccess != null) {
+            JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+            JCExpression writeExec = memberAccess(ARRAY_CODEC + "." + bulkAccess);
+            thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), writeExec, List.of(args, treeMaker.Ident(variable.name)))));
+            statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null));
+            return;
+        }
+        // 然后for循环
+        ListBuffer<JCStatement> forStatements = new ListBuffer<>();
+        // 索引 name_i
+        Name stepName = variable.getName().append(names.fromString("_i"));
+        // int name_i = 0;
+        List<JCStatement> init = List.of(localVariableDef(stepName, treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0)));
+        // name_i < name.length
+        JCBinary cond = treeMaker.Binary(Tag.LT, treeMaker.Ident(stepName), jcFieldAccess);
+        // name_i++
+        List<JCExpressionStatement> step = List.of(autoIncrement(stepName));
+        // for循环内部
+        Name elementName = variable.getName().append(names.fromString(ELEMENT));
+        // 数组子元素类型
+        Type elementType = type.elemtype;
+        // 访问数组元素
+        JCArrayAccess element = treeMaker.Indexed(treeMaker.Ident(variable.getName()), treeMaker.Ident(stepName));
+        // 多维数组递归
+        if (isArray(elementType)) {
+            // 创建一个局部变量接一下
+            JCVariableDecl elementVariable = localVariableDef(elementName, treeMaker.Type(elementType), element);
+            writeArray(context, forStatements.append(elementVariable), (ArrayType) elementType, elementVariable, true);
+            thenStatements.append(treeMaker.ForLoop(init, cond, step, treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
+            JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
+            statements.append(treeMaker.If(notNull, body, null));
+            return;
+        }
+        // 基础类型或自定义序列化对象直接写，其他类型创建一个局部变量
+        if (isPrimitiveType(elementType)) {
+            writePrimitive(context, forStatements, elementType, element);
+        } else if (isDirectSerializable(elementType)) {
+            writeSerializable(context, forStatements, element, true);
+        } else {
+            // 创建一个局部变量接一下
+            JCVariableDecl elementVariable = localVariableDef(elementName, treeMaker.Type(elementType), element);
+            writeVariable(context, forStatements.append(elementVariable), elementType, elementVariable, true);
+        }
+
+        thenStatements.append(treeMaker.ForLoop(init, cond, step, treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
+        statements.append(treeMaker.If(notNull, body, null));
+    }
+
+    /**
+     * 写一个Collection
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param nullMarker 是否写null标记
+     */
+    private void writeCollection(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable, boolean nullMarker) {
+        JCBinary notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variable.name), literalNull());
+        // 先写一个布尔值标记集合是否为null
+        writeNullMarker(context, statements, notNull, nullMarker);
+        // 如果不为null则展开List
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        ListBuffer<JCStatement> forStatements = new ListBuffer<>();
+        // 写长度(分块编码每块单独写)
+        int chunkSize = getChunkSize(context, variable);
+        if (chunkSize == 0) {
+            JCExpressionStatement sizeExec = treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(variable.name, "size"), List.nil()));
+            writeLength(context, thenStatements, sizeExec.getExpression());
+        }
+        // for展开
+        Type elementType = ((Type) type).getTypeArguments().head;
+        // 紧凑格式: PackedCodec.writeInts(outputStream, name, nullable);
+        if (isPacked(context, variable)) {
+            String packedAccess = "write" + Utils.toUpperCaseFirst(getPrimitiveClass(elementType).getSimpleName()) + "s";
+            JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+            List<JCExpression> packedArgs = List.of(args, treeMaker.Ident(variable.name), treeMaker.Literal(!context.variable.nonNull));
+            thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(PACKED_CODEC + "." + packedAccess), packedArgs)));
+            statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null));
+            return;
+        }
+        JCVariableDecl element = localVariableDef(variable.name.append(names.fromString(ELEMENT)), treeMaker.Type(elementType), literalNull());
+        // write Value
+        writeVariable(context, forStatements, elementType, element, true);
+        if (chunkSize > 0) {
+            writeChunks(thenStatements, variable.name, treeMaker.Ident(variable.name), elementType, element, forStatements.toList(), chunkSize);
+        } else {
+            thenStatements.append(treeMaker.ForeachLoop(element, treeMaker.Ident(variable.name), treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
+        }
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
+        statements.append(treeMaker.If(notNull, body, null));
+    }
+
+    /**
+     * 写一个基础类型列表(整块写，不装箱)
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param nullMarker 是否写null标记
+     */
+    private void writePrimitiveList(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable, boolean nullMarker) {
+        JCBinary notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variable.name), literalNull());
+        writeNullMarker(context, statements, notNull, nullMarker);
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        // 写长度
+        writeLength(context, thenStatements, treeMaker.Apply(List.nil(), memberAccess(variable.name, "size"), List.nil()));
+        // PackedCodec.writeIntList(outputStream, name);
+        String access = "write" + Utils.toUpperCaseFirst(getPrimitiveListClass(type).getSimpleName()) + "List";
+        JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+        thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(PACKED_CODEC + "." + access), List.of(args, treeMaker.Ident(variable.name)))));
+        statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null));
+    }
+
+    /**
+     * 写一个map
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param nullMarker 是否写null标记
+     */
+    private void writeMap(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable, boolean nullMarker) {
+        JCBinary notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variable.name), literalNull());
+        // 先写一个布尔值标记集合是否为null
+        writeNullMarker(context, statements, notNull, nullMarker);
+        // 如果不为null则展开List
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        ListBuffer<JCStatement> forStatements = new ListBuffer<>();
+        // 写长度(分块编码每块单独写)
+        int chunkSize = getChunkSize(context, variable);
+        if (chunkSize == 0) {
+            JCExpressionStatement sizeExec = treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(variable.name, "size"), List.nil()));
+            writeLength(context, thenStatements, sizeExec.getExpression());
+        }
+        // 取泛型
+        Type keyType = ((Type) type).getTypeArguments().head;
+        Type valueType = ((Type) type).getTypeArguments().last();
+        // Entry
+        JCVariableDecl entryElement = localVariableDef(variable.name.append(names.fromString(ELEMENT)), memberAccess(MAP_ENTRY), null);
+        JCExpressionStatement entrySetExec = treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(variable.name, "entrySet"), List.nil()));
+
+        // write Key
+        JCExpressionStatement keyExec = treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(entryElement.name, "getKey"), List.nil()));
+        JCTypeCast castKey = treeMaker.TypeCast(keyType, keyExec.getExpression());
+        writeMapArgs(context, forStatements, variable.name.append(names.fromString("Key")), keyType, castKey);
+
+        // write Value
+        JCExpressionStatement valueExec = treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(entryElement.name, "getValue"), List.nil()));
+        JCTypeCast castValue = treeMaker.TypeCast(valueType, valueExec.getExpression());
+        writeMapArgs(context, forStatements, variable.name.append(names.fromString("Value")), valueType, castValue);
+
+        if (chunkSize > 0) {
+            Type entryType = (Type) types.getDeclaredType(elements.getTypeElement(MAP_ENTRY), keyType, valueType);
+            writeChunks(thenStatements, variable.name, entrySetExec.getExpression(), entryType, entryElement, forStatements.toList(), chunkSize);
+        } else {
+            thenStatements.append(treeMaker.ForeachLoop(entryElement, entrySetExec.getExpression(), treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
+        }
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
+        statements.append(treeMaker.If(notNull, body, null));
+    }
+
+    /**
+     * 分块写出元素，每块写元素个数 + 元素，最后写0结束(只缓冲一块元素，不需要预先知道元素总数)
+     * Iterator&lt;E&gt; nameIterator = iterable.iterator();
+     * ArrayList&lt;E&gt; nameChunk = new ArrayList&lt;E&gt;();
+     * while (Chunks.next(nameIterator, nameChunk, chunkSize)) {
+     *     Chunks.writeLength(outputStream, nameChunk.size());
+     *     for (E nameElement : nameChunk) {...}
+     * }
+     * Chunks.writeEnd(outputStream);
+     * @param statements 方法体stats
+     * @param name 变量名(用于生成局部变量名)
+     * @param iterable 要迭代的对象
+     * @param elementType 元素类型
+     * @param element 元素局部变量
+     * @param elementStatements 写一个元素的stats
+     * @param chunkSize 每块最多元素个数
+     */
+    private void writeChunks(ListBuffer<JCStatement> statements, Name name, JCExpression iterable, Type elementType, JCVariableDecl element, List<JCStatement> elementStatements, int chunkSize) {
+        JCExpression outputStream = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+        Name iteratorName = name.append(names.fromString("Iterator"));
+        Name chunkName = name.append(names.fromString("Chunk"));
+        JCExpression iteratorType = treeMaker.TypeApply(memberAccess(ITERATOR), List.of(treeMaker.Type(elementType)));
+        JCExpression iteratorExec = treeMaker.Apply(List.nil(), treeMaker.Select(iterable, names.fromString("iterator")), List.nil());
+        statements.append(localVariableDef(iteratorName, iteratorType, iteratorExec));
+        JCExpression chunkType = treeMaker.TypeApply(memberAccess(LIST_IMPL), List.of(treeMaker.Type(elementType)));
+        JCExpression newChunk = treeMaker.NewClass(null, List.nil(), treeMaker.TypeApply(memberAccess(LIST_IMPL), List.of(treeMaker.Type(elementType))), List.nil(), null);
+        statements.append(localVariableDef(chunkName, chunkType, newChunk));
+        // 块长度 + 元素
+        ListBuffer<JCStatement> whileStatements = new ListBuffer<>();
+        JCExpression chunkLength = treeMaker.Apply(List.nil(), memberAccess(chunkName, "size"), List.nil());
+        whileStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(CHUNKS + ".writeLength"), List.of(outputStream, chunkLength))));
+        whileStatements.append(treeMaker.ForeachLoop(element, treeMaker.Ident(chunkName), treeMaker.Block(BLOCK_MODIFIERS, elementStatements)));
+        List<JCExpression> nextArgs = List.of(treeMaker.Ident(iteratorName), treeMaker.Ident(chunkName), treeMaker.Literal(chunkSize));
+        JCExpression nextExec = treeMaker.Apply(List.nil(), memberAccess(CHUNKS + ".next"), nextArgs);
+        statements.append(treeMaker.WhileLoop(nextExec, treeMaker.Block(BLOCK_MODIFIERS, whileStatements.toList())));
+        // 结束标记
+        JCExpression endArgs = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+        statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(CHUNKS + ".writeEnd"), List.of(endArgs))));
+    }
+
+    /**
+     * 写map的参数
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param name 名字
+     * @param type 类型
+     * @param variable 变量
+     */
+    private void writeMapArgs(GenerationContext context, ListBuffer<JCStatement> statements, Name name, Type type, JCExpression variable) {
+        if (type.getKind().isPrimitive()) {
+            writePrimitive(context, statements, getPrimitiveClass(type), variable);
+        } else {
+            JCVariableDecl elementKey = localVariableDef(name, treeMaker.Type(type), variable);
+            writeVariable(context, statements.append(elementKey), type, elementKey, true);
+        }
+    }
+
+    /**
+     * 写可序列化的自定义对象
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param variable 变量
+     * @param nullMarker 是否写null标记
+     */
+    private void writeSerializable(GenerationContext context, ListBuffer<JCStatement> statements, JCExpression variable, boolean nullMarker) {
+        JCBinary notNull = treeMaker.Binary(Tag.NE, variable, literalNull());
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        // 先写一个布尔值标记集合是否为null
+        writeNullMarker(context, statements, notNull, nullMarker);
+
+        JCExpression writeExec = treeMaker.Select(variable, names.fromString("writeTo"));
+        JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+        JCStatement writeStatement = treeMaker.Exec(treeMaker.Apply(List.nil(), writeExec, List.of(args)));
+        // 跟踪引用: if (references.writeReference(outputStream, xxx)) xxx.writeTo(outputStream);
+        thenStatements.append(context.references ? treeMaker.If(writeReference(variable), writeStatement, null) : writeStatement);
+
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
+        statements.append(treeMaker.If(notNull, body, null));
+    }
+
+    /**
+     * 写多态对象: 变长typeId(null为0) + 子类的序列化内容
+     * 本轮编译的子类按运行时的类直接调用，编译时不认识的子类(其他模块的、增量编译没有重新处理的)从默认注册表写
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param subTypes 子类
+     * @param variable 变量
+     */
+    private void writePolymorphic(GenerationContext context, ListBuffer<JCStatement> statements, List<TypeElement> subTypes, JCExpression variable) {
+        // 编译时不认识的子类: else SerializableTypes.getDefault().writePolymorphic(outputStream, xxx);
+        JCExpression writeArgs = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+        JCExpression writeDefault = treeMaker.Apply(List.nil(), treeMaker.Select(defaultTypes(), names.fromString("writePolymorphic")), List.of(writeArgs, variable));
+        JCStatement elseStatement = treeMaker.Exec(writeDefault);
+        // 按类精确匹配，本轮子类的子类(其他模块的)不会被当成父类写: else if (xxx.getClass() == T.class) { Varint.writeVarInt(outputStream, typeId); ((T) xxx).writeTo(outputStream); }
+        for (TypeElement subType : getDirectTypes(subTypes).reverse()) {
+            JCExpression subTypeExpr = treeMaker.Type((Type) subType.asType());
+            JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            thenStatements.append(writeVarInt(treeMaker.Literal(getTypeId(subType))));
+            JCExpression writeExec = treeMaker.Select(treeMaker.Parens(treeMaker.TypeCast(subTypeExpr, variable)), names.fromString(SerializerBound.WRITE.accessName));
+            thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), writeExec, List.of(args))));
+            elseStatement = treeMaker.If(isClass(variable, subType), treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), elseStatement);
+        }
+        // if (xxx == null) Varint.writeVarInt(outputStream, 0);
+        JCExpression isNull = treeMaker.Binary(Tag.EQ, variable, literalNull());
+        JCStatement nullStatement = writeVarInt(treeMaker.Literal(NULL_TYPE_ID));
+        // 跟踪引用: 读取时先读引用，null也要写一个新对象的引用; else if (references.writeReference(outputStream, xxx)) {...}
+        if (context.references) {
+            nullStatement = treeMaker.Block(BLOCK_MODIFIERS, List.of(writeVarInt(treeMaker.Literal(0)), nullStatement));
+            elseStatement = treeMaker.If(writeReference(variable), elseStatement, null);
+        }
+        statements.append(treeMaker.If(isNull, nullStatement, elseStatement));
+    }
+
+    /**
+     * 多态字段直接分派的子类
+     * aggregating模式下引用多态字段的类没有变更就不会重新生成，写进去的子类列表会过时，只通过每次重新生成的索引分派
+     * @param subTypes 本轮编译的子类
+     * @return 直接分派的子类
+     */
+    private List<TypeElement> getDirectTypes(List<TypeElement> subTypes) {
+        return aggregating ? List.nil() : subTypes;
+    }
+
+    /**
+     * 对象的类是否正好是某个子类
+     * @param variable 变量
+     * @param subType 子类
+     * @return xxx.getClass() == T.class
+     */
+    private JCExpression isClass(JCExpression variable, TypeElement subType) {
+        JCExpression getClass = treeMaker.Apply(List.nil(), treeMaker.Select(variable, names.getClass), List.nil());
+        JCExpression subTypeClass = treeMaker.Select(treeMaker.Type((Type) types.erasure(subType.asType())), names._class);
+        return treeMaker.Binary(Tag.EQ, getClass, subTypeClass);
+    }
+
+    /**
+     * 默认的序列化类注册表
+     * @return SerializableTypes.getDefault()
+     */
+    private JCExpression defaultTypes() {
+        return treeMaker.Apply(List.nil(), memberAccess(SERIALIZABLE_TYPES + ".getDefault"), List.nil());
+    }
+
+    /**
+     * 写一个变长int(多态类型id、tagged模式的标记和长度)
+     * @param value 值
+     * @return Varint.writeVarInt(outputStream, value);
+     */
+    private JCStatement writeVarInt(JCExpression value) {
+        JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+        JCExpression writeExec = memberAccess(VARINT + ".writeVarInt");
+        return treeMaker.Exec(treeMaker.Apply(List.nil(), writeExec, List.of(args, value)));
+    }
+
+    /**
+     * 写null标记
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param notNull xxx != null
+     * @param nullMarker 是否需要写(已经记在位图里的不需要)
+     */
+    private void writeNullMarker(GenerationContext context, ListBuffer<JCStatement> statements, JCExpression notNull, boolean nullMarker) {
+        if (nullMarker) {
+            writePrimitive(context, statements, boolean.class, notNull);
+        }
+    }
+
+    /**
+     * 写一个对象
+     * @param statements 方法体stats
+     * @param variable 变量
+     */
+    private void writeObject(ListBuffer<JCStatement> statements, JCExpression variable) {
+        JCExpression writeExec = memberAccess(names.fromString(SerializerBound.WRITE.paramName), "write");
+        statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), writeExec, List.of(variable))));
+    }
+
+    /**
+     * 生成serializedSize方法(与doWrite同样的类型展开，返回doWrite将写出的字节数)
+     * @param classWrapper 类包装
+     * @return 方法定义
+     */
+    private JCMethodDecl makeSerializedSizeMethodDecl(JavaClassWrapper classWrapper) {
+        ListBuffer<JCStatement> statements = new ListBuffer<>();
+        // 访问标志
+        JCModifiers modifiers = treeMaker.Modifiers(Flags.PUBLIC);
+        // 方法名
+        Name methodName = names.fromString(SERIALIZED_SIZE);
+        // return int
+        JCExpression resType = treeMaker.TypeIdent(TypeTag.INT);
+        // 定长部分在编译期累加
+        int fixedSize = 0;
+        boolean hasSuper = isSerializableAssignableFrom(classWrapper.element.asType());
+        // 字符串表、引用跟踪
+        GenerationContext context = GenerationContext.NONE.withStringTable(classWrapper.stringTable).withReferences(classWrapper.references);
+        makeStringTable(context, statements);
+        // null位图
+        decodeLazyFields(statements, classWrapper);
+        int words = makeNullBitmap(statements, classWrapper);
+        for (int i = 0; i < words; ++i) {
+            JCExpression sizeExec = memberAccess(VARINT + ".sizeOfVarLong");
+            addSize(context, statements, treeMaker.Apply(List.nil(), sizeExec, List.of(treeMaker.Ident(nullBitsName(i)))));
+        }
+        // tagged模式的结束标记
+        if (classWrapper.tagged) {
+            fixedSize += sizeOfVarInt(TaggedCodec.END);
         }
-        // Collection
-        if (isCollection(type)) {
-            writeCollection(statements, type, variable);
+        for (VariableWrapper variableWrapper : classWrapper.variableList) {
+            TypeMirror type = variableWrapper.element.asType();
+            GenerationContext fieldContext = context.withVariable(variableWrapper);
+            if (isMap(type)) {
+                classWrapper.addImport(treeMaker.Import(memberAccess(MAP_ENTRY), false));
+            }
+            if (classWrapper.tagged) {
+                fixedSize += sizeTaggedField(fieldContext, statements, variableWrapper);
+                continue;
+            }
+            // 定长的基础类型
+            if (type.getKind().isPrimitive() && Utils.getVarintAccess("write", getPrimitiveClass(type), variableWrapper.encoding) == null) {
+                fixedSize += Utils.getFixedSize(getPrimitiveClass(type));
+                continue;
+            }
+            if (variableWrapper.lazy) {
+                sizeLazy(fieldContext, statements, variableWrapper, variableWrapper.nullBit < 0);
+            } else {
+                sizeVariable(fieldContext, statements, type, variableWrapper.variable, variableWrapper.nullBit < 0);
+            }
+        }
+        // 全是定长字段，直接返回常量
+        if (statements.isEmpty() && !hasSuper) {
+            statements.append(treeMaker.Return(treeMaker.Literal(fixedSize)));
+        } else {
+            // int serializedSize = super.serializedSize() + fixedSize;
+            JCExpression init = treeMaker.Literal(fixedSize);
+            if (hasSuper) {
+                JCExpression superSize = treeMaker.Apply(List.nil(), memberAccess(names.fromString("super"), SERIALIZED_SIZE), List.nil());
+                init = fixedSize == 0 ? superSize : treeMaker.Binary(Tag.PLUS, superSize, init);
+            }
+            statements.prepend(localVariableDef(names.fromString(SERIALIZED_SIZE), treeMaker.TypeIdent(TypeTag.INT), init));
+            statements.append(treeMaker.Return(treeMaker.Ident(names.fromString(SERIALIZED_SIZE))));
+        }
+        List<JCStatement> bodyStatements = statements.toList();
+        if (context.references) {
+            JCExpression enter = memberAccess(REFERENCE_TABLE + ".enterSize");
+            bodyStatements = wrapReferences(bodyStatements, treeMaker.Apply(List.nil(), enter, List.of(treeMaker.Ident(names._this))));
+        }
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, bodyStatements);
+        // MethodDef(mods, name, restype, typarams, params, thrown, body, defaultValue)
+        return treeMaker.MethodDef(modifiers, methodName, resType, List.nil(), List.nil(), List.nil(), body, null);
+    }
+
+    /**
+     * tagged模式写字段: 变长标记 [+ 变长长度] + 内容，null字段不写，最后写结束标记
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param classWrapper 类包装
+     */
+    private void writeTaggedFields(GenerationContext context, ListBuffer<JCStatement> statements, JavaClassWrapper classWrapper) {
+        for (VariableWrapper variableWrapper : classWrapper.variableList) {
+            TypeMirror type = variableWrapper.element.asType();
+            if (isMap(type)) {
+                classWrapper.addImport(treeMaker.Import(memberAccess(MAP_ENTRY), false));
+                classWrapper.addImport(treeMaker.Import(memberAccess(ITERATOR), false));
+            }
+            GenerationContext fieldContext = context.withVariable(variableWrapper);
+            int wireType = getWireType(type, variableWrapper.encoding);
+            ListBuffer<JCStatement> fieldStatements = new ListBuffer<>();
+            fieldStatements.append(writeVarInt(treeMaker.Literal(TaggedCodec.makeTag(variableWrapper.tag, wireType))));
+            if (wireType == TaggedCodec.WIRE_LENGTH) {
+                makeFieldSize(fieldContext, fieldStatements, variableWrapper);
+                fieldStatements.append(writeVarInt(treeMaker.Ident(names.fromString(FIELD_SIZE))));
+            }
+            writeVariable(fieldContext, fieldStatements, type, variableWrapper.variable, false);
+            statements.append(makeTaggedFieldBlock(variableWrapper, fieldStatements));
+        }
+        statements.append(writeVarInt(treeMaker.Literal(TaggedCodec.END)));
+    }
+
+    /**
+     * tagged模式读字段: 循环读标记直到结束标记，认识的字段读出，不认识的跳过，最后把没读到的字段置为默认值
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param classWrapper 类包装
+     */
+    private void readTaggedFields(GenerationContext context, ListBuffer<JCStatement> statements, JavaClassWrapper classWrapper) {
+        JCExpression inputStream = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        Name fieldTag = names.fromString(FIELD_TAG);
+        List<VariableWrapper> variableList = classWrapper.variableList;
+        // long presentBitsN = 0L;
+        int words = (variableList.size() + Long.SIZE - 1) / Long.SIZE;
+        for (int i = 0; i < words; ++i) {
+            statements.append(localVariableDef(presentBitsName(i), treeMaker.TypeIdent(TypeTag.LONG), treeMaker.Literal(0L)));
+        }
+        // else TaggedCodec.skipField(inputStream, fieldTag);
+        JCExpression skipExec = memberAccess(TAGGED_CODEC + ".skipField");
+        JCStatement elseStatement = treeMaker.Exec(treeMaker.Apply(List.nil(), skipExec, List.of(inputStream, treeMaker.Ident(fieldTag))));
+        // else if (fieldTag == tag) { [Varint.readLength(inputStream);] read xxx; presentBitsN |= mask; }
+        for (int i = variableList.size() - 1; i >= 0; --i) {
+            VariableWrapper variableWrapper = variableList.get(i);
+            TypeMirror type = variableWrapper.element.asType();
+            if (isMap(type)) {
+                classWrapper.addImport(treeMaker.Import(memberAccess(MAP_ENTRY), false));
+                classWrapper.addImport(treeMaker.Import(memberAccess(ITERATOR), false));
+            }
+            GenerationContext fieldContext = context.withVariable(variableWrapper);
+            int wireType = getWireType(type, variableWrapper.encoding);
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            JCExpression readLength = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".readLength"), List.of(inputStream));
+            if (variableWrapper.lazy) {
+                readLazyBody(fieldContext, thenStatements, variableWrapper, readLength);
+            } else {
+                if (wireType == TaggedCodec.WIRE_LENGTH) {
+                    // 长度只在跳过时用
+                    thenStatements.append(treeMaker.Exec(readLength));
+                }
+                readVariable(fieldContext, thenStatements, type, variableWrapper.variable, treeMaker.Literal(true));
+            }
+            JCExpression mark = treeMaker.Assignop(Tag.BITOR_ASG, treeMaker.Ident(presentBitsName(i / Long.SIZE)), nullBitMask(i));
+            thenStatements.append(treeMaker.Exec(mark));
+            JCExpression isTag = treeMaker.Binary(Tag.EQ, treeMaker.Ident(fieldTag), treeMaker.Literal(TaggedCodec.makeTag(variableWrapper.tag, wireType)));
+            // 没选中的字段和不认识的字段一样跳过
+            if (context.projection && i < Long.SIZE) {
+                isTag = treeMaker.Binary(Tag.AND, isTag, isFieldSelected(i));
+            }
+            elseStatement = treeMaker.If(isTag, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), elseStatement);
+        }
+        // for (int fieldTag = Varint.readVarInt(inputStream); fieldTag != 0; fieldTag = Varint.readVarInt(inputStream))
+        JCExpression readTag = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".readVarInt"), List.of(inputStream));
+        JCVariableDecl init = localVariableDef(fieldTag, treeMaker.TypeIdent(TypeTag.INT), readTag);
+        JCExpression condition = treeMaker.Binary(Tag.NE, treeMaker.Ident(fieldTag), treeMaker.Literal(TaggedCodec.END));
+        JCExpression nextTag = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".readVarInt"), List.of(inputStream));
+        JCExpressionStatement step = treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(fieldTag), nextTag));
+        statements.append(treeMaker.ForLoop(List.of(init), condition, List.of(step), elseStatement));
+        // if ((presentBitsN & mask) == 0L) xxx = default;
+        for (int i = 0; i < variableList.size(); ++i) {
+            VariableWrapper variableWrapper = variableList.get(i);
+            JCExpression bits = treeMaker.Ident(presentBitsName(i / Long.SIZE));
+            JCExpression masked = treeMaker.Parens(treeMaker.Binary(Tag.BITAND, bits, nullBitMask(i)));
+            JCExpression absent = treeMaker.Binary(Tag.EQ, masked, treeMaker.Literal(0L));
+            // 没选中的字段保持原值
+            if (context.projection && i < Long.SIZE) {
+                absent = treeMaker.Binary(Tag.AND, absent, isFieldSelected(i));
+            }
+            JCExpression assign = treeMaker.Assign(treeMaker.Ident(variableWrapper.variable.name), defaultValue(variableWrapper.element.asType()));
+            if (variableWrapper.lazy) {
+                JCStatement clearLazy = treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(lazyName(variableWrapper)), literalNull()));
+                statements.append(treeMaker.If(absent, treeMaker.Block(BLOCK_MODIFIERS, List.of(treeMaker.Exec(assign), clearLazy)), null));
+            } else {
+                statements.append(treeMaker.If(absent, treeMaker.Exec(assign), null));
+            }
+        }
+    }
+
+    /**
+     * tagged模式计算字段长度(标记 [+ 长度] + 内容)
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param variableWrapper 字段包装
+     * @return 定长部分(不为null的定长基础类型在编译期计算)
+     */
+    private int sizeTaggedField(GenerationContext context, ListBuffer<JCStatement> statements, VariableWrapper variableWrapper) {
+        TypeMirror type = variableWrapper.element.asType();
+        int wireType = getWireType(type, variableWrapper.encoding);
+        int tagSize = sizeOfVarInt(TaggedCodec.makeTag(variableWrapper.tag, wireType));
+        if (type.getKind().isPrimitive() && wireType != TaggedCodec.WIRE_VARINT) {
+            return tagSize + Utils.getFixedSize(getPrimitiveClass(type));
+        }
+        ListBuffer<JCStatement> fieldStatements = new ListBuffer<>();
+        addSize(context, fieldStatements, treeMaker.Literal(tagSize));
+        if (wireType == TaggedCodec.WIRE_LENGTH) {
+            // serializedSize += Varint.sizeOfVarInt(fieldSize) + fieldSize;
+            makeFieldSize(context, fieldStatements, variableWrapper);
+            JCExpression fieldSize = treeMaker.Ident(names.fromString(FIELD_SIZE));
+            JCExpression lengthSize = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".sizeOfVarInt"), List.of(fieldSize));
+            addSize(context, fieldStatements, treeMaker.Binary(Tag.PLUS, lengthSize, treeMaker.Ident(names.fromString(FIELD_SIZE))));
+        } else {
+            sizeVariable(context, fieldStatements, type, variableWrapper.variable, false);
+        }
+        statements.append(makeTaggedFieldBlock(variableWrapper, fieldStatements));
+        return 0;
+    }
+
+    /**
+     * 计算字段内容的长度: int fieldSize = 0; fieldSize += ...;
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param variableWrapper 字段包装
+     */
+    private void makeFieldSize(GenerationContext context, ListBuffer<JCStatement> statements, VariableWrapper variableWrapper) {
+        statements.append(localVariableDef(names.fromString(FIELD_SIZE), treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0)));
+        sizeVariable(context.withSizeName(FIELD_SIZE), statements, variableWrapper.element.asType(), variableWrapper.variable, false);
+    }
+
+    /**
+     * tagged模式的字段代码段，可为null的字段只在不为null时写
+     * @param variableWrapper 字段包装
+     * @param fieldStatements 字段的stats
+     * @return if (xxx != null) {...} 或 {...}
+     */
+    private JCStatement makeTaggedFieldBlock(VariableWrapper variableWrapper, ListBuffer<JCStatement> fieldStatements) {
+        JCBlock block = treeMaker.Block(BLOCK_MODIFIERS, fieldStatements.toList());
+        if (variableWrapper.element.asType().getKind().isPrimitive()) {
+            return block;
+        }
+        JCExpression notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variableWrapper.variable.name), literalNull());
+        return treeMaker.If(notNull, block, null);
+    }
+
+    /**
+     * tagged模式字段的类型(决定了不认识的字段如何跳过)
+     * @param type 字段类型
+     * @param encoding 整数编码方式
+     * @return 类型
+     */
+    private int getWireType(TypeMirror type, Encoding encoding) {
+        if (isEnum(type)) {
+            return TaggedCodec.WIRE_VARINT;
+        }
+        if (!isPrimitiveType(type)) {
+            return TaggedCodec.WIRE_LENGTH;
+        }
+        Class<?> primitiveClass = getPrimitiveClass(type);
+        if (primitiveClass == String.class) {
+            return TaggedCodec.WIRE_LENGTH;
+        }
+        if (Utils.getVarintAccess("write", primitiveClass, encoding) != null) {
+            return TaggedCodec.WIRE_VARINT;
+        }
+        switch (Utils.getFixedSize(primitiveClass)) {
+            case Byte.BYTES:
+                return TaggedCodec.WIRE_FIXED8;
+            case Short.BYTES:
+                return TaggedCodec.WIRE_FIXED16;
+            case Integer.BYTES:
+                return TaggedCodec.WIRE_FIXED32;
+            default:
+                return TaggedCodec.WIRE_FIXED64;
+        }
+    }
+
+    /**
+     * 字段的默认值
+     * @param type 字段类型
+     * @return null、false或0
+     */
+    private JCExpression defaultValue(TypeMirror type) {
+        if (!type.getKind().isPrimitive()) {
+            return literalNull();
+        }
+        if (type.getKind() == TypeKind.BOOLEAN) {
+            return treeMaker.Literal(false);
+        }
+        return treeMaker.TypeCast(treeMaker.Type((Type) type), treeMaker.Literal(0));
+    }
+
+    /**
+     * 已读字段位图局部变量名
+     * @param word 第几组
+     * @return presentBitsN
+     */
+    private Name presentBitsName(int word) {
+        return names.fromString(PRESENT_BITS + word);
+    }
+
+    /**
+     * 计算一个变量的长度(与writeVariable一一对应)
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param nullMarker 可为null的类型是否有null标记
+     */
+    private void sizeVariable(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable, boolean nullMarker) {
+        JCExpression variableIdent = treeMaker.Ident(variable.getName());
+        // 数组
+        if (isArray(type)) {
+            sizeArray(context, statements, (ArrayType) type, variable, nullMarker);
+            return;
+        }
+        // 基础类型列表: 长度 + size * 元素字节数
+        if (isPrimitiveList(type)) {
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            JCExpression sizeExec = treeMaker.Apply(List.nil(), memberAccess(variable.name, "size"), List.nil());
+            addSize(context, thenStatements, sizeOfLength(context, sizeExec));
+            JCExpression count = treeMaker.Apply(List.nil(), memberAccess(variable.name, "size"), List.nil());
+            addSize(context, thenStatements, treeMaker.Binary(Tag.MUL, count, treeMaker.Literal(Utils.getFixedSize(getPrimitiveListClass(type)))));
+            sizeNullable(context, statements, variableIdent, thenStatements, nullMarker);
+            return;
+        }
+        // EnumSet: Enums.sizeOfEnumSet(xxx)
+        if (isEnumSet(type)) {
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            addSize(context, thenStatements, treeMaker.Apply(List.nil(), memberAccess(ENUMS + ".sizeOfEnumSet"), List.of(treeMaker.Ident(variable.name))));
+            sizeNullable(context, statements, variableIdent, thenStatements, nullMarker);
+            return;
+        }
+        // Collection(分块编码的字段也可以是Iterable)
+        if (isCollection(type) || isIterable(type)) {
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            sizeCollection(context, thenStatements, type, variable);
+            sizeNullable(context, statements, variableIdent, thenStatements, nullMarker);
             return;
         }
         // Map
         if (isMap(type)) {
-            writeMap(statements, type, variable);
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            sizeMap(context, thenStatements, type, variable);
+            sizeNullable(context, statements, variableIdent, thenStatements, nullMarker);
             return;
         }
         // 基础类型
         if (isPrimitiveType(type)) {
-            writePrimitive(statements, type, variable);
+            sizePrimitive(context, statements, type, variableIdent, nullMarker);
+            return;
+        }
+        // 枚举: Varint.sizeOfVarInt(xxx.ordinal())
+        if (isEnum(type)) {
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            JCExpression ordinal = treeMaker.Apply(List.nil(), memberAccess(variable.name, "ordinal"), List.nil());
+            addSize(context, thenStatements, treeMaker.Apply(List.nil(), memberAccess(VARINT + ".sizeOfVarInt"), List.of(ordinal)));
+            sizeNullable(context, statements, variableIdent, thenStatements, nullMarker);
+            return;
+        }
+        // 多态对象
+        List<TypeElement> subTypes = getPolymorphicTypes(type);
+        if (subTypes != null) {
+            sizePolymorphic(context, statements, subTypes, variableIdent);
             return;
         }
         // 自定义序列化对象
         if (isSerializable(type)) {
-            writeSerializable(statements, treeMaker.Ident(variable.getName()));
+            sizeSerializable(context, statements, variableIdent, nullMarker);
+            return;
+        }
+        // 其他类型走通用write(Object)，长度无法预先计算，这样的类不生成serializedSize(见isSizeable)
+    }
+
+    /**
+     * 计算基础类型的长度
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param nullMarker 包装类型是否有null标记
+     */
+    private void sizePrimitive(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCExpression variable, boolean nullMarker) {
+        if (isWrapper(type)) {
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            addSize(context, thenStatements, sizeOfPrimitive(context, getPrimitiveClass(type), variable));
+            sizeNullable(context, statements, variable, thenStatements, nullMarker);
+        } else {
+            addSize(context, statements, sizeOfPrimitive(context, getPrimitiveClass(type), variable));
+        }
+    }
+
+    /**
+     * 一个基础类型的长度
+     * @param context 生成上下文
+     * @param primitiveClass 基础类型类
+     * @param variable 变量
+     * @return 长度表达式
+     */
+    private JCExpression sizeOfPrimitive(GenerationContext context, Class<?> primitiveClass, JCExpression variable) {
+        // 变长编码
+        String varintAccess = Utils.getVarintAccess("sizeOf", primitiveClass, context.encoding);
+        if (varintAccess != null) {
+            return treeMaker.Apply(List.nil(), memberAccess(VARINT + "." + varintAccess), List.of(variable));
+        }
+        if (primitiveClass == String.class) {
+            JCExpression sizeExec = isStringTable(context) ? memberAccess(names.fromString(STRING_TABLE_NAME), "sizeOf") : memberAccess(SIZES + ".sizeOfString");
+            return treeMaker.Apply(List.nil(), sizeExec, List.of(variable));
+        }
+        return treeMaker.Literal(Utils.getFixedSize(primitiveClass));
+    }
+
+    /**
+     * 长度(数组、集合、Map)本身的字节数
+     * @param context 生成上下文
+     * @param length 长度
+     * @return 字节数表达式
+     */
+    private JCExpression sizeOfLength(GenerationContext context, JCExpression length) {
+        // 长度不会是负数
+        GenerationContext lengthContext = context.encoding == Encoding.ZIGZAG ? context.withEncoding(Encoding.VARINT) : context;
+        return sizeOfPrimitive(lengthContext, int.class, length);
+    }
+
+    /**
+     * 计算一个数组的长度
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param nullMarker 是否有null标记
+     */
+    private void sizeArray(GenerationContext context, ListBuffer<JCStatement> statements, ArrayType type, JCVariableDecl variable, boolean nullMarker) {
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        JCExpression jcFieldAccess = memberAccess(variable.getName(), "length");
+        addSize(context, thenStatements, sizeOfLength(context, jcFieldAccess));
+        Type elementType = type.elemtype;
+        // 整块写的基础类型数组
+        if (getBulkArrayAccess(context, SerializerBound.WRITE, elementType) != null) {
+            int elementSize = Utils.getFixedSize(getPrimitiveClass(elementType));
+            JCExpression length = memberAccess(variable.getName(), "length");
+            addSize(context, thenStatements, elementSize == 1 ? length : treeMaker.Binary(Tag.MUL, length, treeMaker.Literal(elementSize)));
+            sizeNullable(context, statements, treeMaker.Ident(variable.name), thenStatements, nullMarker);
+            return;
+        }
+        // for (Type nameElement : name)
+        ListBuffer<JCStatement> forStatements = new ListBuffer<>();
+        JCVariableDecl element = localVariableDef(variable.name.append(names.fromString(ELEMENT)), treeMaker.Type(elementType), null);
+        sizeVariable(context, forStatements, elementType, element, true);
+        thenStatements.append(treeMaker.ForeachLoop(element, treeMaker.Ident(variable.name), treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
+        sizeNullable(context, statements, treeMaker.Ident(variable.name), thenStatements, nullMarker);
+    }
+
+    /**
+     * 计算一个Collection的长度
+     * @param context 生成上下文
+     * @param statements 方法体stats(已判断非null)
+     * @param type 变量类型
+     * @param variable 变量
+     */
+    private void sizeCollection(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable) {
+        int chunkSize = getChunkSize(context, variable);
+        if (chunkSize == 0) {
+            JCExpression sizeExec = treeMaker.Apply(List.nil(), memberAccess(variable.name, "size"), List.nil());
+            addSize(context, statements, sizeOfLength(context, sizeExec));
+        }
+        Type elementType = ((Type) type).getTypeArguments().head;
+        // 紧凑格式
+        if (isPacked(context, variable)) {
+            JCExpression elementSize = treeMaker.Literal(Utils.getFixedSize(getPrimitiveClass(elementType)));
+            List<JCExpression> sizeArgs = List.of(treeMaker.Ident(variable.name), elementSize, treeMaker.Literal(!context.variable.nonNull));
+            addSize(context, statements, treeMaker.Apply(List.nil(), memberAccess(PACKED_CODEC + ".sizeOf"), sizeArgs));
+            return;
+        }
+        ListBuffer<JCStatement> forStatements = new ListBuffer<>();
+        JCVariableDecl element = localVariableDef(variable.name.append(names.fromString(ELEMENT)), treeMaker.Type(elementType), null);
+        sizeVariable(context, forStatements, elementType, element, true);
+        if (chunkSize > 0) {
+            sizeChunks(context, statements, variable.name, treeMaker.Ident(variable.name), element, forStatements, chunkSize);
+            return;
+        }
+        statements.append(treeMaker.ForeachLoop(element, treeMaker.Ident(variable.name), treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
+    }
+
+    /**
+     * 计算一个Map的长度
+     * @param context 生成上下文
+     * @param statements 方法体stats(已判断非null)
+     * @param type 变量类型
+     * @param variable 变量
+     */
+    private void sizeMap(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable) {
+        int chunkSize = getChunkSize(context, variable);
+        if (chunkSize == 0) {
+            JCExpression sizeExec = treeMaker.Apply(List.nil(), memberAccess(variable.name, "size"), List.nil());
+            addSize(context, statements, sizeOfLength(context, sizeExec));
+        }
+        Type keyType = ((Type) type).getTypeArguments().head;
+        Type valueType = ((Type) type).getTypeArguments().last();
+        ListBuffer<JCStatement> forStatements = new ListBuffer<>();
+        // Entry
+        JCVariableDecl entryElement = localVariableDef(variable.name.append(names.fromString(ELEMENT)), memberAccess(MAP_ENTRY), null);
+        JCExpression entrySetExec = treeMaker.Apply(List.nil(), memberAccess(variable.name, "entrySet"), List.nil());
+        // key
+        JCExpression keyExec = treeMaker.Apply(List.nil(), memberAccess(entryElement.name, "getKey"), List.nil());
+        sizeMapArgs(context, forStatements, variable.name.append(names.fromString("Key")), keyType, treeMaker.TypeCast(keyType, keyExec));
+        // value
+        JCExpression valueExec = treeMaker.Apply(List.nil(), memberAccess(entryElement.name, "getValue"), List.nil());
+        sizeMapArgs(context, forStatements, variable.name.append(names.fromString("Value")), valueType, treeMaker.TypeCast(valueType, valueExec));
+        if (chunkSize > 0) {
+            sizeChunks(context, statements, variable.name, entrySetExec, entryElement, forStatements, chunkSize);
+            return;
+        }
+        statements.append(treeMaker.ForeachLoop(entryElement, entrySetExec, treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
+    }
+
+    /**
+     * 计算分块编码的长度: 迭代时计数，最后加上各块长度和结束标记的字节数
+     * int nameCount = 0;
+     * for (E nameElement : iterable) { ++nameCount; ... }
+     * size += Chunks.sizeOf(nameCount, chunkSize);
+     * @param context 生成上下文
+     * @param statements 方法体stats(已判断非null)
+     * @param name 变量名(用于生成局部变量名)
+     * @param iterable 要迭代的对象
+     * @param element 元素局部变量
+     * @param elementStatements 计算一个元素长度的stats
+     * @param chunkSize 每块最多元素个数
+     */
+    private void sizeChunks(GenerationContext context, ListBuffer<JCStatement> statements, Name name, JCExpression iterable, JCVariableDecl element, ListBuffer<JCStatement> elementStatements, int chunkSize) {
+        Name countName = name.append(names.fromString("Count"));
+        statements.append(localVariableDef(countName, treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0)));
+        elementStatements.prepend(autoIncrement(countName));
+        statements.append(treeMaker.ForeachLoop(element, iterable, treeMaker.Block(BLOCK_MODIFIERS, elementStatements.toList())));
+        List<JCExpression> sizeArgs = List.of(treeMaker.Ident(countName), treeMaker.Literal(chunkSize));
+        addSize(context, statements, treeMaker.Apply(List.nil(), memberAccess(CHUNKS + ".sizeOf"), sizeArgs));
+    }
+
+    /**
+     * 计算map参数的长度
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param name 名字
+     * @param type 类型
+     * @param variable 变量
+     */
+    private void sizeMapArgs(GenerationContext context, ListBuffer<JCStatement> statements, Name name, Type type, JCExpression variable) {
+        if (type.getKind().isPrimitive()) {
+            addSize(context, statements, sizeOfPrimitive(context, getPrimitiveClass(type), variable));
+        } else {
+            JCVariableDecl element = localVariableDef(name, treeMaker.Type(type), variable);
+            sizeVariable(context, statements.append(element), type, element, true);
+        }
+    }
+
+    /**
+     * 计算可序列化的自定义对象的长度
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param variable 变量
+     * @param nullMarker 是否有null标记
+     */
+    private void sizeSerializable(GenerationContext context, ListBuffer<JCStatement> statements, JCExpression variable, boolean nullMarker) {
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        JCExpression sizeExec = treeMaker.Select(variable, names.fromString(SERIALIZED_SIZE));
+        addSize(context, thenStatements, treeMaker.Apply(List.nil(), sizeExec, List.nil()));
+        if (context.references) {
+            thenStatements = sizeReference(context, thenStatements, variable);
+        }
+        sizeNullable(context, statements, variable, thenStatements, nullMarker);
+    }
+
+    /**
+     * 计算多态对象的长度(与writePolymorphic一一对应)
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param subTypes 子类
+     * @param variable 变量
+     */
+    private void sizePolymorphic(GenerationContext context, ListBuffer<JCStatement> statements, List<TypeElement> subTypes, JCExpression variable) {
+        // 编译时不认识的子类: else serializedSize += SerializableTypes.getDefault().sizeOfPolymorphic(xxx);
+        ListBuffer<JCStatement> elseStatements = new ListBuffer<>();
+        addSize(context, elseStatements, treeMaker.Apply(List.nil(), treeMaker.Select(defaultTypes(), names.fromString("sizeOfPolymorphic")), List.of(variable)));
+        JCStatement elseStatement = elseStatements.first();
+        // else if (xxx.getClass() == T.class) serializedSize += typeIdSize + ((T) xxx).serializedSize();
+        for (TypeElement subType : getDirectTypes(subTypes).reverse()) {
+            JCExpression subTypeExpr = treeMaker.Type((Type) subType.asType());
+            JCExpression sizeExec = treeMaker.Select(treeMaker.Parens(treeMaker.TypeCast(subTypeExpr, variable)), names.fromString(SERIALIZED_SIZE));
+            JCExpression typeIdSize = treeMaker.Literal(sizeOfVarInt(getTypeId(subType)));
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            addSize(context, thenStatements, treeMaker.Binary(Tag.PLUS, typeIdSize, treeMaker.Apply(List.nil(), sizeExec, List.nil())));
+            elseStatement = treeMaker.If(isClass(variable, subType), thenStatements.first(), elseStatement);
+        }
+        if (context.references) {
+            elseStatement = sizeReference(context, new ListBuffer<JCStatement>().append(elseStatement), variable).first();
+        }
+        ListBuffer<JCStatement> nullStatements = new ListBuffer<>();
+        addSize(context, nullStatements, treeMaker.Literal(sizeOfVarInt(NULL_TYPE_ID) + (context.references ? sizeOfVarInt(0) : 0)));
+        JCExpression isNull = treeMaker.Binary(Tag.EQ, variable, literalNull());
+        statements.append(treeMaker.If(isNull, nullStatements.first(), elseStatement));
+    }
+
+    /**
+     * 常量的变长字节数(编译期计算)
+     * @param value 值
+     * @return 字节数
+     */
+    private int sizeOfVarInt(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    /**
+     * 可为null的值：null标记的长度 + 非null时的长度
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param variable 变量
+     * @param thenStatements 非null时的stats
+     * @param nullMarker 是否有null标记
+     */
+    private void sizeNullable(GenerationContext context, ListBuffer<JCStatement> statements, JCExpression variable, ListBuffer<JCStatement> thenStatements, boolean nullMarker) {
+        if (nullMarker) {
+            addSize(context, statements, treeMaker.Literal(Utils.getFixedSize(boolean.class)));
+        }
+        JCBinary notNull = treeMaker.Binary(Tag.NE, variable, literalNull());
+        statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null));
+    }
+
+    /**
+     * sizeName += size;
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param size 长度表达式
+     */
+    private void addSize(GenerationContext context, ListBuffer<JCStatement> statements, JCExpression size) {
+        JCExpression sizeVariable = treeMaker.Ident(names.fromString(context.sizeName));
+        statements.append(treeMaker.Exec(treeMaker.Assignop(Tag.PLUS_ASG, sizeVariable, size)));
+    }
+
+    /**
+     * 读一个变量
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
+     */
+    private void readVariable(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable, JCExpression notNull) {
+        // 数组
+        if (isArray(type)) {
+            readArray(context, statements, (ArrayType) type, variable, notNull);
+            return;
+        }
+        // 基础类型列表
+        if (isPrimitiveList(type)) {
+            readPrimitiveList(context, statements, type, variable, notNull);
+            return;
+        }
+        // EnumSet(位图)
+        if (isEnumSet(type)) {
+            readEnum(context, statements, ((Type) type).getTypeArguments().head, variable, ENUMS + ".readEnumSet", notNull);
+            return;
+        }
+        // Collection(分块编码的字段也可以是Iterable)
+        if (isCollection(type) || isIterable(type)) {
+            readCollection(context, statements, type, variable, notNull);
+            return;
+        }
+        // Map
+        if (isMap(type)) {
+            readMap(context, statements, type, variable, notNull);
+            return;
+        }
+        // 基础类型
+        if (isPrimitiveType(type)) {
+            readPrimitive(context, statements, type, variable, notNull);
+            return;
+        }
+        // 枚举(ordinal)
+        if (isEnum(type)) {
+            readEnum(context, statements, type, variable, null, notNull);
+            return;
+        }
+        // 多态对象(typeId里已经包含了null)
+        List<TypeElement> subTypes = getPolymorphicTypes(type);
+        if (subTypes != null) {
+            readPolymorphic(context, statements, type, subTypes, variable.getName());
+            return;
+        }
+        // 自定义序列化对象
+        if (isDirectSerializable(type)) {
+            readSerializable(context, statements, type, treeMaker.Ident(variable.getName()), notNull);
             return;
         }
-        // 其他类型
-        writeObject(statements, treeMaker.Ident(variable.getName()));
+        // 其他类型
+        readObject(statements, treeMaker.Ident(variable.getName()));
+    }
+
+    /**
+     * 读枚举或EnumSet
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param enumType 枚举类型
+     * @param variable 变量
+     * @param access EnumSet的读方法(枚举为null，读ordinal)
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
+     */
+    private void readEnum(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror enumType, JCVariableDecl variable, String access, JCExpression notNull) {
+        notNull = readNullMarker(context, notNull);
+        JCExpression inputStream = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        JCExpression enumClass = treeMaker.Select(treeMaker.Type((Type) types.erasure(enumType)), names._class);
+        JCExpression value;
+        if (access == null) {
+            // xxx = Enums.valueOf(Xxx.class, Varint.readVarInt(inputStream));
+            JCExpression ordinal = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".readVarInt"), List.of(inputStream));
+            value = treeMaker.Apply(List.nil(), memberAccess(ENUMS + ".valueOf"), List.of(enumClass, ordinal));
+        } else {
+            // xxx = Enums.readEnumSet(inputStream, Xxx.class);
+            value = treeMaker.Apply(List.nil(), memberAccess(access), List.of(inputStream, enumClass));
+        }
+        JCStatement thenStatement = treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(variable.name), value));
+        ListBuffer<JCStatement> elseStatements = new ListBuffer<>();
+        readNull(elseStatements, treeMaker.Ident(variable.name));
+        statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, List.of(thenStatement)), treeMaker.Block(BLOCK_MODIFIERS, elseStatements.toList())));
     }
 
     /**
-     * 写基础类型
+     * 读基础类型
+     * @param context 生成上下文
      * @param statements 方法体stats
      * @param type 变量类型
      * @param variable 变量
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
      */
-    private void writePrimitive(ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable) {
-        // 包装类型得先写个null
+    private void readPrimitive(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable, JCExpression notNull) {
+        // 包装类型得先读个布尔值
         if (isWrapper(type)) {
-            JCBinary notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variable.name), literalNull());
-            // 先写一个布尔值标记集合是否为null
-            writePrimitive(statements, boolean.class, notNull);
-            // 如果不为null则写值
+            // 先读一个标志
+            notNull = readNullMarker(context, notNull);
+            // 如果不为null则继续读
             ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
-            writePrimitive(thenStatements, getPrimitiveClass(type), treeMaker.Ident(variable.getName()));
-            JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-            statements.append(treeMaker.If(notNull, body, null));
+            readPrimitive(context, thenStatements, getPrimitiveClass(type), treeMaker.Ident(variable.name));
+            JCBlock thenBody = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
+
+            ListBuffer<JCStatement> elseStatements = new ListBuffer<>();
+            readNull(elseStatements, treeMaker.Ident(variable.name));
+            JCBlock elseBody = treeMaker.Block(BLOCK_MODIFIERS, elseStatements.toList());
+
+            statements.append(treeMaker.If(notNull, thenBody, elseBody));
         } else {
-            writePrimitive(statements, getPrimitiveClass(type), treeMaker.Ident(variable.getName()));
+            readPrimitive(context, statements, getPrimitiveClass(type), treeMaker.Ident(variable.name));
         }
     }
 
     /**
-     * 写基础类型
+     * 读基础类型
+     * @param context 生成上下文
      * @param statements 方法体stats
      * @param type 变量类型
      * @param variable 变量
      */
-    private void writePrimitive(ListBuffer<JCStatement> statements, TypeMirror type, JCExpression variable) {
-        // 包装类型得先写个null
+    private void readPrimitive(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCExpression variable) {
+        // 包装类型得先读个布尔值
         if (isWrapper(type)) {
-            JCBinary notNull = treeMaker.Binary(Tag.NE, variable, literalNull());
-            // 先写一个布尔值标记集合是否为null
-            writePrimitive(statements, boolean.class, notNull);
-            // 如果不为null则写值
+            // 先读一个标志
+            JCExpression notNull = treeMaker.Exec(doReadAnPrimitive(context, boolean.class)).getExpression();
+            // 如果不为null则继续读
             ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
-            writePrimitive(thenStatements, getPrimitiveClass(type), variable);
-            JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-            statements.append(treeMaker.If(notNull, body, null));
+            readPrimitive(context, thenStatements, getPrimitiveClass(type), variable);
+            JCBlock thenBody = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
+
+            ListBuffer<JCStatement> elseStatements = new ListBuffer<>();
+            readNull(elseStatements, variable);
+            JCBlock elseBody = treeMaker.Block(BLOCK_MODIFIERS, elseStatements.toList());
+
+            statements.append(treeMaker.If(notNull, thenBody, elseBody));
         } else {
-            writePrimitive(statements, getPrimitiveClass(type), variable);
+            readPrimitive(context, statements, getPrimitiveClass(type), variable);
         }
     }
 
     /**
-     * 写一个基础类型
+     * 读基础类型
+     * @param context 生成上下文
      * @param statements 方法体stats
-     * @param primitiveClass 基础类型类
+     * @param primitiveClass 基础类型
      * @param variable 变量
      */
-    private void writePrimitive(ListBuffer<JCStatement> statements, Class<?> primitiveClass, JCExpression variable) {
-        String writeAccess = "write" + Utils.toUpperCaseFirst(primitiveClass.getSimpleName());
-        JCExpression writeExec = memberAccess(names.fromString(SerializerBound.WRITE.paramName), writeAccess);
-        statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), writeExec, List.of(variable))));
+    private void readPrimitive(GenerationContext context, ListBuffer<JCStatement> statements, Class<?> primitiveClass, JCExpression variable) {
+        JCExpression readExec = doReadAnPrimitive(context, primitiveClass);
+        // xxx = xxx;
+        JCAssign jcAssign = treeMaker.Assign(variable, readExec);
+        statements.append(treeMaker.Exec(jcAssign));
     }
 
     /**
-     * 写一个数组
+     * 读长度(数组、集合、Map)，非定长编码时读变长int，负数抛出IOException
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param variable 变量
+     */
+    private void readLength(GenerationContext context, ListBuffer<JCStatement> statements, JCExpression variable) {
+        if (context.encoding == Encoding.FIXED) {
+            readPrimitive(context, statements, int.class, variable);
+            return;
+        }
+        // 长度不会是负数，ZIGZAG也按VARINT写: xxxLen = Varint.readLength(inputStream);
+        JCExpression inputStream = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        JCExpression readExec = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".readLength"), List.of(inputStream));
+        statements.append(treeMaker.Exec(treeMaker.Assign(variable, readExec)));
+    }
+
+    /**
+     * 读一个基础类型
+     * @param context 生成上下文
+     * @param primitiveClass 基础类型
+     * @return JCExpressionStatement
+     */
+    private JCExpression doReadAnPrimitive(GenerationContext context, Class<?> primitiveClass) {
+        // 变长编码
+        String varintAccess = Utils.getVarintAccess("read", primitiveClass, context.encoding);
+        if (varintAccess != null) {
+            JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+            JCExpression readExec = treeMaker.Apply(List.nil(), memberAccess(VARINT + "." + varintAccess), List.of(args));
+            // short按int编码，读出来需要强转
+            if (primitiveClass == short.class) {
+                return treeMaker.TypeCast(treeMaker.TypeIdent(TypeTag.SHORT), readExec);
+            }
+            return readExec;
+        }
+        // 字符串: stringTable.read(inputStream) 或 Strings.readString(inputStream)
+        if (primitiveClass == String.class) {
+            JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+            JCExpression readExec = isStringTable(context) ? memberAccess(names.fromString(STRING_TABLE_NAME), "read") : memberAccess(STRINGS + ".readString");
+            return treeMaker.Apply(List.nil(), readExec, List.of(args));
+        }
+        String readAccess = "read" + Utils.toUpperCaseFirst(primitiveClass.getSimpleName());
+        return treeMaker.Apply(List.nil(), memberAccess(names.fromString(SerializerBound.READ.paramName), readAccess), List.nil());
+    }
+
+    /**
+     * 读null标记
+     * @param context 生成上下文
+     * @param notNull 已有的非null判断(位图)
+     * @return 没有则从流中读一个布尔值
+     */
+    private JCExpression readNullMarker(GenerationContext context, JCExpression notNull) {
+        if (notNull != null) {
+            return notNull;
+        }
+        return treeMaker.Exec(doReadAnPrimitive(context, boolean.class)).getExpression();
+    }
+
+    /**
+     * 读一个null
+     * @param statements 方法体stats
+     * @param variable 变量
+     */
+    private void readNull(ListBuffer<JCStatement> statements, JCExpression variable) {
+        statements.append(treeMaker.Exec(treeMaker.Assign(variable, literalNull())));
+    }
+
+    /**
+     * 为null时的else分支，复用对象时要把旧值置为null
+     * @param context 生成上下文
+     * @param name 变量名
+     * @return else { name = null; }，不复用返回null
+     */
+    private JCStatement readNullElse(GenerationContext context, Name name) {
+        if (!context.reuse) {
+            return null;
+        }
+        ListBuffer<JCStatement> elseStatements = new ListBuffer<>();
+        readNull(elseStatements, treeMaker.Ident(name));
+        return treeMaker.Block(BLOCK_MODIFIERS, elseStatements.toList());
+    }
+
+    /**
+     * 读一个数组
+     * @param context 生成上下文
      * @param statements 方法体stats
      * @param type 变量类型
      * @param variable 变量
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
      */
-    private void writeArray(ListBuffer<JCStatement> statements, ArrayType type, JCVariableDecl variable) {
-        JCBinary notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variable.name), literalNull());
-        // 先写一个布尔值标记集合是否为null
-        writePrimitive(statements, boolean.class, notNull);
+    private void readArray(GenerationContext context, ListBuffer<JCStatement> statements, ArrayType type, JCVariableDecl variable, JCExpression notNull) {
+        // 数组子元素类型
+        Type elementType = type.elemtype;
+        // 先读一个标志
+        notNull = readNullMarker(context, notNull);
         // 如果不为null则展开数组
         ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
 
-        // 先写一个长度
-        JCExpression jcFieldAccess = memberAccess(variable.getName(), "length");
-        writePrimitive(thenStatements, int.class, jcFieldAccess);
+        Name lenName = variable.name.append(names.fromString("Len"));
+        // 读出数组长度
+        JCVariableDecl arrayLen = localVariableDef(lenName, treeMaker.TypeIdent(TypeTag.INT), null);
+        readLength(context, thenStatements.append(arrayLen), treeMaker.Ident(lenName));
+        // 再new一个数组
+        JCNewArray array = treeMaker.NewArray(treeMaker.Type(elementType), List.of(treeMaker.Ident(lenName)), null);
+        if (context.reuse) {
+            // 复用长度一致的数组: if (name == null || name.length != nameLen) name = new T[nameLen];
+            JCExpression isNull = treeMaker.Binary(Tag.EQ, treeMaker.Ident(variable.name), literalNull());
+            JCExpression lengthChanged = treeMaker.Binary(Tag.NE, memberAccess(variable.name, "length"), treeMaker.Ident(lenName));
+            JCStatement newArray = treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(variable.name), array));
+            thenStatements.append(treeMaker.If(treeMaker.Binary(Tag.OR, isNull, lengthChanged), newArray, null));
+        } else {
+            thenStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(variable.name), array)));
+        }
+        // 基础类型数组整块读
+        String bulkAccess = getBulkArrayAccess(context, SerializerBound.READ, elementType);
+        if (bulkAccess != null) {
+            JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+            JCExpression readExec = memberAccess(ARRAY_CODEC + "." + bulkAccess);
+            thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), readExec, List.of(args, treeMaker.Ident(variable.name)))));
+            statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), readNullElse(context, variable.name)));
+            return;
+        }
         // 然后for循环
         ListBuffer<JCStatement> forStatements = new ListBuffer<>();
         // 索引 name_i
         Name stepName = variable.getName().append(names.fromString("_i"));
         // int name_i = 0;
         List<JCStatement> init = List.of(localVariableDef(stepName, treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0)));
-        // name_i < name.length
-        JCBinary cond = treeMaker.Binary(Tag.LT, treeMaker.Ident(stepName), jcFieldAccess);
+        // name_i < nameLen
+        JCBinary cond = treeMaker.Binary(Tag.LT, treeMaker.Ident(stepName), treeMaker.Ident(lenName));
         // name_i++
         List<JCExpressionStatement> step = List.of(autoIncrement(stepName));
-        // for循环内部
-        Name elementName = variable.getName().append(names.fromString(ELEMENT));
-        // 数组子元素类型
-        Type elementType = type.elemtype;
-        // 访问数组元素
+        // 子元素名称
+        Name elementName = variable.name.append(names.fromString(ELEMENT));
         JCArrayAccess element = treeMaker.Indexed(treeMaker.Ident(variable.getName()), treeMaker.Ident(stepName));
         // 多维数组递归
         if (isArray(elementType)) {
-            // 创建一个局部变量接一下
-            JCVariableDecl elementVariable = localVariableDef(elementName, treeMaker.Type(elementType), element);
-            writeArray(forStatements.append(elementVariable), (ArrayType) elementType, elementVariable);
+            JCVariableDecl elementVariable = localVariableDef(elementName, treeMaker.Type(elementType), reuseElement(context, variable.name, stepName));
+            readArray(context, forStatements.append(elementVariable), (ArrayType) elementType, elementVariable, null);
+            forStatements.append(treeMaker.Exec(treeMaker.Assign(element, treeMaker.Ident(elementName))));
             thenStatements.append(treeMaker.ForLoop(init, cond, step, treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
             JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-            statements.append(treeMaker.If(notNull, body, null));
+            statements.append(treeMaker.If(notNull, body, readNullElse(context, variable.name)));
             return;
         }
-        // 基础类型或自定义序列化对象直接写，其他类型创建一个局部变量
+        // 基础类型直接读
         if (isPrimitiveType(elementType)) {
-            writePrimitive(forStatements, elementType, element);
-        } else if (isSerializable(elementType) && !isAbstract(elementType)) {
-            writeSerializable(forStatements, element);
+            readPrimitive(context, forStatements, elementType, element);
+        } else if (isDirectSerializable(elementType)) {
+            readSerializable(context, forStatements, elementType, element, null);
         } else {
-            // 创建一个局部变量接一下
-            JCVariableDecl elementVariable = localVariableDef(elementName, treeMaker.Type(elementType), element);
-            writeVariable(forStatements.append(elementVariable), elementType, elementVariable);
+            JCVariableDecl elementVariable = localVariableDef(elementName, treeMaker.Type(elementType), reuseElement(context, variable.name, stepName));
+            readVariable(context, forStatements.append(elementVariable), elementType, elementVariable, null);
+            forStatements.append(treeMaker.Exec(treeMaker.Assign(element, treeMaker.Ident(elementName))));
         }
 
         thenStatements.append(treeMaker.ForLoop(init, cond, step, treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
         JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-        statements.append(treeMaker.If(notNull, body, null));
+        statements.append(treeMaker.If(notNull, body, readNullElse(context, variable.name)));
     }
 
     /**
-     * 写一个Collection
+     * 读一个Collection
+     * @param context 生成上下文
      * @param statements 方法体stats
      * @param type 变量类型
      * @param variable 变量
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
      */
-    private void writeCollection(ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable) {
-        JCBinary notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variable.name), literalNull());
-        // 先写一个布尔值标记集合是否为null
-        writePrimitive(statements, boolean.class, notNull);
+    private void readCollection(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable, JCExpression notNull) {
+        notNull = readNullMarker(context, notNull);
         // 如果不为null则展开List
         ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
         ListBuffer<JCStatement> forStatements = new ListBuffer<>();
-        // 写长度
-        JCExpressionStatement sizeExec = treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(variable.name, "size"), List.nil()));
-        writePrimitive(thenStatements, int.class, sizeExec.getExpression());
+        // 读出数组长度(分块编码每块单独读)
+        int chunkSize = getChunkSize(context, variable);
+        Name lenName = variable.name.append(names.fromString("Len"));
+        if (chunkSize == 0) {
+            JCVariableDecl arrayLen = localVariableDef(lenName, treeMaker.TypeIdent(TypeTag.INT), null);
+            readLength(context, thenStatements.append(arrayLen), treeMaker.Ident(lenName));
+        }
+        // 集合类型
+        Type collectionType = (Type) type;
         // for展开
-        Type elementType = ((Type) type).getTypeArguments().head;
-        JCVariableDecl element = localVariableDef(variable.name.append(names.fromString(ELEMENT)), treeMaker.Type(elementType), literalNull());
-        // write Value
-        writeVariable(forStatements, elementType, element);
-        thenStatements.append(treeMaker.ForeachLoop(element, treeMaker.Ident(variable.name), treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
+        Type elementType = collectionType.getTypeArguments().head;
+        // 泛型参数
+        JCExpression typeArgs = treeMaker.Type(elementType);
+        // 声明的是接口，则统一用ArrayList实例化
+        String defaultImpl = isSet(collectionType) ? SET_IMPL : (isQueue(collectionType) ? QUEUE_IMPL : LIST_IMPL);
+        // new一个List(分块编码不知道元素总数，不预分配容量)
+        JCNewClass newList = newCollection(collectionType, getImplType(context, variable), defaultImpl, List.of(typeArgs), chunkSize > 0 ? null : lenName);
+        // 元素加到哪个集合(Iterable字段没有add，先读到ArrayList局部变量再赋值)，流式读取时回调: xxxConsumer.accept(e)
+        boolean streamed = isStreamed(context, variable);
+        Name collectionName = streamed ? consumerName(variable.name) : variable.name;
+        String addMethod = streamed ? "accept" : "add";
+        if (streamed) {
+            statements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(variable.name), literalNull())));
+        } else if (isIterable(type)) {
+            collectionName = variable.name.append(names.fromString("List"));
+            JCExpression listType = treeMaker.TypeApply(memberAccess(LIST_IMPL), List.of(treeMaker.Type(elementType)));
+            thenStatements.append(localVariableDef(collectionName, listType, newList));
+            thenStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(variable.name), treeMaker.Ident(collectionName))));
+        } else {
+            thenStatements.append(assignOrClear(context, variable.name, treeMaker.Exec(newList).getExpression()));
+        }
+        // 紧凑格式: PackedCodec.readInts(inputStream, name, nameLen, nullable);
+        if (isPacked(context, variable)) {
+            String packedAccess = "read" + Utils.toUpperCaseFirst(getPrimitiveClass(elementType).getSimpleName()) + "s";
+            JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+            List<JCExpression> packedArgs = List.of(args, treeMaker.Ident(variable.name), treeMaker.Ident(lenName), treeMaker.Literal(!context.variable.nonNull));
+            thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(PACKED_CODEC + "." + packedAccess), packedArgs)));
+            statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), readNullElse(context, variable.name)));
+            return;
+        }
+        // 索引 name_i
+        Name stepName = variable.getName().append(names.fromString("_i"));
+        // int name_i = 0;
+        List<JCStatement> init = List.of(localVariableDef(stepName, treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0)));
+        // name_i < nameLen
+        JCBinary cond = treeMaker.Binary(Tag.LT, treeMaker.Ident(stepName), treeMaker.Ident(lenName));
+        // name_i++
+        List<JCExpressionStatement> step = List.of(autoIncrement(stepName));
+        // 如果是基础类型直接add
+        if (elementType.getKind().isPrimitive()) {
+            List<JCExpression> addArgs = List.of(doReadAnPrimitive(context, getPrimitiveClass(elementType)));
+            forStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(collectionName, addMethod), addArgs)));
+        } else {
+            Name elementName = variable.name.append(names.fromString(ELEMENT));
+            JCVariableDecl element = localVariableDef(elementName, treeMaker.Type(elementType), literalNull());
+            readVariable(context, forStatements.append(element), elementType, element, null);
+            List<JCExpression> addArgs = List.of(treeMaker.Ident(elementName));
+            forStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(collectionName, addMethod), addArgs)));
+        }
+
+        JCStatement forLoop = treeMaker.ForLoop(init, cond, step, treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList()));
+        thenStatements.append(chunkSize > 0 ? readChunks(lenName, forLoop) : forLoop);
         JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-        statements.append(treeMaker.If(notNull, body, null));
+        statements.append(treeMaker.If(notNull, body, readNullElse(context, variable.name)));
+    }
+
+    /**
+     * 读一个基础类型列表
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
+     */
+    private void readPrimitiveList(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable, JCExpression notNull) {
+        notNull = readNullMarker(context, notNull);
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        // 读出长度
+        Name lenName = variable.name.append(names.fromString("Len"));
+        JCVariableDecl listLen = localVariableDef(lenName, treeMaker.TypeIdent(TypeTag.INT), null);
+        readLength(context, thenStatements.append(listLen), treeMaker.Ident(lenName));
+        // name = new IntArrayList(nameLen);
+        JCExpression listType = treeMaker.Type((Type) types.erasure(type));
+        JCNewClass newList = treeMaker.NewClass(null, List.nil(), listType, List.of(treeMaker.Ident(lenName)), null);
+        thenStatements.append(assignOrClear(context, variable.name, newList));
+        // PackedCodec.readIntList(inputStream, name, nameLen);
+        String access = "read" + Utils.toUpperCaseFirst(getPrimitiveListClass(type).getSimpleName()) + "List";
+        JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        List<JCExpression> readArgs = List.of(args, treeMaker.Ident(variable.name), treeMaker.Ident(lenName));
+        thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(PACKED_CODEC + "." + access), readArgs)));
+
+        ListBuffer<JCStatement> elseStatements = new ListBuffer<>();
+        readNull(elseStatements, treeMaker.Ident(variable.name));
+        statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), treeMaker.Block(BLOCK_MODIFIERS, elseStatements.toList())));
+    }
+
+    /**
+     * 读一个map
+     * @param context 生成上下文
+     * @param statements 方法体stats
+     * @param type 变量类型
+     * @param variable 变量
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
+     */
+    private void readMap(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable, JCExpression notNull) {
+        notNull = readNullMarker(context, notNull);
+        // 如果不为null则展开读
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        ListBuffer<JCStatement> forStatements = new ListBuffer<>();
+        // 读出数组长度(分块编码每块单独读)
+        int chunkSize = getChunkSize(context, variable);
+        Name lenName = variable.name.append(names.fromString("Len"));
+        if (chunkSize == 0) {
+            JCVariableDecl arrayLen = localVariableDef(lenName, treeMaker.TypeIdent(TypeTag.INT), null);
+            readLength(context, thenStatements.append(arrayLen), treeMaker.Ident(lenName));
+        }
+        // 集合类型
+        Type mapType = (Type) type;
+        Type keyType = mapType.getTypeArguments().head;
+        Type valueType = mapType.getTypeArguments().last();
+        // 泛型参数
+        ListBuffer<JCExpression> typeArgs = new ListBuffer<>();
+        mapType.getTypeArguments().forEach(t -> typeArgs.append(treeMaker.Type(t)));
+        // new一个Map(声明的是接口，则统一用HashMap实例化，分块编码不预分配容量)
+        JCNewClass newMap = newCollection(mapType, getImplType(context, variable), MAP_IMPL, typeArgs.toList(), chunkSize > 0 ? null : lenName);
+        // 流式读取时回调: xxxConsumer.accept(k, v)
+        boolean streamed = isStreamed(context, variable);
+        if (streamed) {
+            statements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(variable.name), literalNull())));
+        } else {
+            thenStatements.append(assignOrClear(context, variable.name, treeMaker.Exec(newMap).getExpression()));
+        }
+        // for展开
+        // 索引 name_i
+        Name stepName = variable.getName().append(names.fromString("_i"));
+        // int name_i = 0;
+        List<JCStatement> init = List.of(localVariableDef(stepName, treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0)));
+        // name_i < nameLen
+        JCBinary cond = treeMaker.Binary(Tag.LT, treeMaker.Ident(stepName), treeMaker.Ident(lenName));
+        // name_i++
+        List<JCExpressionStatement> step = List.of(autoIncrement(stepName));
+        ListBuffer<JCExpression> putArgs = new ListBuffer<>();
+        Name keyName = variable.name.append(names.fromString("Key"));
+        Name valueName = variable.name.append(names.fromString("Value"));
+
+        readMapArgs(context, keyName, forStatements, putArgs, keyType);
+        readMapArgs(context, valueName, forStatements, putArgs, valueType);
+
+        JCExpression putExec = streamed ? memberAccess(consumerName(variable.name), "accept") : memberAccess(variable.name, "put");
+        forStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), putExec, putArgs.toList())));
+
+        JCStatement forLoop = treeMaker.ForLoop(init, cond, step, treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList()));
+        thenStatements.append(chunkSize > 0 ? readChunks(lenName, forLoop) : forLoop);
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
+        statements.append(treeMaker.If(notNull, body, readNullElse(context, variable.name)));
+    }
+
+    /**
+     * 分块读取的外层循环，逐块读出元素个数直到0
+     * for (int nameLen = Chunks.readLength(inputStream); nameLen != 0; nameLen = Chunks.readLength(inputStream)) {...}
+     * @param lenName 块长度变量名(内层循环按它读元素)
+     * @param chunkStatement 读一块元素的循环
+     * @return for循环
+     */
+    private JCStatement readChunks(Name lenName, JCStatement chunkStatement) {
+        JCExpression readExec = memberAccess(CHUNKS + ".readLength");
+        JCExpression initRead = treeMaker.Apply(List.nil(), readExec, List.of(treeMaker.Ident(names.fromString(SerializerBound.READ.paramName))));
+        List<JCStatement> init = List.of(localVariableDef(lenName, treeMaker.TypeIdent(TypeTag.INT), initRead));
+        JCBinary cond = treeMaker.Binary(Tag.NE, treeMaker.Ident(lenName), treeMaker.Literal(0));
+        JCExpression stepRead = treeMaker.Apply(List.nil(), memberAccess(CHUNKS + ".readLength"), List.of(treeMaker.Ident(names.fromString(SerializerBound.READ.paramName))));
+        List<JCExpressionStatement> step = List.of(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(lenName), stepRead)));
+        return treeMaker.ForLoop(init, cond, step, treeMaker.Block(BLOCK_MODIFIERS, List.of(chunkStatement)));
+    }
+
+    /**
+     * new一个集合或Map，能指定容量的按最终元素个数预分配，读取过程中不会再扩容
+     * @param declaredType 声明的类型
+     * @param implType 指定的实现类(没有则为null)
+     * @param defaultImpl 声明的是接口时的默认实现类
+     * @param typeArgs 泛型参数
+     * @param lenName 元素个数变量名(不知道元素个数为null)
+     * @return new表达式
+     */
+    private JCNewClass newCollection(Type declaredType, TypeMirror implType, String defaultImpl, List<JCExpression> typeArgs, Name lenName) {
+        TypeElement implElement;
+        JCExpression impl;
+        if (implType != null) {
+            implElement = (TypeElement) types.asElement(implType);
+            impl = treeMaker.Type((Type) types.erasure(implType));
+        } else if (declaredType.isInterface()) {
+            // 枚举为key的Map默认用EnumMap
+            if (MAP_IMPL.equals(defaultImpl) && !declaredType.getTypeArguments().isEmpty() && isEnum(declaredType.getTypeArguments().head)) {
+                defaultImpl = ENUM_MAP;
+            }
+            implElement = elements.getTypeElement(defaultImpl);
+            impl = memberAccess(defaultImpl);
+        } else {
+            implElement = (TypeElement) types.asElement(declaredType);
+            impl = treeMaker.Type((Type) types.erasure(declaredType));
+        }
+        // 实现类不是泛型类(比如基础类型特化的集合)则不带泛型参数
+        if (implElement.getTypeParameters().isEmpty()) {
+            typeArgs = List.nil();
+        } else {
+            impl = treeMaker.TypeApply(impl, typeArgs);
+        }
+        List<JCExpression> args = List.nil();
+        if (ENUM_MAP.equals(implElement.getQualifiedName().toString())) {
+            // new EnumMap<>(Xxx.class)
+            Type keyType = (Type) types.erasure(declaredType.getTypeArguments().head);
+            args = List.of(treeMaker.Select(treeMaker.Type(keyType), names._class));
+        } else if (lenName != null && hasCapacityConstructor(implElement)) {
+            JCExpression len = treeMaker.Ident(lenName);
+            // Hash系按负载因子0.75换算容量: (int) (len / 0.75F) + 1
+            if (isAssignableFrom(implElement.asType(), HashMap.class) || isAssignableFrom(implElement.asType(), HashSet.class)) {
+                JCExpression capacity = treeMaker.TypeCast(treeMaker.TypeIdent(TypeTag.INT), treeMaker.Parens(treeMaker.Binary(Tag.DIV, len, treeMaker.Literal(HASH_LOAD_FACTOR))));
+                len = treeMaker.Binary(Tag.PLUS, capacity, treeMaker.Literal(1));
+            }
+            args = List.of(len);
+        }
+        return treeMaker.NewClass(null, typeArgs, impl, args, null);
+    }
+
+    /**
+     * 是否有public的指定容量构造函数(int)
+     * @param element 类元素
+     * @return 有 true
+     */
+    private boolean hasCapacityConstructor(TypeElement element) {
+        TypeInfo typeInfo = getTypeInfo(element.asType());
+        if (typeInfo.capacityConstructor == null) {
+            typeInfo.capacityConstructor = false;
+            for (ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+                if (!constructor.getModifiers().contains(Modifier.PUBLIC) || constructor.getParameters().size() != 1) {
+                    continue;
+                }
+                if (constructor.getParameters().get(0).asType().getKind() == TypeKind.INT) {
+                    typeInfo.capacityConstructor = true;
+                    break;
+                }
+            }
+        }
+        return typeInfo.capacityConstructor;
+    }
+
+    /**
+     * 当前字段指定的集合实现类(只作用于字段本身，不作用于嵌套的集合)
+     * @param context 生成上下文
+     * @param variable 变量
+     * @return 实现类，没有指定返回null
+     */
+    private TypeMirror getImplType(GenerationContext context, JCVariableDecl variable) {
+        if (context.variable == null || context.variable.variable != variable) {
+            return null;
+        }
+        return context.variable.implType;
+    }
+
+    /**
+     * 当前字段是否按紧凑格式编解码(只作用于字段本身)
+     * @param context 生成上下文
+     * @param variable 变量
+     * @return 是 true
+     */
+    private boolean isPacked(GenerationContext context, JCVariableDecl variable) {
+        return context.variable != null && context.variable.variable == variable && context.variable.packed;
     }
 
     /**
-     * 写一个map
-     * @param statements 方法体stats
-     * @param type 变量类型
+     * 当前字段分块编码的每块元素个数(只作用于字段本身)
+     * @param context 生成上下文
      * @param variable 变量
+     * @return 每块最多元素个数，不分块返回0
      */
-    private void writeMap(ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable) {
-        JCBinary notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(variable.name), literalNull());
-        // 先写一个布尔值标记集合是否为null
-        writePrimitive(statements, boolean.class, notNull);
-        // 如果不为null则展开List
-        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
-        ListBuffer<JCStatement> forStatements = new ListBuffer<>();
-        // 写长度
-        JCExpressionStatement sizeExec = treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(variable.name, "size"), List.nil()));
-        writePrimitive(thenStatements, int.class, sizeExec.getExpression());
-        // 取泛型
-        Type keyType = ((Type) type).getTypeArguments().head;
-        Type valueType = ((Type) type).getTypeArguments().last();
-        // Entry
-        JCVariableDecl entryElement = localVariableDef(variable.name.append(names.fromString(ELEMENT)), memberAccess(MAP_ENTRY), null);
-        JCExpressionStatement entrySetExec = treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(variable.name, "entrySet"), List.nil()));
-
-        // write Key
-        JCExpressionStatement keyExec = treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(entryElement.name, "getKey"), List.nil()));
-        JCTypeCast castKey = treeMaker.TypeCast(keyType, keyExec.getExpression());
-        writeMapArgs(forStatements, variable.name.append(names.fromString("Key")), keyType, castKey);
-
-        // write Value
-        JCExpressionStatement valueExec = treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(entryElement.name, "getValue"), List.nil()));
-        JCTypeCast castValue = treeMaker.TypeCast(valueType, valueExec.getExpression());
-        writeMapArgs(forStatements, variable.name.append(names.fromString("Value")), valueType, castValue);
+    private int getChunkSize(GenerationContext context, JCVariableDecl variable) {
+        if (context.variable == null || context.variable.variable != variable) {
+            return 0;
+        }
+        return context.variable.chunkSize;
+    }
 
-        thenStatements.append(treeMaker.ForeachLoop(entryElement, entrySetExec.getExpression(), treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
-        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-        statements.append(treeMaker.If(notNull, body, null));
+    /**
+     * 当前生成的流式read方法中，字段是否逐个元素回调(只作用于字段本身)
+     * @param context 生成上下文
+     * @param variable 变量
+     * @return 是 true
+     */
+    private boolean isStreamed(GenerationContext context, JCVariableDecl variable) {
+        return context.streaming && context.variable != null && context.variable.variable == variable && context.variable.streamed;
     }
 
     /**
-     * 写map的参数
+     * 读map的参数
+     * @param context 生成上下文
+     * @param name 参数名
      * @param statements 方法体stats
-     * @param name 名字
+     * @param putArgs 参数列表
      * @param type 类型
-     * @param variable 变量
      */
-    private void writeMapArgs(ListBuffer<JCStatement> statements, Name name, Type type, JCExpression variable) {
+    private void readMapArgs(GenerationContext context, Name name, ListBuffer<JCStatement> statements, ListBuffer<JCExpression> putArgs, Type type) {
+        // 如果是基础类型直接put
         if (type.getKind().isPrimitive()) {
-            writePrimitive(statements, getPrimitiveClass(type), variable);
+            putArgs.append(doReadAnPrimitive(context, getPrimitiveClass(type)));
         } else {
-            JCVariableDecl elementKey = localVariableDef(name, treeMaker.Type(type), variable);
-            writeVariable(statements.append(elementKey), type, elementKey);
+            JCVariableDecl valueElement = localVariableDef(name, treeMaker.Type(type), literalNull());
+            readVariable(context, statements.append(valueElement), type, valueElement, null);
+            putArgs.append(treeMaker.Ident(name));
         }
     }
 
     /**
-     * 写可序列化的自定义对象
+     * 读一个自定义序列化类型
+     * @param context 生成上下文
      * @param statements 方法体stats
+     * @param type 变量类型
      * @param variable 变量
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
      */
-    private void writeSerializable(ListBuffer<JCStatement> statements, JCExpression variable) {
-        JCBinary notNull = treeMaker.Binary(Tag.NE, variable, literalNull());
+    private void readSerializable(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, JCExpression variable, JCExpression notNull) {
+        // 先读一个null
+        notNull = readNullMarker(context, notNull);
         ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
-        // 先写一个布尔值标记集合是否为null
-        writePrimitive(statements, boolean.class, notNull);
 
-        JCExpression writeExec = treeMaker.Select(variable, names.fromString("writeTo"));
-        JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
-        thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), writeExec, List.of(args))));
+        Type clazzType = (Type) type;
+        // 不为null,则new一个对象
+        JCNewClass newObject;
+        JCExpression clazz = treeMaker.Type(clazzType);
+        if (clazzType.getTypeArguments().size() > 0) {
+            ListBuffer<JCExpression> typeArgs = new ListBuffer<>();
+            clazzType.getTypeArguments().forEach(e -> typeArgs.append(treeMaker.Type(e)));
+            newObject = treeMaker.NewClass(null, typeArgs.toList(), treeMaker.TypeApply(clazz, typeArgs.toList()), List.nil(), null);
+        } else {
+            newObject = treeMaker.NewClass(null, List.nil(), clazz, List.nil(), null);
+        }
 
-        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-        statements.append(treeMaker.If(notNull, body, null));
+        JCStatement assignNew = treeMaker.Exec(treeMaker.Assign(variable, treeMaker.Exec(newObject).getExpression()));
+        if (context.pooledClass != null && isPoolable(type)) {
+            // 从池中借: xxx = XXX_POOL.borrow(); if (xxx == null) xxx = new T();
+            JCExpression borrow = treeMaker.Apply(List.nil(), memberAccess(context.pooledClass.getPoolName(type), "borrow"), List.nil());
+            JCStatement assignBorrow = treeMaker.Exec(treeMaker.Assign(variable, borrow));
+            JCStatement newIfNull = treeMaker.If(treeMaker.Binary(Tag.EQ, variable, literalNull()), assignNew, null);
+            assignNew = treeMaker.Block(BLOCK_MODIFIERS, List.of(assignBorrow, newIfNull));
+        }
+        if (context.references) {
+            // 跟踪引用: xxx = (T) references.readReference(inputStream); if (xxx == null) { xxx = new T(); references.register(xxx); xxx.readFrom(in); }
+            thenStatements.append(treeMaker.Exec(treeMaker.Assign(variable, readReference(clazzType))));
+            ListBuffer<JCStatement> newStatements = new ListBuffer<>();
+            newStatements.append(assignNew);
+            newStatements.append(registerReference(variable));
+            newStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), treeMaker.Select(variable, names.fromString(SerializerBound.READ.accessName)), List.of(treeMaker.Ident(names.fromString(SerializerBound.READ.paramName))))));
+            thenStatements.append(treeMaker.If(treeMaker.Binary(Tag.EQ, variable, literalNull()), treeMaker.Block(BLOCK_MODIFIERS, newStatements.toList()), null));
+        } else if (context.reuse) {
+            // 复用已有的对象: if (xxx == null) xxx = new T();
+            thenStatements.append(treeMaker.If(treeMaker.Binary(Tag.EQ, variable, literalNull()), assignNew, null));
+        } else {
+            thenStatements.append(assignNew);
+        }
+        // xxx.readFrom(in);
+        JCExpression readExec = treeMaker.Select(variable, names.fromString(SerializerBound.READ.accessName));
+        JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        if (!context.references) {
+            thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), readExec, List.of(args))));
+        }
+        JCBlock thenBody = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
+
+        ListBuffer<JCStatement> elseStatements = new ListBuffer<>();
+        elseStatements.append(treeMaker.Exec(treeMaker.Assign(variable, literalNull())));
+        JCBlock elseBody = treeMaker.Block(BLOCK_MODIFIERS, elseStatements.toList());
+
+        statements.append(treeMaker.If(notNull, thenBody, elseBody));
     }
 
     /**
-     * 写一个对象
+     * 生成release方法(把嵌套对象归还到对象池)
+     * @param classWrapper 类包装
+     * @return 方法定义
+     */
+    private JCMethodDecl makeReleaseMethodDecl(JavaClassWrapper classWrapper) {
+        ListBuffer<JCStatement> statements = new ListBuffer<>();
+        // 访问标志
+        JCModifiers modifiers = treeMaker.Modifiers(Flags.PUBLIC);
+        // return void
+        JCExpression resType = treeMaker.TypeIdent(TypeTag.VOID);
+        // 父类也使用对象池则先归还父类的
+        if (hasReleaseMethod(classWrapper.element.getSuperclass())) {
+            JCExpression superExec = memberAccess(names.fromString("super"), RELEASE);
+            statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), superExec, List.nil())));
+        }
+        classWrapper.forEach(variableWrapper -> {
+            TypeMirror type = variableWrapper.element.asType();
+            Name name = variableWrapper.variable.name;
+            if (isPoolable(type)) {
+                // if (xxx != null) { xxx.release(); XXX_POOL.release(xxx); xxx = null; }
+                ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+                releaseObject(thenStatements, classWrapper, type, treeMaker.Ident(name));
+                thenStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(name), literalNull())));
+                JCExpression notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(name), literalNull());
+                statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null));
+            } else if (isArray(type) && isPoolable(((ArrayType) type).elemtype)) {
+                releaseArray(statements, classWrapper, (ArrayType) type, name);
+            } else if ((isCollection(type) && !isPrimitiveList(type)) || isMap(type)) {
+                releaseCollection(statements, classWrapper, type, name);
+            }
+        });
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, statements.toList());
+        // MethodDef(mods, name, restype, typarams, params, thrown, body, defaultValue)
+        return treeMaker.MethodDef(modifiers, names.fromString(RELEASE), resType, List.nil(), List.nil(), List.nil(), body, null);
+    }
+
+    /**
+     * 归还数组中的对象(数组保留，元素置null)
      * @param statements 方法体stats
-     * @param variable 变量
+     * @param classWrapper 类包装
+     * @param type 数组类型
+     * @param name 变量名
      */
-    private void writeObject(ListBuffer<JCStatement> statements, JCExpression variable) {
-        JCExpression writeExec = memberAccess(names.fromString(SerializerBound.WRITE.paramName), "write");
-        statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), writeExec, List.of(variable))));
+    private void releaseArray(ListBuffer<JCStatement> statements, JavaClassWrapper classWrapper, ArrayType type, Name name) {
+        Name stepName = names.fromString(name + "_i");
+        JCExpression element = treeMaker.Indexed(treeMaker.Ident(name), treeMaker.Ident(stepName));
+        // if (xxx[xxx_i] != null) { xxx[xxx_i].release(); XXX_POOL.release(xxx[xxx_i]); xxx[xxx_i] = null; }
+        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+        releaseObject(thenStatements, classWrapper, type.elemtype, element);
+        thenStatements.append(treeMaker.Exec(treeMaker.Assign(element, literalNull())));
+        JCExpression elementNotNull = treeMaker.Binary(Tag.NE, element, literalNull());
+        JCStatement releaseElement = treeMaker.If(elementNotNull, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null);
+        // for (int xxx_i = 0; xxx_i < xxx.length; ++xxx_i)
+        JCVariableDecl step = localVariableDef(stepName, treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0));
+        JCExpression condition = treeMaker.Binary(Tag.LT, treeMaker.Ident(stepName), memberAccess(name, "length"));
+        JCStatement forLoop = treeMaker.ForLoop(List.of(step), condition, List.of(autoIncrement(stepName)), releaseElement);
+        JCExpression notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(name), literalNull());
+        statements.append(treeMaker.If(notNull, forLoop, null));
     }
 
     /**
-     * 读一个变量
+     * 归还集合(或Map的key和value)中的对象并清空集合
      * @param statements 方法体stats
-     * @param type 变量类型
-     * @param variable 变量
+     * @param classWrapper 类包装
+     * @param type 集合或Map类型
+     * @param name 变量名
      */
-    private void readVariable(ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable) {
-        // 数组
-        if (isArray(type)) {
-            readArray(statements, (ArrayType) type, variable);
-            return;
-        }
-        // Collection
-        if (isCollection(type)) {
-            readCollection(statements, type, variable);
-            return;
-        }
-        // Map
-        if (isMap(type)) {
-            readMap(statements, type, variable);
-            return;
+    private void releaseCollection(ListBuffer<JCStatement> statements, JavaClassWrapper classWrapper, TypeMirror type, Name name) {
+        List<Type> typeArgs = ((Type) type).getTypeArguments();
+        boolean map = isMap(type);
+        ListBuffer<JCStatement> releaseStatements = new ListBuffer<>();
+        for (int i = 0; i < typeArgs.size(); ++i) {
+            Type elementType = typeArgs.get(i);
+            if (!isPoolable(elementType)) {
+                continue;
+            }
+            // Map的key和value都可能是从池中借的: xxx.keySet() xxx.values()
+            Name elementName = names.fromString(name + (map ? (i == 0 ? "Key" : "Value") : ELEMENT));
+            JCExpression iterable = map ? treeMaker.Apply(List.nil(), memberAccess(name, i == 0 ? "keySet" : "values"), List.nil()) : treeMaker.Ident(name);
+            // if (xxxElement != null) { xxxElement.release(); XXX_POOL.release(xxxElement); }
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            releaseObject(thenStatements, classWrapper, elementType, treeMaker.Ident(elementName));
+            JCExpression elementNotNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(elementName), literalNull());
+            JCStatement releaseElement = treeMaker.If(elementNotNull, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null);
+            // for (T xxxElement : xxx) {...}
+            JCVariableDecl element = localVariableDef(elementName, treeMaker.Type(elementType), null);
+            releaseStatements.append(treeMaker.ForeachLoop(element, iterable, releaseElement));
         }
-        // 基础类型
-        if (isPrimitiveType(type)) {
-            readPrimitive(statements, type, variable);
+        if (releaseStatements.isEmpty()) {
             return;
         }
-        // 自定义序列化对象
-        if (isSerializable(type) && !isAbstract(type)) {
-            readSerializable(statements, type, treeMaker.Ident(variable.getName()));
-            return;
+        // xxx.clear();
+        releaseStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(name, "clear"), List.nil())));
+        JCExpression notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(name), literalNull());
+        statements.append(treeMaker.If(notNull, treeMaker.Block(BLOCK_MODIFIERS, releaseStatements.toList()), null));
+    }
+
+    /**
+     * 归还一个对象(对象自己也使用对象池则先归还它的嵌套对象)
+     * @param statements 方法体stats
+     * @param classWrapper 类包装
+     * @param type 对象类型
+     * @param variable 对象
+     */
+    private void releaseObject(ListBuffer<JCStatement> statements, JavaClassWrapper classWrapper, TypeMirror type, JCExpression variable) {
+        if (hasReleaseMethod(type)) {
+            statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), treeMaker.Select(variable, names.fromString(RELEASE)), List.nil())));
         }
-        // 其他类型
-        readObject(statements, treeMaker.Ident(variable.getName()));
+        JCExpression release = memberAccess(classWrapper.getPoolName(type), RELEASE);
+        statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), release, List.of(variable))));
     }
 
     /**
-     * 读基础类型
+     * 读多态对象: 按typeId直接new对应的子类，编译时不认识的typeId从默认注册表新建
+     * @param context 生成上下文
      * @param statements 方法体stats
      * @param type 变量类型
-     * @param variable 变量
+     * @param subTypes 子类
+     * @param name 变量名
      */
-    private void readPrimitive(ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable) {
-        // 包装类型得先读个布尔值
-        if (isWrapper(type)) {
-            // 先读一个标志
-            JCExpression notNull = treeMaker.Exec(doReadAnPrimitive(boolean.class)).getExpression();
-            // 如果不为null则继续读
+    private void readPolymorphic(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, List<TypeElement> subTypes, Name name) {
+        // 跟踪引用: xxx = (T) references.readReference(inputStream); if (xxx == null) {...}
+        ListBuffer<JCStatement> outerStatements = statements;
+        if (context.references) {
+            outerStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(name), readReference((Type) type))));
+            statements = new ListBuffer<>();
+        }
+        // int xxx_type = Varint.readVarInt(inputStream);
+        Name typeIdName = names.fromString(name + TYPE_ID);
+        JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        JCExpression readTypeId = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".readVarInt"), List.of(args));
+        statements.append(localVariableDef(typeIdName, treeMaker.TypeIdent(TypeTag.INT), readTypeId));
+        // 编译时不认识的typeId从默认注册表新建: else { xxx = (T) SerializableTypes.getDefault().newPolymorphic(xxx_type, T.class); SerializableTypes.getDefault().readPolymorphic(inputStream, xxx); }
+        ListBuffer<JCStatement> defaultStatements = new ListBuffer<>();
+        JCExpression typeClass = treeMaker.Select(treeMaker.Type((Type) types.erasure(type)), names._class);
+        JCExpression newDefault = treeMaker.Apply(List.nil(), treeMaker.Select(defaultTypes(), names.fromString("newPolymorphic")), List.of(treeMaker.Ident(typeIdName), typeClass));
+        defaultStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(name), treeMaker.TypeCast(treeMaker.Type((Type) type), newDefault))));
+        if (context.references) {
+            defaultStatements.append(registerReference(treeMaker.Ident(name)));
+        }
+        List<JCExpression> readArgs = List.of(treeMaker.Ident(names.fromString(SerializerBound.READ.paramName)), treeMaker.Ident(name));
+        defaultStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), treeMaker.Select(defaultTypes(), names.fromString("readPolymorphic")), readArgs)));
+        JCStatement elseStatement = treeMaker.Block(BLOCK_MODIFIERS, defaultStatements.toList());
+        // else if (xxx_type == typeId) { xxx = new T(); ((T) xxx).readFrom(inputStream); }
+        for (TypeElement subType : getDirectTypes(subTypes).reverse()) {
             ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
-            readPrimitive(thenStatements, getPrimitiveClass(type), treeMaker.Ident(variable.name));
-            JCBlock thenBody = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-
-            ListBuffer<JCStatement> elseStatements = new ListBuffer<>();
-            readNull(elseStatements, treeMaker.Ident(variable.name));
-            JCBlock elseBody = treeMaker.Block(BLOCK_MODIFIERS, elseStatements.toList());
-
-            statements.append(treeMaker.If(notNull, thenBody, elseBody));
-        } else {
-            readPrimitive(statements, getPrimitiveClass(type), treeMaker.Ident(variable.name));
+            JCExpression newObject = treeMaker.NewClass(null, List.nil(), treeMaker.Type((Type) subType.asType()), List.nil(), null);
+            thenStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(name), newObject)));
+            if (context.references) {
+                thenStatements.append(registerReference(treeMaker.Ident(name)));
+            }
+            JCExpression subTypeExpr = treeMaker.Type((Type) subType.asType());
+            JCExpression readExec = treeMaker.Select(treeMaker.Parens(treeMaker.TypeCast(subTypeExpr, treeMaker.Ident(name))), names.fromString(SerializerBound.READ.accessName));
+            thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), readExec, List.of(treeMaker.Ident(names.fromString(SerializerBound.READ.paramName))))));
+            JCExpression isType = treeMaker.Binary(Tag.EQ, treeMaker.Ident(typeIdName), treeMaker.Literal(getTypeId(subType)));
+            elseStatement = treeMaker.If(isType, treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), elseStatement);
+        }
+        // if (xxx_type == 0) xxx = null;
+        JCExpression isNull = treeMaker.Binary(Tag.EQ, treeMaker.Ident(typeIdName), treeMaker.Literal(NULL_TYPE_ID));
+        JCStatement assignNull = treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(name), literalNull()));
+        statements.append(treeMaker.If(isNull, assignNull, elseStatement));
+        if (context.references) {
+            JCExpression isNew = treeMaker.Binary(Tag.EQ, treeMaker.Ident(name), literalNull());
+            outerStatements.append(treeMaker.If(isNew, treeMaker.Block(BLOCK_MODIFIERS, statements.toList()), null));
         }
     }
 
     /**
-     * 读基础类型
+     * 把方法体包在引用表里
+     * ReferenceTable references = ReferenceTable.enterXxx(...); try { ... } finally { references.exit(); }
      * @param statements 方法体stats
-     * @param type 变量类型
+     * @param enter 进入引用表的调用
+     * @return 新的方法体stats
+     */
+    private List<JCStatement> wrapReferences(List<JCStatement> statements, JCExpression enter) {
+        Name referencesName = names.fromString(REFERENCES_NAME);
+        JCVariableDecl table = localVariableDef(referencesName, memberAccess(REFERENCE_TABLE), enter);
+        JCExpression exit = treeMaker.Apply(List.nil(), memberAccess(referencesName, "exit"), List.nil());
+        JCBlock finallyBody = treeMaker.Block(BLOCK_MODIFIERS, List.of(treeMaker.Exec(exit)));
+        return List.of(table, treeMaker.Try(treeMaker.Block(BLOCK_MODIFIERS, statements), List.nil(), finallyBody));
+    }
+
+    /**
+     * 写引用
      * @param variable 变量
+     * @return references.writeReference(outputStream, xxx)
      */
-    private void readPrimitive(ListBuffer<JCStatement> statements, TypeMirror type, JCExpression variable) {
-        // 包装类型得先读个布尔值
-        if (isWrapper(type)) {
-            // 先读一个标志
-            JCExpression notNull = treeMaker.Exec(doReadAnPrimitive(boolean.class)).getExpression();
-            // 如果不为null则继续读
-            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
-            readPrimitive(thenStatements, getPrimitiveClass(type), variable);
-            JCBlock thenBody = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
+    private JCExpression writeReference(JCExpression variable) {
+        JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.WRITE.paramName));
+        return treeMaker.Apply(List.nil(), memberAccess(names.fromString(REFERENCES_NAME), "writeReference"), List.of(args, variable));
+    }
 
-            ListBuffer<JCStatement> elseStatements = new ListBuffer<>();
-            readNull(elseStatements, variable);
-            JCBlock elseBody = treeMaker.Block(BLOCK_MODIFIERS, elseStatements.toList());
+    /**
+     * 计算引用的长度: 新对象 1 + 内容，已出现的对象只有引用
+     * if (references.track(xxx)) { serializedSize += 1; 内容 } else { serializedSize += references.sizeOfReference(xxx); }
+     * @param context 生成上下文
+     * @param sizeStatements 计算内容长度的stats
+     * @param variable 变量
+     * @return 新的stats
+     */
+    private ListBuffer<JCStatement> sizeReference(GenerationContext context, ListBuffer<JCStatement> sizeStatements, JCExpression variable) {
+        JCExpression track = treeMaker.Apply(List.nil(), memberAccess(names.fromString(REFERENCES_NAME), "track"), List.of(variable));
+        ListBuffer<JCStatement> newStatements = new ListBuffer<>();
+        addSize(context, newStatements, treeMaker.Literal(sizeOfVarInt(0)));
+        newStatements.appendList(sizeStatements);
+        ListBuffer<JCStatement> refStatements = new ListBuffer<>();
+        addSize(context, refStatements, treeMaker.Apply(List.nil(), memberAccess(names.fromString(REFERENCES_NAME), "sizeOfReference"), List.of(variable)));
+        JCBlock newBody = treeMaker.Block(BLOCK_MODIFIERS, newStatements.toList());
+        return new ListBuffer<JCStatement>().append(treeMaker.If(track, newBody, treeMaker.Block(BLOCK_MODIFIERS, refStatements.toList())));
+    }
 
-            statements.append(treeMaker.If(notNull, thenBody, elseBody));
-        } else {
-            readPrimitive(statements, getPrimitiveClass(type), variable);
-        }
+    /**
+     * 读引用
+     * @param type 变量类型
+     * @return (T) references.readReference(inputStream)
+     */
+    private JCExpression readReference(Type type) {
+        JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        JCExpression readExec = treeMaker.Apply(List.nil(), memberAccess(names.fromString(REFERENCES_NAME), "readReference"), List.of(args));
+        return treeMaker.TypeCast(treeMaker.Type(type), readExec);
     }
 
     /**
-     * 读基础类型
-     * @param statements 方法体stats
-     * @param primitiveClass 基础类型
+     * 登记新读出的对象
      * @param variable 变量
+     * @return references.register(xxx);
      */
-    private void readPrimitive(ListBuffer<JCStatement> statements, Class<?> primitiveClass, JCExpression variable) {
-        JCMethodInvocation jcMethodInvocation = doReadAnPrimitive(primitiveClass);
-        // xxx = xxx;
-        JCAssign jcAssign = treeMaker.Assign(variable, jcMethodInvocation);
-        statements.append(treeMaker.Exec(jcAssign));
+    private JCStatement registerReference(JCExpression variable) {
+        return treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(names.fromString(REFERENCES_NAME), "register"), List.of(variable)));
     }
 
     /**
-     * 读一个基础类型
-     * @param primitiveClass 基础类型
-     * @return JCExpressionStatement
+     * 字段是否选中: (fieldMask &amp; (1L &lt;&lt; index)) != 0L
+     * @param index 字段序号
+     * @return 判断表达式
      */
-    private JCMethodInvocation doReadAnPrimitive(Class<?> primitiveClass) {
-        String readAccess = "read" + Utils.toUpperCaseFirst(primitiveClass.getSimpleName());
-        return treeMaker.Apply(List.nil(), memberAccess(names.fromString(SerializerBound.READ.paramName), readAccess), List.nil());
+    private JCExpression isFieldSelected(int index) {
+        JCExpression masked = treeMaker.Parens(treeMaker.Binary(Tag.BITAND, treeMaker.Ident(names.fromString(FIELD_MASK)), nullBitMask(index)));
+        return treeMaker.Binary(Tag.NE, masked, treeMaker.Literal(0L));
     }
 
     /**
-     * 读一个null
+     * 生成跳过一个对象的静态方法(嵌套对象、多态对象不需要读出时调用，不new对象): 先跳过父类，再按doRead的顺序跳过字段
+     * public static void skipFrom(InputStream inputStream) throws IOException
+     * @param classWrapper 类包装
+     * @return 方法定义
+     */
+    private JCMethodDecl makeSkipMethodDecl(JavaClassWrapper classWrapper) {
+        ListBuffer<JCStatement> statements = new ListBuffer<>();
+        Name paramName = names.fromString(SerializerBound.READ.paramName);
+        JCVariableDecl param = treeMaker.VarDef(treeMaker.Modifiers(Flags.PARAMETER), paramName, memberAccess(SerializerBound.READ.getStreamClass()), null);
+        // Super.skipFrom(inputStream);
+        if (isSerializableAssignableFrom(classWrapper.element.asType())) {
+            statements.append(skipFrom(classWrapper.element.getSuperclass()));
+        }
+        readNullBitmap(statements, classWrapper);
+        if (classWrapper.tagged) {
+            // 字段都带标记和wire type: TaggedCodec.skipFields(inputStream);
+            JCExpression skipExec = memberAccess(TAGGED_CODEC + ".skipFields");
+            statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), skipExec, List.of(treeMaker.Ident(paramName)))));
+        } else {
+            // 字符串表里的字符串要登记，后面的引用才能跳过
+            GenerationContext context = GenerationContext.NONE.withStringTable(classWrapper.stringTable);
+            makeStringTable(context, statements);
+            for (VariableWrapper variableWrapper : classWrapper.variableList) {
+                JCExpression notNull = variableWrapper.nullBit >= 0 ? testNullBit(variableWrapper.nullBit) : null;
+                skipField(context.withVariable(variableWrapper), statements, variableWrapper, notNull);
+            }
+        }
+        JCModifiers modifiers = treeMaker.Modifiers(Flags.PUBLIC | Flags.STATIC);
+        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, statements.toList());
+        return treeMaker.MethodDef(modifiers, names.fromString(SKIP_FROM), treeMaker.TypeIdent(TypeTag.VOID), List.nil(), List.of(param), List.of(memberAccess(IO_EXCEPTION)), body, null);
+    }
+
+    /**
+     * 跳过一个对象
+     * @param type 对象类型(有skipFrom)
+     * @return T.skipFrom(inputStream);
+     */
+    private JCStatement skipFrom(TypeMirror type) {
+        JCExpression skipExec = treeMaker.Select(treeMaker.Type((Type) types.erasure(type)), names.fromString(SKIP_FROM));
+        return treeMaker.Exec(treeMaker.Apply(List.nil(), skipExec, List.of(treeMaker.Ident(names.fromString(SerializerBound.READ.paramName)))));
+    }
+
+    /**
+     * 跳过一个没选中的字段
+     * @param context 生成上下文
      * @param statements 方法体stats
-     * @param variable 变量
+     * @param variableWrapper 字段包装
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
      */
-    private void readNull(ListBuffer<JCStatement> statements, JCExpression variable) {
-        statements.append(treeMaker.Exec(treeMaker.Assign(variable, literalNull())));
+    private void skipField(GenerationContext context, ListBuffer<JCStatement> statements, VariableWrapper variableWrapper, JCExpression notNull) {
+        TypeMirror type = variableWrapper.element.asType();
+        JCExpression inputStream = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        // 延迟解码的字段有长度前缀: Skips.skipBytes(inputStream, Varint.readLength(inputStream));
+        if (variableWrapper.lazy) {
+            JCExpression readLength = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".readLength"), List.of(inputStream));
+            JCExpression skipExec = treeMaker.Apply(List.nil(), memberAccess(SKIPS + ".skipBytes"), List.of(inputStream, readLength));
+            statements.append(treeMaker.If(readNullMarker(context, notNull), treeMaker.Exec(skipExec), null));
+            return;
+        }
+        // 紧凑编码: 读出位图按非null元素个数跳过
+        if (variableWrapper.packed) {
+            Class<?> elementClass = getPrimitiveClass(((Type) type).getTypeArguments().head);
+            skipPacked(context, statements, variableWrapper.variable.name, elementClass, treeMaker.Literal(!variableWrapper.nonNull), notNull);
+            return;
+        }
+        skipVariable(context, statements, type, variableWrapper.variable.name, notNull);
     }
 
     /**
-     * 读一个数组
+     * 跳过一个变量(与readVariable一一对应，定长的直接跳过字节，字符串、数组、集合按长度跳过)
+     * @param context 生成上下文
      * @param statements 方法体stats
      * @param type 变量类型
-     * @param variable 变量
+     * @param name 变量名(用于生成局部变量名)
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
      */
-    private void readArray(ListBuffer<JCStatement> statements, ArrayType type, JCVariableDecl variable) {
-        // 数组子元素类型
-        Type elementType = type.elemtype;
-        // 先读一个标志
-        JCExpression notNull = treeMaker.Exec(doReadAnPrimitive(boolean.class)).getExpression();
-        // 如果不为null则展开数组
-        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
-
-        Name lenName = variable.name.append(names.fromString("Len"));
-        // 读出数组长度
-        JCVariableDecl arrayLen = localVariableDef(lenName, treeMaker.TypeIdent(TypeTag.INT), null);
-        readPrimitive(thenStatements.append(arrayLen), int.class, treeMaker.Ident(lenName));
-        // 再new一个数组
-        JCNewArray array = treeMaker.NewArray(treeMaker.Type(elementType), List.of(treeMaker.Ident(lenName)), null);
-        thenStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(variable.name), array)));
-        // 然后for循环
-        ListBuffer<JCStatement> forStatements = new ListBuffer<>();
-        // 索引 name_i
-        Name stepName = variable.getName().append(names.fromString("_i"));
-        // int name_i = 0;
-        List<JCStatement> init = List.of(localVariableDef(stepName, treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0)));
-        // name_i < nameLen
-        JCBinary cond = treeMaker.Binary(Tag.LT, treeMaker.Ident(stepName), treeMaker.Ident(lenName));
-        // name_i++
-        List<JCExpressionStatement> step = List.of(autoIncrement(stepName));
-        // 子元素名称
-        Name elementName = variable.name.append(names.fromString(ELEMENT));
-        JCArrayAccess element = treeMaker.Indexed(treeMaker.Ident(variable.getName()), treeMaker.Ident(stepName));
-        // 多维数组递归
-        if (isArray(elementType)) {
-            JCVariableDecl elementVariable = localVariableDef(elementName, treeMaker.Type(elementType), literalNull());
-            readArray(forStatements.append(elementVariable), (ArrayType) elementType, elementVariable);
-            forStatements.append(treeMaker.Exec(treeMaker.Assign(element, treeMaker.Ident(elementName))));
-            thenStatements.append(treeMaker.ForLoop(init, cond, step, treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
-            JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-            statements.append(treeMaker.If(notNull, body, null));
+    private void skipVariable(GenerationContext context, ListBuffer<JCStatement> statements, TypeMirror type, Name name, JCExpression notNull) {
+        // 基础类型
+        if (isPrimitiveType(type)) {
+            if (isWrapper(type)) {
+                ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+                skipPrimitive(context, thenStatements, getPrimitiveClass(type), null);
+                statements.append(treeMaker.If(readNullMarker(context, notNull), treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null));
+            } else {
+                skipPrimitive(context, statements, getPrimitiveClass(type), null);
+            }
+            return;
+        }
+        // 枚举: Varint.readVarLong(inputStream); EnumSet: Enums.skipEnumSet(inputStream);
+        if (isEnum(type) || isEnumSet(type)) {
+            JCExpression inputStream = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+            JCExpression skipExec = memberAccess(isEnum(type) ? VARINT + ".readVarLong" : ENUMS + ".skipEnumSet");
+            JCStatement skipStatement = treeMaker.Exec(treeMaker.Apply(List.nil(), skipExec, List.of(inputStream)));
+            statements.append(treeMaker.If(readNullMarker(context, notNull), treeMaker.Block(BLOCK_MODIFIERS, List.of(skipStatement)), null));
+            return;
+        }
+        // 基础类型列表: 长度 + 定长元素
+        if (isPrimitiveList(type)) {
+            skipPacked(context, statements, name, getPrimitiveListClass(type), null, notNull);
+            return;
+        }
+        // 数组、集合、Map: 长度 + 元素(分块编码的字段每块一个长度)
+        boolean isArray = isArray(type);
+        if (isArray || (isCollection(type) && !isPrimitiveList(type)) || isIterable(type) || isMap(type)) {
+            ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
+            Name lenName = name.append(names.fromString("Len"));
+            boolean chunked = context.variable != null && context.variable.variable.name == name && context.variable.chunkSize > 0;
+            if (!chunked) {
+                JCVariableDecl length = localVariableDef(lenName, treeMaker.TypeIdent(TypeTag.INT), null);
+                readLength(context, thenStatements.append(length), treeMaker.Ident(lenName));
+            }
+            ListBuffer<JCStatement> forStatements = new ListBuffer<>();
+            if (isArray) {
+                Type elementType = ((ArrayType) type).elemtype;
+                // 整块写的基础类型数组一次跳过
+                if (getBulkArrayAccess(context, SerializerBound.READ, elementType) != null) {
+                    skipPrimitive(context, thenStatements, getPrimitiveClass(elementType), treeMaker.Ident(lenName));
+                    statements.append(treeMaker.If(readNullMarker(context, notNull), treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null));
+                    return;
+                }
+                skipVariable(context, forStatements, elementType, name.append(names.fromString(ELEMENT)), null);
+            } else if (isMap(type)) {
+                List<Type> typeArgs = ((Type) type).getTypeArguments();
+                skipVariable(context, forStatements, typeArgs.head, name.append(names.fromString("Key")), null);
+                skipVariable(context, forStatements, typeArgs.last(), name.append(names.fromString("Value")), null);
+            } else {
+                skipVariable(context, forStatements, ((Type) type).getTypeArguments().head, name.append(names.fromString(ELEMENT)), null);
+            }
+            // for (int name_i = 0; name_i < nameLen; ++name_i)
+            Name stepName = name.append(names.fromString("_i"));
+            List<JCStatement> init = List.of(localVariableDef(stepName, treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0)));
+            JCBinary cond = treeMaker.Binary(Tag.LT, treeMaker.Ident(stepName), treeMaker.Ident(lenName));
+            JCStatement forLoop = treeMaker.ForLoop(init, cond, List.of(autoIncrement(stepName)), treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList()));
+            thenStatements.append(chunked ? readChunks(lenName, forLoop) : forLoop);
+            statements.append(treeMaker.If(readNullMarker(context, notNull), treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null));
             return;
         }
-        // 基础类型直接读
-        if (isPrimitiveType(elementType)) {
-            readPrimitive(forStatements, elementType, element);
-        } else if (isSerializable(elementType) && !isAbstract(elementType)) {
-            readSerializable(forStatements, elementType, element);
-        } else {
-            JCVariableDecl elementVariable = localVariableDef(elementName, treeMaker.Type(elementType), literalNull());
-            readVariable(forStatements.append(elementVariable), elementType, elementVariable);
-            forStatements.append(treeMaker.Exec(treeMaker.Assign(element, treeMaker.Ident(elementName))));
+        // 跟踪引用时对象可能只写了引用，要读出来登记
+        if (!context.references) {
+            // 多态对象: 按typeId调子类的skipFrom
+            List<TypeElement> subTypes = getPolymorphicTypes(type);
+            if (subTypes != null) {
+                skipPolymorphic(statements, type, subTypes, name);
+                return;
+            }
+            // 自定义序列化对象: if (inputStream.readBoolean()) T.skipFrom(inputStream);
+            if (isDirectSerializable(type) && hasSkipFrom(type)) {
+                statements.append(treeMaker.If(readNullMarker(context, notNull), skipFrom(type), null));
+                return;
+            }
         }
-
-        thenStatements.append(treeMaker.ForLoop(init, cond, step, treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
-        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-        statements.append(treeMaker.If(notNull, body, null));
+        // 没有skipFrom的自定义序列化对象等没有长度前缀，读到一个丢弃的局部变量
+        JCVariableDecl discard = localVariableDef(name.append(names.fromString("_skip")), treeMaker.Type((Type) type), literalNull());
+        readVariable(context, statements.append(discard), type, discard, notNull);
     }
 
     /**
-     * 读一个Collection
+     * 跳过紧凑编码的集合或者基础类型列表
+     * if (inputStream.readBoolean()) { int nameLen = ...; PackedCodec.skip(inputStream, nameLen, size, nullable); }
+     * @param context 生成上下文
      * @param statements 方法体stats
-     * @param type 变量类型
-     * @param variable 变量
+     * @param name 变量名(用于生成局部变量名)
+     * @param elementClass 元素的基础类型
+     * @param nullable 紧凑编码的集合是否允许null元素(基础类型列表为null，调用PackedCodec.skipList)
+     * @param notNull 是否非null的判断(为null则从流中读null标记)
      */
-    private void readCollection(ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable) {
-        JCExpression notNull = treeMaker.Exec(doReadAnPrimitive(boolean.class)).getExpression();
-        // 如果不为null则展开List
+    private void skipPacked(GenerationContext context, ListBuffer<JCStatement> statements, Name name, Class<?> elementClass, JCExpression nullable, JCExpression notNull) {
         ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
-        ListBuffer<JCStatement> forStatements = new ListBuffer<>();
-        // 读出数组长度
-        Name lenName = variable.name.append(names.fromString("Len"));
-        JCVariableDecl arrayLen = localVariableDef(lenName, treeMaker.TypeIdent(TypeTag.INT), null);
-        readPrimitive(thenStatements.append(arrayLen), int.class, treeMaker.Ident(lenName));
-        // 集合类型
-        Type collectionType = (Type) type;
-        // for展开
-        Type elementType = collectionType.getTypeArguments().head;
-        // 泛型参数
-        JCExpression typeArgs = treeMaker.Type(elementType);
-        JCExpression listImpl; List<JCExpression> args;
-        // 声明的是接口，则统一用ArrayList实例化
-        if (collectionType.isInterface()) {
-            listImpl = isSet(collectionType) ? memberAccess(SET_IMPL) : (isQueue(collectionType) ? memberAccess(QUEUE_IMPL) : memberAccess(LIST_IMPL));
-            args = List.of(treeMaker.Ident(lenName));
-        } else {
-            listImpl = treeMaker.Type((Type) types.erasure(collectionType));
-            args = List.nil();
-        }
-        // new一个List
-        JCNewClass newList = treeMaker.NewClass(null, List.of(typeArgs), treeMaker.TypeApply(listImpl, List.of(typeArgs)), args, null);
-        thenStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(variable.name), treeMaker.Exec(newList).getExpression())));
-        // 索引 name_i
-        Name stepName = variable.getName().append(names.fromString("_i"));
-        // int name_i = 0;
-        List<JCStatement> init = List.of(localVariableDef(stepName, treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0)));
-        // name_i < nameLen
-        JCBinary cond = treeMaker.Binary(Tag.LT, treeMaker.Ident(stepName), treeMaker.Ident(lenName));
-        // name_i++
-        List<JCExpressionStatement> step = List.of(autoIncrement(stepName));
-        // 如果是基础类型直接add
-        if (elementType.getKind().isPrimitive()) {
-            List<JCExpression> addArgs = List.of(doReadAnPrimitive(getPrimitiveClass(elementType)));
-            forStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(variable.name, "add"), addArgs)));
-        } else {
-            Name elementName = variable.name.append(names.fromString(ELEMENT));
-            JCVariableDecl element = localVariableDef(elementName, treeMaker.Type(elementType), literalNull());
-            readVariable(forStatements.append(element), elementType, element);
-            List<JCExpression> addArgs = List.of(treeMaker.Ident(elementName));
-            forStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(variable.name, "add"), addArgs)));
-        }
-
-        thenStatements.append(treeMaker.ForLoop(init, cond, step, treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
-        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-        statements.append(treeMaker.If(notNull, body, null));
+        Name lenName = name.append(names.fromString("Len"));
+        readLength(context, thenStatements.append(localVariableDef(lenName, treeMaker.TypeIdent(TypeTag.INT), null)), treeMaker.Ident(lenName));
+        JCExpression inputStream = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        List<JCExpression> args = List.of(inputStream, treeMaker.Ident(lenName), treeMaker.Literal(Utils.getFixedSize(elementClass)));
+        JCExpression skipExec = memberAccess(PACKED_CODEC + (nullable == null ? ".skipList" : ".skip"));
+        thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), skipExec, nullable == null ? args : args.append(nullable))));
+        statements.append(treeMaker.If(readNullMarker(context, notNull), treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList()), null));
     }
 
     /**
-     * 读一个map
+     * 跳过多态对象: 编译时认识的子类调skipFrom(没有的new出来读掉)，不认识的typeId从默认注册表新建后读掉
+     * int xxx_type = Varint.readVarInt(inputStream); if (xxx_type == typeId) T.skipFrom(inputStream); else if (xxx_type != 0) {...}
      * @param statements 方法体stats
      * @param type 变量类型
-     * @param variable 变量
+     * @param subTypes 子类
+     * @param name 变量名(用于生成局部变量名)
      */
-    private void readMap(ListBuffer<JCStatement> statements, TypeMirror type, JCVariableDecl variable) {
-        JCExpression notNull = treeMaker.Exec(doReadAnPrimitive(boolean.class)).getExpression();
-        // 如果不为null则展开读
-        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
-        ListBuffer<JCStatement> forStatements = new ListBuffer<>();
-        // 读出数组长度
-        Name lenName = variable.name.append(names.fromString("Len"));
-        JCVariableDecl arrayLen = localVariableDef(lenName, treeMaker.TypeIdent(TypeTag.INT), null);
-        readPrimitive(thenStatements.append(arrayLen), int.class, treeMaker.Ident(lenName));
-        // 集合类型
-        Type mapType = (Type) type;
-        Type keyType = mapType.getTypeArguments().head;
-        Type valueType = mapType.getTypeArguments().last();
-        // 泛型参数
-        ListBuffer<JCExpression> typeArgs = new ListBuffer<>();
-        mapType.getTypeArguments().forEach(t -> typeArgs.append(treeMaker.Type(t)));
-        JCExpression mapImpl; List<JCExpression> args;
-        // 声明的是接口，则统一用HashMap实例化
-        if (mapType.isInterface()) {
-            mapImpl = memberAccess(MAP_IMPL);
-            args = List.of(treeMaker.Ident(lenName));
-        } else {
-            mapImpl = treeMaker.Type((Type) types.erasure(mapType));
-            args = List.nil();
+    private void skipPolymorphic(ListBuffer<JCStatement> statements, TypeMirror type, List<TypeElement> subTypes, Name name) {
+        JCExpression inputStream = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        Name typeIdName = names.fromString(name + TYPE_ID);
+        JCExpression readTypeId = treeMaker.Apply(List.nil(), memberAccess(VARINT + ".readVarInt"), List.of(inputStream));
+        statements.append(localVariableDef(typeIdName, treeMaker.TypeIdent(TypeTag.INT), readTypeId));
+        // else if (xxx_type != 0) SerializableTypes.getDefault().readPolymorphic(inputStream, SerializableTypes.getDefault().newPolymorphic(xxx_type, T.class));
+        JCExpression typeClass = treeMaker.Select(treeMaker.Type((Type) types.erasure(type)), names._class);
+        JCExpression newDefault = treeMaker.Apply(List.nil(), treeMaker.Select(defaultTypes(), names.fromString("newPolymorphic")), List.of(treeMaker.Ident(typeIdName), typeClass));
+        JCExpression readDefault = treeMaker.Apply(List.nil(), treeMaker.Select(defaultTypes(), names.fromString("readPolymorphic")), List.of(treeMaker.Ident(names.fromString(SerializerBound.READ.paramName)), newDefault));
+        JCExpression notNull = treeMaker.Binary(Tag.NE, treeMaker.Ident(typeIdName), treeMaker.Literal(NULL_TYPE_ID));
+        JCStatement elseStatement = treeMaker.If(notNull, treeMaker.Exec(readDefault), null);
+        // if (xxx_type == typeId) T.skipFrom(inputStream); 或 new T().readFrom(inputStream);
+        for (TypeElement subType : getDirectTypes(subTypes).reverse()) {
+            JCStatement thenStatement;
+            if (hasSkipFrom(subType.asType())) {
+                thenStatement = skipFrom(subType.asType());
+            } else {
+                JCExpression newObject = treeMaker.NewClass(null, List.nil(), treeMaker.Type((Type) subType.asType()), List.nil(), null);
+                JCExpression readExec = treeMaker.Select(newObject, names.fromString(SerializerBound.READ.accessName));
+                thenStatement = treeMaker.Exec(treeMaker.Apply(List.nil(), readExec, List.of(treeMaker.Ident(names.fromString(SerializerBound.READ.paramName)))));
+            }
+            JCExpression isType = treeMaker.Binary(Tag.EQ, treeMaker.Ident(typeIdName), treeMaker.Literal(getTypeId(subType)));
+            elseStatement = treeMaker.If(isType, thenStatement, elseStatement);
         }
-        // new一个Map
-        JCNewClass newMap = treeMaker.NewClass(null, typeArgs.toList(), treeMaker.TypeApply(mapImpl, typeArgs.toList()), args, null);
-        thenStatements.append(treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(variable.name), treeMaker.Exec(newMap).getExpression())));
-        // for展开
-        // 索引 name_i
-        Name stepName = variable.getName().append(names.fromString("_i"));
-        // int name_i = 0;
-        List<JCStatement> init = List.of(localVariableDef(stepName, treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0)));
-        // name_i < nameLen
-        JCBinary cond = treeMaker.Binary(Tag.LT, treeMaker.Ident(stepName), treeMaker.Ident(lenName));
-        // name_i++
-        List<JCExpressionStatement> step = List.of(autoIncrement(stepName));
-        ListBuffer<JCExpression> putArgs = new ListBuffer<>();
-        Name keyName = variable.name.append(names.fromString("Key"));
-        Name valueName = variable.name.append(names.fromString("Value"));
-
-        readMapArgs(keyName, forStatements, putArgs, keyType);
-        readMapArgs(valueName, forStatements, putArgs, valueType);
-
-        forStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(variable.name, "put"), putArgs.toList())));
-
-        thenStatements.append(treeMaker.ForLoop(init, cond, step, treeMaker.Block(BLOCK_MODIFIERS, forStatements.toList())));
-        JCBlock body = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-        statements.append(treeMaker.If(notNull, body, null));
+        statements.append(elseStatement);
     }
 
     /**
-     * 读map的参数
-     * @param name 参数名
+     * 跳过基础类型
+     * @param context 生成上下文
      * @param statements 方法体stats
-     * @param putArgs 参数列表
-     * @param type 类型
+     * @param primitiveClass 基础类型类
+     * @param count 个数(单个为null)
      */
-    private void readMapArgs(Name name, ListBuffer<JCStatement> statements, ListBuffer<JCExpression> putArgs, Type type) {
-        // 如果是基础类型直接put
-        if (type.getKind().isPrimitive()) {
-            putArgs.append(doReadAnPrimitive(getPrimitiveClass(type)));
-        } else {
-            JCVariableDecl valueElement = localVariableDef(name, treeMaker.Type(type), literalNull());
-            readVariable(statements.append(valueElement), type, valueElement);
-            putArgs.append(treeMaker.Ident(name));
+    private void skipPrimitive(GenerationContext context, ListBuffer<JCStatement> statements, Class<?> primitiveClass, JCExpression count) {
+        JCExpression inputStream = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
+        // 变长: Varint.readVarLong(inputStream);
+        if (Utils.getVarintAccess("read", primitiveClass, context.encoding) != null) {
+            statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(VARINT + ".readVarLong"), List.of(inputStream))));
+            return;
+        }
+        // 字符串表里的字符串要读出来登记，后面的引用才能对上
+        if (primitiveClass == String.class && isStringTable(context)) {
+            statements.append(treeMaker.Exec(doReadAnPrimitive(context, primitiveClass)));
+            return;
+        }
+        // 字符串: Skips.skipString(inputStream);
+        if (primitiveClass == String.class) {
+            statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(SKIPS + ".skipString"), List.of(inputStream))));
+            return;
+        }
+        // 定长: Skips.skipBytes(inputStream, size [* count]);
+        JCExpression length = treeMaker.Literal(Utils.getFixedSize(primitiveClass));
+        if (count != null) {
+            length = treeMaker.Binary(Tag.MUL, count, length);
         }
+        statements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(SKIPS + ".skipBytes"), List.of(inputStream, length))));
     }
 
     /**
-     * 读一个自定义序列化类型
-     * @param statements 方法体stats
-     * @param type 变量类型
-     * @param variable 变量
+     * 给集合赋值，复用模式下已有的集合清空后复用
+     * @param context 生成上下文
+     * @param name 变量名
+     * @param newCollection new集合的表达式
+     * @return name = new T(); 或 if (name == null) name = new T(); else name.clear();
      */
-    private void readSerializable(ListBuffer<JCStatement> statements, TypeMirror type, JCExpression variable) {
-        // 先读一个null
-        JCExpression notNull = treeMaker.Exec(doReadAnPrimitive(boolean.class)).getExpression();
-        ListBuffer<JCStatement> thenStatements = new ListBuffer<>();
-
-        Type clazzType = (Type) type;
-        // 不为null,则new一个对象
-        JCNewClass newObject;
-        JCExpression clazz = treeMaker.Type(clazzType);
-        if (clazzType.getTypeArguments().size() > 0) {
-            ListBuffer<JCExpression> typeArgs = new ListBuffer<>();
-            clazzType.getTypeArguments().forEach(e -> typeArgs.append(treeMaker.Type(e)));
-            newObject = treeMaker.NewClass(null, typeArgs.toList(), treeMaker.TypeApply(clazz, typeArgs.toList()), List.nil(), null);
-        } else {
-            newObject = treeMaker.NewClass(null, List.nil(), clazz, List.nil(), null);
+    private JCStatement assignOrClear(GenerationContext context, Name name, JCExpression newCollection) {
+        JCStatement assignNew = treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(name), newCollection));
+        if (!context.reuse) {
+            return assignNew;
         }
+        JCExpression isNull = treeMaker.Binary(Tag.EQ, treeMaker.Ident(name), literalNull());
+        JCStatement clear = treeMaker.Exec(treeMaker.Apply(List.nil(), memberAccess(name, "clear"), List.nil()));
+        return treeMaker.If(isNull, assignNew, clear);
+    }
 
-        thenStatements.append(treeMaker.Exec(treeMaker.Assign(variable, treeMaker.Exec(newObject).getExpression())));
-        // xxx.readFrom(in);
-        JCExpression readExec = treeMaker.Select(variable, names.fromString(SerializerBound.READ.accessName));
-        JCExpression args = treeMaker.Ident(names.fromString(SerializerBound.READ.paramName));
-        thenStatements.append(treeMaker.Exec(treeMaker.Apply(List.nil(), readExec, List.of(args))));
-        JCBlock thenBody = treeMaker.Block(BLOCK_MODIFIERS, thenStatements.toList());
-
-        ListBuffer<JCStatement> elseStatements = new ListBuffer<>();
-        elseStatements.append(treeMaker.Exec(treeMaker.Assign(variable, literalNull())));
-        JCBlock elseBody = treeMaker.Block(BLOCK_MODIFIERS, elseStatements.toList());
-
-        statements.append(treeMaker.If(notNull, thenBody, elseBody));
+    /**
+     * 数组元素局部变量的初始值，复用模式下取数组中已有的元素
+     * @param context 生成上下文
+     * @param arrayName 数组变量名
+     * @param stepName 索引变量名
+     * @return name[name_i] 或 null
+     */
+    private JCExpression reuseElement(GenerationContext context, Name arrayName, Name stepName) {
+        if (!context.reuse) {
+            return literalNull();
+        }
+        return treeMaker.Indexed(treeMaker.Ident(arrayName), treeMaker.Ident(stepName));
     }
 
     /**
@@ -947,16 +4211,7 @@ public class SerializerProcessor extends AbstractProcessor {
      * @return 可以 true
      */
     private boolean isSerializable(TypeMirror type) {
-        if (types.asElement(type).getAnnotation(Serializable.class) != null) {
-            return true;
-        }
-        // 递归查找父类
-        for (TypeMirror superType : types.directSupertypes(type)) {
-            if (isSerializable(superType)) {
-                return true;
-            }
-        }
-        return false;
+        return getTypeInfo(type).serializable;
     }
 
     /**
@@ -966,18 +4221,16 @@ public class SerializerProcessor extends AbstractProcessor {
      * @return 是 true
      */
     private boolean isAssignableFrom(TypeMirror type, Class<?> clazz) {
-        // 先擦除泛型
-        TypeMirror erasureType = types.erasure(type);
-        if (erasureType.toString().equals(clazz.getTypeName())) {
-            return true;
-        }
-        // 递归查找父类
-        for (TypeMirror superType : types.directSupertypes(type)) {
-            if (isAssignableFrom(superType, clazz)) {
-                return true;
-            }
-        }
-        return false;
+        return getTypeInfo(type).supertypes.contains(clazz.getTypeName());
+    }
+
+    /**
+     * 是否按声明的类型直接读写的自定义序列化对象(不是抽象类，也不按多态编码)
+     * @param type 类型
+     * @return 是 true
+     */
+    private boolean isDirectSerializable(TypeMirror type) {
+        return isSerializable(type) && !isAbstract(type) && getPolymorphicTypes(type) == null;
     }
 
     /**
@@ -986,9 +4239,52 @@ public class SerializerProcessor extends AbstractProcessor {
      * @return 是 true
      */
     private boolean isAbstract(TypeMirror type) {
-        return types.asElement(type).getModifiers().contains(Modifier.ABSTRACT);
+        return getTypeInfo(type).abstractType;
     }
-    
+
+    /**
+     * 类型信息(按擦除后的类型缓存，每个类型只遍历一次父类)
+     * @param type 类型
+     * @return 类型信息
+     */
+    private TypeInfo getTypeInfo(TypeMirror type) {
+        return typeInfos.get(type);
+    }
+
+    /**
+     * 是否可以从对象池借出(按声明类型读写、无泛型参数的自定义序列化对象)
+     * @param type 类型
+     * @return 可以 true
+     */
+    private boolean isPoolable(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED || !isDirectSerializable(type)) {
+            return false;
+        }
+        return ((DeclaredType) type).getTypeArguments().isEmpty();
+    }
+
+    /**
+     * 是否有生成的release方法(使用对象池且有序列化字段)
+     * @param type 类型
+     * @return 有 true
+     */
+    private boolean hasReleaseMethod(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        Element element = types.asElement(type);
+        SerializableOptions classOptions = element.getAnnotation(SerializableOptions.class);
+        if (classOptions == null || !classOptions.pooled()) {
+            return false;
+        }
+        for (Element field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+            if (field.getAnnotation(SerializerField.class) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 是否基础类型（包含包装类型）
      * @param type 类型
@@ -1032,21 +4328,134 @@ public class SerializerProcessor extends AbstractProcessor {
     }
 
     /**
-     * 是否是数组
+     * 是否可为null并由null位图标记(包装类型、枚举、数组、集合、分块编码的Iterable、Map、按声明类型读写的自定义序列化对象)
+     * @param type 类型
+     * @return 是 true
+     */
+    private boolean isNullable(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return false;
+        }
+        if (isArray(type) || isPrimitiveList(type) || isCollection(type) || isIterable(type) || isMap(type) || isWrapper(type) || isEnum(type)) {
+            return true;
+        }
+        return isDirectSerializable(type);
+    }
+
+    /**
+     * 基础类型数组整块编解码的方法名
+     * @param context 生成上下文
+     * @param bound read/write
+     * @param elementType 数组元素类型
+     * @return 方法名，不能整块编解码(非基础类型或变长编码)时返回null
+     */
+    private String getBulkArrayAccess(GenerationContext context, SerializerBound bound, TypeMirror elementType) {
+        if (!elementType.getKind().isPrimitive()) {
+            return null;
+        }
+        String access = bound == SerializerBound.WRITE ? "write" : "read";
+        Class<?> primitiveClass = getPrimitiveClass(elementType);
+        // 变长编码的元素只能逐个写
+        if (Utils.getVarintAccess(access, primitiveClass, context.encoding) != null) {
+            return null;
+        }
+        return access + Utils.toUpperCaseFirst(primitiveClass.getSimpleName()) + "s";
+    }
+
+    /**
+     * 是否是基础类型列表(IntArrayList、LongArrayList)
+     * @param type 类型
+     * @return 是 true
+     */
+    private boolean isPrimitiveList(TypeMirror type) {
+        return getPrimitiveListClass(type) != null;
+    }
+
+    /**
+     * 基础类型列表的元素类型
+     * @param type 类型
+     * @return 元素类型，不是基础类型列表返回null
+     */
+    private Class<?> getPrimitiveListClass(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        String typeName = types.erasure(type).toString();
+        if (INT_LIST.equals(typeName)) {
+            return int.class;
+        }
+        if (LONG_LIST.equals(typeName)) {
+            return long.class;
+        }
+        return null;
+    }
+
+    /**
+     * 是否是数值包装类型(可以紧凑编码)
+     * @param type 类型
+     * @return 是 true
+     */
+    private boolean isNumericWrapper(TypeMirror type) {
+        if (!isWrapper(type)) {
+            return false;
+        }
+        Class<?> primitiveClass = getPrimitiveClass(type);
+        return primitiveClass != boolean.class && primitiveClass != String.class;
+    }
+
+    /**
+     * 是否是数组
+     * @param type 类型
+     * @return 是 true
+     */
+    private boolean isArray(TypeMirror type) {
+        return type.getKind() == TypeKind.ARRAY;
+    }
+
+    /**
+     * 是否是枚举
+     * @param type 类型
+     * @return 是 true
+     */
+    private boolean isEnum(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && types.asElement(type).getKind() == ElementKind.ENUM;
+    }
+
+    /**
+     * 是否是EnumSet(声明的类型，按位图编解码)
+     * @param type 类型
+     * @return 是 true
+     */
+    private boolean isEnumSet(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && ENUM_SET.equals(types.erasure(type).toString());
+    }
+
+    /**
+     * 是否是集合
+     * @param type 类型
+     * @return 是 true
+     */
+    private boolean isCollection(TypeMirror type) {
+        return isAssignableFrom(type, Collection.class);
+    }
+
+    /**
+     * 是否是Iterable本身(只有分块编码的字段可以声明为Iterable)
      * @param type 类型
      * @return 是 true
      */
-    private boolean isArray(TypeMirror type) {
-        return type.getKind() == TypeKind.ARRAY;
+    private boolean isIterable(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && ITERABLE.equals(types.erasure(type).toString());
     }
 
     /**
-     * 是否是集合
-     * @param type 类型
+     * 字段是否指定了分块编码
+     * @param element 变量元素
      * @return 是 true
      */
-    private boolean isCollection(TypeMirror type) {
-        return isAssignableFrom(type, Collection.class);
+    private boolean isChunked(Element element) {
+        SerializerFieldOptions fieldOptions = element.getAnnotation(SerializerFieldOptions.class);
+        return fieldOptions != null && fieldOptions.chunkSize() > 0;
     }
 
     /**
@@ -1110,6 +4519,13 @@ public class SerializerProcessor extends AbstractProcessor {
                 JavaClassWrapper clazz = new JavaClassWrapper(element);
                 // 获取抽象语法树
                 clazz.classDecl = jcClassDecl;
+                clazz.pooled = clazz.checkPooled();
+                SerializableOptions classOptions = element.getAnnotation(SerializableOptions.class);
+                clazz.tagged = classOptions != null && classOptions.tagged();
+                clazz.dirty = classOptions != null && classOptions.dirty();
+                clazz.stringTable = clazz.checkStringTable();
+                clazz.references = clazz.checkReferences();
+                clazz.resumable = clazz.checkResumable();
                 return clazz;
             });
         }
@@ -1131,11 +4547,84 @@ public class SerializerProcessor extends AbstractProcessor {
         JCClassDecl classDecl;
         /** 变量字段组 */
         List<VariableWrapper> variableList = List.nil();
+        /** 可为null的字段数(null位图位数) */
+        int nullableCount;
+        /** 是否使用对象池 */
+        boolean pooled;
+        /** 是否tagged模式 */
+        boolean tagged;
+        /** 是否脏标记 */
+        boolean dirty;
+        /** 是否使用字符串表 */
+        boolean stringTable;
+        /** 是否跟踪引用 */
+        boolean references;
+        /** 是否生成可恢复读取方法 */
+        boolean resumable;
+        /** 是否生成serializedSize */
+        boolean sized = true;
+        /** 是否生成ByteBuffer读写方法 */
+        boolean buffered = true;
+        /** 是否生成skipFrom */
+        boolean skippable;
+        /** 对象池静态字段(类型 -> 字段) */
+        Map<String, JCVariableDecl> poolFields = new LinkedHashMap<>();
+        /** 统计静态字段 */
+        JCVariableDecl metricsField;
 
         JavaClassWrapper(TypeElement element) {
             this.element = element;
         }
 
+        /**
+         * 不能生成ByteBuffer读写方法的原因
+         * @param unbufferedTypes 本轮编译中不生成的类(擦除后的类型名)
+         * @return 原因，能生成返回null
+         */
+        String getUnbufferedReason(Set<String> unbufferedTypes) {
+            if (unbufferedTypes.contains(types.erasure(element.getSuperclass()).toString())) {
+                return "父类有通用对象字段: " + element.getSuperclass();
+            }
+            for (VariableWrapper variableWrapper : variableList) {
+                if (isObjectPath(variableWrapper.element.asType())) {
+                    return "Variable: " + variableWrapper.variable.getName();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 父类和字段能否在静态的skipFrom里跳过(延迟解码的字段按长度前缀跳过，不看类型)
+         * @return 能 true
+         */
+        boolean isSkippable() {
+            if (isSerializableAssignableFrom(element.asType()) && !hasSkipFrom(element.getSuperclass())) {
+                return false;
+            }
+            for (VariableWrapper variableWrapper : variableList) {
+                if (!variableWrapper.lazy && !isStaticSkippable(variableWrapper.element.asType())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 不能生成serializedSize的原因
+         * @return 原因，能生成返回null
+         */
+        String getUnsizedReason() {
+            if (isSerializableAssignableFrom(element.asType()) && !hasSerializedSize(element.getSuperclass())) {
+                return "父类没有serializedSize: " + element.getSuperclass();
+            }
+            for (VariableWrapper variableWrapper : variableList) {
+                if (!isSizeable(variableWrapper.element.asType())) {
+                    return "Variable: " + variableWrapper.variable.getName();
+                }
+            }
+            return null;
+        }
+
         /**
          * 是否不可序列化
          * @return 不可序列化 true
@@ -1152,14 +4641,14 @@ public class SerializerProcessor extends AbstractProcessor {
             if (type instanceof ArrayType) {
                 type = Utils.erasureArray((ArrayType) type);
             }
-            // 基础类型都支持序列化
-            if (isPrimitiveType(type)) {
+            // 基础类型、基础类型列表、枚举都支持序列化
+            if (isPrimitiveType(type) || isPrimitiveList(type) || isEnum(type)) {
                 return false;
             }
             // 集合
             if (type.getKind() == TypeKind.DECLARED) {
-                // Map、List 递归展开
-                if (isCollection(type) || isMap(type)) {
+                // Map、List、分块编码的Iterable 递归展开
+                if (isCollection(type) || isMap(type) || (isIterable(type) && isChunked(element))) {
                     Result<Boolean> unableSerialize = new Result<>(false);
                     DeclaredType declaredType = (DeclaredType) type;
                     declaredType.getTypeArguments().forEach(typeArgs -> {
@@ -1188,7 +4677,441 @@ public class SerializerProcessor extends AbstractProcessor {
                 printError(classDecl.getSimpleName().toString(), "无法序列化的对象，请检查! Variable: " + jcVariableDecl.getName());
                 return;
             }
-            this.variableList = variableList.append(new VariableWrapper(element, jcVariableDecl));
+            VariableWrapper variableWrapper = new VariableWrapper(element, jcVariableDecl);
+            variableWrapper.encoding = getEncoding(element);
+            variableWrapper.implType = getImplType(element);
+            if (variableWrapper.implType != null && !checkImplType(element, variableWrapper.implType)) {
+                return;
+            }
+            SerializerFieldOptions fieldOptions = element.getAnnotation(SerializerFieldOptions.class);
+            if (fieldOptions != null && fieldOptions.packed()) {
+                if (!isPackable(element.asType())) {
+                    printError(getSimpleName(), "packed只能用于数值包装类型的集合，请检查! Variable: " + jcVariableDecl.getName());
+                    return;
+                }
+                variableWrapper.packed = true;
+                variableWrapper.nonNull = fieldOptions.nonNull();
+            }
+            // 延迟解码
+            if (fieldOptions != null && fieldOptions.lazy()) {
+                TypeMirror type = element.asType();
+                if (references) {
+                    printError(getSimpleName(), "跟踪引用的类不能使用lazy，请检查! Variable: " + jcVariableDecl.getName());
+                    return;
+                }
+                if (!isCollection(type) && !isMap(type) && !isPrimitiveList(type) && !isSerializable(type)) {
+                    printError(getSimpleName(), "lazy只能用于自定义序列化对象、集合或Map字段，请检查! Variable: " + jcVariableDecl.getName());
+                    return;
+                }
+                variableWrapper.lazy = true;
+            }
+            // 分块编码
+            if (fieldOptions != null && fieldOptions.chunkSize() != 0 && !checkChunkSize(variableWrapper, fieldOptions.chunkSize())) {
+                return;
+            }
+            // 流式读取
+            if (fieldOptions != null && fieldOptions.stream()) {
+                TypeMirror type = element.asType();
+                if ((!isCollection(type) && !isMap(type) && !isIterable(type)) || isPrimitiveList(type) || isEnumSet(type)) {
+                    printError(getSimpleName(), "stream只能用于集合、Map或Iterable字段，请检查! Variable: " + jcVariableDecl.getName());
+                    return;
+                }
+                if (variableWrapper.packed || variableWrapper.lazy || tagged) {
+                    printError(getSimpleName(), "stream不能与packed、lazy或tagged模式同时使用，请检查! Variable: " + jcVariableDecl.getName());
+                    return;
+                }
+                variableWrapper.streamed = true;
+            }
+            // tagged模式的字段编号
+            if (tagged && !assignTag(variableWrapper, fieldOptions)) {
+                return;
+            }
+            // 脏标记按声明顺序每个字段一位
+            if (dirty) {
+                variableWrapper.dirtyBit = variableList.size();
+            }
+            // 可为null的字段分配一个位图位置(tagged模式null字段不写，不需要位图)
+            if (!tagged && isNullable(element.asType())) {
+                variableWrapper.nullBit = nullableCount++;
+            }
+            this.variableList = variableList.append(variableWrapper);
+        }
+
+        /**
+         * 检查分块编码是否可用(集合、Map或Iterable字段，不和packed、lazy、tagged模式同时使用)
+         * @param variableWrapper 字段包装
+         * @param chunkSize 每块最多元素个数
+         * @return 可用 true
+         */
+        boolean checkChunkSize(VariableWrapper variableWrapper, int chunkSize) {
+            TypeMirror type = variableWrapper.element.asType();
+            String variableName = variableWrapper.variable.getName().toString();
+            if (chunkSize < 0) {
+                printError(getSimpleName(), "chunkSize不能为负数，请检查! Variable: " + variableName);
+                return false;
+            }
+            if ((!isCollection(type) && !isMap(type) && !isIterable(type)) || isPrimitiveList(type) || isEnumSet(type)) {
+                printError(getSimpleName(), "chunkSize只能用于集合、Map或Iterable字段，请检查! Variable: " + variableName);
+                return false;
+            }
+            if (variableWrapper.packed || variableWrapper.lazy || tagged) {
+                printError(getSimpleName(), "chunkSize不能与packed、lazy或tagged模式同时使用，请检查! Variable: " + variableName);
+                return false;
+            }
+            variableWrapper.chunkSize = chunkSize;
+            return true;
+        }
+
+        /**
+         * 分配tagged模式的字段编号(必须显式指定)
+         * @param variableWrapper 字段包装
+         * @param fieldOptions 字段选项
+         * @return 编号可用 true
+         */
+        boolean assignTag(VariableWrapper variableWrapper, SerializerFieldOptions fieldOptions) {
+            String variableName = variableWrapper.variable.getName().toString();
+            // 按位置编号的话中间插入字段会改变后面字段的编号，必须显式指定
+            if (fieldOptions == null || fieldOptions.tag() == 0) {
+                printError(getSimpleName(), "tagged模式的字段必须用SerializerFieldOptions指定tag，请检查! Variable: " + variableName);
+                return false;
+            }
+            int tag = fieldOptions.tag();
+            if (tag <= 0 || tag > TaggedCodec.MAX_FIELD_NUMBER) {
+                printError(getSimpleName(), "tag必须在1~" + TaggedCodec.MAX_FIELD_NUMBER + "之间，请检查! Variable: " + variableName);
+                return false;
+            }
+            for (VariableWrapper exist : variableList) {
+                if (exist.tag == tag) {
+                    printError(getSimpleName(), "tag与" + exist.variable.getName() + "重复，请检查! Variable: " + variableName);
+                    return false;
+                }
+            }
+            variableWrapper.tag = tag;
+            return true;
+        }
+
+        /**
+         * 字段的整数编码方式(字段 > 类 > 定长)
+         * @param element 变量元素
+         * @return 编码方式
+         */
+        Encoding getEncoding(Element element) {
+            SerializerFieldOptions fieldOptions = element.getAnnotation(SerializerFieldOptions.class);
+            if (fieldOptions != null && fieldOptions.encoding() != Encoding.DEFAULT) {
+                return fieldOptions.encoding();
+            }
+            SerializableOptions classOptions = this.element.getAnnotation(SerializableOptions.class);
+            if (classOptions != null && classOptions.encoding() != Encoding.DEFAULT) {
+                return classOptions.encoding();
+            }
+            return Encoding.FIXED;
+        }
+
+        /**
+         * @param context 生成上下文
+         * @param element 变量元素
+         * @return 实现类，没有指定返回null
+         */
+        TypeMirror getImplType(Element element) {
+            SerializerFieldOptions fieldOptions = element.getAnnotation(SerializerFieldOptions.class);
+            if (fieldOptions == null) {
+                return null;
+            }
+            TypeMirror implType;
+            try {
+                // 编译期拿不到Class对象，会抛出MirroredTypeException
+                implType = elements.getTypeElement(fieldOptions.impl().getCanonicalName()).asType();
+            } catch (MirroredTypeException e) {
+                implType = e.getTypeMirror();
+            }
+            if (Void.class.getCanonicalName().equals(implType.toString())) {
+                return null;
+            }
+            return implType;
+        }
+
+        /**
+         * 检查指定的实现类是否可用(集合或Map字段，可实例化，且能赋值给字段)
+         * @param element 变量元素
+         * @param implType 实现类
+         * @return 可用 true
+         */
+        boolean checkImplType(Element element, TypeMirror implType) {
+            TypeMirror type = element.asType();
+            String variableName = element.getSimpleName().toString();
+            if (!isCollection(type) && !isMap(type)) {
+                printError(getSimpleName(), "impl只能用于集合或Map字段，请检查! Variable: " + variableName);
+                return false;
+            }
+            Element implElement = types.asElement(implType);
+            if (implElement.getKind().isInterface() || implElement.getModifiers().contains(Modifier.ABSTRACT)) {
+                printError(getSimpleName(), "impl必须是可实例化的类，请检查! Variable: " + variableName);
+                return false;
+            }
+            if (!types.isAssignable(types.erasure(implType), types.erasure(type))) {
+                printError(getSimpleName(), "impl无法赋值给字段类型，请检查! Variable: " + variableName);
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 是否可以紧凑编码(元素为数值包装类型的集合)
+         * @param type 字段类型
+         * @return 可以 true
+         */
+        boolean isPackable(TypeMirror type) {
+            if (!isCollection(type)) {
+                return false;
+            }
+            List<Type> typeArgs = ((Type) type).getTypeArguments();
+            return typeArgs.size() == 1 && isNumericWrapper(typeArgs.head);
+        }
+
+        /**
+         * 是否生成按字段掩码读取的read方法
+         * @return 生成 true
+         */
+        boolean isProjection() {
+            SerializableOptions classOptions = element.getAnnotation(SerializableOptions.class);
+            return classOptions != null && classOptions.projection();
+        }
+
+        /**
+         * 是否生成流式读取的read方法(有流式读取的字段)
+         * @return 生成 true
+         */
+        boolean isStreaming() {
+            for (VariableWrapper variableWrapper : variableList) {
+                if (variableWrapper.streamed) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 增加字段掩码常量: public static final long FIELD_XXX = 1L &lt;&lt; index;
+         */
+        void addFieldMaskConstants() {
+            for (int i = 0; i < variableList.size() && i < Long.SIZE; ++i) {
+                String fieldName = variableList.get(i).variable.getName().toString();
+                Name constantName = names.fromString(FIELD_MASK_CONSTANT + Utils.toConstantName(fieldName));
+                JCModifiers modifiers = treeMaker.Modifiers(Flags.PUBLIC | Flags.STATIC | Flags.FINAL);
+                addVariableDecl(treeMaker.VarDef(modifiers, constantName, treeMaker.TypeIdent(TypeTag.LONG), nullBitMask(i)));
+            }
+        }
+
+        /**
+         * 检查是否使用字符串表(tagged模式按字段跳过，会漏掉登记，不能使用)
+         * @return 使用 true
+         */
+        boolean checkStringTable() {
+            SerializableOptions classOptions = element.getAnnotation(SerializableOptions.class);
+            if (classOptions == null || !classOptions.stringTable()) {
+                return false;
+            }
+            if (tagged) {
+                printError(getSimpleName(), "stringTable不能用于tagged模式，请检查!");
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 检查是否跟踪引用(tagged模式的长度前缀和对象池的release都要求对象只出现一次，不能使用)
+         * @return 跟踪 true
+         */
+        boolean checkReferences() {
+            SerializableOptions classOptions = element.getAnnotation(SerializableOptions.class);
+            if (classOptions == null || !classOptions.references()) {
+                return false;
+            }
+            if (tagged || pooled) {
+                printError(getSimpleName(), "references不能用于tagged模式或pooled，请检查!");
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 检查是否生成可恢复读取方法(不能与tagged、stringTable、references一起使用，父类是序列化类时父类也要开启)
+         * @return 生成 true
+         */
+        boolean checkResumable() {
+            SerializableOptions classOptions = element.getAnnotation(SerializableOptions.class);
+            if (classOptions == null || !classOptions.resumable()) {
+                return false;
+            }
+            if (tagged || stringTable || references) {
+                printError(getSimpleName(), "resumable不能与tagged、stringTable、references一起使用，请检查!");
+                return false;
+            }
+            if (isSerializableAssignableFrom(element.asType()) && !isSuperResumable()) {
+                printError(getSimpleName(), "resumable的父类也要开启resumable，请检查!");
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 父类是否也开启了可恢复读取
+         * @return 开启 true
+         */
+        boolean isSuperResumable() {
+            TypeMirror superType = element.getSuperclass();
+            if (superType.getKind() != TypeKind.DECLARED) {
+                return false;
+            }
+            SerializableOptions superOptions = types.asElement(superType).getAnnotation(SerializableOptions.class);
+            return superOptions != null && superOptions.resumable();
+        }
+
+        /**
+         * 父类是否也开启了脏标记(增量读写、清除标记时要先处理父类)
+         * @return 开启 true
+         */
+        boolean isSuperDirty() {
+            TypeMirror superType = element.getSuperclass();
+            if (superType.getKind() != TypeKind.DECLARED) {
+                return false;
+            }
+            SerializableOptions superOptions = types.asElement(superType).getAnnotation(SerializableOptions.class);
+            return superOptions != null && superOptions.dirty();
+        }
+
+        /**
+         * 脏标记位图需要的long个数
+         * @return 个数
+         */
+        int getDirtyBitmapWords() {
+            return (variableList.size() + Long.SIZE - 1) / Long.SIZE;
+        }
+
+        /**
+         * 增加脏标记位图字段: private transient long dirtyBitsN;
+         */
+        void addDirtyFields() {
+            for (int i = 0; i < getDirtyBitmapWords(); ++i) {
+                JCModifiers modifiers = treeMaker.Modifiers(Flags.PRIVATE | Flags.TRANSIENT);
+                addVariableDecl(treeMaker.VarDef(modifiers, dirtyBitsName(i), treeMaker.TypeIdent(TypeTag.LONG), null));
+            }
+        }
+
+        /**
+         * 增加可恢复读取的进度字段: private transient int resumeState, resumeRemaining; private transient long resumeNullBitsN;
+         */
+        void addResumeFields() {
+            addVariableDecl(treeMaker.VarDef(treeMaker.Modifiers(Flags.PRIVATE | Flags.TRANSIENT), names.fromString(RESUME_STATE), treeMaker.TypeIdent(TypeTag.INT), null));
+            addVariableDecl(treeMaker.VarDef(treeMaker.Modifiers(Flags.PRIVATE | Flags.TRANSIENT), names.fromString(RESUME_REMAINING), treeMaker.TypeIdent(TypeTag.INT), null));
+            for (int i = 0; i < getNullBitmapWords(); ++i) {
+                JCModifiers modifiers = treeMaker.Modifiers(Flags.PRIVATE | Flags.TRANSIENT);
+                addVariableDecl(treeMaker.VarDef(modifiers, names.fromString(RESUME_NULL_BITS + i), treeMaker.TypeIdent(TypeTag.LONG), null));
+            }
+        }
+
+        /**
+         * 读取时是否复用已有的对象、集合、数组
+         * @return 复用 true
+         */
+        boolean isReuse() {
+            SerializableOptions classOptions = element.getAnnotation(SerializableOptions.class);
+            return classOptions != null && classOptions.reuse();
+        }
+
+        /**
+         * 检查是否使用对象池(池是静态字段，非静态内部类不能使用)
+         * @return 使用 true
+         */
+        boolean checkPooled() {
+            SerializableOptions classOptions = element.getAnnotation(SerializableOptions.class);
+            if (classOptions == null || !classOptions.pooled()) {
+                return false;
+            }
+            if (isInnerClass(element)) {
+                printError(getSimpleName(), "pooled不能用于非静态内部类，请检查!");
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 获取类型的对象池字段名(没有则新增一个)
+         * private static final ObjectPool<T> T_POOL = Pools.of(T.class);
+         * @param type 对象类型
+         * @return 字段名
+         */
+        Name getPoolName(TypeMirror type) {
+            TypeMirror erasureType = types.erasure(type);
+            JCVariableDecl poolField = poolFields.computeIfAbsent(erasureType.toString(), k -> {
+                String simpleName = Utils.toConstantName(types.asElement(erasureType).getSimpleName().toString());
+                Name name = names.fromString(simpleName + POOL);
+                // 不同包下的同名类
+                for (int i = 1; containsPoolName(name); ++i) {
+                    name = names.fromString(simpleName + i + POOL);
+                }
+                JCModifiers modifiers = treeMaker.Modifiers(Flags.PRIVATE | Flags.STATIC | Flags.FINAL);
+                JCExpression poolType = treeMaker.TypeApply(memberAccess(OBJECT_POOL), List.of(treeMaker.Type((Type) erasureType)));
+                JCExpression classLiteral = treeMaker.Select(treeMaker.Type((Type) erasureType), names._class);
+                JCExpression init = treeMaker.Apply(List.nil(), memberAccess(POOLS + ".of"), List.of(classLiteral));
+                return treeMaker.VarDef(modifiers, name, poolType, init);
+            });
+            return poolField.name;
+        }
+
+        /**
+         * 对象池字段名是否已经使用
+         * @param name 字段名
+         * @return 已使用 true
+         */
+        private boolean containsPoolName(Name name) {
+            for (JCVariableDecl poolField : poolFields.values()) {
+                if (poolField.name == name) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 获取类的统计字段名(没有则新增一个，读写方法共用)
+         * private static final ClassMetrics XXX_METRICS = SerializerMetrics.of(Xxx.class);
+         * @return 字段名，非静态内部类不能声明静态字段返回null
+         */
+        Name getMetricsName() {
+            if (isInnerClass(element)) {
+                return null;
+            }
+            if (metricsField == null) {
+                Name name = names.fromString(Utils.toConstantName(getSimpleName()) + METRICS);
+                JCModifiers modifiers = treeMaker.Modifiers(Flags.PRIVATE | Flags.STATIC | Flags.FINAL);
+                metricsField = treeMaker.VarDef(modifiers, name, memberAccess(CLASS_METRICS), metricsOf(element));
+                addVariableDecl(metricsField);
+            }
+            return metricsField.name;
+        }
+
+        /**
+         * 增加对象池静态字段
+         */
+        void addPoolFields() {
+            poolFields.values().forEach(poolField -> classDecl.defs = classDecl.defs.append(poolField));
+        }
+
+        /**
+         * null位图需要的long个数
+         * @return 个数
+         */
+        int getNullBitmapWords() {
+            return (nullableCount + Long.SIZE - 1) / Long.SIZE;
+        }
+
+        /**
+         * 增加字段
+         * @param newVariableDecl 字段定义
+         */
+        void addVariableDecl(JCVariableDecl newVariableDecl) {
+            classDecl.defs = classDecl.defs.append(newVariableDecl);
         }
 
         /**
@@ -1262,6 +5185,26 @@ public class SerializerProcessor extends AbstractProcessor {
         Element element;
         /** 字段定义 */
         JCVariableDecl variable;
+        /** 在null位图中的位置(-1表示不可为null或者不在位图中) */
+        int nullBit = -1;
+        /** 整数编码方式 */
+        Encoding encoding = Encoding.FIXED;
+        /** 集合实现类(没有指定为null) */
+        TypeMirror implType;
+        /** 紧凑编码 */
+        boolean packed;
+        /** 紧凑编码时元素不会为null(不写元素null位图) */
+        boolean nonNull;
+        /** tagged模式的字段编号 */
+        int tag;
+        /** 延迟解码 */
+        boolean lazy;
+        /** 在脏标记位图中的位置(-1表示不跟踪) */
+        int dirtyBit = -1;
+        /** 分块编码每块最多元素个数(0表示不分块) */
+        int chunkSize;
+        /** 流式读取 */
+        boolean streamed;
 
         VariableWrapper(Element element, JCVariableDecl variable) {
             this.element = element;
@@ -1269,6 +5212,118 @@ public class SerializerProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * 生成代码的上下文(不可变)
+     * 每个生成的方法按类建立一个，进入字段、临时换编码方式时派生新的，随参数传递，不在处理器上留状态
+     */
+    private static final class GenerationContext {
+        /** 不属于任何类的方法 */
+        static final GenerationContext NONE = new GenerationContext(null, Encoding.FIXED, false, null, SERIALIZED_SIZE, false, false, false, false);
+        /** 当前生成的字段(不在字段里为null) */
+        final VariableWrapper variable;
+        /** 当前生成字段的整数编码方式 */
+        final Encoding encoding;
+        /** 生成的read方法是否复用已有的对象、集合、数组 */
+        final boolean reuse;
+        /** 生成的read方法所在的类(使用对象池时才有) */
+        final JavaClassWrapper pooledClass;
+        /** 累加长度的局部变量名 */
+        final String sizeName;
+        /** 生成的是否按字段掩码读取的read方法 */
+        final boolean projection;
+        /** 生成的是否流式读取的read方法 */
+        final boolean streaming;
+        /** 生成的方法是否使用字符串表 */
+        final boolean stringTable;
+        /** 生成的方法是否跟踪引用 */
+        final boolean references;
+
+        private GenerationContext(VariableWrapper variable, Encoding encoding, boolean reuse, JavaClassWrapper pooledClass, String sizeName,
+                                  boolean projection, boolean streaming, boolean stringTable, boolean references) {
+            this.variable = variable;
+            this.encoding = encoding;
+            this.reuse = reuse;
+            this.pooledClass = pooledClass;
+            this.sizeName = sizeName;
+            this.projection = projection;
+            this.streaming = streaming;
+            this.stringTable = stringTable;
+            this.references = references;
+        }
+
+        /**
+         * 生成类的read方法: 复用模式、对象池
+         * @param classWrapper 类包装
+         * @return 新的上下文
+         */
+        GenerationContext reading(JavaClassWrapper classWrapper) {
+            return new GenerationContext(variable, encoding, classWrapper.isReuse(), classWrapper.pooled ? classWrapper : null, sizeName,
+                    projection, streaming, stringTable, references);
+        }
+
+        /**
+         * 生成按字段掩码读取的read方法
+         * @return 新的上下文
+         */
+        GenerationContext withProjection() {
+            return new GenerationContext(variable, encoding, reuse, pooledClass, sizeName, true, streaming, stringTable, references);
+        }
+
+        /**
+         * 生成流式读取的read方法
+         * @return 新的上下文
+         */
+        GenerationContext withStreaming() {
+            return new GenerationContext(variable, encoding, reuse, pooledClass, sizeName, projection, true, stringTable, references);
+        }
+
+        /**
+         * 是否使用字符串表
+         * @param stringTable 使用 true
+         * @return 新的上下文
+         */
+        GenerationContext withStringTable(boolean stringTable) {
+            return new GenerationContext(variable, encoding, reuse, pooledClass, sizeName, projection, streaming, stringTable, references);
+        }
+
+        /**
+         * 是否跟踪引用
+         * @param references 跟踪 true
+         * @return 新的上下文
+         */
+        GenerationContext withReferences(boolean references) {
+            return new GenerationContext(variable, encoding, reuse, pooledClass, sizeName, projection, streaming, stringTable, references);
+        }
+
+        /**
+         * 进入字段: 使用字段的编码方式
+         * @param variableWrapper 字段包装
+         * @return 新的上下文
+         */
+        GenerationContext withVariable(VariableWrapper variableWrapper) {
+            return new GenerationContext(variableWrapper, variableWrapper.encoding, reuse, pooledClass, sizeName,
+                    projection, streaming, stringTable, references);
+        }
+
+        /**
+         * 换整数编码方式(长度不用zigzag)
+         * @param encoding 编码方式
+         * @return 新的上下文
+         */
+        GenerationContext withEncoding(Encoding encoding) {
+            return new GenerationContext(variable, encoding, reuse, pooledClass, sizeName, projection, streaming, stringTable, references);
+        }
+
+        /**
+         * 换累加长度的局部变量
+         * @param sizeName 局部变量名
+         * @return 新的上下文
+         */
+        GenerationContext withSizeName(String sizeName) {
+            return new GenerationContext(variable, encoding, reuse, pooledClass, sizeName, projection, streaming, stringTable, references);
+        }
+    }
+
     /**
      * 用于闭包的result
      */
@@ -0,0 +1,69 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 类型信息缓存(擦除后的类型名 -> 类型信息)，一次编译内类型的继承关系不会变
+ * @author zenghongming
+ * @date 2026/10/18 22:20
+ */
+class TypeInfos {
+    /** 类型工具 */
+    private final Types types;
+    /** 已经遍历过的类型 */
+    private final Map<String, TypeInfo> typeInfos = new HashMap<>();
+
+    TypeInfos(Types types) {
+        this.types = types;
+    }
+
+    /**
+     * 类型信息(按擦除后的类型缓存，每个类型只遍历一次父类)
+     * @param type 类型
+     * @return 类型信息
+     */
+    TypeInfo get(TypeMirror type) {
+        TypeMirror erasureType = types.erasure(type);
+        String typeName = erasureType.toString();
+        TypeInfo typeInfo = typeInfos.get(typeName);
+        if (typeInfo != null) {
+            return typeInfo;
+        }
+        typeInfo = new TypeInfo();
+        typeInfo.supertypes.add(typeName);
+        Element element = types.asElement(erasureType);
+        if (element != null) {
+            typeInfo.serializable = element.getAnnotation(Serializable.class) != null;
+            typeInfo.abstractType = element.getModifiers().contains(Modifier.ABSTRACT);
+        }
+        // 父类的信息也缓存起来，不同的类共享同一条继承链
+        for (TypeMirror superType : types.directSupertypes(erasureType)) {
+            TypeInfo superInfo = get(superType);
+            typeInfo.supertypes.addAll(superInfo.supertypes);
+            typeInfo.serializable |= superInfo.serializable;
+        }
+        typeInfos.put(typeName, typeInfo);
+        return typeInfo;
+    }
+
+    /** 类型信息 */
+    static class TypeInfo {
+        /** 本身和所有父类、接口(擦除后的类型名) */
+        final Set<String> supertypes = new HashSet<>();
+        /** 本身或父类有Serializable注解 */
+        boolean serializable;
+        /** 抽象类或接口 */
+        boolean abstractType;
+        /** 是否有public的指定容量构造函数(用到时才计算) */
+        Boolean capacityConstructor;
+    }
+}
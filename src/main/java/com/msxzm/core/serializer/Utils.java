@@ -70,6 +70,23 @@ class Utils {
         return String.valueOf(chars);
     }
 
+    /**
+     * 驼峰名转常量名(ItemInfo -> ITEM_INFO)
+     * @param str 驼峰名
+     * @return 常量名
+     */
+    static String toConstantName(String str) {
+        StringBuilder builder = new StringBuilder(str.length() + 4);
+        for (int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+            if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(str.charAt(i - 1))) {
+                builder.append('_');
+            }
+            builder.append(Character.toUpperCase(c));
+        }
+        return builder.toString();
+    }
+
     /**
      * 获取类型名
      * @param qualifiedName 类型完全限定名
@@ -96,6 +113,46 @@ class Utils {
         return arrayType.elemtype;
     }
 
+    /**
+     * 获取变长编码的方法名
+     * @param bound read/write
+     * @param primitiveClass 基础类型
+     * @param encoding 编码方式
+     * @return 方法名，定长或类型不支持变长时返回null
+     */
+    static String getVarintAccess(String bound, Class<?> primitiveClass, Encoding encoding) {
+        if (encoding != Encoding.VARINT && encoding != Encoding.ZIGZAG) {
+            return null;
+        }
+        String prefix = encoding == Encoding.VARINT ? "Var" : "ZigZag";
+        // short按int编码
+        if (primitiveClass == int.class || primitiveClass == short.class) {
+            return bound + prefix + "Int";
+        }
+        if (primitiveClass == long.class) {
+            return bound + prefix + "Long";
+        }
+        return null;
+    }
+
+    /**
+     * 定长基础类型的字节数
+     * @param primitiveClass 基础类型
+     * @return 字节数
+     */
+    static int getFixedSize(Class<?> primitiveClass) {
+        if (primitiveClass == boolean.class || primitiveClass == byte.class) {
+            return Byte.BYTES;
+        }
+        if (primitiveClass == short.class) {
+            return Short.BYTES;
+        }
+        if (primitiveClass == int.class || primitiveClass == float.class) {
+            return Integer.BYTES;
+        }
+        return Long.BYTES;
+    }
+
     /**
      * 获取方法签名
      * @return 方法签名
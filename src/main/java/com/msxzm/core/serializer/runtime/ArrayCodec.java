@@ -0,0 +1,322 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 基础类型数组整块编解码(生成代码运行时调用)
+ * 数组的格式与逐个元素调用writeInt等相同；流实现了BulkOutput/BulkInput时调用它的writeInts/readInts等整块读写
+ * (ByteBuffer流直接读写缓冲，其他流按流的字节序经过线程内缓冲分块编码)，否则逐个元素调用流的方法
+ * 其他字节块(紧凑编码等)用的线程内缓冲默认小端
+ * @author zenghongming
+ * @date 2026/10/18 14:20
+ */
+public final class ArrayCodec {
+    /** 线程内缓冲默认的字节序 */
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    /** 初始缓冲大小 */
+    private static final int INITIAL_SCRATCH_SIZE = 1024;
+    /** 线程内缓冲的上限，更大的需求临时分配，不常驻线程 */
+    static final int MAX_SCRATCH_SIZE = 64 * 1024;
+    /** ByteBuffer流用缓冲视图整块读写的最小数组长度，更短的数组创建视图的开销比逐个读写大 */
+    static final int VIEW_MIN_LENGTH = 64;
+    /** 跳过字节时每次读取的大小 */
+    static final int SKIP_CHUNK_SIZE = 4096;
+    /** 线程内复用的缓冲 */
+    private static final ThreadLocal<ByteBuffer> SCRATCH = ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_SCRATCH_SIZE).order(ORDER));
+
+    private ArrayCodec() {
+    }
+
+    /**
+     * 写boolean数组(不含长度)
+     * @param outputStream 输出流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void writeBooleans(OutputStream outputStream, boolean[] array) throws IOException {
+        if (!(outputStream instanceof BulkOutput)) {
+            for (boolean value : array) {
+                outputStream.writeBoolean(value);
+            }
+            return;
+        }
+        for (int offset = 0; offset < array.length; offset += MAX_SCRATCH_SIZE) {
+            int count = Math.min(MAX_SCRATCH_SIZE, array.length - offset);
+            byte[] bytes = scratch(count).array();
+            for (int i = 0; i < count; ++i) {
+                bytes[i] = (byte) (array[offset + i] ? 1 : 0);
+            }
+            ((BulkOutput) outputStream).writeBytes(bytes, 0, count);
+        }
+    }
+
+    /**
+     * 读满boolean数组(不含长度)
+     * @param inputStream 输入流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void readBooleans(InputStream inputStream, boolean[] array) throws IOException {
+        if (!(inputStream instanceof BulkInput)) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = inputStream.readBoolean();
+            }
+            return;
+        }
+        for (int offset = 0; offset < array.length; offset += MAX_SCRATCH_SIZE) {
+            int count = Math.min(MAX_SCRATCH_SIZE, array.length - offset);
+            byte[] bytes = scratch(count).array();
+            ((BulkInput) inputStream).readBytes(bytes, 0, count);
+            for (int i = 0; i < count; ++i) {
+                array[offset + i] = bytes[i] != 0;
+            }
+        }
+    }
+
+    /**
+     * 写byte数组(不含长度)
+     * @param outputStream 输出流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void writeBytes(OutputStream outputStream, byte[] array) throws IOException {
+        writeBytes(outputStream, array, array.length);
+    }
+
+    /**
+     * 读满byte数组(不含长度)
+     * @param inputStream 输入流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void readBytes(InputStream inputStream, byte[] array) throws IOException {
+        readBytes(inputStream, array, array.length);
+    }
+
+    /**
+     * 写short数组(不含长度)
+     * @param outputStream 输出流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void writeShorts(OutputStream outputStream, short[] array) throws IOException {
+        if (!(outputStream instanceof BulkOutput)) {
+            for (short value : array) {
+                outputStream.writeShort(value);
+            }
+            return;
+        }
+        ((BulkOutput) outputStream).writeShorts(array, 0, array.length);
+    }
+
+    /**
+     * 读满short数组(不含长度)
+     * @param inputStream 输入流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void readShorts(InputStream inputStream, short[] array) throws IOException {
+        if (!(inputStream instanceof BulkInput)) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = inputStream.readShort();
+            }
+            return;
+        }
+        ((BulkInput) inputStream).readShorts(array, 0, array.length);
+    }
+
+    /**
+     * 写int数组(不含长度)
+     * @param outputStream 输出流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void writeInts(OutputStream outputStream, int[] array) throws IOException {
+        if (!(outputStream instanceof BulkOutput)) {
+            for (int value : array) {
+                outputStream.writeInt(value);
+            }
+            return;
+        }
+        ((BulkOutput) outputStream).writeInts(array, 0, array.length);
+    }
+
+    /**
+     * 读满int数组(不含长度)
+     * @param inputStream 输入流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void readInts(InputStream inputStream, int[] array) throws IOException {
+        if (!(inputStream instanceof BulkInput)) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = inputStream.readInt();
+            }
+            return;
+        }
+        ((BulkInput) inputStream).readInts(array, 0, array.length);
+    }
+
+    /**
+     * 写float数组(不含长度)
+     * @param outputStream 输出流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void writeFloats(OutputStream outputStream, float[] array) throws IOException {
+        if (!(outputStream instanceof BulkOutput)) {
+            for (float value : array) {
+                outputStream.writeFloat(value);
+            }
+            return;
+        }
+        ((BulkOutput) outputStream).writeFloats(array, 0, array.length);
+    }
+
+    /**
+     * 读满float数组(不含长度)
+     * @param inputStream 输入流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void readFloats(InputStream inputStream, float[] array) throws IOException {
+        if (!(inputStream instanceof BulkInput)) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = inputStream.readFloat();
+            }
+            return;
+        }
+        ((BulkInput) inputStream).readFloats(array, 0, array.length);
+    }
+
+    /**
+     * 写long数组(不含长度)
+     * @param outputStream 输出流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void writeLongs(OutputStream outputStream, long[] array) throws IOException {
+        if (!(outputStream instanceof BulkOutput)) {
+            for (long value : array) {
+                outputStream.writeLong(value);
+            }
+            return;
+        }
+        ((BulkOutput) outputStream).writeLongs(array, 0, array.length);
+    }
+
+    /**
+     * 读满long数组(不含长度)
+     * @param inputStream 输入流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void readLongs(InputStream inputStream, long[] array) throws IOException {
+        if (!(inputStream instanceof BulkInput)) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = inputStream.readLong();
+            }
+            return;
+        }
+        ((BulkInput) inputStream).readLongs(array, 0, array.length);
+    }
+
+    /**
+     * 写double数组(不含长度)
+     * @param outputStream 输出流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void writeDoubles(OutputStream outputStream, double[] array) throws IOException {
+        if (!(outputStream instanceof BulkOutput)) {
+            for (double value : array) {
+                outputStream.writeDouble(value);
+            }
+            return;
+        }
+        ((BulkOutput) outputStream).writeDoubles(array, 0, array.length);
+    }
+
+    /**
+     * 读满double数组(不含长度)
+     * @param inputStream 输入流
+     * @param array 数组
+     * @throws IOException IOException
+     */
+    public static void readDoubles(InputStream inputStream, double[] array) throws IOException {
+        if (!(inputStream instanceof BulkInput)) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = inputStream.readDouble();
+            }
+            return;
+        }
+        ((BulkInput) inputStream).readDoubles(array, 0, array.length);
+    }
+
+    /**
+     * 获取线程内缓冲(不够则扩容，超过上限的临时分配)
+     * @param size 需要的字节数
+     * @return 缓冲
+     */
+    static ByteBuffer scratch(int size) {
+        return scratch(size, ORDER);
+    }
+
+    /**
+     * 获取指定字节序的线程内缓冲(不够则扩容，超过上限的临时分配)
+     * @param size 需要的字节数
+     * @param order 字节序
+     * @return 缓冲
+     */
+    static ByteBuffer scratch(int size, ByteOrder order) {
+        if (size > MAX_SCRATCH_SIZE) {
+            return ByteBuffer.allocate(size).order(order);
+        }
+        ByteBuffer buffer = SCRATCH.get();
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.min(Math.max(size, buffer.capacity() << 1), MAX_SCRATCH_SIZE));
+            SCRATCH.set(buffer);
+        }
+        buffer.clear();
+        return buffer.order(order);
+    }
+
+    /**
+     * 写字节块
+     * @param outputStream 输出流
+     * @param bytes 字节
+     * @param length 长度
+     * @throws IOException IOException
+     */
+    static void writeBytes(OutputStream outputStream, byte[] bytes, int length) throws IOException {
+        if (outputStream instanceof BulkOutput) {
+            ((BulkOutput) outputStream).writeBytes(bytes, 0, length);
+            return;
+        }
+        for (int i = 0; i < length; ++i) {
+            outputStream.writeByte(bytes[i]);
+        }
+    }
+
+    /**
+     * 读字节块
+     * @param inputStream 输入流
+     * @param bytes 字节
+     * @param length 长度
+     * @throws IOException IOException
+     */
+    static void readBytes(InputStream inputStream, byte[] bytes, int length) throws IOException {
+        if (inputStream instanceof BulkInput) {
+            ((BulkInput) inputStream).readBytes(bytes, 0, length);
+            return;
+        }
+        for (int i = 0; i < length; ++i) {
+            bytes[i] = inputStream.readByte();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.msxzm.core.serializer.runtime;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 支持整块读取的输入流(输入流实现该接口后基础类型数组一次读出)
+ * 基础类型数组的方法默认经过线程内缓冲解码，直接读缓冲的实现(ByteBufferInputStream)覆盖后不再复制
+ * @author zenghongming
+ * @date 2026/10/18 14:20
+ */
+public interface BulkInput {
+
+    /**
+     * 读满一段字节
+     * @param bytes 字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @throws IOException 数据不足
+     */
+    void readBytes(byte[] bytes, int offset, int length) throws IOException;
+
+    /**
+     * 读满一段short(按order()的字节序，与逐个调用readShort的结果一致)
+     * 默认先按字节读到线程内缓冲再解码，能直接读底层缓冲的实现应该覆盖
+     * @param array 数组
+     * @param offset 起始位置
+     * @param length 个数
+     * @throws IOException 数据不足
+     */
+    default void readShorts(short[] array, int offset, int length) throws IOException {
+        int step = ArrayCodec.MAX_SCRATCH_SIZE / Short.BYTES;
+        for (int end = offset + length; offset < end; offset += step) {
+            int count = Math.min(step, end - offset);
+            ByteBuffer buffer = ArrayCodec.scratch(count * Short.BYTES, order());
+            readBytes(buffer.array(), 0, count * Short.BYTES);
+            buffer.asShortBuffer().get(array, offset, count);
+        }
+    }
+
+    /**
+     * 读满一段int(按order()的字节序，与逐个调用readInt的结果一致)
+     * 默认先按字节读到线程内缓冲再解码，能直接读底层缓冲的实现应该覆盖
+     * @param array 数组
+     * @param offset 起始位置
+     * @param length 个数
+     * @throws IOException 数据不足
+     */
+    default void readInts(int[] array, int offset, int length) throws IOException {
+        int step = ArrayCodec.MAX_SCRATCH_SIZE / Integer.BYTES;
+        for (int end = offset + length; offset < end; offset += step) {
+            int count = Math.min(step, end - offset);
+            ByteBuffer buffer = ArrayCodec.scratch(count * Integer.BYTES, order());
+            readBytes(buffer.array(), 0, count * Integer.BYTES);
+            buffer.asIntBuffer().get(array, offset, count);
+        }
+    }
+
+    /**
+     * 读满一段long(按order()的字节序，与逐个调用readLong的结果一致)
+     * 默认先按字节读到线程内缓冲再解码，能直接读底层缓冲的实现应该覆盖
+     * @param array 数组
+     * @param offset 起始位置
+     * @param length 个数
+     * @throws IOException 数据不足
+     */
+    default void readLongs(long[] array, int offset, int length) throws IOException {
+        int step = ArrayCodec.MAX_SCRATCH_SIZE / Long.BYTES;
+        for (int end = offset + length; offset < end; offset += step) {
+            int count = Math.min(step, end - offset);
+            ByteBuffer buffer = ArrayCodec.scratch(count * Long.BYTES, order());
+            readBytes(buffer.array(), 0, count * Long.BYTES);
+            buffer.asLongBuffer().get(array, offset, count);
+        }
+    }
+
+    /**
+     * 读满一段float(按order()的字节序，与逐个调用readFloat的结果一致)
+     * 默认先按字节读到线程内缓冲再解码，能直接读底层缓冲的实现应该覆盖
+     * @param array 数组
+     * @param offset 起始位置
+     * @param length 个数
+     * @throws IOException 数据不足
+     */
+    default void readFloats(float[] array, int offset, int length) throws IOException {
+        int step = ArrayCodec.MAX_SCRATCH_SIZE / Float.BYTES;
+        for (int end = offset + length; offset < end; offset += step) {
+            int count = Math.min(step, end - offset);
+            ByteBuffer buffer = ArrayCodec.scratch(count * Float.BYTES, order());
+            readBytes(buffer.array(), 0, count * Float.BYTES);
+            buffer.asFloatBuffer().get(array, offset, count);
+        }
+    }
+
+    /**
+     * 读满一段double(按order()的字节序，与逐个调用readDouble的结果一致)
+     * 默认先按字节读到线程内缓冲再解码，能直接读底层缓冲的实现应该覆盖
+     * @param array 数组
+     * @param offset 起始位置
+     * @param length 个数
+     * @throws IOException 数据不足
+     */
+    default void readDoubles(double[] array, int offset, int length) throws IOException {
+        int step = ArrayCodec.MAX_SCRATCH_SIZE / Double.BYTES;
+        for (int end = offset + length; offset < end; offset += step) {
+            int count = Math.min(step, end - offset);
+            ByteBuffer buffer = ArrayCodec.scratch(count * Double.BYTES, order());
+            readBytes(buffer.array(), 0, count * Double.BYTES);
+            buffer.asDoubleBuffer().get(array, offset, count);
+        }
+    }
+
+    /**
+     * 跳过一段字节(有缓冲区的实现直接移动读位置即可)
+     * @param length 长度
+     * @throws IOException 数据不足
+     */
+    default void skipBytes(int length) throws IOException {
+        while (length > 0) {
+            int chunk = Math.min(length, ArrayCodec.SKIP_CHUNK_SIZE);
+            readBytes(ArrayCodec.scratch(chunk).array(), 0, chunk);
+            length -= chunk;
+        }
+    }
+
+    /**
+     * 剩余可读字节数(用于在分配缓冲前校验长度前缀)
+     * 不知道或者之后还会有数据到达的(比如可恢复读取的输入流)返回-1
+     * @return 字节数
+     */
+    default long remaining() {
+        return -1L;
+    }
+
+    /**
+     * 当前读位置(用于统计序列化字节数，不支持返回-1)
+     * @return 位置
+     */
+    default long position() {
+        return -1L;
+    }
+
+    /**
+     * 多字节数值的字节序(整块读的基础类型数组与逐个调用readInt等的结果要一致)
+     * @return 字节序
+     */
+    default ByteOrder order() {
+        return ByteOrder.BIG_ENDIAN;
+    }
+}
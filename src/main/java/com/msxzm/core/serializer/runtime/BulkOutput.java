@@ -0,0 +1,129 @@
+package com.msxzm.core.serializer.runtime;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 支持整块写入的输出流(输出流实现该接口后基础类型数组一次写入)
+ * 基础类型数组的方法默认经过线程内缓冲编码，直接写缓冲的实现(ByteBufferOutputStream)覆盖后不再复制
+ * @author zenghongming
+ * @date 2026/10/18 14:20
+ */
+public interface BulkOutput {
+
+    /**
+     * 写一段字节
+     * @param bytes 字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @throws IOException IOException
+     */
+    void writeBytes(byte[] bytes, int offset, int length) throws IOException;
+
+    /**
+     * 写一段short(按order()的字节序，与逐个调用writeShort的结果一致)
+     * 默认先编码到线程内缓冲再按字节写，能直接写入底层缓冲的实现应该覆盖
+     * @param array 数组
+     * @param offset 起始位置
+     * @param length 个数
+     * @throws IOException IOException
+     */
+    default void writeShorts(short[] array, int offset, int length) throws IOException {
+        int step = ArrayCodec.MAX_SCRATCH_SIZE / Short.BYTES;
+        for (int end = offset + length; offset < end; offset += step) {
+            int count = Math.min(step, end - offset);
+            ByteBuffer buffer = ArrayCodec.scratch(count * Short.BYTES, order());
+            buffer.asShortBuffer().put(array, offset, count);
+            writeBytes(buffer.array(), 0, count * Short.BYTES);
+        }
+    }
+
+    /**
+     * 写一段int(按order()的字节序，与逐个调用writeInt的结果一致)
+     * 默认先编码到线程内缓冲再按字节写，能直接写入底层缓冲的实现应该覆盖
+     * @param array 数组
+     * @param offset 起始位置
+     * @param length 个数
+     * @throws IOException IOException
+     */
+    default void writeInts(int[] array, int offset, int length) throws IOException {
+        int step = ArrayCodec.MAX_SCRATCH_SIZE / Integer.BYTES;
+        for (int end = offset + length; offset < end; offset += step) {
+            int count = Math.min(step, end - offset);
+            ByteBuffer buffer = ArrayCodec.scratch(count * Integer.BYTES, order());
+            buffer.asIntBuffer().put(array, offset, count);
+            writeBytes(buffer.array(), 0, count * Integer.BYTES);
+        }
+    }
+
+    /**
+     * 写一段long(按order()的字节序，与逐个调用writeLong的结果一致)
+     * 默认先编码到线程内缓冲再按字节写，能直接写入底层缓冲的实现应该覆盖
+     * @param array 数组
+     * @param offset 起始位置
+     * @param length 个数
+     * @throws IOException IOException
+     */
+    default void writeLongs(long[] array, int offset, int length) throws IOException {
+        int step = ArrayCodec.MAX_SCRATCH_SIZE / Long.BYTES;
+        for (int end = offset + length; offset < end; offset += step) {
+            int count = Math.min(step, end - offset);
+            ByteBuffer buffer = ArrayCodec.scratch(count * Long.BYTES, order());
+            buffer.asLongBuffer().put(array, offset, count);
+            writeBytes(buffer.array(), 0, count * Long.BYTES);
+        }
+    }
+
+    /**
+     * 写一段float(按order()的字节序，与逐个调用writeFloat的结果一致)
+     * 默认先编码到线程内缓冲再按字节写，能直接写入底层缓冲的实现应该覆盖
+     * @param array 数组
+     * @param offset 起始位置
+     * @param length 个数
+     * @throws IOException IOException
+     */
+    default void writeFloats(float[] array, int offset, int length) throws IOException {
+        int step = ArrayCodec.MAX_SCRATCH_SIZE / Float.BYTES;
+        for (int end = offset + length; offset < end; offset += step) {
+            int count = Math.min(step, end - offset);
+            ByteBuffer buffer = ArrayCodec.scratch(count * Float.BYTES, order());
+            buffer.asFloatBuffer().put(array, offset, count);
+            writeBytes(buffer.array(), 0, count * Float.BYTES);
+        }
+    }
+
+    /**
+     * 写一段double(按order()的字节序，与逐个调用writeDouble的结果一致)
+     * 默认先编码到线程内缓冲再按字节写，能直接写入底层缓冲的实现应该覆盖
+     * @param array 数组
+     * @param offset 起始位置
+     * @param length 个数
+     * @throws IOException IOException
+     */
+    default void writeDoubles(double[] array, int offset, int length) throws IOException {
+        int step = ArrayCodec.MAX_SCRATCH_SIZE / Double.BYTES;
+        for (int end = offset + length; offset < end; offset += step) {
+            int count = Math.min(step, end - offset);
+            ByteBuffer buffer = ArrayCodec.scratch(count * Double.BYTES, order());
+            buffer.asDoubleBuffer().put(array, offset, count);
+            writeBytes(buffer.array(), 0, count * Double.BYTES);
+        }
+    }
+
+    /**
+     * 当前写位置(用于统计序列化字节数，不支持返回-1)
+     * @return 位置
+     */
+    default long position() {
+        return -1L;
+    }
+
+    /**
+     * 多字节数值的字节序(整块写的基础类型数组与逐个调用writeInt等的结果要一致)
+     * @return 字节序
+     */
+    default ByteOrder order() {
+        return ByteOrder.BIG_ENDIAN;
+    }
+}
@@ -0,0 +1,210 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 直接从ByteBuffer读取的输入流(生成的doRead(ByteBuffer)使用)
+ * 不复制到中间字节数组(基础类型数组直接从缓冲读出，长数组通过缓冲的视图整块读)，跳过只移动读位置；格式与ByteBufferOutputStream相同(定长整数按缓冲的字节序，字符串4字节长度 + UTF-8字节)
+ * 截取(延迟解码的字段)会复制这段数据，对象不引用源缓冲，读完后源缓冲可以复用
+ * @author zenghongming
+ * @date 2026/10/18 19:30
+ */
+public class ByteBufferInputStream extends InputStream implements BulkInput, SliceInput {
+    /** 源缓冲 */
+    private final ByteBuffer buffer;
+
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * 源缓冲
+     * @return 缓冲
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    @Override
+    public long position() {
+        return buffer.position();
+    }
+
+    @Override
+    public ByteOrder order() {
+        return buffer.order();
+    }
+
+    @Override
+    public long remaining() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        require(Byte.BYTES);
+        return buffer.get();
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        require(Short.BYTES);
+        return buffer.getShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        require(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        require(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        require(Float.BYTES);
+        return buffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        require(Double.BYTES);
+        return buffer.getDouble();
+    }
+
+    @Override
+    public String readString() throws IOException {
+        int length = readInt();
+        if (length < 0) {
+            throw new IOException("negative string length: " + length);
+        }
+        require(length);
+        // 堆内缓冲直接从底层数组解码
+        if (buffer.hasArray()) {
+            int position = buffer.position();
+            String value = new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+            buffer.position(position + length);
+            return value;
+        }
+        byte[] bytes = ArrayCodec.scratch(length).array();
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public <T> T read() throws IOException {
+        throw new IOException("ByteBuffer不支持读任意对象");
+    }
+
+    @Override
+    public void readBytes(byte[] bytes, int offset, int length) throws IOException {
+        require(length);
+        buffer.get(bytes, offset, length);
+    }
+
+    @Override
+    public void readShorts(short[] array, int offset, int length) throws IOException {
+        require((long) length * Short.BYTES);
+        if (length < ArrayCodec.VIEW_MIN_LENGTH) {
+            for (int i = offset, end = offset + length; i < end; ++i) {
+                array[i] = buffer.getShort();
+            }
+            return;
+        }
+        buffer.asShortBuffer().get(array, offset, length);
+        buffer.position(buffer.position() + length * Short.BYTES);
+    }
+
+    @Override
+    public void readInts(int[] array, int offset, int length) throws IOException {
+        require((long) length * Integer.BYTES);
+        if (length < ArrayCodec.VIEW_MIN_LENGTH) {
+            for (int i = offset, end = offset + length; i < end; ++i) {
+                array[i] = buffer.getInt();
+            }
+            return;
+        }
+        buffer.asIntBuffer().get(array, offset, length);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+    }
+
+    @Override
+    public void readLongs(long[] array, int offset, int length) throws IOException {
+        require((long) length * Long.BYTES);
+        if (length < ArrayCodec.VIEW_MIN_LENGTH) {
+            for (int i = offset, end = offset + length; i < end; ++i) {
+                array[i] = buffer.getLong();
+            }
+            return;
+        }
+        buffer.asLongBuffer().get(array, offset, length);
+        buffer.position(buffer.position() + length * Long.BYTES);
+    }
+
+    @Override
+    public void readFloats(float[] array, int offset, int length) throws IOException {
+        require((long) length * Float.BYTES);
+        if (length < ArrayCodec.VIEW_MIN_LENGTH) {
+            for (int i = offset, end = offset + length; i < end; ++i) {
+                array[i] = buffer.getFloat();
+            }
+            return;
+        }
+        buffer.asFloatBuffer().get(array, offset, length);
+        buffer.position(buffer.position() + length * Float.BYTES);
+    }
+
+    @Override
+    public void readDoubles(double[] array, int offset, int length) throws IOException {
+        require((long) length * Double.BYTES);
+        if (length < ArrayCodec.VIEW_MIN_LENGTH) {
+            for (int i = offset, end = offset + length; i < end; ++i) {
+                array[i] = buffer.getDouble();
+            }
+            return;
+        }
+        buffer.asDoubleBuffer().get(array, offset, length);
+        buffer.position(buffer.position() + length * Double.BYTES);
+    }
+
+    @Override
+    public void skipBytes(int length) throws IOException {
+        require(length);
+        buffer.position(buffer.position() + length);
+    }
+
+    @Override
+    public InputStream slice(int length) throws IOException {
+        require(length);
+        // 截取的数据在字段解码前一直被对象持有，源缓冲可能是调用方复用的(网络缓冲等)，必须复制
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new ByteBufferInputStream(ByteBuffer.wrap(bytes).order(buffer.order()));
+    }
+
+    /**
+     * 检查剩余数据是否足够
+     * @param length 需要的字节数
+     * @throws EOFException 数据不足
+     */
+    private void require(long length) throws EOFException {
+        if (buffer.remaining() < length) {
+            throw new EOFException("need " + length + " bytes, remaining " + buffer.remaining());
+        }
+    }
+}
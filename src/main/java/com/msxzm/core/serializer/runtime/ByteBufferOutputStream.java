@@ -0,0 +1,181 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.OutputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 直接写入ByteBuffer的输出流(生成的doWrite(ByteBuffer)使用)
+ * 不经过中间字节数组，堆外的直接缓冲也可以直接写，基础类型数组在缓冲上直接写入(长数组通过缓冲的视图整块写)
+ * 格式按基础流的约定：定长整数按缓冲的字节序(默认大端)写，writeString写4字节长度 + UTF-8字节；
+ * 与基础流互通时两边字节序要一致，基础流实现的格式不同时两者的数据不能互相读
+ * 空间不足抛IOException，可以先用serializedSize()确认
+ * @author zenghongming
+ * @date 2026/10/18 19:30
+ */
+public class ByteBufferOutputStream extends OutputStream implements BulkOutput {
+    /** 目标缓冲 */
+    private final ByteBuffer buffer;
+
+    public ByteBufferOutputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * 目标缓冲
+     * @return 缓冲
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    @Override
+    public long position() {
+        return buffer.position();
+    }
+
+    @Override
+    public ByteOrder order() {
+        return buffer.order();
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws IOException {
+        require(Byte.BYTES);
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    @Override
+    public void writeByte(byte value) throws IOException {
+        require(Byte.BYTES);
+        buffer.put(value);
+    }
+
+    @Override
+    public void writeShort(short value) throws IOException {
+        require(Short.BYTES);
+        buffer.putShort(value);
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException {
+        require(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        require(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    @Override
+    public void writeFloat(float value) throws IOException {
+        require(Float.BYTES);
+        buffer.putFloat(value);
+    }
+
+    @Override
+    public void writeDouble(double value) throws IOException {
+        require(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    @Override
+    public void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        require(Integer.BYTES + bytes.length);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    @Override
+    public void write(Object value) throws IOException {
+        throw new IOException("ByteBuffer不支持写任意对象: " + (value == null ? "null" : value.getClass().getName()));
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        require(length);
+        buffer.put(bytes, offset, length);
+    }
+
+    @Override
+    public void writeShorts(short[] array, int offset, int length) throws IOException {
+        require((long) length * Short.BYTES);
+        if (length < ArrayCodec.VIEW_MIN_LENGTH) {
+            for (int i = offset, end = offset + length; i < end; ++i) {
+                buffer.putShort(array[i]);
+            }
+            return;
+        }
+        buffer.asShortBuffer().put(array, offset, length);
+        buffer.position(buffer.position() + length * Short.BYTES);
+    }
+
+    @Override
+    public void writeInts(int[] array, int offset, int length) throws IOException {
+        require((long) length * Integer.BYTES);
+        if (length < ArrayCodec.VIEW_MIN_LENGTH) {
+            for (int i = offset, end = offset + length; i < end; ++i) {
+                buffer.putInt(array[i]);
+            }
+            return;
+        }
+        buffer.asIntBuffer().put(array, offset, length);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+    }
+
+    @Override
+    public void writeLongs(long[] array, int offset, int length) throws IOException {
+        require((long) length * Long.BYTES);
+        if (length < ArrayCodec.VIEW_MIN_LENGTH) {
+            for (int i = offset, end = offset + length; i < end; ++i) {
+                buffer.putLong(array[i]);
+            }
+            return;
+        }
+        buffer.asLongBuffer().put(array, offset, length);
+        buffer.position(buffer.position() + length * Long.BYTES);
+    }
+
+    @Override
+    public void writeFloats(float[] array, int offset, int length) throws IOException {
+        require((long) length * Float.BYTES);
+        if (length < ArrayCodec.VIEW_MIN_LENGTH) {
+            for (int i = offset, end = offset + length; i < end; ++i) {
+                buffer.putFloat(array[i]);
+            }
+            return;
+        }
+        buffer.asFloatBuffer().put(array, offset, length);
+        buffer.position(buffer.position() + length * Float.BYTES);
+    }
+
+    @Override
+    public void writeDoubles(double[] array, int offset, int length) throws IOException {
+        require((long) length * Double.BYTES);
+        if (length < ArrayCodec.VIEW_MIN_LENGTH) {
+            for (int i = offset, end = offset + length; i < end; ++i) {
+                buffer.putDouble(array[i]);
+            }
+            return;
+        }
+        buffer.asDoubleBuffer().put(array, offset, length);
+        buffer.position(buffer.position() + length * Double.BYTES);
+    }
+
+    /**
+     * 检查剩余空间是否足够
+     * @param length 需要的字节数
+     * @throws IOException 空间不足
+     */
+    private void require(long length) throws IOException {
+        if (buffer.remaining() < length) {
+            throw new IOException("buffer overflow: need " + length + " bytes, remaining " + buffer.remaining());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 分块编码(生成代码运行时调用)
+ * 元素按块写出: 每块一个变长int元素个数 + 元素，最后写一个0结束，写之前不需要知道元素总数
+ * @author zenghongming
+ * @date 2026/10/18 22:30
+ */
+public final class Chunks {
+    /** 结束标记 */
+    private static final int END = 0;
+
+    private Chunks() {
+    }
+
+    /**
+     * 从迭代器取下一块元素
+     * @param iterator 迭代器
+     * @param chunk 块缓冲(先清空)
+     * @param chunkSize 每块最多元素个数
+     * @param <E> 元素类型
+     * @return 取到了元素 true，迭代完了 false
+     */
+    public static <E> boolean next(Iterator<? extends E> iterator, List<E> chunk, int chunkSize) {
+        chunk.clear();
+        while (chunk.size() < chunkSize && iterator.hasNext()) {
+            chunk.add(iterator.next());
+        }
+        return !chunk.isEmpty();
+    }
+
+    /**
+     * 写块的元素个数
+     * @param outputStream 输出流
+     * @param length 元素个数
+     * @throws IOException IOException
+     */
+    public static void writeLength(OutputStream outputStream, int length) throws IOException {
+        Varint.writeVarInt(outputStream, length);
+    }
+
+    /**
+     * 写结束标记
+     * @param outputStream 输出流
+     * @throws IOException IOException
+     */
+    public static void writeEnd(OutputStream outputStream) throws IOException {
+        Varint.writeVarInt(outputStream, END);
+    }
+
+    /**
+     * 读块的元素个数
+     * @param inputStream 输入流
+     * @return 元素个数，0表示结束
+     * @throws IOException 元素个数为负数(数据损坏)
+     */
+    public static int readLength(InputStream inputStream) throws IOException {
+        int length = Varint.readVarInt(inputStream);
+        if (length < 0) {
+            throw new IOException("negative chunk length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * 分块标记(各块元素个数和结束标记)的字节数，不含元素本身
+     * @param count 元素总数
+     * @param chunkSize 每块最多元素个数
+     * @return 字节数
+     */
+    public static int sizeOf(int count, int chunkSize) {
+        int size = (count / chunkSize) * Varint.sizeOfVarInt(chunkSize);
+        int remainder = count % chunkSize;
+        if (remainder != 0) {
+            size += Varint.sizeOfVarInt(remainder);
+        }
+        return size + Varint.sizeOfVarInt(END);
+    }
+}
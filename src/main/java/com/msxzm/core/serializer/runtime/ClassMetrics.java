@@ -0,0 +1,111 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+
+/**
+ * 一个序列化类的统计(开启-Aserializer.metrics=true时生成代码调用)
+ * doWrite/doRead开始时调begin取采样起点，结束时调endWrite/endRead记录
+ * 统计是包含式的：嵌套对象、父类部分的doWrite/doRead在外层的调用里面，字节数和耗时同时记在外层和自己的类上，
+ * 各个类的统计相加会重复计算
+ * @author zenghongming
+ * @date 2026/10/18 21:10
+ */
+public final class ClassMetrics {
+    /** 未采样的起点 */
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+    /** 统计的类 */
+    private final Class<?> type;
+    /** doWrite统计 */
+    private final OperationMetrics write = new OperationMetrics();
+    /** doRead统计 */
+    private final OperationMetrics read = new OperationMetrics();
+
+    ClassMetrics(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * 统计的类
+     * @return 类
+     */
+    public Class<?> type() {
+        return type;
+    }
+
+    /**
+     * doWrite统计
+     * @return 统计
+     */
+    public OperationMetrics write() {
+        return write;
+    }
+
+    /**
+     * doRead统计
+     * @return 统计
+     */
+    public OperationMetrics read() {
+        return read;
+    }
+
+    /**
+     * 开始一次调用
+     * @return 采样到的返回System.nanoTime()，否则NOT_SAMPLED
+     */
+    public long begin() {
+        return SerializerMetrics.sample() ? System.nanoTime() : NOT_SAMPLED;
+    }
+
+    /**
+     * 结束一次doWrite
+     * @param outputStream 输出流
+     * @param position 开始时的位置(SerializerMetrics.position)
+     * @param start begin的返回值
+     */
+    public void endWrite(OutputStream outputStream, long position, long start) {
+        write.record(bytes(SerializerMetrics.position(outputStream), position), nanos(start));
+    }
+
+    /**
+     * 结束一次doRead
+     * @param inputStream 输入流
+     * @param position 开始时的位置(SerializerMetrics.position)
+     * @param start begin的返回值
+     */
+    public void endRead(InputStream inputStream, long position, long start) {
+        read.record(bytes(SerializerMetrics.position(inputStream), position), nanos(start));
+    }
+
+    /**
+     * 重置
+     */
+    public void reset() {
+        write.reset();
+        read.reset();
+    }
+
+    /**
+     * 字节数
+     * @param end 结束位置
+     * @param start 开始位置
+     * @return 字节数，位置未知返回-1
+     */
+    private static long bytes(long end, long start) {
+        return start < 0L || end < start ? -1L : end - start;
+    }
+
+    /**
+     * 耗时
+     * @param start 起点
+     * @return 纳秒，未采样返回-1
+     */
+    private static long nanos(long start) {
+        return start == NOT_SAMPLED ? -1L : Math.max(0L, System.nanoTime() - start);
+    }
+
+    @Override
+    public String toString() {
+        return type.getName() + " {write: " + write + "; read: " + read + "}";
+    }
+}
@@ -0,0 +1,20 @@
+package com.msxzm.core.serializer.runtime;
+
+import java.io.IOException;
+
+/**
+ * 流式读取集合字段时逐个接收元素(生成的doReadStream方法的参数)
+ * @param <E> 元素类型
+ * @author zenghongming
+ * @date 2026/10/18 23:00
+ */
+@FunctionalInterface
+public interface ElementConsumer<E> {
+
+    /**
+     * 读出一个元素
+     * @param element 元素(可能为null)
+     * @throws IOException 处理失败时中断读取
+     */
+    void accept(E element) throws IOException;
+}
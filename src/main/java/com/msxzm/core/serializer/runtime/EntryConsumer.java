@@ -0,0 +1,22 @@
+package com.msxzm.core.serializer.runtime;
+
+import java.io.IOException;
+
+/**
+ * 流式读取Map字段时逐个接收键值对(生成的doReadStream方法的参数)
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author zenghongming
+ * @date 2026/10/18 23:00
+ */
+@FunctionalInterface
+public interface EntryConsumer<K, V> {
+
+    /**
+     * 读出一个键值对
+     * @param key 键(可能为null)
+     * @param value 值(可能为null)
+     * @throws IOException 处理失败时中断读取
+     */
+    void accept(K key, V value) throws IOException;
+}
@@ -0,0 +1,163 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+
+import java.io.IOException;
+import java.util.EnumSet;
+
+/**
+ * 枚举编解码(生成代码运行时调用)
+ * 枚举按ordinal写变长int，EnumSet按ordinal位图写: 变长int字数 + 每个字一个变长long
+ * @author zenghongming
+ * @date 2026/10/18 20:10
+ */
+public final class Enums {
+    /** 每个枚举类的values()缓存(getEnumConstants每次都会拷贝) */
+    private static final ClassValue<Object[]> VALUES = new ClassValue<Object[]>() {
+        @Override
+        protected Object[] computeValue(Class<?> type) {
+            return type.getEnumConstants();
+        }
+    };
+    /** 位图一个字的位数 */
+    private static final int WORD_BITS = Long.SIZE;
+
+    private Enums() {
+    }
+
+    /**
+     * 按ordinal取枚举
+     * @param enumClass 枚举类
+     * @param ordinal ordinal
+     * @param <E> 枚举类型
+     * @return 枚举
+     * @throws IOException ordinal超出范围(两端枚举定义不一致)
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<E>> E valueOf(Class<E> enumClass, int ordinal) throws IOException {
+        Object[] values = VALUES.get(enumClass);
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IOException("unknown ordinal " + ordinal + " of enum " + enumClass.getName());
+        }
+        return (E) values[ordinal];
+    }
+
+    /**
+     * 写EnumSet
+     * @param outputStream 输出流
+     * @param set 集合
+     * @param <E> 枚举类型
+     * @throws IOException IOException
+     */
+    public static <E extends Enum<E>> void writeEnumSet(OutputStream outputStream, EnumSet<E> set) throws IOException {
+        int words = wordCount(set);
+        Varint.writeVarInt(outputStream, words);
+        // 不超过64个常量的枚举只有一个字，不用分配数组
+        if (words == 1) {
+            Varint.writeVarLong(outputStream, firstWord(set));
+            return;
+        }
+        for (long word : toWords(set, words)) {
+            Varint.writeVarLong(outputStream, word);
+        }
+    }
+
+    /**
+     * 读EnumSet
+     * @param inputStream 输入流
+     * @param enumClass 枚举类
+     * @param <E> 枚举类型
+     * @return 集合
+     * @throws IOException IOException
+     */
+    public static <E extends Enum<E>> EnumSet<E> readEnumSet(InputStream inputStream, Class<E> enumClass) throws IOException {
+        EnumSet<E> set = EnumSet.noneOf(enumClass);
+        int words = Varint.readVarInt(inputStream);
+        for (int i = 0; i < words; ++i) {
+            long word = Varint.readVarLong(inputStream);
+            while (word != 0L) {
+                set.add(valueOf(enumClass, i * WORD_BITS + Long.numberOfTrailingZeros(word)));
+                word &= word - 1;
+            }
+        }
+        return set;
+    }
+
+    /**
+     * 跳过EnumSet
+     * @param inputStream 输入流
+     * @throws IOException IOException
+     */
+    public static void skipEnumSet(InputStream inputStream) throws IOException {
+        int words = Varint.readVarInt(inputStream);
+        for (int i = 0; i < words; ++i) {
+            Varint.readVarLong(inputStream);
+        }
+    }
+
+    /**
+     * EnumSet的字节数
+     * @param set 集合
+     * @param <E> 枚举类型
+     * @return 字节数
+     */
+    public static <E extends Enum<E>> int sizeOfEnumSet(EnumSet<E> set) {
+        int words = wordCount(set);
+        int size = Varint.sizeOfVarInt(words);
+        if (words == 1) {
+            return size + Varint.sizeOfVarLong(firstWord(set));
+        }
+        for (long word : toWords(set, words)) {
+            size += Varint.sizeOfVarLong(word);
+        }
+        return size;
+    }
+
+    /**
+     * 位图字数(到最大的ordinal为止，空集合为0)
+     * @param set 集合
+     * @param <E> 枚举类型
+     * @return 字数
+     */
+    private static <E extends Enum<E>> int wordCount(EnumSet<E> set) {
+        int maxOrdinal = -1;
+        // EnumSet按ordinal顺序迭代，最后一个就是最大的
+        for (E e : set) {
+            maxOrdinal = e.ordinal();
+        }
+        return (maxOrdinal + WORD_BITS) / WORD_BITS;
+    }
+
+    /**
+     * 第一个字(ordinal小于64的部分)
+     * @param set 集合
+     * @param <E> 枚举类型
+     * @return 位图
+     */
+    private static <E extends Enum<E>> long firstWord(EnumSet<E> set) {
+        long word = 0L;
+        for (E e : set) {
+            if (e.ordinal() >= WORD_BITS) {
+                break;
+            }
+            word |= 1L << e.ordinal();
+        }
+        return word;
+    }
+
+    /**
+     * 转成位图
+     * @param set 集合
+     * @param words 字数
+     * @param <E> 枚举类型
+     * @return 位图
+     */
+    private static <E extends Enum<E>> long[] toWords(EnumSet<E> set, int words) {
+        long[] bits = new long[words];
+        for (E e : set) {
+            bits[e.ordinal() / WORD_BITS] |= 1L << e.ordinal();
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,100 @@
+package com.msxzm.core.serializer.runtime;
+
+import java.util.Arrays;
+
+/**
+ * int列表(不装箱，序列化时整块读写)
+ * @author zenghongming
+ * @date 2026/10/18 15:40
+ */
+public class IntArrayList extends PrimitiveArrayList {
+    /** 空数组 */
+    private static final int[] EMPTY = new int[0];
+
+    /** 元素 */
+    int[] elements;
+
+    public IntArrayList() {
+        this.elements = EMPTY;
+    }
+
+    public IntArrayList(int capacity) {
+        this.elements = capacity == 0 ? EMPTY : new int[capacity];
+    }
+
+    /**
+     * 加一个元素
+     * @param value 值
+     */
+    public void add(int value) {
+        ensureCapacity(size + 1);
+        elements[size++] = value;
+    }
+
+    /**
+     * 取元素
+     * @param index 位置
+     * @return 值
+     */
+    public int get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    /**
+     * 设置元素
+     * @param index 位置
+     * @param value 值
+     * @return 原来的值
+     */
+    public int set(int index, int value) {
+        checkIndex(index);
+        int old = elements[index];
+        elements[index] = value;
+        return old;
+    }
+
+    /**
+     * 拷贝出数组
+     * @return 数组
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    int capacity() {
+        return elements.length;
+    }
+
+    @Override
+    void grow(int capacity) {
+        elements = Arrays.copyOf(elements, capacity);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntArrayList)) {
+            return false;
+        }
+        IntArrayList other = (IntArrayList) o;
+        return size == other.size && Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; ++i) {
+            hash = 31 * hash + elements[i];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
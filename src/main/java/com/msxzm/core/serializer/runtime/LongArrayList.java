@@ -0,0 +1,100 @@
+package com.msxzm.core.serializer.runtime;
+
+import java.util.Arrays;
+
+/**
+ * long列表(不装箱，序列化时整块读写)
+ * @author zenghongming
+ * @date 2026/10/18 15:40
+ */
+public class LongArrayList extends PrimitiveArrayList {
+    /** 空数组 */
+    private static final long[] EMPTY = new long[0];
+
+    /** 元素 */
+    long[] elements;
+
+    public LongArrayList() {
+        this.elements = EMPTY;
+    }
+
+    public LongArrayList(int capacity) {
+        this.elements = capacity == 0 ? EMPTY : new long[capacity];
+    }
+
+    /**
+     * 加一个元素
+     * @param value 值
+     */
+    public void add(long value) {
+        ensureCapacity(size + 1);
+        elements[size++] = value;
+    }
+
+    /**
+     * 取元素
+     * @param index 位置
+     * @return 值
+     */
+    public long get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    /**
+     * 设置元素
+     * @param index 位置
+     * @param value 值
+     * @return 原来的值
+     */
+    public long set(int index, long value) {
+        checkIndex(index);
+        long old = elements[index];
+        elements[index] = value;
+        return old;
+    }
+
+    /**
+     * 拷贝出数组
+     * @return 数组
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    int capacity() {
+        return elements.length;
+    }
+
+    @Override
+    void grow(int capacity) {
+        elements = Arrays.copyOf(elements, capacity);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LongArrayList)) {
+            return false;
+        }
+        LongArrayList other = (LongArrayList) o;
+        return size == other.size && Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; ++i) {
+            hash = 31 * hash + Long.hashCode(elements[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
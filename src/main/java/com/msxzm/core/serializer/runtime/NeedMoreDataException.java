@@ -0,0 +1,24 @@
+package com.msxzm.core.serializer.runtime;
+
+import java.io.EOFException;
+
+/**
+ * 可恢复读取时数据还不够(ResumableInput抛出，生成的doReadResumable捕获后回退并返回false)
+ * 只用于控制流程，共用一个实例，不填充调用栈
+ * @author zenghongming
+ * @date 2026/10/18 23:30
+ */
+public final class NeedMoreDataException extends EOFException {
+    private static final long serialVersionUID = 1L;
+    /** 共用实例 */
+    static final NeedMoreDataException INSTANCE = new NeedMoreDataException();
+
+    private NeedMoreDataException() {
+        super("need more data");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
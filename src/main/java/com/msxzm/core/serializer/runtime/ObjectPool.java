@@ -0,0 +1,21 @@
+package com.msxzm.core.serializer.runtime;
+
+/**
+ * 对象池(由使用方实现，通过Pools按类型注册)
+ * @author zenghongming
+ * @date 2026/10/18 16:10
+ */
+public interface ObjectPool<T> {
+
+    /**
+     * 借出一个对象
+     * @return 对象，池为空时返回null(生成代码会自己new一个)
+     */
+    T borrow();
+
+    /**
+     * 归还一个对象
+     * @param object 对象
+     */
+    void release(T object);
+}
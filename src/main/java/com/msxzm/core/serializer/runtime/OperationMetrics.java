@@ -0,0 +1,125 @@
+package com.msxzm.core.serializer.runtime;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个类一个方向(doWrite或doRead)的统计
+ * 次数每次都记；字节数只在流能给出位置(BulkOutput/BulkInput.position)时记；耗时按采样间隔抽样记
+ * 统计包含嵌套对象和父类(super调用)的部分
+ * @author zenghongming
+ * @date 2026/10/18 21:10
+ */
+public final class OperationMetrics {
+    /** 调用次数 */
+    private final LongAdder count = new LongAdder();
+    /** 记了字节数的调用次数 */
+    private final LongAdder sizedCount = new LongAdder();
+    /** 字节数 */
+    private final LongAdder bytes = new LongAdder();
+    /** 采样了耗时的调用次数 */
+    private final LongAdder sampledCount = new LongAdder();
+    /** 采样的耗时(纳秒) */
+    private final LongAdder sampledNanos = new LongAdder();
+
+    OperationMetrics() {
+    }
+
+    /**
+     * 记录一次调用
+     * @param bytes 字节数(未知为-1)
+     * @param nanos 耗时(未采样为-1)
+     */
+    void record(long bytes, long nanos) {
+        count.increment();
+        if (bytes >= 0L) {
+            sizedCount.increment();
+            this.bytes.add(bytes);
+        }
+        if (nanos >= 0L) {
+            sampledCount.increment();
+            sampledNanos.add(nanos);
+        }
+    }
+
+    /**
+     * 调用次数
+     * @return 次数
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * 记了字节数的调用次数
+     * @return 次数
+     */
+    public long sizedCount() {
+        return sizedCount.sum();
+    }
+
+    /**
+     * 字节数
+     * @return 字节数
+     */
+    public long bytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * 采样了耗时的调用次数
+     * @return 次数
+     */
+    public long sampledCount() {
+        return sampledCount.sum();
+    }
+
+    /**
+     * 采样的耗时
+     * @return 纳秒
+     */
+    public long sampledNanos() {
+        return sampledNanos.sum();
+    }
+
+    /**
+     * 平均每次的字节数
+     * @return 字节数，没有记录为0
+     */
+    public double averageBytes() {
+        long sized = sizedCount();
+        return sized == 0L ? 0D : (double) bytes() / sized;
+    }
+
+    /**
+     * 平均每次的耗时
+     * @return 纳秒，没有采样为0
+     */
+    public double averageNanos() {
+        long sampled = sampledCount();
+        return sampled == 0L ? 0D : (double) sampledNanos() / sampled;
+    }
+
+    /**
+     * 估算的总耗时(平均耗时 * 调用次数)
+     * @return 纳秒
+     */
+    public double estimatedNanos() {
+        return averageNanos() * count();
+    }
+
+    /**
+     * 清零
+     */
+    public void reset() {
+        count.reset();
+        sizedCount.reset();
+        bytes.reset();
+        sampledCount.reset();
+        sampledNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count() + ", bytes=" + bytes() + ", avgBytes=" + averageBytes() + ", avgNanos=" + averageNanos();
+    }
+}
@@ -0,0 +1,408 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 数值包装类型集合、基础类型列表的紧凑编解码(生成代码运行时调用)
+ * 格式(长度由生成代码写): [null位图，每元素1位，允许null时才有] + 非null元素的小端定长块
+ * @author zenghongming
+ * @date 2026/10/18 15:40
+ */
+public final class PackedCodec {
+
+    private PackedCodec() {
+    }
+
+    /**
+     * 紧凑格式的字节数(不含长度)
+     * @param values 集合
+     * @param elementBytes 元素字节数
+     * @param nullable 是否允许null元素
+     * @return 字节数
+     */
+    public static int sizeOf(Collection<?> values, int elementBytes, boolean nullable) {
+        if (!nullable) {
+            return values.size() * elementBytes;
+        }
+        int count = 0;
+        for (Object value : values) {
+            if (value != null) {
+                ++count;
+            }
+        }
+        return presenceBytes(values.size()) + count * elementBytes;
+    }
+
+    /**
+     * 写Byte集合(不含长度)
+     * @param outputStream 输出流
+     * @param values 集合
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void writeBytes(OutputStream outputStream, Collection<Byte> values, boolean nullable) throws IOException {
+        ByteBuffer buffer = ArrayCodec.scratch(writePresence(outputStream, values, nullable) * Byte.BYTES);
+        for (Byte value : values) {
+            if (!nullable || value != null) {
+                buffer.put(value);
+            }
+        }
+        ArrayCodec.writeBytes(outputStream, buffer.array(), buffer.position());
+    }
+
+    /**
+     * 读Byte集合(追加到集合中)
+     * @param inputStream 输入流
+     * @param values 集合
+     * @param length 元素个数
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void readBytes(InputStream inputStream, Collection<Byte> values, int length, boolean nullable) throws IOException {
+        byte[] presence = readPresence(inputStream, length, nullable);
+        ByteBuffer buffer = readBlock(inputStream, presenceCount(presence, length) * Byte.BYTES);
+        for (int i = 0; i < length; ++i) {
+            values.add(isPresent(presence, i) ? buffer.get() : null);
+        }
+    }
+
+    /**
+     * 写Short集合(不含长度)
+     * @param outputStream 输出流
+     * @param values 集合
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void writeShorts(OutputStream outputStream, Collection<Short> values, boolean nullable) throws IOException {
+        ByteBuffer buffer = ArrayCodec.scratch(writePresence(outputStream, values, nullable) * Short.BYTES);
+        for (Short value : values) {
+            if (!nullable || value != null) {
+                buffer.putShort(value);
+            }
+        }
+        ArrayCodec.writeBytes(outputStream, buffer.array(), buffer.position());
+    }
+
+    /**
+     * 读Short集合(追加到集合中)
+     * @param inputStream 输入流
+     * @param values 集合
+     * @param length 元素个数
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void readShorts(InputStream inputStream, Collection<Short> values, int length, boolean nullable) throws IOException {
+        byte[] presence = readPresence(inputStream, length, nullable);
+        ByteBuffer buffer = readBlock(inputStream, presenceCount(presence, length) * Short.BYTES);
+        for (int i = 0; i < length; ++i) {
+            values.add(isPresent(presence, i) ? buffer.getShort() : null);
+        }
+    }
+
+    /**
+     * 写Integer集合(不含长度)
+     * @param outputStream 输出流
+     * @param values 集合
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void writeInts(OutputStream outputStream, Collection<Integer> values, boolean nullable) throws IOException {
+        ByteBuffer buffer = ArrayCodec.scratch(writePresence(outputStream, values, nullable) * Integer.BYTES);
+        for (Integer value : values) {
+            if (!nullable || value != null) {
+                buffer.putInt(value);
+            }
+        }
+        ArrayCodec.writeBytes(outputStream, buffer.array(), buffer.position());
+    }
+
+    /**
+     * 读Integer集合(追加到集合中)
+     * @param inputStream 输入流
+     * @param values 集合
+     * @param length 元素个数
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void readInts(InputStream inputStream, Collection<Integer> values, int length, boolean nullable) throws IOException {
+        byte[] presence = readPresence(inputStream, length, nullable);
+        ByteBuffer buffer = readBlock(inputStream, presenceCount(presence, length) * Integer.BYTES);
+        for (int i = 0; i < length; ++i) {
+            values.add(isPresent(presence, i) ? buffer.getInt() : null);
+        }
+    }
+
+    /**
+     * 写Long集合(不含长度)
+     * @param outputStream 输出流
+     * @param values 集合
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void writeLongs(OutputStream outputStream, Collection<Long> values, boolean nullable) throws IOException {
+        ByteBuffer buffer = ArrayCodec.scratch(writePresence(outputStream, values, nullable) * Long.BYTES);
+        for (Long value : values) {
+            if (!nullable || value != null) {
+                buffer.putLong(value);
+            }
+        }
+        ArrayCodec.writeBytes(outputStream, buffer.array(), buffer.position());
+    }
+
+    /**
+     * 读Long集合(追加到集合中)
+     * @param inputStream 输入流
+     * @param values 集合
+     * @param length 元素个数
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void readLongs(InputStream inputStream, Collection<Long> values, int length, boolean nullable) throws IOException {
+        byte[] presence = readPresence(inputStream, length, nullable);
+        ByteBuffer buffer = readBlock(inputStream, presenceCount(presence, length) * Long.BYTES);
+        for (int i = 0; i < length; ++i) {
+            values.add(isPresent(presence, i) ? buffer.getLong() : null);
+        }
+    }
+
+    /**
+     * 写Float集合(不含长度)
+     * @param outputStream 输出流
+     * @param values 集合
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void writeFloats(OutputStream outputStream, Collection<Float> values, boolean nullable) throws IOException {
+        ByteBuffer buffer = ArrayCodec.scratch(writePresence(outputStream, values, nullable) * Float.BYTES);
+        for (Float value : values) {
+            if (!nullable || value != null) {
+                buffer.putFloat(value);
+            }
+        }
+        ArrayCodec.writeBytes(outputStream, buffer.array(), buffer.position());
+    }
+
+    /**
+     * 读Float集合(追加到集合中)
+     * @param inputStream 输入流
+     * @param values 集合
+     * @param length 元素个数
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void readFloats(InputStream inputStream, Collection<Float> values, int length, boolean nullable) throws IOException {
+        byte[] presence = readPresence(inputStream, length, nullable);
+        ByteBuffer buffer = readBlock(inputStream, presenceCount(presence, length) * Float.BYTES);
+        for (int i = 0; i < length; ++i) {
+            values.add(isPresent(presence, i) ? buffer.getFloat() : null);
+        }
+    }
+
+    /**
+     * 写Double集合(不含长度)
+     * @param outputStream 输出流
+     * @param values 集合
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void writeDoubles(OutputStream outputStream, Collection<Double> values, boolean nullable) throws IOException {
+        ByteBuffer buffer = ArrayCodec.scratch(writePresence(outputStream, values, nullable) * Double.BYTES);
+        for (Double value : values) {
+            if (!nullable || value != null) {
+                buffer.putDouble(value);
+            }
+        }
+        ArrayCodec.writeBytes(outputStream, buffer.array(), buffer.position());
+    }
+
+    /**
+     * 读Double集合(追加到集合中)
+     * @param inputStream 输入流
+     * @param values 集合
+     * @param length 元素个数
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void readDoubles(InputStream inputStream, Collection<Double> values, int length, boolean nullable) throws IOException {
+        byte[] presence = readPresence(inputStream, length, nullable);
+        ByteBuffer buffer = readBlock(inputStream, presenceCount(presence, length) * Double.BYTES);
+        for (int i = 0; i < length; ++i) {
+            values.add(isPresent(presence, i) ? buffer.getDouble() : null);
+        }
+    }
+
+    /**
+     * 写int列表(不含长度)
+     * @param outputStream 输出流
+     * @param list 列表
+     * @throws IOException IOException
+     */
+    public static void writeIntList(OutputStream outputStream, IntArrayList list) throws IOException {
+        int size = list.size * Integer.BYTES;
+        ByteBuffer buffer = ArrayCodec.scratch(size);
+        buffer.asIntBuffer().put(list.elements, 0, list.size);
+        ArrayCodec.writeBytes(outputStream, buffer.array(), size);
+    }
+
+    /**
+     * 读int列表(追加到列表末尾)
+     * @param inputStream 输入流
+     * @param list 列表
+     * @param length 元素个数
+     * @throws IOException IOException
+     */
+    public static void readIntList(InputStream inputStream, IntArrayList list, int length) throws IOException {
+        list.ensureCapacity(list.size + length);
+        readBlock(inputStream, length * Integer.BYTES).asIntBuffer().get(list.elements, list.size, length);
+        list.size += length;
+    }
+
+    /**
+     * 写long列表(不含长度)
+     * @param outputStream 输出流
+     * @param list 列表
+     * @throws IOException IOException
+     */
+    public static void writeLongList(OutputStream outputStream, LongArrayList list) throws IOException {
+        int size = list.size * Long.BYTES;
+        ByteBuffer buffer = ArrayCodec.scratch(size);
+        buffer.asLongBuffer().put(list.elements, 0, list.size);
+        ArrayCodec.writeBytes(outputStream, buffer.array(), size);
+    }
+
+    /**
+     * 读long列表(追加到列表末尾)
+     * @param inputStream 输入流
+     * @param list 列表
+     * @param length 元素个数
+     * @throws IOException IOException
+     */
+    public static void readLongList(InputStream inputStream, LongArrayList list, int length) throws IOException {
+        list.ensureCapacity(list.size + length);
+        readBlock(inputStream, length * Long.BYTES).asLongBuffer().get(list.elements, list.size, length);
+        list.size += length;
+    }
+
+    /**
+     * 跳过紧凑格式的集合(长度已读): 只读null位图，非null元素按字节数跳过
+     * @param inputStream 输入流
+     * @param length 元素个数
+     * @param elementBytes 元素字节数
+     * @param nullable 是否允许null元素
+     * @throws IOException IOException
+     */
+    public static void skip(InputStream inputStream, int length, int elementBytes, boolean nullable) throws IOException {
+        Skips.skipBytes(inputStream, presenceCount(readPresence(inputStream, length, nullable), length) * elementBytes);
+    }
+
+    /**
+     * 跳过基础类型列表(长度已读)
+     * @param inputStream 输入流
+     * @param length 元素个数
+     * @param elementBytes 元素字节数
+     * @throws IOException IOException
+     */
+    public static void skipList(InputStream inputStream, int length, int elementBytes) throws IOException {
+        Skips.skipBytes(inputStream, length * elementBytes);
+    }
+
+    /**
+     * 写null位图
+     * @param outputStream 输出流
+     * @param values 集合
+     * @param nullable 是否允许null元素(不允许则不写位图)
+     * @return 非null元素个数
+     * @throws IOException IOException
+     */
+    private static int writePresence(OutputStream outputStream, Collection<?> values, boolean nullable) throws IOException {
+        if (!nullable) {
+            return values.size();
+        }
+        int bytes = presenceBytes(values.size());
+        ByteBuffer buffer = ArrayCodec.scratch(bytes);
+        byte[] presence = buffer.array();
+        Arrays.fill(presence, 0, bytes, (byte) 0);
+        int index = 0, count = 0;
+        for (Object value : values) {
+            if (value != null) {
+                presence[index >>> 3] |= 1 << (index & 7);
+                ++count;
+            }
+            ++index;
+        }
+        ArrayCodec.writeBytes(outputStream, presence, bytes);
+        return count;
+    }
+
+    /**
+     * 读null位图
+     * @param inputStream 输入流
+     * @param length 元素个数
+     * @param nullable 是否允许null元素
+     * @return 位图，不允许null返回null
+     * @throws IOException IOException
+     */
+    private static byte[] readPresence(InputStream inputStream, int length, boolean nullable) throws IOException {
+        if (!nullable) {
+            return null;
+        }
+        byte[] presence = new byte[presenceBytes(length)];
+        ArrayCodec.readBytes(inputStream, presence, presence.length);
+        return presence;
+    }
+
+    /**
+     * 读定长块
+     * @param inputStream 输入流
+     * @param size 字节数
+     * @return 缓冲
+     * @throws IOException IOException
+     */
+    private static ByteBuffer readBlock(InputStream inputStream, int size) throws IOException {
+        ByteBuffer buffer = ArrayCodec.scratch(size);
+        ArrayCodec.readBytes(inputStream, buffer.array(), size);
+        return buffer;
+    }
+
+    /**
+     * 非null元素个数
+     * @param presence 位图
+     * @param length 元素个数
+     * @return 个数
+     */
+    private static int presenceCount(byte[] presence, int length) {
+        if (presence == null) {
+            return length;
+        }
+        int count = 0;
+        for (byte b : presence) {
+            count += Integer.bitCount(b & 0xFF);
+        }
+        return count;
+    }
+
+    /**
+     * 第index个元素是否非null
+     * @param presence 位图
+     * @param index 位置
+     * @return 非null true
+     */
+    private static boolean isPresent(byte[] presence, int index) {
+        return presence == null || (presence[index >>> 3] & (1 << (index & 7))) != 0;
+    }
+
+    /**
+     * 位图字节数
+     * @param length 元素个数
+     * @return 字节数
+     */
+    private static int presenceBytes(int length) {
+        return (length + 7) >>> 3;
+    }
+}
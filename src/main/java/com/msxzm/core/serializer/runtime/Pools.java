@@ -0,0 +1,59 @@
+package com.msxzm.core.serializer.runtime;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 对象池注册表
+ * 生成代码在类加载时按类型取一次池(静态字段)，之后注册或替换的池也能生效；没有注册池的类型借出null、归还直接丢弃
+ * @author zenghongming
+ * @date 2026/10/18 16:10
+ */
+public final class Pools {
+    /** 类型 -> 池 */
+    private static final ConcurrentMap<Class<?>, PoolSlot<?>> SLOTS = new ConcurrentHashMap<>();
+
+    private Pools() {
+    }
+
+    /**
+     * 获取类型的池
+     * @param type 类型
+     * @param <T> 类型
+     * @return 池
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ObjectPool<T> of(Class<T> type) {
+        return (ObjectPool<T>) SLOTS.computeIfAbsent(type, k -> new PoolSlot<>());
+    }
+
+    /**
+     * 注册类型的池(替换已有的)
+     * @param type 类型
+     * @param pool 池，null为取消注册
+     * @param <T> 类型
+     */
+    public static <T> void register(Class<T> type, ObjectPool<T> pool) {
+        ((PoolSlot<T>) of(type)).pool = pool;
+    }
+
+    /** 池的占位，转发到注册的池 */
+    private static final class PoolSlot<T> implements ObjectPool<T> {
+        /** 注册的池 */
+        private volatile ObjectPool<T> pool;
+
+        @Override
+        public T borrow() {
+            ObjectPool<T> pool = this.pool;
+            return pool == null ? null : pool.borrow();
+        }
+
+        @Override
+        public void release(T object) {
+            ObjectPool<T> pool = this.pool;
+            if (pool != null) {
+                pool.release(object);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.msxzm.core.serializer.runtime;
+
+/**
+ * 基础类型列表的公共部分(元素个数、容量、下标检查)，元素数组由子类持有
+ * @author zenghongming
+ * @date 2026/10/18 23:50
+ */
+public abstract class PrimitiveArrayList {
+    /** 元素个数 */
+    int size;
+
+    /**
+     * 元素个数
+     * @return 个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 是否为空
+     * @return 空 true
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空(保留容量)
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * 保证容量(按1.5倍扩容)
+     * @param capacity 最小容量
+     */
+    public void ensureCapacity(int capacity) {
+        int current = capacity();
+        if (capacity > current) {
+            grow(Math.max(capacity, current + (current >> 1)));
+        }
+    }
+
+    /**
+     * 当前容量
+     * @return 元素数组长度
+     */
+    abstract int capacity();
+
+    /**
+     * 扩容元素数组
+     * @param capacity 新容量
+     */
+    abstract void grow(int capacity);
+
+    /**
+     * 检查下标
+     * @param index 位置
+     */
+    void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 引用表(生成代码运行时调用，一次写出/读取/计算长度的整个对象图共用一个)
+ * 每个跟踪的对象先写变长引用：0表示新对象，后面跟对象内容，按第一次出现的顺序(先序)编号；n表示第n-1个已经出现过的对象
+ * 新对象在读内容之前登记，所以环形引用也能还原；最外层的对象进入时就登记为0号
+ * 同一线程上按流区分，嵌套的对象写同一个流时加入外层的引用表
+ * @author zenghongming
+ * @date 2026/10/18 20:50
+ */
+public final class ReferenceTable {
+    /** 计算长度时的键 */
+    private static final Object SIZING = new Object();
+    /** 新对象的引用 */
+    private static final int NEW_OBJECT = 0;
+    /** 初始容量(2的幂) */
+    private static final int INITIAL_CAPACITY = 16;
+    /** 线程内当前的引用表 */
+    private static final ThreadLocal<ReferenceTable> CURRENT = new ThreadLocal<>();
+
+    /** 所属的流(或者计算长度的键) */
+    private final Object key;
+    /** 外层的引用表(不同的流)，退出时恢复 */
+    private final ReferenceTable previous;
+    /** 是否读取 */
+    private final boolean reading;
+    /** 重入深度 */
+    private int depth = 1;
+    /** 已登记的对象数 */
+    private int size;
+    /** 写出时: 开放寻址的对象(按identityHashCode线性探测) */
+    private Object[] keys;
+    /** 写出时: 与keys同位置的编号 */
+    private int[] ids;
+    /** 读取时: 编号 -> 对象 */
+    private Object[] objects;
+
+    private ReferenceTable(Object key, ReferenceTable previous, boolean reading) {
+        this.key = key;
+        this.previous = previous;
+        this.reading = reading;
+    }
+
+    /**
+     * 写出时进入引用表
+     * @param outputStream 输出流
+     * @param root 当前对象(新建引用表时登记为0号)
+     * @return 引用表，用完调用exit()
+     */
+    public static ReferenceTable enterWrite(OutputStream outputStream, Object root) {
+        return enter(outputStream, root, false);
+    }
+
+    /**
+     * 读取时进入引用表
+     * @param inputStream 输入流
+     * @param root 当前对象(新建引用表时登记为0号)
+     * @return 引用表，用完调用exit()
+     */
+    public static ReferenceTable enterRead(InputStream inputStream, Object root) {
+        return enter(inputStream, root, true);
+    }
+
+    /**
+     * 计算长度时进入引用表
+     * @param root 当前对象(新建引用表时登记为0号)
+     * @return 引用表，用完调用exit()
+     */
+    public static ReferenceTable enterSize(Object root) {
+        return enter(SIZING, root, false);
+    }
+
+    /**
+     * 进入引用表(同一个流重入，否则新建)
+     * @param key 流
+     * @param root 当前对象
+     * @param reading 是否读取
+     * @return 引用表
+     */
+    private static ReferenceTable enter(Object key, Object root, boolean reading) {
+        ReferenceTable current = CURRENT.get();
+        if (current != null && current.key == key) {
+            ++current.depth;
+            return current;
+        }
+        ReferenceTable table = new ReferenceTable(key, current, reading);
+        table.register(root);
+        CURRENT.set(table);
+        return table;
+    }
+
+    /**
+     * 退出引用表(最外层退出时恢复外层的引用表)
+     */
+    public void exit() {
+        if (--depth == 0) {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * 写引用
+     * @param outputStream 输出流
+     * @param value 对象
+     * @return 新对象(需要接着写内容) true
+     * @throws IOException IOException
+     */
+    public boolean writeReference(OutputStream outputStream, Object value) throws IOException {
+        int id = putIfAbsent(value);
+        Varint.writeVarInt(outputStream, id < 0 ? NEW_OBJECT : id + 1);
+        return id < 0;
+    }
+
+    /**
+     * 计算长度时登记对象
+     * @param value 对象
+     * @return 新对象(引用占1字节，需要接着计算内容) true
+     */
+    public boolean track(Object value) {
+        return putIfAbsent(value) < 0;
+    }
+
+    /**
+     * 已登记对象的引用长度
+     * @param value 对象
+     * @return 字节数
+     */
+    public int sizeOfReference(Object value) {
+        return Varint.sizeOfVarInt(putIfAbsent(value) + 1);
+    }
+
+    /**
+     * 读引用
+     * @param inputStream 输入流
+     * @return 已经出现过的对象，新对象返回null(需要new之后register再读内容)
+     * @throws IOException 引用不存在
+     */
+    public Object readReference(InputStream inputStream) throws IOException {
+        int ref = Varint.readVarInt(inputStream);
+        if (ref == NEW_OBJECT) {
+            return null;
+        }
+        if (ref < 0 || ref > size) {
+            throw new IOException("object reference out of range: " + ref + ", table size " + size);
+        }
+        return objects[ref - 1];
+    }
+
+    /**
+     * 登记新对象(读取时在读内容之前调用)
+     * @param value 对象
+     */
+    public void register(Object value) {
+        if (!reading) {
+            putIfAbsent(value);
+            return;
+        }
+        if (objects == null) {
+            objects = new Object[INITIAL_CAPACITY];
+        } else if (size == objects.length) {
+            objects = Arrays.copyOf(objects, size << 1);
+        }
+        objects[size++] = value;
+    }
+
+    /**
+     * 查找对象的编号，没有则登记
+     * @param value 对象
+     * @return 已有的编号，新登记的返回-1
+     */
+    private int putIfAbsent(Object value) {
+        if (keys == null) {
+            keys = new Object[INITIAL_CAPACITY];
+            ids = new int[INITIAL_CAPACITY];
+        }
+        int mask = keys.length - 1;
+        int index = hash(value) & mask;
+        for (Object exist; (exist = keys[index]) != null; index = (index + 1) & mask) {
+            if (exist == value) {
+                return ids[index];
+            }
+        }
+        keys[index] = value;
+        ids[index] = size++;
+        // 负载超过一半扩容
+        if (size << 1 > keys.length) {
+            resize();
+        }
+        return -1;
+    }
+
+    /**
+     * 扩容一倍并重新放置
+     */
+    private void resize() {
+        Object[] oldKeys = keys;
+        int[] oldIds = ids;
+        keys = new Object[oldKeys.length << 1];
+        ids = new int[keys.length];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; ++i) {
+            Object value = oldKeys[i];
+            if (value == null) {
+                continue;
+            }
+            int index = hash(value) & mask;
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = value;
+            ids[index] = oldIds[i];
+        }
+    }
+
+    /**
+     * 对象的哈希(打散identityHashCode的低位)
+     * @param value 对象
+     * @return 哈希
+     */
+    private static int hash(Object value) {
+        int h = System.identityHashCode(value) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,238 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+
+/**
+ * 可恢复读取的输入流(生成的doReadResumable使用)
+ * 收到的数据按ByteBuffer追加，不复制成连续的帧；数据不够时抛出NeedMoreDataException，
+ * 生成代码回退到上一个提交点，等追加了数据再从那里继续读。整数按大端读(与ByteBuffer默认字节序一致)
+ * 追加的缓冲在读完并提交之前会一直被引用，调用方在此之前不能修改它的内容
+ * <pre>
+ * input.offer(received);
+ * while (message.doReadResumable(input)) {
+ *     handle(message);
+ *     message = new Message();
+ * }
+ * </pre>
+ * @author zenghongming
+ * @date 2026/10/18 23:30
+ */
+public class ResumableInput extends InputStream implements BulkInput {
+    /** 还没读完的缓冲(只用绝对位置读，不改变缓冲本身的位置) */
+    private final ArrayList<ByteBuffer> buffers = new ArrayList<>();
+    /** 当前读到第几个缓冲 */
+    private int current;
+    /** 当前缓冲的读位置 */
+    private int offset;
+    /** 提交点: 缓冲的读位置(提交时已经丢弃之前的缓冲，所以提交点总在第0个缓冲) */
+    private int markOffset;
+    /** 已经读了的字节数 */
+    private long position;
+    /** 提交点已经读了的字节数 */
+    private long markPosition;
+    /** 还没读的字节数 */
+    private long available;
+
+    /**
+     * 追加收到的数据(只引用position到limit之间的部分，不复制)
+     * @param buffer 数据
+     */
+    public void offer(ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return;
+        }
+        buffers.add(buffer.slice().order(ByteOrder.BIG_ENDIAN));
+        available += buffer.remaining();
+    }
+
+    /**
+     * 还没读的字节数
+     * @return 字节数
+     */
+    public long available() {
+        return available;
+    }
+
+    /**
+     * 提交已经读了的数据(之后不会再回退到这之前)，读完的缓冲不再引用
+     */
+    public void commit() {
+        if (current < buffers.size() && offset == buffers.get(current).limit()) {
+            ++current;
+            offset = 0;
+        }
+        if (current > 0) {
+            buffers.subList(0, current).clear();
+            current = 0;
+        }
+        markOffset = offset;
+        markPosition = position;
+    }
+
+    /**
+     * 回退到上一个提交点
+     */
+    public void rollback() {
+        available += position - markPosition;
+        current = 0;
+        offset = markOffset;
+        position = markPosition;
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        require(Byte.BYTES);
+        ByteBuffer buffer = currentBuffer();
+        byte value = buffer.get(offset);
+        advance(Byte.BYTES);
+        return value;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        require(Short.BYTES);
+        ByteBuffer buffer = currentBuffer();
+        if (buffer.limit() - offset >= Short.BYTES) {
+            short value = buffer.getShort(offset);
+            advance(Short.BYTES);
+            return value;
+        }
+        return (short) readSlow(Short.BYTES);
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        require(Integer.BYTES);
+        ByteBuffer buffer = currentBuffer();
+        if (buffer.limit() - offset >= Integer.BYTES) {
+            int value = buffer.getInt(offset);
+            advance(Integer.BYTES);
+            return value;
+        }
+        return (int) readSlow(Integer.BYTES);
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        require(Long.BYTES);
+        ByteBuffer buffer = currentBuffer();
+        if (buffer.limit() - offset >= Long.BYTES) {
+            long value = buffer.getLong(offset);
+            advance(Long.BYTES);
+            return value;
+        }
+        return readSlow(Long.BYTES);
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public String readString() throws IOException {
+        return Strings.readString(this);
+    }
+
+    @Override
+    public <T> T read() throws IOException {
+        throw new IOException("ResumableInput不支持读任意对象");
+    }
+
+    @Override
+    public void readBytes(byte[] bytes, int offset, int length) throws IOException {
+        require(length);
+        while (length > 0) {
+            ByteBuffer buffer = currentBuffer();
+            int count = Math.min(length, buffer.limit() - this.offset);
+            ByteBuffer source = buffer.duplicate();
+            source.position(this.offset);
+            source.get(bytes, offset, count);
+            advance(count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void skipBytes(int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("negative length: " + length);
+        }
+        require(length);
+        while (length > 0) {
+            int count = Math.min(length, currentBuffer().limit() - offset);
+            advance(count);
+            length -= count;
+        }
+    }
+
+    /**
+     * 跨缓冲逐字节读大端整数
+     * @param bytes 字节数
+     * @return 值
+     */
+    private long readSlow(int bytes) {
+        long value = 0L;
+        for (int i = 0; i < bytes; ++i) {
+            value = (value << Byte.SIZE) | (currentBuffer().get(offset) & 0xFF);
+            advance(Byte.BYTES);
+        }
+        return value;
+    }
+
+    /**
+     * 当前缓冲(当前缓冲读完了就换下一个)
+     * @return 缓冲
+     */
+    private ByteBuffer currentBuffer() {
+        ByteBuffer buffer = buffers.get(current);
+        if (offset == buffer.limit()) {
+            ++current;
+            offset = 0;
+            buffer = buffers.get(current);
+        }
+        return buffer;
+    }
+
+    /**
+     * 移动读位置(不超过当前缓冲)
+     * @param length 字节数
+     */
+    private void advance(int length) {
+        offset += length;
+        position += length;
+        available -= length;
+    }
+
+    /**
+     * 检查剩余数据是否足够
+     * @param length 需要的字节数
+     * @throws NeedMoreDataException 数据不足
+     */
+    private void require(int length) throws NeedMoreDataException {
+        if (available < length) {
+            throw NeedMoreDataException.INSTANCE;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 编译期生成的序列化类索引(每次编译生成一个实现类，登记在META-INF/services下)
+ * @author zenghongming
+ * @date 2026/10/18 16:50
+ */
+public interface SerializableIndex {
+
+    /**
+     * 登记本索引中的所有序列化类
+     * @param registrar 登记
+     */
+    void registerTo(Registrar registrar);
+
+    /** 登记 */
+    interface Registrar {
+
+        /**
+         * 登记一个序列化类
+         * @param type 类
+         * @param typeId 多态类型id，没有指定为0
+         * @param constructor 构造函数引用，抽象类或无法直接实例化的为null
+         * @param <T> 类型
+         */
+        <T> void register(Class<T> type, int typeId, Supplier<T> constructor);
+
+        /**
+         * 登记多态子类的读写方法(指定了typeId、可以实例化的类)，多态字段编译时不认识的子类运行时按这里读写
+         * @param type 类(已经用register登记过)
+         * @param writer writeTo方法引用
+         * @param reader readFrom方法引用
+         * @param sizer serializedSize方法引用，没有为null
+         * @param <T> 类型
+         */
+        <T> void registerCodec(Class<T> type, Writer<T> writer, Reader<T> reader, ToIntFunction<T> sizer);
+    }
+
+    /**
+     * 写方法
+     * @param <T> 类型
+     */
+    @FunctionalInterface
+    interface Writer<T> {
+
+        /**
+         * 写出对象
+         * @param value 对象
+         * @param outputStream 输出流
+         * @throws IOException IOException
+         */
+        void write(T value, OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * 读方法
+     * @param <T> 类型
+     */
+    @FunctionalInterface
+    interface Reader<T> {
+
+        /**
+         * 读到对象里
+         * @param value 对象
+         * @param inputStream 输入流
+         * @throws IOException IOException
+         */
+        void read(T value, InputStream inputStream) throws IOException;
+    }
+}
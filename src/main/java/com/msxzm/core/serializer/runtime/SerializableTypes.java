@@ -0,0 +1,248 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 序列化类注册表(从生成的SerializableIndex加载，不扫描classpath、不反射构造)
+ * 多态字段只认识编译时同一轮处理的子类，其他模块或没有重新处理的子类通过默认注册表按typeId读写
+ * @author zenghongming
+ * @date 2026/10/18 16:50
+ */
+public final class SerializableTypes implements SerializableIndex.Registrar {
+    /** 类 -> 构造函数 */
+    private final Map<Class<?>, Supplier<?>> constructors = new HashMap<>();
+    /** 多态类型id -> 构造函数 */
+    private final Map<Integer, Supplier<?>> typeIdConstructors = new HashMap<>();
+    /** 类 -> 多态类型id */
+    private final Map<Class<?>, Integer> typeIds = new HashMap<>();
+    /** 多态类型id -> 类(检查不同模块的typeId是否重复) */
+    private final Map<Integer, Class<?>> typeIdTypes = new HashMap<>();
+    /** 类 -> 多态子类读写方法 */
+    private final Map<Class<?>, Codec<?>> codecs = new HashMap<>();
+    /** 多态类型id -> 多态子类读写方法 */
+    private final Map<Integer, Codec<?>> typeIdCodecs = new HashMap<>();
+    /** 默认注册表(生成的多态读写代码使用) */
+    private static volatile SerializableTypes defaultTypes;
+
+    private SerializableTypes() {
+    }
+
+    /**
+     * 默认注册表，第一次使用时从当前线程的类加载器加载
+     * @return 注册表
+     */
+    public static SerializableTypes getDefault() {
+        SerializableTypes types = defaultTypes;
+        if (types == null) {
+            synchronized (SerializableTypes.class) {
+                types = defaultTypes;
+                if (types == null) {
+                    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+                    types = load(classLoader == null ? SerializableTypes.class.getClassLoader() : classLoader);
+                    defaultTypes = types;
+                }
+            }
+        }
+        return types;
+    }
+
+    /**
+     * 指定默认注册表(类加载器层次复杂时在启动阶段调用)
+     * @param types 注册表
+     */
+    public static void setDefault(SerializableTypes types) {
+        defaultTypes = types;
+    }
+
+    /**
+     * 加载类加载器下所有的索引
+     * @param classLoader 类加载器
+     * @return 注册表
+     * @throws IllegalStateException 不同的类使用了相同的typeId
+     */
+    public static SerializableTypes load(ClassLoader classLoader) {
+        SerializableTypes serializableTypes = new SerializableTypes();
+        for (SerializableIndex index : ServiceLoader.load(SerializableIndex.class, classLoader)) {
+            index.registerTo(serializableTypes);
+        }
+        return serializableTypes;
+    }
+
+    @Override
+    public <T> void register(Class<T> type, int typeId, Supplier<T> constructor) {
+        if (typeId > 0) {
+            // 编译期只能检查同一轮编译的类，不同模块的在这里检查
+            Class<?> exist = typeIdTypes.putIfAbsent(typeId, type);
+            if (exist != null && exist != type) {
+                throw new IllegalStateException("duplicate polymorphic type id " + typeId + ": " + exist.getName() + ", " + type.getName());
+            }
+        }
+        constructors.put(type, constructor);
+        if (typeId > 0) {
+            typeIds.put(type, typeId);
+            if (constructor != null) {
+                typeIdConstructors.put(typeId, constructor);
+            }
+        }
+    }
+
+    @Override
+    public <T> void registerCodec(Class<T> type, SerializableIndex.Writer<T> writer, SerializableIndex.Reader<T> reader, ToIntFunction<T> sizer) {
+        int typeId = getTypeId(type);
+        @SuppressWarnings("unchecked")
+        Supplier<T> constructor = (Supplier<T>) constructors.get(type);
+        if (typeId <= 0 || constructor == null) {
+            return;
+        }
+        Codec<T> codec = new Codec<>(typeId, constructor, writer, reader, sizer);
+        codecs.put(type, codec);
+        typeIdCodecs.put(typeId, codec);
+    }
+
+    /**
+     * 所有序列化类
+     * @return 类
+     */
+    public Set<Class<?>> types() {
+        return Collections.unmodifiableSet(constructors.keySet());
+    }
+
+    /**
+     * 新建一个对象
+     * @param type 类
+     * @param <T> 类型
+     * @return 对象，未登记或无法实例化返回null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T newInstance(Class<T> type) {
+        Supplier<?> constructor = constructors.get(type);
+        return constructor == null ? null : (T) constructor.get();
+    }
+
+    /**
+     * 按多态类型id新建一个对象
+     * @param typeId 多态类型id
+     * @return 对象，未登记返回null
+     */
+    public Object newInstance(int typeId) {
+        Supplier<?> constructor = typeIdConstructors.get(typeId);
+        return constructor == null ? null : constructor.get();
+    }
+
+    /**
+     * 类的多态类型id
+     * @param type 类
+     * @return 类型id，没有指定为0
+     */
+    public int getTypeId(Class<?> type) {
+        return typeIds.getOrDefault(type, 0);
+    }
+
+    /**
+     * 写多态子类: 变长typeId + 内容(生成的多态写代码遇到编译时不认识的子类时调用)
+     * @param outputStream 输出流
+     * @param value 对象
+     * @throws IOException 子类没有登记
+     */
+    public void writePolymorphic(OutputStream outputStream, Object value) throws IOException {
+        Codec<Object> codec = getCodec(value);
+        if (codec == null) {
+            throw new IOException("unregistered polymorphic type: " + value.getClass().getName());
+        }
+        Varint.writeVarInt(outputStream, codec.typeId);
+        codec.writer.write(value, outputStream);
+    }
+
+    /**
+     * 按typeId新建多态子类(生成的多态读代码遇到编译时不认识的typeId时调用，之后再调用readPolymorphic读内容)
+     * @param typeId 多态类型id
+     * @param type 字段类型
+     * @param <T> 字段类型
+     * @return 对象
+     * @throws IOException typeId没有登记或者不是字段类型的子类
+     */
+    public <T> T newPolymorphic(int typeId, Class<T> type) throws IOException {
+        Codec<?> codec = typeIdCodecs.get(typeId);
+        if (codec == null) {
+            throw new IOException("unknown polymorphic type id: " + typeId);
+        }
+        Object value = codec.constructor.get();
+        if (!type.isInstance(value)) {
+            throw new IOException("polymorphic type id " + typeId + " is " + value.getClass().getName() + ", not a " + type.getName());
+        }
+        return type.cast(value);
+    }
+
+    /**
+     * 读多态子类的内容
+     * @param inputStream 输入流
+     * @param value newPolymorphic新建的对象
+     * @throws IOException IOException
+     */
+    public void readPolymorphic(InputStream inputStream, Object value) throws IOException {
+        Codec<Object> codec = getCodec(value);
+        if (codec == null) {
+            throw new IOException("unregistered polymorphic type: " + value.getClass().getName());
+        }
+        codec.reader.read(value, inputStream);
+    }
+
+    /**
+     * 多态子类的长度: 变长typeId + serializedSize
+     * @param value 对象
+     * @return 字节数
+     * @throws IllegalStateException 子类没有登记或者没有serializedSize
+     */
+    public int sizeOfPolymorphic(Object value) {
+        Codec<Object> codec = getCodec(value);
+        if (codec == null || codec.sizer == null) {
+            throw new IllegalStateException("no serializedSize for polymorphic type: " + value.getClass().getName());
+        }
+        return Varint.sizeOfVarInt(codec.typeId) + codec.sizer.applyAsInt(value);
+    }
+
+    /**
+     * 对象所属类的读写方法
+     * @param value 对象
+     * @return 读写方法，没有登记为null
+     */
+    @SuppressWarnings("unchecked")
+    private Codec<Object> getCodec(Object value) {
+        return (Codec<Object>) codecs.get(value.getClass());
+    }
+
+    /**
+     * 多态子类的读写方法
+     * @param <T> 类型
+     */
+    private static final class Codec<T> {
+        /** 多态类型id */
+        final int typeId;
+        /** 构造函数 */
+        final Supplier<T> constructor;
+        /** 写方法 */
+        final SerializableIndex.Writer<T> writer;
+        /** 读方法 */
+        final SerializableIndex.Reader<T> reader;
+        /** 长度，没有为null */
+        final ToIntFunction<T> sizer;
+
+        Codec(int typeId, Supplier<T> constructor, SerializableIndex.Writer<T> writer, SerializableIndex.Reader<T> reader, ToIntFunction<T> sizer) {
+            this.typeId = typeId;
+            this.constructor = constructor;
+            this.writer = writer;
+            this.reader = reader;
+            this.sizer = sizer;
+        }
+    }
+}
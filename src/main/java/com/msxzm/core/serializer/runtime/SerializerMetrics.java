@@ -0,0 +1,102 @@
+package com.msxzm.core.serializer.runtime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 序列化统计注册表
+ * 编译时加-Aserializer.metrics=true，生成的doWrite/doRead会按类记录调用次数、字节数和采样耗时；不加则生成代码里没有任何统计
+ * @author zenghongming
+ * @date 2026/10/18 21:10
+ */
+public final class SerializerMetrics {
+    /** 默认采样间隔(平均每多少次调用采样一次耗时) */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+    /** 类 -> 统计(生成的类在静态字段里持有，非静态内部类每次调用查找) */
+    private static final ClassValue<ClassMetrics> METRICS = new ClassValue<ClassMetrics>() {
+        @Override
+        protected ClassMetrics computeValue(Class<?> type) {
+            return REGISTRY.computeIfAbsent(type, ClassMetrics::new);
+        }
+    };
+    /** 所有统计(用于遍历) */
+    private static final ConcurrentMap<Class<?>, ClassMetrics> REGISTRY = new ConcurrentHashMap<>();
+    /** 采样间隔 */
+    private static volatile int sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+
+    private SerializerMetrics() {
+    }
+
+    /**
+     * 获取类的统计
+     * @param type 类
+     * @return 统计
+     */
+    public static ClassMetrics of(Class<?> type) {
+        return METRICS.get(type);
+    }
+
+    /**
+     * 所有已记录的类的统计
+     * @return 统计
+     */
+    public static Collection<ClassMetrics> all() {
+        List<ClassMetrics> list = new ArrayList<>(REGISTRY.values());
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * 清零所有统计
+     */
+    public static void reset() {
+        REGISTRY.values().forEach(ClassMetrics::reset);
+    }
+
+    /**
+     * 采样间隔
+     * @return 间隔
+     */
+    public static int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    /**
+     * 设置采样间隔
+     * @param interval 间隔，1为每次都采样，0为不采样
+     */
+    public static void setSampleInterval(int interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("negative sample interval: " + interval);
+        }
+        sampleInterval = interval;
+    }
+
+    /**
+     * 本次调用是否采样耗时
+     * @return 是 true
+     */
+    static boolean sample() {
+        int interval = sampleInterval;
+        return interval == 1 || (interval > 1 && ThreadLocalRandom.current().nextInt(interval) == 0);
+    }
+
+    /**
+     * 流的当前位置
+     * @param stream 输入流或输出流
+     * @return 位置，不支持返回-1
+     */
+    public static long position(Object stream) {
+        if (stream instanceof BulkOutput) {
+            return ((BulkOutput) stream).position();
+        }
+        if (stream instanceof BulkInput) {
+            return ((BulkInput) stream).position();
+        }
+        return -1L;
+    }
+}
@@ -0,0 +1,52 @@
+package com.msxzm.core.serializer.runtime;
+
+/**
+ * 序列化长度计算(生成的serializedSize运行时调用)
+ * @author zenghongming
+ * @date 2026/10/18 15:00
+ */
+public final class Sizes {
+    /** 字符串长度前缀字节数(与OutputStream.writeString一致：int长度 + UTF-8字节) */
+    private static final int STRING_LENGTH_BYTES = Integer.BYTES;
+
+    private Sizes() {
+    }
+
+    /**
+     * 字符串的字节数
+     * @param value 字符串
+     * @return 字节数
+     */
+    public static int sizeOfString(String value) {
+        return STRING_LENGTH_BYTES + utf8Length(value);
+    }
+
+    /**
+     * UTF-8编码后的字节数(不生成字节数组)
+     * @param value 字符串
+     * @return 字节数
+     */
+    public static int utf8Length(String value) {
+        int length = value.length();
+        int size = length;
+        for (int i = 0; i < length; ++i) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                size += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // 代理对共4字节
+                size += 2;
+                ++i;
+            } else if (Character.isSurrogate(c)) {
+                // 单独的代理字符编码成'?'
+                continue;
+            } else {
+                size += 2;
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,44 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+
+import java.io.IOException;
+
+/**
+ * 跳过不需要的数据(生成代码运行时调用)
+ * @author zenghongming
+ * @date 2026/10/18 18:20
+ */
+public final class Skips {
+
+    private Skips() {
+    }
+
+    /**
+     * 跳过一段字节
+     * @param inputStream 输入流
+     * @param length 长度
+     * @throws IOException 数据不足
+     */
+    public static void skipBytes(InputStream inputStream, int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("negative length: " + length);
+        }
+        if (inputStream instanceof BulkInput) {
+            ((BulkInput) inputStream).skipBytes(length);
+            return;
+        }
+        for (int i = 0; i < length; ++i) {
+            inputStream.readByte();
+        }
+    }
+
+    /**
+     * 跳过一个字符串(与InputStream.readString一致：int长度 + UTF-8字节)
+     * @param inputStream 输入流
+     * @throws IOException 数据不足
+     */
+    public static void skipString(InputStream inputStream) throws IOException {
+        skipBytes(inputStream, inputStream.readInt());
+    }
+}
@@ -0,0 +1,22 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+
+import java.io.IOException;
+
+/**
+ * 支持截取的输入流(输入流实现该接口后延迟解码的字段只截取不解码)
+ * @author zenghongming
+ * @date 2026/10/18 17:50
+ */
+public interface SliceInput {
+
+    /**
+     * 截取从当前位置开始的一段数据作为独立的输入流，当前流跳过这段
+     * 截取的流在字段第一次解码前一直被对象持有，不能引用调用方之后会修改或复用的数据(需要时复制)
+     * @param length 长度
+     * @return 截取的输入流
+     * @throws IOException 数据不足
+     */
+    InputStream slice(int length) throws IOException;
+}
@@ -0,0 +1,88 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * 单条消息内的字符串表(生成代码运行时调用，每次doWrite/doRead/serializedSize一个)
+ * 每个字符串先写变长引用：0表示新字符串，后面跟字符串内容并按出现顺序编号；n表示第n-1个已经出现过的字符串
+ * serializedSize按与doWrite相同的顺序登记，所以计算出的长度是精确的
+ * @author zenghongming
+ * @date 2026/10/18 20:10
+ */
+public final class StringTable {
+    /** 新字符串的引用 */
+    private static final int NEW_STRING = 0;
+
+    /** 写出或计算长度时: 字符串 -> 编号 */
+    private HashMap<String, Integer> indexes;
+    /** 读取时: 编号 -> 字符串 */
+    private ArrayList<String> strings;
+
+    /**
+     * 写字符串(重复的只写引用)
+     * @param outputStream 输出流
+     * @param value 字符串
+     * @throws IOException IOException
+     */
+    public void write(OutputStream outputStream, String value) throws IOException {
+        Integer index = register(value);
+        if (index != null) {
+            Varint.writeVarInt(outputStream, index + 1);
+            return;
+        }
+        Varint.writeVarInt(outputStream, NEW_STRING);
+        Strings.writeString(outputStream, value);
+    }
+
+    /**
+     * 字符串的字节数(与write按同样的顺序调用)
+     * @param value 字符串
+     * @return 字节数
+     */
+    public int sizeOf(String value) {
+        Integer index = register(value);
+        if (index != null) {
+            return Varint.sizeOfVarInt(index + 1);
+        }
+        return Varint.sizeOfVarInt(NEW_STRING) + Sizes.sizeOfString(value);
+    }
+
+    /**
+     * 读字符串
+     * @param inputStream 输入流
+     * @return 字符串
+     * @throws IOException 引用不存在
+     */
+    public String read(InputStream inputStream) throws IOException {
+        int ref = Varint.readVarInt(inputStream);
+        if (strings == null) {
+            strings = new ArrayList<>();
+        }
+        if (ref == NEW_STRING) {
+            String value = Strings.readString(inputStream);
+            strings.add(value);
+            return value;
+        }
+        if (ref < 0 || ref > strings.size()) {
+            throw new IOException("string reference out of range: " + ref + ", table size " + strings.size());
+        }
+        return strings.get(ref - 1);
+    }
+
+    /**
+     * 登记字符串
+     * @param value 字符串
+     * @return 已经登记过的编号，新字符串返回null
+     */
+    private Integer register(String value) {
+        if (indexes == null) {
+            indexes = new HashMap<>();
+        }
+        return indexes.putIfAbsent(value, indexes.size());
+    }
+}
@@ -0,0 +1,159 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 字符串编解码快速路径(生成代码运行时调用)
+ * 格式与OutputStream.writeString一致：int长度 + UTF-8字节；流实现了BulkOutput/BulkInput时
+ * 直接在线程内缓冲上逐字符编码(不复制char数组、不生成中间字节数组)，纯ASCII按单字节直接解码，否则交给流自己处理
+ * @author zenghongming
+ * @date 2026/10/18 20:10
+ */
+public final class Strings {
+    /** 单字节字符上限 */
+    private static final int ASCII_LIMIT = 0x80;
+    /** 双字节字符上限 */
+    private static final int TWO_BYTES_LIMIT = 0x800;
+    /** 一个char最多编码成的字节数 */
+    private static final int MAX_BYTES_PER_CHAR = 3;
+    /** 无法编码的字符(单独的代理字符)替换为'?'，与String.getBytes一致 */
+    private static final byte REPLACEMENT = '?';
+
+    private Strings() {
+    }
+
+    /**
+     * 写字符串
+     * @param outputStream 输出流
+     * @param value 字符串
+     * @throws IOException IOException
+     */
+    public static void writeString(OutputStream outputStream, String value) throws IOException {
+        if (!(outputStream instanceof BulkOutput)) {
+            outputStream.writeString(value);
+            return;
+        }
+        // 长字符串按最坏情况估算会超过缓冲上限(甚至int溢出)，直接编码
+        if (value.length() > ArrayCodec.MAX_SCRATCH_SIZE / MAX_BYTES_PER_CHAR) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            outputStream.writeInt(bytes.length);
+            ((BulkOutput) outputStream).writeBytes(bytes, 0, bytes.length);
+            return;
+        }
+        byte[] bytes = ArrayCodec.scratch(value.length() * MAX_BYTES_PER_CHAR).array();
+        int size = encodeUtf8(value, bytes);
+        outputStream.writeInt(size);
+        ((BulkOutput) outputStream).writeBytes(bytes, 0, size);
+    }
+
+    /**
+     * 读字符串
+     * @param inputStream 输入流
+     * @return 字符串
+     * @throws IOException IOException
+     */
+    public static String readString(InputStream inputStream) throws IOException {
+        if (!(inputStream instanceof BulkInput)) {
+            return inputStream.readString();
+        }
+        int size = inputStream.readInt();
+        if (size < 0) {
+            throw new IOException("negative string length: " + size);
+        }
+        BulkInput bulkInput = (BulkInput) inputStream;
+        long remaining = bulkInput.remaining();
+        if (remaining >= 0 && size > remaining) {
+            throw new EOFException("string length " + size + " exceeds remaining " + remaining);
+        }
+        byte[] bytes;
+        if (remaining < 0 && size > ArrayCodec.MAX_SCRATCH_SIZE) {
+            // 不知道剩余多少数据时长度不可信，按实际读到的数据逐步扩容
+            bytes = readLarge(bulkInput, size);
+        } else {
+            bytes = ArrayCodec.scratch(size).array();
+            bulkInput.readBytes(bytes, 0, size);
+        }
+        return isAscii(bytes, size) ? new String(bytes, 0, size, StandardCharsets.ISO_8859_1) : new String(bytes, 0, size, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 分段读长字符串的字节，每读满一段再扩容，损坏的长度在数据不足时就报错，不会先分配超大数组
+     * @param bulkInput 输入流
+     * @param size 字节数
+     * @return 字节
+     * @throws IOException 数据不足
+     */
+    private static byte[] readLarge(BulkInput bulkInput, int size) throws IOException {
+        byte[] bytes = new byte[ArrayCodec.MAX_SCRATCH_SIZE];
+        int read = 0;
+        while (read < size) {
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(size, (long) bytes.length << 1));
+            }
+            int length = Math.min(size, bytes.length) - read;
+            bulkInput.readBytes(bytes, read, length);
+            read += length;
+        }
+        return bytes;
+    }
+
+    /**
+     * UTF-8编码到字节数组(先走纯ASCII循环，遇到多字节字符再走完整编码)
+     * @param value 字符串
+     * @param bytes 目标数组(至少value.length() * 3)
+     * @return 编码后的字节数
+     */
+    static int encodeUtf8(String value, byte[] bytes) {
+        int length = value.length();
+        int i = 0;
+        for (char c; i < length && (c = value.charAt(i)) < ASCII_LIMIT; ++i) {
+            bytes[i] = (byte) c;
+        }
+        int size = i;
+        for (; i < length; ++i) {
+            char c = value.charAt(i);
+            if (c < ASCII_LIMIT) {
+                bytes[size++] = (byte) c;
+            } else if (c < TWO_BYTES_LIMIT) {
+                bytes[size++] = (byte) (0xC0 | (c >> 6));
+                bytes[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    bytes[size++] = REPLACEMENT;
+                }
+            } else {
+                bytes[size++] = (byte) (0xE0 | (c >> 12));
+                bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 是否全是ASCII字节
+     * @param bytes 字节
+     * @param size 长度
+     * @return 是 true
+     */
+    private static boolean isAscii(byte[] bytes, int size) {
+        for (int i = 0; i < size; ++i) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
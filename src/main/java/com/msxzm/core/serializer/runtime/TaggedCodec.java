@@ -0,0 +1,89 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+
+import java.io.IOException;
+
+/**
+ * tagged模式的字段标记(生成代码运行时调用)
+ * 标记 = 字段编号 &lt;&lt; 3 | 类型，类型决定了不认识的字段如何跳过
+ * @author zenghongming
+ * @date 2026/10/18 17:20
+ */
+public final class TaggedCodec {
+    /** 结束标记 */
+    public static final int END = 0;
+    /** 类型: 变长整数 */
+    public static final int WIRE_VARINT = 0;
+    /** 类型: 1字节 */
+    public static final int WIRE_FIXED8 = 1;
+    /** 类型: 2字节 */
+    public static final int WIRE_FIXED16 = 2;
+    /** 类型: 4字节 */
+    public static final int WIRE_FIXED32 = 3;
+    /** 类型: 8字节 */
+    public static final int WIRE_FIXED64 = 4;
+    /** 类型: 变长长度 + 内容 */
+    public static final int WIRE_LENGTH = 5;
+    /** 类型占的位数 */
+    private static final int WIRE_BITS = 3;
+    /** 类型掩码 */
+    private static final int WIRE_MASK = (1 << WIRE_BITS) - 1;
+    /** 最大字段编号 */
+    public static final int MAX_FIELD_NUMBER = (1 << (Integer.SIZE - 1 - WIRE_BITS)) - 1;
+
+    private TaggedCodec() {
+    }
+
+    /**
+     * 生成标记
+     * @param fieldNumber 字段编号
+     * @param wireType 类型
+     * @return 标记
+     */
+    public static int makeTag(int fieldNumber, int wireType) {
+        return fieldNumber << WIRE_BITS | wireType;
+    }
+
+    /**
+     * 跳过一个不认识的字段(标记已读)
+     * @param inputStream 输入流
+     * @param tag 标记
+     * @throws IOException 类型错误或数据不足
+     */
+    public static void skipField(InputStream inputStream, int tag) throws IOException {
+        switch (tag & WIRE_MASK) {
+            case WIRE_VARINT:
+                Varint.readVarLong(inputStream);
+                break;
+            case WIRE_FIXED8:
+                Skips.skipBytes(inputStream, Byte.BYTES);
+                break;
+            case WIRE_FIXED16:
+                Skips.skipBytes(inputStream, Short.BYTES);
+                break;
+            case WIRE_FIXED32:
+                Skips.skipBytes(inputStream, Integer.BYTES);
+                break;
+            case WIRE_FIXED64:
+                Skips.skipBytes(inputStream, Long.BYTES);
+                break;
+            case WIRE_LENGTH:
+                Skips.skipBytes(inputStream, Varint.readLength(inputStream));
+                break;
+            default:
+                throw new IOException("unknown wire type, tag: " + tag);
+        }
+    }
+
+    /**
+     * 跳过tagged模式的一个对象: 逐个跳过字段直到结束标记
+     * @param inputStream 输入流
+     * @throws IOException 类型错误或数据不足
+     */
+    public static void skipFields(InputStream inputStream) throws IOException {
+        for (int tag = Varint.readVarInt(inputStream); tag != END; tag = Varint.readVarInt(inputStream)) {
+            skipField(inputStream, tag);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.msxzm.core.serializer.runtime;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+
+import java.io.IOException;
+
+/**
+ * 变长整数编解码(生成代码运行时调用)
+ * 每个字节低7位存数据，最高位标记后面是否还有字节
+ * @author zenghongming
+ * @date 2026/10/18 13:00
+ */
+public final class Varint {
+    /** 数据位 */
+    private static final int DATA_BITS = 0x7F;
+    /** 延续位 */
+    private static final int CONTINUE_BIT = 0x80;
+    /** 变长int第5个字节只有低4位是数据(32 = 4 * 7 + 4)，其他位不为0就是损坏或者超出int范围 */
+    private static final int LAST_INT_BYTE_OVERFLOW = 0xF0;
+    /** 变长long第10个字节只有最低位是数据(64 = 9 * 7 + 1) */
+    private static final int LAST_LONG_BYTE_OVERFLOW = 0xFE;
+
+    private Varint() {
+    }
+
+    /**
+     * 写一个变长int
+     * @param outputStream 输出流
+     * @param value 值(按无符号处理，负数固定占5字节)
+     * @throws IOException IOException
+     */
+    public static void writeVarInt(OutputStream outputStream, int value) throws IOException {
+        while ((value & ~DATA_BITS) != 0) {
+            outputStream.writeByte((byte) ((value & DATA_BITS) | CONTINUE_BIT));
+            value >>>= 7;
+        }
+        outputStream.writeByte((byte) value);
+    }
+
+    /**
+     * 读一个变长int
+     * @param inputStream 输入流
+     * @return 值
+     * @throws IOException 超过5个字节或者第5个字节超出int范围
+     */
+    public static int readVarInt(InputStream inputStream) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE - 4; shift += 7) {
+            byte b = inputStream.readByte();
+            value |= (b & DATA_BITS) << shift;
+            if ((b & CONTINUE_BIT) == 0) {
+                return value;
+            }
+        }
+        byte b = inputStream.readByte();
+        if ((b & LAST_INT_BYTE_OVERFLOW) != 0) {
+            throw new IOException("malformed varint");
+        }
+        return value | b << (Integer.SIZE - 4);
+    }
+
+    /**
+     * 读一个变长长度(数组、集合、Map、长度前缀的字段)
+     * @param inputStream 输入流
+     * @return 长度
+     * @throws IOException 长度为负数(数据损坏)
+     */
+    public static int readLength(InputStream inputStream) throws IOException {
+        int length = readVarInt(inputStream);
+        if (length < 0) {
+            throw new IOException("negative length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * 写一个ZigZag变长int
+     * @param outputStream 输出流
+     * @param value 值
+     * @throws IOException IOException
+     */
+    public static void writeZigZagInt(OutputStream outputStream, int value) throws IOException {
+        writeVarInt(outputStream, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * 读一个ZigZag变长int
+     * @param inputStream 输入流
+     * @return 值
+     * @throws IOException IOException
+     */
+    public static int readZigZagInt(InputStream inputStream) throws IOException {
+        int value = readVarInt(inputStream);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 写一个变长long
+     * @param outputStream 输出流
+     * @param value 值(按无符号处理)
+     * @throws IOException IOException
+     */
+    public static void writeVarLong(OutputStream outputStream, long value) throws IOException {
+        while ((value & ~DATA_BITS) != 0L) {
+            outputStream.writeByte((byte) ((value & DATA_BITS) | CONTINUE_BIT));
+            value >>>= 7;
+        }
+        outputStream.writeByte((byte) value);
+    }
+
+    /**
+     * 读一个变长long
+     * @param inputStream 输入流
+     * @return 值
+     * @throws IOException 超过10个字节或者第10个字节超出long范围
+     */
+    public static long readVarLong(InputStream inputStream) throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < Long.SIZE - 1; shift += 7) {
+            byte b = inputStream.readByte();
+            value |= (long) (b & DATA_BITS) << shift;
+            if ((b & CONTINUE_BIT) == 0) {
+                return value;
+            }
+        }
+        byte b = inputStream.readByte();
+        if ((b & LAST_LONG_BYTE_OVERFLOW) != 0) {
+            throw new IOException("malformed varint");
+        }
+        return value | (long) b << (Long.SIZE - 1);
+    }
+
+    /**
+     * 写一个ZigZag变长long
+     * @param outputStream 输出流
+     * @param value 值
+     * @throws IOException IOException
+     */
+    public static void writeZigZagLong(OutputStream outputStream, long value) throws IOException {
+        writeVarLong(outputStream, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * 读一个ZigZag变长long
+     * @param inputStream 输入流
+     * @return 值
+     * @throws IOException IOException
+     */
+    public static long readZigZagLong(InputStream inputStream) throws IOException {
+        long value = readVarLong(inputStream);
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    /**
+     * 变长int的字节数
+     * @param value 值
+     * @return 字节数
+     */
+    public static int sizeOfVarInt(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    /**
+     * ZigZag变长int的字节数
+     * @param value 值
+     * @return 字节数
+     */
+    public static int sizeOfZigZagInt(int value) {
+        return sizeOfVarInt((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * 变长long的字节数
+     * @param value 值
+     * @return 字节数
+     */
+    public static int sizeOfVarLong(long value) {
+        return (63 - Long.numberOfLeadingZeros(value | 1L)) / 7 + 1;
+    }
+
+    /**
+     * ZigZag变长long的字节数
+     * @param value 值
+     * @return 字节数
+     */
+    public static int sizeOfZigZagLong(long value) {
+        return sizeOfVarLong((value << 1) ^ (value >> 63));
+    }
+}
@@ -0,0 +1,167 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.BulkInput;
+import com.msxzm.core.serializer.runtime.BulkOutput;
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferOutputStream;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 基础类型数组: 整块读写与逐个元素读写格式相同，ByteBuffer流直接读写，其他整块读写的流超过线程内缓冲的数组分块
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class ArrayCodecTest {
+
+    private static PrimitiveArrays sample(int length) {
+        PrimitiveArrays message = new PrimitiveArrays();
+        message.booleans = new boolean[length];
+        message.bytes = new byte[length];
+        message.shorts = new short[length];
+        message.ints = new int[length];
+        message.longs = new long[length];
+        message.floats = new float[length];
+        message.doubles = new double[length];
+        for (int i = 0; i < length; ++i) {
+            message.booleans[i] = i % 3 == 0;
+            message.bytes[i] = (byte) i;
+            message.shorts[i] = (short) (i * 31);
+            message.ints[i] = i * 7919 - length;
+            message.longs[i] = i * 1000000007L;
+            message.floats[i] = i / 3f;
+            message.doubles[i] = -i / 7d;
+        }
+        message.grid = new int[][]{{1, 2}, null, {}};
+        return message;
+    }
+
+    private static void assertSameArrays(PrimitiveArrays expected, PrimitiveArrays actual) {
+        assertArrayEquals(expected.booleans, actual.booleans);
+        assertArrayEquals(expected.bytes, actual.bytes);
+        assertArrayEquals(expected.shorts, actual.shorts);
+        assertArrayEquals(expected.ints, actual.ints);
+        assertArrayEquals(expected.longs, actual.longs);
+        assertArrayEquals(expected.floats, actual.floats, 0f);
+        assertArrayEquals(expected.doubles, actual.doubles, 0d);
+        assertEquals(Arrays.deepToString(expected.grid), Arrays.deepToString(actual.grid));
+    }
+
+    @Test
+    public void bulkAndPlainStreamsWriteTheSameBytes() throws IOException {
+        PrimitiveArrays message = sample(100);
+        byte[] bytes = TestStreams.write(message);
+        assertArrayEquals(bytes, TestStreams.writePlain(message));
+        assertSameArrays(message, TestStreams.read(bytes, new PrimitiveArrays()));
+        assertSameArrays(message, TestStreams.readPlain(bytes, new PrimitiveArrays()));
+    }
+
+    @Test
+    public void arraysLargerThanScratchAreChunked() throws IOException {
+        PrimitiveArrays message = sample(20000);
+        byte[] bytes = TestStreams.write(message);
+        assertArrayEquals(bytes, TestStreams.writePlain(message));
+        assertSameArrays(message, TestStreams.read(bytes, new PrimitiveArrays()));
+    }
+
+    @Test
+    public void elementsUseTheStreamByteOrder() throws IOException {
+        IntArrayHolder holder = new IntArrayHolder();
+        holder.values = new int[]{1, 0x01020304};
+        byte[] bytes = TestStreams.write(holder);
+        byte[] elements = Arrays.copyOfRange(bytes, bytes.length - 8, bytes.length);
+        assertArrayEquals(new byte[]{0, 0, 0, 1, 1, 2, 3, 4}, elements);
+
+        ByteBuffer little = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        holder.doWrite(new ByteBufferOutputStream(little));
+        assertEquals(4, little.get(little.position() - 4));
+        little.flip();
+        IntArrayHolder result = new IntArrayHolder();
+        result.doRead(new ByteBufferInputStream(little));
+        assertArrayEquals(holder.values, result.values);
+    }
+
+    @Test
+    public void defaultBulkMethodsMatchTheByteBufferStreams() throws IOException {
+        PrimitiveArrays message = sample(40000);
+        for (ByteOrder order : Arrays.asList(ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN)) {
+            ByteBuffer direct = ByteBuffer.allocate(1 << 20).order(order);
+            ByteBufferOutputStream directOutput = new ByteBufferOutputStream(direct);
+            ByteBuffer chunked = ByteBuffer.allocate(1 << 20).order(order);
+            // 只实现按字节写，基础类型数组经过线程内缓冲分块
+            BulkOutput chunkedOutput = new BulkOutput() {
+                @Override
+                public void writeBytes(byte[] bytes, int offset, int length) {
+                    chunked.put(bytes, offset, length);
+                }
+
+                @Override
+                public ByteOrder order() {
+                    return order;
+                }
+            };
+            for (BulkOutput output : Arrays.asList(directOutput, chunkedOutput)) {
+                output.writeShorts(message.shorts, 1, message.shorts.length - 1);
+                output.writeInts(message.ints, 0, message.ints.length);
+                output.writeLongs(message.longs, 2, 3);
+                output.writeFloats(message.floats, 0, message.floats.length);
+                output.writeDoubles(message.doubles, 5, message.doubles.length - 5);
+            }
+            assertEquals(direct.position(), chunked.position());
+            assertArrayEquals(Arrays.copyOf(direct.array(), direct.position()), Arrays.copyOf(chunked.array(), chunked.position()));
+
+            chunked.flip();
+            BulkInput chunkedInput = new BulkInput() {
+                @Override
+                public void readBytes(byte[] bytes, int offset, int length) {
+                    chunked.get(bytes, offset, length);
+                }
+
+                @Override
+                public ByteOrder order() {
+                    return order;
+                }
+            };
+            direct.flip();
+            for (BulkInput input : Arrays.asList(new ByteBufferInputStream(direct), chunkedInput)) {
+                PrimitiveArrays result = sample(0);
+                result.shorts = new short[message.shorts.length];
+                result.ints = new int[message.ints.length];
+                result.longs = new long[message.longs.length];
+                result.floats = new float[message.floats.length];
+                result.doubles = new double[message.doubles.length];
+                input.readShorts(result.shorts, 1, result.shorts.length - 1);
+                input.readInts(result.ints, 0, result.ints.length);
+                input.readLongs(result.longs, 2, 3);
+                input.readFloats(result.floats, 0, result.floats.length);
+                input.readDoubles(result.doubles, 5, result.doubles.length - 5);
+                assertEquals(0, result.shorts[0]);
+                assertArrayEquals(Arrays.copyOfRange(message.shorts, 1, message.shorts.length), Arrays.copyOfRange(result.shorts, 1, result.shorts.length));
+                assertArrayEquals(message.ints, result.ints);
+                assertArrayEquals(Arrays.copyOfRange(message.longs, 2, 5), Arrays.copyOfRange(result.longs, 2, 5));
+                assertEquals(0L, result.longs[5]);
+                assertArrayEquals(message.floats, result.floats, 0f);
+                assertArrayEquals(Arrays.copyOfRange(message.doubles, 5, message.doubles.length), Arrays.copyOfRange(result.doubles, 5, result.doubles.length), 0d);
+            }
+            assertTrue(!direct.hasRemaining() && !chunked.hasRemaining());
+        }
+    }
+
+    @Test
+    public void emptyAndNullArrays() throws IOException {
+        PrimitiveArrays message = sample(0);
+        message.ints = null;
+        PrimitiveArrays result = TestStreams.read(TestStreams.write(message), new PrimitiveArrays());
+        assertNull(result.ints);
+        assertTrue(result.longs.length == 0);
+    }
+}
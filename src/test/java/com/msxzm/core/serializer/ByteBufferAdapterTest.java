@@ -0,0 +1,89 @@
+package com.msxzm.core.serializer;
+
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * doWrite(ByteBuffer)/doRead(ByteBuffer): 与流的格式相同，空间不足、数据不足报IOException
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class ByteBufferAdapterTest {
+
+    private static Wrappers sample() {
+        Wrappers message = new Wrappers();
+        message.count = 3;
+        message.total = -1L;
+        message.ratio = 0.25;
+        message.name = "缓冲";
+        message.item = new Item(1, 2, "item");
+        message.values = Arrays.asList(1, null, 3);
+        return message;
+    }
+
+    @Test
+    public void sameBytesAsStreams() throws IOException {
+        Wrappers message = sample();
+        for (ByteBuffer buffer : Arrays.asList(ByteBuffer.allocate(256), ByteBuffer.allocateDirect(256))) {
+            message.doWrite(buffer);
+            buffer.flip();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            assertArrayEquals(TestStreams.write(message), bytes);
+
+            Wrappers result = new Wrappers();
+            result.doRead(buffer);
+            assertFalse(buffer.hasRemaining());
+            assertEquals(message, result);
+        }
+    }
+
+    @Test
+    public void followsBufferOrder() throws IOException {
+        PrimitiveArrays message = new PrimitiveArrays();
+        message.ints = new int[]{1, -2, 0x01020304};
+        message.longs = new long[]{Long.MIN_VALUE};
+        ByteBuffer buffer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+        message.doWrite(buffer);
+        buffer.flip();
+        PrimitiveArrays result = new PrimitiveArrays();
+        result.doRead(buffer);
+        assertArrayEquals(message.ints, result.ints);
+        assertArrayEquals(message.longs, result.longs);
+    }
+
+    @Test
+    public void overflowIsIOException() {
+        Wrappers message = sample();
+        try {
+            message.doWrite(ByteBuffer.allocate(message.serializedSize() - 1));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("buffer overflow"));
+        }
+    }
+
+    @Test
+    public void truncatedInputIsEOF() throws IOException {
+        byte[] bytes = TestStreams.write(sample());
+        for (int length = 0; length < bytes.length; ++length) {
+            try {
+                new Wrappers().doRead(ByteBuffer.wrap(bytes, 0, length));
+                fail(String.valueOf(length));
+            } catch (EOFException expected) {
+                // 任何位置截断都是数据不足
+            }
+        }
+    }
+}
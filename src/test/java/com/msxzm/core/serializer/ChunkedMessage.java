@@ -0,0 +1,32 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分块编码的集合、Map和Iterable
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(projection = true, encoding = Encoding.VARINT)
+public class ChunkedMessage extends TestMessage {
+    @SerializerField
+    @SerializerFieldOptions(chunkSize = 3)
+    List<Integer> ints;
+    @SerializerField
+    @SerializerFieldOptions(chunkSize = 2)
+    Map<String, List<Integer>> map;
+    @SerializerField
+    @SerializerFieldOptions(chunkSize = 4)
+    Iterable<String> rows;
+    @SerializerField
+    @SerializerFieldOptions(chunkSize = 2)
+    Set<Item> items;
+    @SerializerField
+    int tail;
+}
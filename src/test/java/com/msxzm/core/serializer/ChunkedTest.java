@@ -0,0 +1,98 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.Chunks;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * 分块编码: 元素个数正好是块大小的整数倍、不足一块、为空时都能读回，Iterable只迭代一次写出
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class ChunkedTest {
+
+    private static ChunkedMessage sample(int count, int[] iterations) {
+        ChunkedMessage message = new ChunkedMessage();
+        message.ints = IntStream.range(0, count).boxed().collect(Collectors.toList());
+        if (count > 0) {
+            message.ints.set(0, null);
+        }
+        message.map = new LinkedHashMap<>();
+        for (int i = 0; i < count; ++i) {
+            message.map.put("k" + i, Arrays.asList(i, i + 1));
+        }
+        int rows = count * 2;
+        message.rows = () -> {
+            ++iterations[0];
+            return IntStream.range(0, rows).mapToObj(i -> "r" + i).iterator();
+        };
+        message.items = count == 3 ? null : new HashSet<>(Collections.singletonList(new Item(count, null, "i")));
+        message.tail = 99;
+        return message;
+    }
+
+    @Test
+    public void roundTripsEveryChunkBoundary() throws IOException {
+        for (int count : new int[]{0, 1, 2, 3, 4, 6, 7, 9}) {
+            int[] iterations = new int[1];
+            ChunkedMessage message = sample(count, iterations);
+            byte[] bytes = TestStreams.write(message);
+            assertEquals(1, iterations[0]);
+            assertEquals(bytes.length, message.serializedSize());
+
+            ChunkedMessage result = TestStreams.readPlain(bytes, new ChunkedMessage());
+            assertEquals(message.ints, result.ints);
+            assertEquals(message.map, result.map);
+            List<String> rows = new ArrayList<>();
+            message.rows.forEach(rows::add);
+            assertSame(ArrayList.class, result.rows.getClass());
+            assertEquals(rows, result.rows);
+            assertEquals(message.items, result.items);
+            assertEquals(99, result.tail);
+        }
+    }
+
+    @Test
+    public void projectionSkipsChunks() throws IOException {
+        ChunkedMessage result = new ChunkedMessage();
+        byte[] bytes = TestStreams.write(sample(7, new int[1]));
+        result.doRead(new ByteBufferInputStream(ByteBuffer.wrap(bytes)), ChunkedMessage.FIELD_TAIL);
+        assertNull(result.ints);
+        assertNull(result.rows);
+        assertEquals(99, result.tail);
+    }
+
+    @Test
+    public void markerSize() {
+        assertEquals(1, Chunks.sizeOf(0, 3));
+        assertEquals(2, Chunks.sizeOf(2, 3));
+        assertEquals(3, Chunks.sizeOf(6, 3));
+        assertEquals(4, Chunks.sizeOf(7, 3));
+    }
+
+    @Test
+    public void rejectsNegativeChunkLength() {
+        try {
+            Chunks.readLength(new ByteBufferInputStream(ByteBuffer.wrap(new byte[]{-1, -1, -1, -1, 0x0f})));
+            fail();
+        } catch (IOException expected) {
+            // 负数块长度是数据损坏
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.msxzm.core.serializer;
+
+/**
+ * 测试用的枚举
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public enum Color {
+    RED, GREEN, BLUE
+}
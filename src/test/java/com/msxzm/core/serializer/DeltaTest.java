@@ -0,0 +1,107 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferOutputStream;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 增量读写: 只写出修改过的字段(包括父类部分)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class DeltaTest {
+
+    private static byte[] writeDelta(DirtyEntity entity) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        entity.doWriteDelta(new ByteBufferOutputStream(buffer));
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static void readDelta(byte[] bytes, DirtyEntity target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        target.doReadDelta(new ByteBufferInputStream(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    private static DirtySubEntity sample() {
+        DirtySubEntity entity = new DirtySubEntity();
+        entity.setHp(100);
+        entity.setName("orc");
+        entity.setPosition(new Item(3, null, "p"));
+        entity.setBuffs(Collections.singletonList("a"));
+        entity.setExp(5L);
+        entity.setLevel(2);
+        return entity;
+    }
+
+    @Test
+    public void firstDeltaCarriesAllFields() throws IOException {
+        DirtySubEntity entity = sample();
+        assertTrue(entity.isDirty());
+        DirtySubEntity result = new DirtySubEntity();
+        readDelta(writeDelta(entity), result);
+        assertFalse(result.isDirty());
+        assertEquals(100, result.hp);
+        assertEquals("orc", result.name);
+        assertEquals(new Item(3, null, "p"), result.position);
+        assertEquals(Collections.singletonList("a"), result.getBuffs());
+        assertEquals(5L, result.exp);
+        assertEquals(2, result.level);
+    }
+
+    @Test
+    public void laterDeltasOnlyCarryChanges() throws IOException {
+        DirtySubEntity entity = sample();
+        byte[] full = writeDelta(entity);
+        DirtySubEntity result = new DirtySubEntity();
+        readDelta(full, result);
+        entity.clearDirty();
+        assertFalse(entity.isDirty());
+
+        entity.setHp(90);
+        entity.setName(null);
+        byte[] delta = writeDelta(entity);
+        assertTrue(delta.length < full.length);
+        readDelta(delta, result);
+        assertEquals(90, result.hp);
+        assertNull(result.name);
+        assertEquals(new Item(3, null, "p"), result.position);
+        assertEquals(2, result.level);
+
+        entity.clearDirty();
+        entity.setLevel(3);
+        readDelta(writeDelta(entity), result);
+        assertEquals(3, result.level);
+        assertEquals(90, result.hp);
+    }
+
+    @Test
+    public void cleanEntityWritesNoFields() throws IOException {
+        DirtySubEntity entity = sample();
+        entity.clearDirty();
+        DirtySubEntity result = new DirtySubEntity();
+        result.hp = 7;
+        readDelta(writeDelta(entity), result);
+        assertEquals(7, result.hp);
+        assertNull(result.name);
+    }
+
+    @Test
+    public void fullWriteIsUnaffected() throws IOException {
+        DirtySubEntity entity = sample();
+        entity.clearDirty();
+        DirtySubEntity result = TestStreams.read(TestStreams.write(entity), new DirtySubEntity());
+        assertEquals(100, result.hp);
+        assertEquals(2, result.level);
+    }
+}
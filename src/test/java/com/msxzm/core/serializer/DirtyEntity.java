@@ -0,0 +1,27 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.List;
+
+/**
+ * 脏标记实体(通过生成的setter修改字段)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(dirty = true)
+public class DirtyEntity extends TestMessage {
+    @SerializerField
+    int hp;
+    @SerializerField
+    String name;
+    @SerializerField
+    Item position;
+    @SerializerField
+    @SerializerFieldOptions(lazy = true)
+    List<String> buffs;
+    @SerializerField
+    long exp;
+}
@@ -0,0 +1,16 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+/**
+ * 脏标记实体的子类
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(dirty = true)
+public class DirtySubEntity extends DirtyEntity {
+    @SerializerField
+    int level;
+}
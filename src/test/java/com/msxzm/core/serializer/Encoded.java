@@ -0,0 +1,59 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 类默认变长编码，个别字段ZigZag或定长
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(encoding = Encoding.VARINT)
+public class Encoded extends TestMessage {
+    @SerializerField
+    int id;
+    @SerializerField
+    long timestamp;
+    @SerializerField
+    @SerializerFieldOptions(encoding = Encoding.ZIGZAG)
+    long delta;
+    @SerializerField
+    @SerializerFieldOptions(encoding = Encoding.ZIGZAG)
+    Short small;
+    @SerializerField
+    @SerializerFieldOptions(encoding = Encoding.FIXED)
+    int fixed;
+    @SerializerField
+    List<Integer> list;
+    @SerializerField
+    @SerializerFieldOptions(encoding = Encoding.ZIGZAG)
+    Map<Long, Integer> map;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Encoded)) {
+            return false;
+        }
+        Encoded other = (Encoded) o;
+        return id == other.id && timestamp == other.timestamp && delta == other.delta && Objects.equals(small, other.small)
+                && fixed == other.fixed && Objects.equals(list, other.list) && Objects.equals(map, other.map);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, timestamp, delta);
+    }
+
+    @Override
+    public String toString() {
+        return "Encoded{" + id + ", " + timestamp + ", " + delta + ", " + small + ", " + fixed + ", " + list + ", " + map + "}";
+    }
+}
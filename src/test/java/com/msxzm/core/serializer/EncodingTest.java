@@ -0,0 +1,121 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.Varint;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 整数编码: 变长、ZigZag变长、定长的边界值和长度
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class EncodingTest {
+
+    private static Encoded message(int id, long timestamp, long delta, int fixed) {
+        Encoded message = new Encoded();
+        message.id = id;
+        message.timestamp = timestamp;
+        message.delta = delta;
+        message.fixed = fixed;
+        return message;
+    }
+
+    private static int length(Encoded message) throws IOException {
+        return TestStreams.write(message).length;
+    }
+
+    @Test
+    public void roundTripsBoundaryValues() throws IOException {
+        int[] ints = {Integer.MIN_VALUE, -1, 0, 1, 127, 128, Integer.MAX_VALUE};
+        long[] longs = {Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE};
+        for (int i : ints) {
+            for (long l : longs) {
+                Encoded message = message(i, l, l, i);
+                message.small = (short) i;
+                message.list = Arrays.asList(i, null, -i);
+                message.map = new HashMap<>();
+                message.map.put(l, i);
+                assertEquals(message, TestStreams.read(TestStreams.write(message), new Encoded()));
+            }
+        }
+    }
+
+    @Test
+    public void varintShrinksSmallValues() throws IOException {
+        int base = length(message(0, 0L, 0L, 0));
+        assertEquals(base + 4, length(message(Integer.MAX_VALUE, 0L, 0L, 0)));
+        assertEquals(base + 9, length(message(0, -1L, 0L, 0)));
+    }
+
+    @Test
+    public void zigzagKeepsSmallNegativesShort() throws IOException {
+        int base = length(message(0, 0L, 0L, 0));
+        assertEquals(base, length(message(0, 0L, -1L, 0)));
+        assertEquals(base, length(message(0, 0L, 63L, 0)));
+        assertEquals(base + 9, length(message(0, 0L, Long.MIN_VALUE, 0)));
+    }
+
+    @Test
+    public void fixedFieldKeepsItsWidth() throws IOException {
+        assertEquals(length(message(0, 0L, 0L, 0)), length(message(0, 0L, 0L, Integer.MIN_VALUE)));
+    }
+
+    private static ByteBufferInputStream input(int... bytes) {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+        for (int b : bytes) {
+            buffer.put((byte) b);
+        }
+        buffer.flip();
+        return new ByteBufferInputStream(buffer);
+    }
+
+    @Test
+    public void lastVarintByteCarriesOnlyTheRemainingBits() throws IOException {
+        assertEquals(-1, Varint.readVarInt(input(0xFF, 0xFF, 0xFF, 0xFF, 0x0F)));
+        assertEquals(-1L, Varint.readVarLong(input(0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x01)));
+        int[][] malformedInts = {{0xFF, 0xFF, 0xFF, 0xFF, 0x1F}, {0x80, 0x80, 0x80, 0x80, 0x80, 0x00}};
+        for (int[] bytes : malformedInts) {
+            try {
+                Varint.readVarInt(input(bytes));
+                fail("malformed varint accepted: " + Arrays.toString(bytes));
+            } catch (IOException expected) {
+                // 第5个字节的高4位不能有数据，也不能再有后续字节
+            }
+        }
+        try {
+            Varint.readVarLong(input(0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x02));
+            fail("malformed varlong accepted");
+        } catch (IOException expected) {
+            // 第10个字节只有最低位是数据
+        }
+    }
+
+    @Test
+    public void negativeLengthIsMalformedData() throws IOException {
+        Encoded message = message(0, 0L, 0L, 0);
+        message.list = Collections.emptyList();
+        byte[] bytes = TestStreams.write(message);
+        // 最后一个字节是空列表的长度，换成变长的-1
+        byte[] corrupted = Arrays.copyOf(bytes, bytes.length + 4);
+        int[] minusOne = {0xFF, 0xFF, 0xFF, 0xFF, 0x0F};
+        for (int i = 0; i < minusOne.length; ++i) {
+            corrupted[bytes.length - 1 + i] = (byte) minusOne[i];
+        }
+        try {
+            TestStreams.read(corrupted, new Encoded());
+            fail("negative length accepted");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("negative length"));
+        }
+    }
+}
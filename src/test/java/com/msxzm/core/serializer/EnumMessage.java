@@ -0,0 +1,37 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 枚举字段、枚举集合和Map
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(projection = true)
+public class EnumMessage extends TestMessage {
+    @SerializerField
+    Color color;
+    @SerializerField
+    Color none;
+    @SerializerField
+    List<Color> list;
+    @SerializerField
+    Map<Color, Integer> map;
+    @SerializerField
+    EnumMap<Color, String> enumMap;
+    @SerializerField
+    EnumSet<Color> set;
+    @SerializerField
+    EnumSet<WideEnum> wideSet;
+    @SerializerField
+    Color[] array;
+    @SerializerField
+    int tail;
+}
@@ -0,0 +1,88 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.Enums;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 枚举按序号变长编码，EnumSet按位图编码
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class EnumTest {
+
+    private static EnumMessage sample() {
+        EnumMessage message = new EnumMessage();
+        message.color = Color.BLUE;
+        message.list = Arrays.asList(Color.RED, null, Color.GREEN);
+        message.map = Collections.singletonMap(Color.GREEN, 5);
+        message.enumMap = new EnumMap<>(Color.class);
+        message.enumMap.put(Color.RED, "r");
+        message.set = EnumSet.of(Color.RED, Color.BLUE);
+        message.wideSet = EnumSet.of(WideEnum.W1, WideEnum.W65, WideEnum.W69);
+        message.array = new Color[]{Color.GREEN, null};
+        message.tail = 42;
+        return message;
+    }
+
+    @Test
+    public void roundTrips() throws IOException {
+        EnumMessage message = sample();
+        byte[] bytes = TestStreams.write(message);
+        assertEquals(bytes.length, message.serializedSize());
+        EnumMessage result = TestStreams.readPlain(bytes, new EnumMessage());
+        assertSame(Color.BLUE, result.color);
+        assertNull(result.none);
+        assertEquals(message.list, result.list);
+        assertEquals(message.map, result.map);
+        assertSame(EnumMap.class, result.enumMap.getClass());
+        assertEquals(message.enumMap, result.enumMap);
+        assertEquals(message.set, result.set);
+        assertEquals(message.wideSet, result.wideSet);
+        assertArrayEquals(message.array, result.array);
+        assertEquals(42, result.tail);
+    }
+
+    @Test
+    public void emptyAndFullSets() throws IOException {
+        EnumMessage message = new EnumMessage();
+        message.set = EnumSet.noneOf(Color.class);
+        message.wideSet = EnumSet.allOf(WideEnum.class);
+        EnumMessage result = TestStreams.read(TestStreams.write(message), new EnumMessage());
+        assertEquals(EnumSet.noneOf(Color.class), result.set);
+        assertEquals(EnumSet.allOf(WideEnum.class), result.wideSet);
+    }
+
+    @Test
+    public void projectionSkipsEnums() throws IOException {
+        EnumMessage result = new EnumMessage();
+        result.doRead(new ByteBufferInputStream(ByteBuffer.wrap(TestStreams.write(sample()))), EnumMessage.FIELD_TAIL);
+        assertNull(result.color);
+        assertNull(result.wideSet);
+        assertEquals(42, result.tail);
+    }
+
+    @Test
+    public void rejectsUnknownOrdinal() {
+        try {
+            Enums.valueOf(Color.class, Color.values().length);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(Color.class.getName()));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 读取时集合、Map的实现类
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public class ImplHolder extends TestMessage {
+    @SerializerField
+    @SerializerFieldOptions(impl = LinkedHashMap.class)
+    Map<String, Integer> ordered;
+    @SerializerField
+    TreeMap<String, Integer> sorted;
+    @SerializerField
+    LinkedHashSet<String> linkedSet;
+    @SerializerField
+    @SerializerFieldOptions(impl = LinkedList.class)
+    List<Integer> linked;
+    @SerializerField
+    Set<Integer> set;
+    @SerializerField
+    List<String> list;
+}
@@ -0,0 +1,61 @@
+package com.msxzm.core.serializer;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 集合、Map按声明的实现类读取，保持顺序
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class ImplTest {
+
+    @Test
+    public void readsDeclaredImplementations() throws IOException {
+        ImplHolder holder = new ImplHolder();
+        holder.ordered = new LinkedHashMap<>();
+        holder.ordered.put("z", 1);
+        holder.ordered.put("a", 2);
+        holder.ordered.put("m", null);
+        holder.sorted = new TreeMap<>(holder.ordered);
+        holder.linkedSet = new LinkedHashSet<>(Arrays.asList("q", "b", "k"));
+        holder.linked = new LinkedList<>(Arrays.asList(3, null, 4));
+        holder.set = new HashSet<>(Arrays.asList(1, 2));
+        holder.list = Arrays.asList("x", null);
+
+        ImplHolder result = TestStreams.read(TestStreams.write(holder), new ImplHolder());
+        assertSame(LinkedHashMap.class, result.ordered.getClass());
+        assertEquals(Arrays.asList("z", "a", "m"), new ArrayList<>(result.ordered.keySet()));
+        assertSame(TreeMap.class, result.sorted.getClass());
+        assertEquals(holder.sorted, result.sorted);
+        assertSame(LinkedHashSet.class, result.linkedSet.getClass());
+        assertEquals(Arrays.asList("q", "b", "k"), new ArrayList<>(result.linkedSet));
+        assertSame(LinkedList.class, result.linked.getClass());
+        assertEquals(holder.linked, result.linked);
+        assertEquals(holder.set, result.set);
+        assertEquals(holder.list, result.list);
+    }
+
+    @Test
+    public void emptyCollections() throws IOException {
+        ImplHolder holder = new ImplHolder();
+        holder.ordered = new LinkedHashMap<>();
+        holder.linked = new LinkedList<>();
+        ImplHolder result = TestStreams.readPlain(TestStreams.writePlain(holder), new ImplHolder());
+        assertSame(LinkedHashMap.class, result.ordered.getClass());
+        assertEquals(0, result.ordered.size());
+        assertSame(LinkedList.class, result.linked.getClass());
+        assertEquals(0, result.linked.size());
+    }
+}
@@ -0,0 +1,183 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferOutputStream;
+import com.msxzm.core.serializer.runtime.SerializableIndex;
+import com.msxzm.core.serializer.runtime.SerializableTypes;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 增量编译选项: 默认不声明增量编译，aggregating只通过索引分派多态字段，isolating不生成索引、拒绝多态字段
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class IncrementalOptionTest {
+    /** 索引登记文件 */
+    private static final String SERVICES = "META-INF/services/com.msxzm.core.serializer.runtime.SerializableIndex";
+    /** aggregating选项 */
+    private static final List<String> AGGREGATING = Collections.singletonList("-Aserializer.incremental=aggregating");
+    /** isolating选项 */
+    private static final List<String> ISOLATING = Collections.singletonList("-Aserializer.incremental=isolating");
+    /** 普通的类 */
+    private static final String POINT = "package incremental;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import com.msxzm.base.serializer.SerializerField;\n"
+            + "@Serializable\n"
+            + "public class Point extends com.msxzm.core.serializer.TestMessage {\n"
+            + "    @SerializerField public int x;\n"
+            + "    @SerializerField public Integer y;\n"
+            + "}\n";
+    /** 引用Point的类 */
+    private static final String LINE = "package incremental;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import com.msxzm.base.serializer.SerializerField;\n"
+            + "@Serializable\n"
+            + "public class Line extends com.msxzm.core.serializer.TestMessage {\n"
+            + "    @SerializerField public Point from;\n"
+            + "}\n";
+    /** 多态字段 */
+    private static final String FIGURE = "package incremental;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "@Serializable\n"
+            + "public abstract class Figure extends com.msxzm.core.serializer.TestMessage {\n"
+            + "    @com.msxzm.base.serializer.SerializerField public int color;\n"
+            + "}\n";
+    /** 多态子类 */
+    private static final String DOT = "package incremental;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "@Serializable\n"
+            + "@com.msxzm.core.serializer.SerializableOptions(typeId = 11)\n"
+            + "public class Dot extends Figure {\n"
+            + "    @com.msxzm.base.serializer.SerializerField public int size;\n"
+            + "}\n";
+    /** 有多态字段的类 */
+    private static final String CANVAS = "package incremental;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import com.msxzm.base.serializer.SerializerField;\n"
+            + "@Serializable\n"
+            + "public class Canvas extends com.msxzm.core.serializer.TestMessage {\n"
+            + "    @SerializerField public Figure figure;\n"
+            + "}\n";
+
+    @Test
+    public void notIncrementalByDefault() throws Exception {
+        SerializerProcessor processor = new SerializerProcessor();
+        TestCompiler.Result result = TestCompiler.compile(processor, Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), POINT, LINE);
+        assertTrue(result.diagnostics.toString(), result.success);
+        assertTrue(result.hasFile(SERVICES));
+        assertFalse(processor.getSupportedOptions().toString(), processor.getSupportedOptions().contains("org.gradle.annotation.processing.aggregating"));
+        assertFalse(processor.getSupportedOptions().contains("org.gradle.annotation.processing.isolating"));
+    }
+
+    @Test
+    public void aggregatingGeneratesTheIndex() throws Exception {
+        SerializerProcessor processor = new SerializerProcessor();
+        TestCompiler.Result result = TestCompiler.compile(processor, AGGREGATING, Collections.emptyList(), Collections.emptyList(), POINT, LINE);
+        assertTrue(result.diagnostics.toString(), result.success);
+        assertTrue(result.hasFile(SERVICES));
+        assertTrue(processor.getSupportedOptions().toString(), processor.getSupportedOptions().contains("org.gradle.annotation.processing.aggregating"));
+        assertFalse(processor.getSupportedOptions().contains("org.gradle.annotation.processing.isolating"));
+    }
+
+    @Test
+    public void aggregatingDispatchesPolymorphicFieldsThroughTheRegistryOnly() throws Exception {
+        for (List<String> options : Arrays.asList(AGGREGATING, Collections.<String>emptyList())) {
+            TestCompiler.Result result = TestCompiler.compile(options, FIGURE, DOT, CANVAS);
+            assertTrue(result.diagnostics.toString(), result.success);
+            TestMessage canvas = result.newMessage("incremental.Canvas");
+            Object dot = result.load("incremental.Dot").getConstructor().newInstance();
+            dot.getClass().getField("size").setInt(dot, 3);
+            canvas.getClass().getField("figure").set(canvas, dot);
+
+            SerializableTypes previous = SerializableTypes.getDefault();
+            try {
+                // 注册表里没有Dot: 只有非aggregating模式能直接写
+                SerializableTypes.setDefault(SerializableTypes.load(new URLClassLoader(new URL[0], null)));
+                boolean direct;
+                try {
+                    TestStreams.write(canvas);
+                    direct = true;
+                } catch (IOException e) {
+                    direct = false;
+                }
+                assertEquals(options.toString(), options.isEmpty(), direct);
+                SerializableTypes.setDefault(SerializableTypes.load(canvas.getClass().getClassLoader()));
+                TestMessage copy = TestStreams.read(TestStreams.write(canvas), result.newMessage("incremental.Canvas"));
+                Object figure = copy.getClass().getField("figure").get(copy);
+                assertEquals(3, figure.getClass().getField("size").getInt(figure));
+            } finally {
+                SerializableTypes.setDefault(previous);
+            }
+        }
+    }
+
+    @Test
+    public void isolatingSkipsTheIndex() throws Exception {
+        SerializerProcessor processor = new SerializerProcessor();
+        TestCompiler.Result result = TestCompiler.compile(processor, ISOLATING, Collections.emptyList(), Collections.emptyList(), POINT, LINE);
+        assertTrue(result.diagnostics.toString(), result.success);
+        assertFalse(result.hasFile(SERVICES));
+        assertTrue(processor.getSupportedOptions().contains("org.gradle.annotation.processing.isolating"));
+
+        TestMessage point = result.newMessage("incremental.Point");
+        point.getClass().getField("x").setInt(point, -5);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        point.doWrite(new ByteBufferOutputStream(buffer));
+        buffer.flip();
+        TestMessage copy = result.newMessage("incremental.Point");
+        copy.doRead(new ByteBufferInputStream(buffer));
+        assertEquals(-5, copy.getClass().getField("x").getInt(copy));
+    }
+
+    @Test
+    public void isolatingRejectsPolymorphicFields() throws Exception {
+        TestCompiler.Result result = TestCompiler.compile(ISOLATING, FIGURE, DOT, CANVAS);
+        assertFalse(result.success);
+        List<String> errors = result.messages(Diagnostic.Kind.ERROR);
+        assertTrue(errors.toString(), errors.stream().anyMatch(message -> message.contains("isolating")));
+
+        TestCompiler.Result aggregating = TestCompiler.compile(AGGREGATING, FIGURE, DOT, CANVAS);
+        assertTrue(aggregating.diagnostics.toString(), aggregating.success);
+    }
+
+    @Test
+    public void unchangedClassesFromClassFilesStillCountTowardsTheIndex() throws Exception {
+        TestCompiler.Result first = TestCompiler.compile(AGGREGATING, POINT);
+        assertTrue(first.diagnostics.toString(), first.success);
+        TestCompiler.Result second = TestCompiler.compile(new SerializerProcessor(), AGGREGATING,
+                Collections.singletonList(first.output), Collections.singletonList("incremental.Point"), LINE);
+        assertTrue(second.diagnostics.toString(), second.success);
+        String index = second.readFile(SERVICES).trim();
+        List<String> registered = new ArrayList<>();
+        SerializableIndex generated = (SerializableIndex) second.load(index).getConstructor().newInstance();
+        generated.registerTo(new SerializableIndex.Registrar() {
+            @Override
+            public <T> void register(Class<T> type, int typeId, Supplier<T> constructor) {
+                registered.add(type.getName());
+            }
+
+            @Override
+            public <T> void registerCodec(Class<T> type, SerializableIndex.Writer<T> writer, SerializableIndex.Reader<T> reader, ToIntFunction<T> sizer) {
+                // 只检查登记的类
+            }
+        });
+        assertTrue(registered.toString(), registered.contains("incremental.Point"));
+        assertTrue(registered.toString(), registered.contains("incremental.Line"));
+    }
+}
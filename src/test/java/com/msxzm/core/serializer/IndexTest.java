@@ -0,0 +1,140 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.SerializableIndex;
+import com.msxzm.core.serializer.runtime.SerializableTypes;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 生成的序列化类索引: 通过META-INF/services登记，ServiceLoader加载后登记本模块所有序列化类
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class IndexTest {
+    /** 一个模块的类 */
+    private static final String FIRST = "package modules;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import com.msxzm.base.serializer.SerializerField;\n"
+            + "@Serializable\n"
+            + "public class First extends com.msxzm.core.serializer.TestMessage {\n"
+            + "    @SerializerField public int value;\n"
+            + "}\n";
+    /** 同一个包下另一个模块的类 */
+    private static final String SECOND = "package modules;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import com.msxzm.base.serializer.SerializerField;\n"
+            + "@Serializable\n"
+            + "public class Second extends com.msxzm.core.serializer.TestMessage {\n"
+            + "    @SerializerField public long value;\n"
+            + "}\n";
+    /** 索引登记文件 */
+    private static final String SERVICES = "META-INF/services/" + SerializableIndex.class.getName();
+
+    private static List<SerializableIndex> indexes() {
+        List<SerializableIndex> indexes = new ArrayList<>();
+        ServiceLoader.load(SerializableIndex.class, IndexTest.class.getClassLoader()).forEach(indexes::add);
+        return indexes;
+    }
+
+    /**
+     * 类名SHA-1的前8字节
+     * @param classNames 排序后用逗号连接的类名
+     * @return 16位十六进制
+     * @throws Exception 没有SHA-1
+     */
+    private static String sha1Prefix(String classNames) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(classNames.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < 8; ++i) {
+            hex.append(String.format("%02x", digest[i]));
+        }
+        return hex.toString();
+    }
+
+    @Test
+    public void serviceLoaderFindsOneIndexInTheCommonPackage() {
+        List<SerializableIndex> indexes = indexes();
+        assertEquals(1, indexes.size());
+        assertEquals(IndexTest.class.getPackage(), indexes.get(0).getClass().getPackage());
+    }
+
+    @Test
+    public void registersEveryClassOnce() {
+        Map<Class<?>, Supplier<?>> constructors = new HashMap<>();
+        Map<Class<?>, Integer> typeIds = new HashMap<>();
+        Set<Class<?>> codecs = new HashSet<>();
+        indexes().get(0).registerTo(new SerializableIndex.Registrar() {
+            @Override
+            public <T> void register(Class<T> type, int typeId, Supplier<T> constructor) {
+                assertFalse(type.getName(), constructors.containsKey(type));
+                constructors.put(type, constructor);
+                typeIds.put(type, typeId);
+            }
+
+            @Override
+            public <T> void registerCodec(Class<T> type, SerializableIndex.Writer<T> writer, SerializableIndex.Reader<T> reader, ToIntFunction<T> sizer) {
+                codecs.add(type);
+            }
+        });
+        assertTrue(constructors.containsKey(Item.class));
+        assertTrue(constructors.containsKey(Wrappers.class));
+        assertFalse(constructors.containsKey(TestMessage.class));
+        assertNull(constructors.get(Shape.class));
+        assertSame(Item.class, constructors.get(Item.class).get().getClass());
+        assertEquals(0, (int) typeIds.get(Item.class));
+        assertEquals(1, (int) typeIds.get(Circle.class));
+        assertTrue(codecs.contains(BigSquare.class));
+        assertFalse(codecs.contains(Item.class));
+        assertFalse(codecs.contains(Shape.class));
+    }
+
+    @Test
+    public void defaultTypesCreateInstancesWithoutReflection() {
+        SerializableTypes types = SerializableTypes.load(IndexTest.class.getClassLoader());
+        assertTrue(types.types().contains(ShapeHolder.class));
+        assertNotNull(types.newInstance(Wrappers.class));
+        assertNull(types.newInstance(Shape.class));
+        assertEquals(2, types.getTypeId(Square.class));
+        assertEquals(0, types.getTypeId(Item.class));
+        assertSame(BigSquare.class, types.newInstance(3).getClass());
+        assertNull(types.newInstance(99));
+    }
+
+    @Test
+    public void modulesInTheSamePackageGetDifferentIndexes() throws Exception {
+        TestCompiler.Result first = TestCompiler.compile(Collections.emptyList(), FIRST);
+        TestCompiler.Result second = TestCompiler.compile(new SerializerProcessor(), Collections.emptyList(),
+                Collections.singletonList(first.output), Collections.emptyList(), SECOND);
+        assertTrue(first.diagnostics.toString(), first.success);
+        assertTrue(second.diagnostics.toString(), second.success);
+        String firstIndex = first.readFile(SERVICES).trim();
+        String secondIndex = second.readFile(SERVICES).trim();
+        assertEquals("modules.GeneratedSerializableIndex_" + sha1Prefix("modules.First"), firstIndex);
+        assertNotEquals(firstIndex, secondIndex);
+        assertEquals(firstIndex, TestCompiler.compile(Collections.emptyList(), FIRST).readFile(SERVICES).trim());
+
+        SerializableTypes types = SerializableTypes.load(second.load("modules.Second").getClassLoader());
+        assertTrue(types.types().contains(second.load("modules.First")));
+        assertTrue(types.types().contains(second.load("modules.Second")));
+    }
+}
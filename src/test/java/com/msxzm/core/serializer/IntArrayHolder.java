@@ -0,0 +1,15 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+/**
+ * 只有一个int数组(检查数组的字节格式)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public class IntArrayHolder extends TestMessage {
+    @SerializerField
+    int[] values;
+}
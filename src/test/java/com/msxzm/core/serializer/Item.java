@@ -0,0 +1,52 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.Objects;
+
+/**
+ * 测试用的嵌套对象
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public class Item extends TestMessage {
+    @SerializerField
+    int id;
+    @SerializerField
+    Integer count;
+    @SerializerField
+    String name;
+
+    public Item() {
+    }
+
+    Item(int id, Integer count, String name) {
+        this.id = id;
+        this.count = count;
+        this.name = name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Item)) {
+            return false;
+        }
+        Item other = (Item) o;
+        return id == other.id && Objects.equals(count, other.count) && Objects.equals(name, other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, count, name);
+    }
+
+    @Override
+    public String toString() {
+        return "Item{" + id + ", " + count + ", " + name + "}";
+    }
+}
@@ -0,0 +1,25 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.Map;
+
+/**
+ * 延迟解码的字段(通过生成的getter访问)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public class LazyMessage extends TestMessage {
+    @SerializerField
+    int head;
+    @SerializerField
+    @SerializerFieldOptions(lazy = true)
+    Item body;
+    @SerializerField
+    @SerializerFieldOptions(lazy = true)
+    Map<String, Integer> map;
+    @SerializerField
+    int tail;
+}
@@ -0,0 +1,73 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 延迟解码: 截取后第一次getter才解码，源缓冲复用不影响未解码的字段
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class LazyTest {
+
+    private static LazyMessage sample() {
+        LazyMessage message = new LazyMessage();
+        message.head = 1;
+        message.body = new Item(5, null, "延迟");
+        message.map = Collections.singletonMap("k", 9);
+        message.tail = 2;
+        return message;
+    }
+
+    @Test
+    public void decodesOnFirstGet() throws IOException {
+        LazyMessage source = sample();
+        byte[] bytes = TestStreams.write(source);
+        assertEquals(bytes.length, source.serializedSize());
+        LazyMessage result = TestStreams.read(bytes, new LazyMessage());
+        assertEquals(1, result.head);
+        assertEquals(2, result.tail);
+        assertNull(result.body);
+        assertEquals(source.body, result.getBody());
+        assertEquals(source.map, result.getMap());
+    }
+
+    @Test
+    public void plainStreamsDecodeEagerly() throws IOException {
+        LazyMessage result = TestStreams.readPlain(TestStreams.writePlain(sample()), new LazyMessage());
+        assertEquals(sample().body, result.body);
+        assertEquals(sample().map, result.map);
+    }
+
+    @Test
+    public void sourceBufferCanBeReused() throws IOException {
+        byte[] bytes = TestStreams.write(sample());
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.clone());
+        LazyMessage result = new LazyMessage();
+        result.doRead(new ByteBufferInputStream(buffer));
+        Arrays.fill(buffer.array(), (byte) 0x7f);
+        assertEquals(sample().body, result.getBody());
+        assertEquals(sample().map, result.getMap());
+    }
+
+    @Test
+    public void undecodedFieldsAreWrittenBack() throws IOException {
+        byte[] bytes = TestStreams.write(sample());
+        LazyMessage result = TestStreams.read(bytes, new LazyMessage());
+        assertArrayEquals(bytes, TestStreams.write(result));
+        result.setBody(null);
+        assertNull(result.getBody());
+        LazyMessage cleared = TestStreams.read(TestStreams.write(result), new LazyMessage());
+        assertNull(cleared.getBody());
+        assertEquals(sample().map, cleared.getMap());
+    }
+}
@@ -0,0 +1,158 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferOutputStream;
+import com.msxzm.core.serializer.runtime.OperationMetrics;
+import com.msxzm.core.serializer.runtime.SerializerMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 统计: -Aserializer.metrics=true时生成的doWrite/doRead按类记录次数、字节数和采样耗时
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class MetricsTest {
+    /** 外层类 */
+    private static final String OUTER = "package metrics;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import com.msxzm.base.serializer.SerializerField;\n"
+            + "@Serializable\n"
+            + "public class Outer extends com.msxzm.core.serializer.TestMessage {\n"
+            + "    @SerializerField int id = 7;\n"
+            + "    @SerializerField String name = \"metrics\";\n"
+            + "    @SerializerField Part part = new Part();\n"
+            + "    @SerializerField Inner inner = new Inner();\n"
+            + "    @Serializable\n"
+            + "    public class Inner extends com.msxzm.core.serializer.TestMessage {\n"
+            + "        @SerializerField int count = 3;\n"
+            + "    }\n"
+            + "}\n";
+    /** 嵌套类 */
+    private static final String PART = "package metrics;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import com.msxzm.base.serializer.SerializerField;\n"
+            + "@Serializable\n"
+            + "public class Part extends com.msxzm.core.serializer.TestMessage {\n"
+            + "    @SerializerField long value = 1L << 40;\n"
+            + "}\n";
+    /** 开启统计编译的结果 */
+    private static TestCompiler.Result withMetrics;
+
+    @BeforeClass
+    public static void compile() throws Exception {
+        withMetrics = TestCompiler.compile(Collections.singletonList("-Aserializer.metrics=true"), OUTER, PART);
+        assertTrue(withMetrics.diagnostics.toString(), withMetrics.success);
+    }
+
+    @Before
+    public void resetMetrics() {
+        SerializerMetrics.reset();
+        SerializerMetrics.setSampleInterval(1);
+    }
+
+    @After
+    public void restoreSampleInterval() {
+        SerializerMetrics.setSampleInterval(SerializerMetrics.DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    private static int write(TestMessage message, int times) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        for (int i = 0; i < times; ++i) {
+            buffer.clear();
+            message.doWrite(new ByteBufferOutputStream(buffer));
+        }
+        return buffer.position();
+    }
+
+    @Test
+    public void countsCallsBytesAndSamplesOnPositionedStreams() throws Exception {
+        TestMessage outer = withMetrics.newMessage("metrics.Outer");
+        int length = write(outer, 2);
+        OperationMetrics write = SerializerMetrics.of(outer.getClass()).write();
+        assertEquals(2, write.count());
+        assertEquals(2, write.sizedCount());
+        assertEquals(2L * length, write.bytes());
+        assertEquals(2, write.sampledCount());
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        outer.doWrite(new ByteBufferOutputStream(buffer));
+        buffer.flip();
+        withMetrics.newMessage("metrics.Outer").doRead(new ByteBufferInputStream(buffer));
+        OperationMetrics read = SerializerMetrics.of(outer.getClass()).read();
+        assertEquals(1, read.count());
+        assertEquals(length, read.bytes());
+    }
+
+    @Test
+    public void nestedClassesHaveTheirOwnCounters() throws Exception {
+        TestMessage outer = withMetrics.newMessage("metrics.Outer");
+        int length = write(outer, 3);
+        OperationMetrics part = SerializerMetrics.of(withMetrics.load("metrics.Part")).write();
+        assertEquals(3, part.count());
+        assertEquals(3L * Long.BYTES, part.bytes());
+        assertTrue(part.bytes() < SerializerMetrics.of(outer.getClass()).write().bytes());
+        assertEquals(3L * length, SerializerMetrics.of(outer.getClass()).write().bytes());
+    }
+
+    @Test
+    public void staticClassesHoldTheirMetricsInAField() throws Exception {
+        Field field = withMetrics.load("metrics.Outer").getDeclaredField("OUTER_METRICS");
+        assertTrue(Modifier.isStatic(field.getModifiers()) && Modifier.isFinal(field.getModifiers()));
+        field.setAccessible(true);
+        assertSame(SerializerMetrics.of(field.getDeclaringClass()), field.get(null));
+    }
+
+    @Test
+    public void nonStaticInnerClassesLookUpTheirMetrics() throws Exception {
+        Class<?> inner = withMetrics.load("metrics.Outer$Inner");
+        for (Field field : inner.getDeclaredFields()) {
+            assertFalse(field.getName(), Modifier.isStatic(field.getModifiers()));
+        }
+        write(withMetrics.newMessage("metrics.Outer"), 2);
+        OperationMetrics write = SerializerMetrics.of(inner).write();
+        assertEquals(2, write.count());
+        assertEquals(2, write.sizedCount());
+    }
+
+    @Test
+    public void unpositionedStreamsCountCallsOnly() throws Exception {
+        TestMessage outer = withMetrics.newMessage("metrics.Outer");
+        outer.doWrite(new TestStreams.PlainOutputStream(ByteBuffer.allocate(256)));
+        OperationMetrics write = SerializerMetrics.of(outer.getClass()).write();
+        assertEquals(1, write.count());
+        assertEquals(0, write.sizedCount());
+        assertEquals(0, write.bytes());
+    }
+
+    @Test
+    public void sampleIntervalZeroSkipsTimings() throws Exception {
+        SerializerMetrics.setSampleInterval(0);
+        TestMessage outer = withMetrics.newMessage("metrics.Outer");
+        write(outer, 5);
+        OperationMetrics write = SerializerMetrics.of(outer.getClass()).write();
+        assertEquals(5, write.count());
+        assertEquals(0, write.sampledCount());
+    }
+
+    @Test
+    public void noCountersWithoutTheOption() throws Exception {
+        TestCompiler.Result plain = TestCompiler.compile(Collections.emptyList(), OUTER, PART);
+        assertTrue(plain.diagnostics.toString(), plain.success);
+        TestMessage outer = plain.newMessage("metrics.Outer");
+        write(outer, 1);
+        assertEquals(0, SerializerMetrics.of(outer.getClass()).write().count());
+    }
+}
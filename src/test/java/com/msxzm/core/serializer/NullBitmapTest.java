@@ -0,0 +1,71 @@
+package com.msxzm.core.serializer;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * null位图: 可为null的字段各占一位，按64位一组写变长long
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class NullBitmapTest {
+
+    @Test
+    public void allNullWritesOnlyTheBitmap() throws IOException {
+        byte[] bytes = TestStreams.write(new Wrappers());
+        assertEquals(1, bytes.length);
+        assertEquals(new Wrappers(), TestStreams.read(bytes, new Wrappers()));
+    }
+
+    @Test
+    public void roundTripsMixedNulls() throws IOException {
+        Wrappers message = new Wrappers();
+        message.count = -1;
+        message.flag = Boolean.FALSE;
+        message.name = "";
+        message.values = Arrays.asList(1, null, 3);
+        byte[] bytes = TestStreams.write(message);
+        assertEquals(message, TestStreams.read(bytes, new Wrappers()));
+    }
+
+    @Test
+    public void roundTripsAllPresent() throws IOException {
+        Wrappers message = new Wrappers();
+        message.count = Integer.MIN_VALUE;
+        message.total = Long.MAX_VALUE;
+        message.flag = Boolean.TRUE;
+        message.ratio = Double.NaN;
+        message.name = "name";
+        message.item = new Item(1, null, null);
+        message.values = Arrays.asList();
+        assertEquals(message, TestStreams.read(TestStreams.write(message), new Wrappers()));
+    }
+
+    @Test
+    public void overwritesFieldsWithNull() throws IOException {
+        Wrappers target = new Wrappers();
+        target.count = 5;
+        target.item = new Item(2, 3, "x");
+        TestStreams.read(TestStreams.write(new Wrappers()), target);
+        assertNull(target.count);
+        assertNull(target.item);
+    }
+
+    @Test
+    public void splitsBitmapAfterSixtyFourFields() throws IOException {
+        assertEquals(2, TestStreams.write(new WideMessage()).length);
+        WideMessage message = new WideMessage();
+        for (int i = 0; i < 70; i += 3) {
+            message.set(i, "v" + i);
+        }
+        WideMessage result = TestStreams.read(TestStreams.write(message), new WideMessage());
+        for (int i = 0; i < 70; ++i) {
+            assertEquals("s" + i, message.get(i), result.get(i));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+import com.msxzm.core.serializer.runtime.IntArrayList;
+import com.msxzm.core.serializer.runtime.LongArrayList;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 紧凑编码的数值集合和基础类型列表
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public class PackedMessage extends TestMessage {
+    @SerializerField
+    @SerializerFieldOptions(packed = true)
+    List<Integer> ints;
+    @SerializerField
+    @SerializerFieldOptions(packed = true, nonNull = true)
+    Set<Long> longs;
+    @SerializerField
+    @SerializerFieldOptions(packed = true)
+    Deque<Double> doubles;
+    @SerializerField
+    IntArrayList intList;
+    @SerializerField
+    LongArrayList longList;
+    @SerializerField
+    List<IntArrayList> nestedLists;
+}
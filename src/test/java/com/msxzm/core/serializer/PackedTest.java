@@ -0,0 +1,104 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.IntArrayList;
+import com.msxzm.core.serializer.runtime.LongArrayList;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 紧凑编码: 元素null位图 + 连续定长块，基础类型列表整块读写
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class PackedTest {
+
+    private static IntArrayList intList(int count) {
+        IntArrayList list = new IntArrayList();
+        for (int i = 0; i < count; ++i) {
+            list.add(i * 1000 - 7);
+        }
+        return list;
+    }
+
+    @Test
+    public void roundTrips() throws IOException {
+        PackedMessage message = new PackedMessage();
+        message.ints = new ArrayList<>(Arrays.asList(1, null, 3, -4, null, 6, 7, 8, 9, null));
+        message.longs = new TreeSet<>(Arrays.asList(5L, -9L, Long.MIN_VALUE));
+        message.doubles = new ArrayDeque<>(Arrays.asList(1.5, -0.0));
+        message.intList = intList(20);
+        message.longList = new LongArrayList();
+        message.longList.add(Long.MAX_VALUE);
+        message.nestedLists = Arrays.asList(intList(3), null, new IntArrayList());
+
+        byte[] bytes = TestStreams.write(message);
+        assertArrayEquals(bytes, TestStreams.writePlain(message));
+        assertEquals(bytes.length, message.serializedSize());
+        for (PackedMessage result : Arrays.asList(TestStreams.read(bytes, new PackedMessage()), TestStreams.readPlain(bytes, new PackedMessage()))) {
+            assertEquals(message.ints, result.ints);
+            assertEquals(message.longs, new TreeSet<>(result.longs));
+            assertEquals(new ArrayList<>(message.doubles), new ArrayList<>(result.doubles));
+            assertArrayEquals(message.intList.toArray(), result.intList.toArray());
+            assertEquals(Long.MAX_VALUE, result.longList.get(0));
+            assertEquals(message.nestedLists, result.nestedLists);
+        }
+    }
+
+    @Test
+    public void largeListsCrossScratchChunks() throws IOException {
+        PackedMessage message = new PackedMessage();
+        message.intList = intList(50000);
+        message.ints = new ArrayList<>(Collections.nCopies(50000, 3));
+        message.ints.set(49999, null);
+        PackedMessage result = TestStreams.read(TestStreams.write(message), new PackedMessage());
+        assertArrayEquals(message.intList.toArray(), result.intList.toArray());
+        assertEquals(message.ints, result.ints);
+    }
+
+    @Test
+    public void smallerThanPerElementEncoding() throws IOException {
+        PackedMessage packed = new PackedMessage();
+        packed.ints = Collections.nCopies(64, 1);
+        UnpackedMessage unpacked = new UnpackedMessage();
+        unpacked.ints = packed.ints;
+        assertTrue(TestStreams.write(packed).length < TestStreams.write(unpacked).length);
+    }
+
+    @Test
+    public void nonNullRejectsNull() throws IOException {
+        PackedMessage message = new PackedMessage();
+        message.longs = new HashSet<>(Arrays.asList(1L, null));
+        try {
+            TestStreams.write(message);
+            fail();
+        } catch (NullPointerException expected) {
+            // nonNull的集合不写null位图，写到null元素直接失败
+        }
+    }
+
+    @Test
+    public void primitiveListBounds() {
+        IntArrayList list = intList(2);
+        list.ensureCapacity(100);
+        assertEquals(2, list.size());
+        try {
+            list.get(2);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+            list.clear();
+        }
+        assertTrue(list.isEmpty());
+    }
+}
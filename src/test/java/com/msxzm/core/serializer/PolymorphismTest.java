@@ -0,0 +1,196 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.SerializableTypes;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 多态字段按typeId读写子类，同一次编译的子类直接分派，编译时不认识的子类通过生成的索引从注册表读写
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class PolymorphismTest {
+    /** 另一个模块的多态基类 */
+    private static final String ANIMAL = "package registry;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import com.msxzm.base.serializer.SerializerField;\n"
+            + "@Serializable\n"
+            + "public abstract class Animal extends com.msxzm.core.serializer.TestMessage {\n"
+            + "    @SerializerField public String name;\n"
+            + "}\n";
+    /** 同一个模块的子类 */
+    private static final String DOG = "package registry;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "@Serializable\n"
+            + "@com.msxzm.core.serializer.SerializableOptions(typeId = 6)\n"
+            + "public class Dog extends Animal {\n"
+            + "    @com.msxzm.base.serializer.SerializerField public boolean good;\n"
+            + "}\n";
+    /** 多态字段 */
+    private static final String ZOO = "package registry;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import com.msxzm.base.serializer.SerializerField;\n"
+            + "@Serializable\n"
+            + "public class Zoo extends com.msxzm.core.serializer.TestMessage {\n"
+            + "    @SerializerField public Animal animal;\n"
+            + "}\n";
+    /** 编译Zoo时还没有的子类 */
+    private static final String CAT = "package registry.ext;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import com.msxzm.base.serializer.SerializerField;\n"
+            + "@Serializable\n"
+            + "@com.msxzm.core.serializer.SerializableOptions(typeId = 7)\n"
+            + "public class Cat extends registry.Animal {\n"
+            + "    @SerializerField public int lives;\n"
+            + "}\n";
+    /** 编译Zoo时还没有的、已知子类的子类(不能当成父类写出) */
+    private static final String PUPPY = "package registry.ext;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import com.msxzm.base.serializer.SerializerField;\n"
+            + "@Serializable\n"
+            + "@com.msxzm.core.serializer.SerializableOptions(typeId = 8)\n"
+            + "public class Puppy extends registry.Dog {\n"
+            + "    @SerializerField public int age;\n"
+            + "}\n";
+
+    private static ShapeHolder sample() {
+        Circle circle = new Circle();
+        circle.id = 1;
+        circle.radius = 2.5;
+        Square square = new Square();
+        square.id = 2;
+        square.side = 7;
+        BigSquare big = new BigSquare();
+        big.id = 3;
+        big.side = 4;
+        big.area = 1L << 40;
+        ShapeHolder holder = new ShapeHolder();
+        holder.shape = circle;
+        holder.shapes = Arrays.asList(big, square, null, circle);
+        holder.square = big;
+        return holder;
+    }
+
+    @Test
+    public void readsConcreteSubclasses() throws IOException {
+        ShapeHolder holder = sample();
+        byte[] bytes = TestStreams.write(holder);
+        assertEquals(bytes.length, holder.serializedSize());
+
+        ShapeHolder result = TestStreams.read(bytes, new ShapeHolder());
+        assertSame(Circle.class, result.shape.getClass());
+        assertEquals(2.5, ((Circle) result.shape).radius, 0d);
+        assertNull(result.none);
+        assertEquals(4, result.shapes.size());
+        BigSquare big = (BigSquare) result.shapes.get(0);
+        assertEquals(3, big.id);
+        assertEquals(4, big.side);
+        assertEquals(1L << 40, big.area);
+        assertSame(Square.class, result.shapes.get(1).getClass());
+        assertEquals(7, ((Square) result.shapes.get(1)).side);
+        assertNull(result.shapes.get(2));
+        assertSame(Circle.class, result.shapes.get(3).getClass());
+        assertSame(BigSquare.class, result.square.getClass());
+    }
+
+    @Test
+    public void subclassesFromTheSameCompileDoNotNeedTheRegistry() throws IOException {
+        SerializableTypes previous = SerializableTypes.getDefault();
+        SerializableTypes.setDefault(SerializableTypes.load(new URLClassLoader(new URL[0], null)));
+        try {
+            ShapeHolder holder = sample();
+            byte[] bytes = TestStreams.write(holder);
+            assertEquals(bytes.length, holder.serializedSize());
+            ShapeHolder result = TestStreams.read(bytes, new ShapeHolder());
+            assertSame(BigSquare.class, result.shapes.get(0).getClass());
+            assertSame(BigSquare.class, result.square.getClass());
+        } finally {
+            SerializableTypes.setDefault(previous);
+        }
+    }
+
+    @Test
+    public void plainStreamsMatch() throws IOException {
+        ShapeHolder holder = sample();
+        byte[] bytes = TestStreams.writePlain(holder);
+        assertEquals(Arrays.toString(TestStreams.write(holder)), Arrays.toString(bytes));
+        assertSame(BigSquare.class, TestStreams.readPlain(bytes, new ShapeHolder()).square.getClass());
+    }
+
+    @Test
+    public void indexRegistersSubclasses() {
+        SerializableTypes types = SerializableTypes.getDefault();
+        assertTrue(types.types().contains(ShapeHolder.class));
+        assertEquals(2, types.getTypeId(Square.class));
+        assertSame(BigSquare.class, types.newInstance(3).getClass());
+        assertNull(types.newInstance(Shape.class));
+    }
+
+    @Test
+    public void rejectsUnknownOrMismatchedTypeIds() {
+        SerializableTypes types = SerializableTypes.getDefault();
+        try {
+            types.newPolymorphic(99, Shape.class);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("99"));
+        }
+        try {
+            types.newPolymorphic(1, Square.class);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(Square.class.getName()));
+        }
+    }
+
+    @Test
+    public void subclassesFromOtherModulesGoThroughTheRegistry() throws Exception {
+        TestCompiler.Result base = TestCompiler.compile(Collections.emptyList(), ANIMAL, DOG, ZOO);
+        assertTrue(base.diagnostics.toString(), base.success);
+        TestCompiler.Result extension = TestCompiler.compile(new SerializerProcessor(), Collections.emptyList(),
+                Collections.singletonList(base.output), Collections.emptyList(), CAT, PUPPY);
+        assertTrue(extension.diagnostics.toString(), extension.success);
+
+        Object cat = extension.load("registry.ext.Cat").getConstructor().newInstance();
+        cat.getClass().getField("lives").setInt(cat, 9);
+        Object puppy = extension.load("registry.ext.Puppy").getConstructor().newInstance();
+        puppy.getClass().getField("age").setInt(puppy, 9);
+        SerializableTypes previous = SerializableTypes.getDefault();
+        SerializableTypes.setDefault(SerializableTypes.load(extension.load("registry.Zoo").getClassLoader()));
+        try {
+            for (Object value : Arrays.asList(cat, puppy)) {
+                TestMessage zoo = extension.newMessage("registry.Zoo");
+                zoo.getClass().getField("animal").set(zoo, value);
+                byte[] bytes = TestStreams.write(zoo);
+                TestMessage result = TestStreams.read(bytes, extension.newMessage("registry.Zoo"));
+                Object animal = result.getClass().getField("animal").get(result);
+                assertSame(value.getClass(), animal.getClass());
+                assertEquals(9, animal.getClass().getField(value == cat ? "lives" : "age").getInt(animal));
+            }
+        } finally {
+            SerializableTypes.setDefault(previous);
+        }
+    }
+
+    @Test
+    public void rejectsDuplicateTypeIds() {
+        SerializableTypes types = SerializableTypes.load(PolymorphismTest.class.getClassLoader());
+        try {
+            types.register(Item.class, 1, Item::new);
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(Circle.class.getName()));
+        }
+    }
+}
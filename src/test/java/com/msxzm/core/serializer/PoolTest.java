@@ -0,0 +1,96 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ObjectPool;
+import com.msxzm.core.serializer.runtime.Pools;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * pooled模式: 读取时从池借出嵌套对象，release()归还整个对象图
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class PoolTest {
+    /** 池中的对象 */
+    private final Deque<PooledNode> pooled = new ArrayDeque<>();
+    /** 借出次数 */
+    private int borrowed;
+
+    @Before
+    public void register() {
+        Pools.register(PooledNode.class, new ObjectPool<PooledNode>() {
+            @Override
+            public PooledNode borrow() {
+                ++borrowed;
+                return pooled.pollLast();
+            }
+
+            @Override
+            public void release(PooledNode object) {
+                pooled.addLast(object);
+            }
+        });
+    }
+
+    @After
+    public void unregister() {
+        Pools.register(PooledNode.class, null);
+    }
+
+    private static PooledMessage sample() {
+        PooledNode node = new PooledNode();
+        node.value = 3;
+        node.leaf = new Item(1, null, "leaf");
+        PooledMessage message = new PooledMessage();
+        message.node = node;
+        message.nodes = new PooledNode[]{node, null};
+        message.list = new ArrayList<>(Arrays.asList(node, node));
+        message.map = new HashMap<>();
+        message.map.put("k", node);
+        return message;
+    }
+
+    @Test
+    public void borrowsAndReleasesNestedObjects() throws IOException {
+        byte[] bytes = TestStreams.write(sample());
+        PooledMessage result = TestStreams.read(bytes, new PooledMessage());
+        assertEquals(5, borrowed);
+        assertEquals(3, result.node.value);
+        assertEquals("leaf", result.map.get("k").leaf.name);
+
+        result.release();
+        assertEquals(5, pooled.size());
+        assertNull(result.node);
+        assertEquals(0, result.list.size());
+
+        TestStreams.read(bytes, result);
+        assertEquals(10, borrowed);
+        assertEquals(0, pooled.size());
+        assertEquals(3, result.list.get(1).value);
+    }
+
+    @Test
+    public void releasesPooledMapKeys() throws IOException {
+        PooledMessage message = new PooledMessage();
+        message.keyed = new HashMap<>();
+        message.keyed.put(new PooledNode(), new PooledNode());
+        message.keyed.put(new PooledNode(), null);
+        PooledMessage result = TestStreams.read(TestStreams.write(message), new PooledMessage());
+        assertEquals(3, borrowed);
+
+        result.release();
+        assertEquals(3, pooled.size());
+        assertEquals(0, result.keyed.size());
+    }
+}
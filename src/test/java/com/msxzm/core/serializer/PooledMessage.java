@@ -0,0 +1,27 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 嵌套对象(包括集合、数组、Map中的元素)从对象池借出
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(pooled = true, reuse = true)
+public class PooledMessage extends TestMessage {
+    @SerializerField
+    PooledNode node;
+    @SerializerField
+    PooledNode[] nodes;
+    @SerializerField
+    List<PooledNode> list;
+    @SerializerField
+    Map<String, PooledNode> map;
+    @SerializerField
+    Map<PooledNode, PooledNode> keyed;
+}
@@ -0,0 +1,18 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+/**
+ * 从对象池借出的嵌套对象
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(pooled = true)
+public class PooledNode extends TestMessage {
+    @SerializerField
+    int value;
+    @SerializerField
+    Item leaf;
+}
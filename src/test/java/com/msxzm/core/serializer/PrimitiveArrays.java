@@ -0,0 +1,29 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+/**
+ * 各种基础类型数组
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public class PrimitiveArrays extends TestMessage {
+    @SerializerField
+    boolean[] booleans;
+    @SerializerField
+    byte[] bytes;
+    @SerializerField
+    short[] shorts;
+    @SerializerField
+    int[] ints;
+    @SerializerField
+    long[] longs;
+    @SerializerField
+    float[] floats;
+    @SerializerField
+    double[] doubles;
+    @SerializerField
+    int[][] grid;
+}
@@ -0,0 +1,44 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+import com.msxzm.core.serializer.runtime.IntArrayList;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按字段掩码读取
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(projection = true)
+public class ProjectedMessage extends TestMessage {
+    @SerializerField
+    int id;
+    @SerializerField
+    String name;
+    @SerializerField
+    double[] scores;
+    @SerializerField
+    Integer[] boxed;
+    @SerializerField
+    List<String> tags;
+    @SerializerField
+    Map<Integer, List<Long>> deep;
+    @SerializerField
+    Item child;
+    @SerializerField
+    @SerializerFieldOptions(lazy = true)
+    Item lazyChild;
+    @SerializerField
+    @SerializerFieldOptions(packed = true)
+    List<Integer> counts;
+    @SerializerField
+    IntArrayList points;
+    @SerializerField
+    Shape shape;
+    @SerializerField
+    long tail;
+}
@@ -0,0 +1,100 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.IntArrayList;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 投影读取: 只解码掩码选中的字段，其余跳过并保持原值
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class ProjectionTest {
+
+    private static byte[] sample() throws IOException {
+        ProjectedMessage message = new ProjectedMessage();
+        message.id = 7;
+        message.name = "nm";
+        message.scores = new double[]{1.5, 2};
+        message.boxed = new Integer[]{1, null, 3};
+        message.tags = Arrays.asList("a", null);
+        message.deep = Collections.singletonMap(1, Arrays.asList(5L, 6L));
+        message.child = new Item(4, 5, "c");
+        message.lazyChild = new Item(8, null, "l");
+        message.counts = Arrays.asList(1, null, 3);
+        message.points = new IntArrayList();
+        message.points.add(-2);
+        BigSquare shape = new BigSquare();
+        shape.side = 6;
+        shape.area = 36L;
+        message.shape = shape;
+        message.tail = 99;
+        return TestStreams.write(message);
+    }
+
+    private static ProjectedMessage read(byte[] bytes, ProjectedMessage target, long fieldMask) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        target.doRead(new ByteBufferInputStream(buffer), fieldMask);
+        assertFalse(buffer.hasRemaining());
+        return target;
+    }
+
+    @Test
+    public void allFields() throws IOException {
+        ProjectedMessage result = read(sample(), new ProjectedMessage(), -1L);
+        assertEquals(7, result.id);
+        assertEquals("nm", result.name);
+        assertArrayEquals(new double[]{1.5, 2}, result.scores, 0d);
+        assertArrayEquals(new Integer[]{1, null, 3}, result.boxed);
+        assertEquals(Arrays.asList("a", null), result.tags);
+        assertEquals(new Item(4, 5, "c"), result.child);
+        assertEquals(new Item(8, null, "l"), result.getLazyChild());
+        assertEquals(Arrays.asList(1, null, 3), result.counts);
+        assertEquals(-2, result.points.get(0));
+        assertEquals(36L, ((BigSquare) result.shape).area);
+        assertEquals(99L, result.tail);
+    }
+
+    @Test
+    public void selectedFieldsOnly() throws IOException {
+        ProjectedMessage target = new ProjectedMessage();
+        target.name = "stale";
+        target.child = new Item();
+        ProjectedMessage result = read(sample(), target, ProjectedMessage.FIELD_ID | ProjectedMessage.FIELD_TAIL);
+        assertEquals(7, result.id);
+        assertEquals(99L, result.tail);
+        assertEquals("stale", result.name);
+        assertNull(result.scores);
+        assertEquals(new Item(), result.child);
+        assertNull(result.getLazyChild());
+        assertNull(result.counts);
+        assertNull(result.points);
+        assertNull(result.shape);
+    }
+
+    @Test
+    public void nestedAndLazyFields() throws IOException {
+        ProjectedMessage result = read(sample(), new ProjectedMessage(), ProjectedMessage.FIELD_DEEP | ProjectedMessage.FIELD_LAZY_CHILD);
+        assertEquals(0, result.id);
+        assertEquals(Collections.singletonMap(1, Arrays.asList(5L, 6L)), result.deep);
+        assertEquals(new Item(8, null, "l"), result.getLazyChild());
+        assertEquals(0L, result.tail);
+    }
+
+    @Test
+    public void emptyMask() throws IOException {
+        ProjectedMessage result = read(sample(), new ProjectedMessage(), 0L);
+        assertEquals(0, result.id);
+        assertNull(result.tags);
+    }
+}
@@ -0,0 +1,31 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.List;
+
+/**
+ * 跟踪引用的图节点(可以共享、成环)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(references = true)
+public class RefNode extends TestMessage {
+    @SerializerField
+    String name;
+    @SerializerField
+    RefNode next;
+    @SerializerField
+    List<RefNode> links;
+    @SerializerField
+    RefNode[] array;
+
+    public RefNode() {
+    }
+
+    RefNode(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,131 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferOutputStream;
+import com.msxzm.core.serializer.runtime.ReferenceTable;
+import com.msxzm.core.serializer.runtime.Varint;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 跟踪引用: 环、共享对象读回后还是同一个实例，出错后线程内的引用表不残留
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class ReferenceTableTest {
+
+    @Test
+    public void restoresSelfReference() throws IOException {
+        RefNode node = new RefNode("self");
+        node.next = node;
+        RefNode result = TestStreams.read(TestStreams.write(node), new RefNode());
+        assertEquals("self", result.name);
+        assertSame(result, result.next);
+    }
+
+    @Test
+    public void restoresCycle() throws IOException {
+        RefNode a = new RefNode("a");
+        RefNode b = new RefNode("b");
+        RefNode c = new RefNode("c");
+        a.next = b;
+        b.next = c;
+        c.next = a;
+        RefNode result = TestStreams.read(TestStreams.write(a), new RefNode());
+        assertEquals("b", result.next.name);
+        assertEquals("c", result.next.next.name);
+        assertSame(result, result.next.next.next);
+    }
+
+    @Test
+    public void restoresSharedObjects() throws IOException {
+        RefNode root = new RefNode("root");
+        RefNode shared = new RefNode("shared");
+        RefNode other = new RefNode("other");
+        root.next = shared;
+        root.links = Arrays.asList(shared, other, shared, null);
+        root.array = new RefNode[]{other, root};
+        for (byte[] bytes : new byte[][]{TestStreams.write(root), TestStreams.writePlain(root)}) {
+            RefNode result = TestStreams.readPlain(bytes, new RefNode());
+            assertSame(result.next, result.links.get(0));
+            assertSame(result.next, result.links.get(2));
+            assertSame(result.links.get(1), result.array[0]);
+            assertSame(result, result.array[1]);
+            assertNull(result.links.get(3));
+            assertEquals("other", result.array[0].name);
+        }
+    }
+
+    @Test
+    public void writesSharedObjectOnce() throws IOException {
+        RefNode shared = new RefNode("a fairly long name that would be repeated");
+        RefNode once = new RefNode("root");
+        once.next = shared;
+        RefNode twice = new RefNode("root");
+        twice.next = shared;
+        twice.links = Arrays.asList(shared, shared, shared);
+        int linksOverhead = TestStreams.write(twice).length - TestStreams.write(once).length;
+        // 多出来的只有集合长度、null标记和3个引用，没有重复写内容
+        assertTrue(linksOverhead < shared.name.length());
+    }
+
+    @Test
+    public void rejectsReferenceOutOfRange() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        Varint.writeVarInt(new ByteBufferOutputStream(buffer), 5);
+        buffer.flip();
+        ByteBufferInputStream inputStream = new ByteBufferInputStream(buffer);
+        ReferenceTable table = ReferenceTable.enterRead(inputStream, new RefNode());
+        try {
+            table.readReference(inputStream);
+            fail("reference out of range accepted");
+        } catch (IOException expected) {
+            // 表里只有根对象
+        } finally {
+            table.exit();
+        }
+    }
+
+    @Test
+    public void clearsTableAfterFailedRead() throws IOException {
+        RefNode a = new RefNode("a");
+        a.next = new RefNode("b");
+        a.next.next = a;
+        byte[] bytes = TestStreams.write(a);
+        try {
+            TestStreams.read(Arrays.copyOf(bytes, bytes.length - 1), new RefNode());
+            fail("truncated data accepted");
+        } catch (EOFException expected) {
+            // 引用表在finally里退出
+        }
+        RefNode result = TestStreams.read(bytes, new RefNode());
+        assertSame(result, result.next.next);
+    }
+
+    @Test
+    public void clearsTableAfterFailedWrite() throws IOException {
+        RefNode a = new RefNode("a");
+        a.next = new RefNode("b");
+        a.links = Arrays.asList(a.next, a);
+        byte[] expected = TestStreams.write(a);
+        try {
+            a.doWrite(new ByteBufferOutputStream(ByteBuffer.allocate(expected.length / 2)));
+            fail("buffer overflow not reported");
+        } catch (IOException expectedException) {
+            // 空间不足
+        }
+        // 上一次没写完的对象不能留在表里变成引用
+        assertArrayEquals(expected, TestStreams.write(a));
+    }
+}
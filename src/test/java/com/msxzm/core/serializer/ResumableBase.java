@@ -0,0 +1,18 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+/**
+ * 可恢复读取的父类(父类也要开启resumable)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(resumable = true)
+public class ResumableBase extends TestMessage {
+    @SerializerField
+    long baseId;
+    @SerializerField
+    String baseName;
+}
@@ -0,0 +1,70 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 可恢复读取的消息(覆盖基础类型、字符串、集合、Map、分块、紧凑编码、嵌套对象、数组、枚举)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(resumable = true, encoding = Encoding.VARINT)
+public class ResumableMessage extends ResumableBase {
+    @SerializerField
+    int id;
+    @SerializerField
+    Integer boxed;
+    @SerializerField
+    String name;
+    @SerializerField
+    List<Item> items;
+    @SerializerField
+    Map<String, Integer> counts;
+    @SerializerField
+    @SerializerFieldOptions(chunkSize = 2)
+    List<String> rows;
+    @SerializerField
+    @SerializerFieldOptions(packed = true)
+    List<Integer> packed;
+    @SerializerField
+    Item nested;
+    @SerializerField
+    int[] values;
+    @SerializerField
+    Color color;
+    @SerializerField
+    double tail;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ResumableMessage)) {
+            return false;
+        }
+        ResumableMessage other = (ResumableMessage) o;
+        return baseId == other.baseId && Objects.equals(baseName, other.baseName) && id == other.id
+                && Objects.equals(boxed, other.boxed) && Objects.equals(name, other.name) && Objects.equals(items, other.items)
+                && Objects.equals(counts, other.counts) && Objects.equals(rows, other.rows) && Objects.equals(packed, other.packed)
+                && Objects.equals(nested, other.nested) && Arrays.equals(values, other.values) && color == other.color
+                && Double.compare(tail, other.tail) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(baseId, id, name);
+    }
+
+    @Override
+    public String toString() {
+        return "ResumableMessage{" + baseId + ", " + baseName + ", " + id + ", " + boxed + ", " + name + ", " + items + ", " + counts
+                + ", " + rows + ", " + packed + ", " + nested + ", " + Arrays.toString(values) + ", " + color + ", " + tail + "}";
+    }
+}
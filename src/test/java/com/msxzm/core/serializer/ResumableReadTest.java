@@ -0,0 +1,122 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ResumableInput;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 可恢复读取: 按任意大小分段送入数据，结果与一次读完相同
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class ResumableReadTest {
+
+    private static ResumableMessage sample() {
+        ResumableMessage message = new ResumableMessage();
+        message.baseId = 1L << 40;
+        message.baseName = "base";
+        message.id = 300;
+        message.boxed = null;
+        message.name = "名字";
+        message.items = Arrays.asList(new Item(1, 2, "a"), null, new Item(3, null, "c"));
+        message.counts = new LinkedHashMap<>();
+        message.counts.put("a", 1);
+        message.counts.put("b", null);
+        message.rows = Arrays.asList("r1", "r2", "r3", "r4", "r5");
+        message.packed = Arrays.asList(1, null, 3);
+        message.nested = new Item(7, 8, "deep");
+        message.values = new int[]{1, -2, 3};
+        message.color = Color.GREEN;
+        message.tail = 1.5;
+        return message;
+    }
+
+    /**
+     * 把数据按固定大小分段送入，读出所有完整的帧
+     * @param data 数据
+     * @param piece 每段字节数
+     * @param input 输入流
+     * @return 读出的消息
+     */
+    private static List<ResumableMessage> feed(byte[] data, int piece, ResumableInput input) throws IOException {
+        List<ResumableMessage> result = new ArrayList<>();
+        ResumableMessage message = new ResumableMessage();
+        for (int offset = 0; offset < data.length; offset += piece) {
+            input.offer(ByteBuffer.wrap(data, offset, Math.min(piece, data.length - offset)));
+            while (message.doReadResumable(input)) {
+                result.add(message);
+                message = new ResumableMessage();
+            }
+        }
+        return result;
+    }
+
+    private static byte[] twoFrames(byte[] frame) {
+        byte[] data = Arrays.copyOf(frame, frame.length * 2);
+        System.arraycopy(frame, 0, data, frame.length, frame.length);
+        return data;
+    }
+
+    @Test
+    public void readsFramesFedByteByByte() throws IOException {
+        ResumableMessage expected = sample();
+        ResumableInput input = new ResumableInput();
+        List<ResumableMessage> messages = feed(twoFrames(TestStreams.write(expected)), 1, input);
+        assertEquals(Arrays.asList(expected, expected), messages);
+        assertEquals(0L, input.available());
+    }
+
+    @Test
+    public void readsFramesInPiecesOfEverySize() throws IOException {
+        ResumableMessage expected = sample();
+        byte[] data = twoFrames(TestStreams.write(expected));
+        for (int piece = 2; piece <= data.length; ++piece) {
+            ResumableInput input = new ResumableInput();
+            assertEquals("piece " + piece, Arrays.asList(expected, expected), feed(data, piece, input));
+            assertEquals(0L, input.available());
+        }
+    }
+
+    @Test
+    public void waitsForTheRestOfTheFrame() throws IOException {
+        byte[] frame = TestStreams.write(sample());
+        ResumableInput input = new ResumableInput();
+        ResumableMessage message = new ResumableMessage();
+        input.offer(ByteBuffer.wrap(frame, 0, frame.length - 1));
+        assertFalse(message.doReadResumable(input));
+        assertFalse(message.doReadResumable(input));
+        input.offer(ByteBuffer.wrap(frame, frame.length - 1, 1));
+        assertTrue(message.doReadResumable(input));
+        assertEquals(sample(), message);
+    }
+
+    @Test
+    public void keepsTrailingBytesForTheNextFrame() throws IOException {
+        byte[] frame = TestStreams.write(sample());
+        byte[] data = Arrays.copyOf(frame, frame.length * 2);
+        System.arraycopy(frame, 0, data, frame.length, frame.length);
+        ResumableInput input = new ResumableInput();
+        // 第一段带着下一帧的开头，下一个对象从这里继续
+        List<ResumableMessage> messages = feed(data, frame.length + 3, input);
+        assertEquals(Arrays.asList(sample(), sample()), messages);
+        assertEquals(0L, input.available());
+    }
+
+    @Test
+    public void matchesBlockingRead() throws IOException {
+        ResumableMessage expected = sample();
+        byte[] frame = TestStreams.write(expected);
+        assertEquals(expected, TestStreams.read(frame, new ResumableMessage()));
+        assertEquals(expected, TestStreams.readPlain(TestStreams.writePlain(expected), new ResumableMessage()));
+    }
+}
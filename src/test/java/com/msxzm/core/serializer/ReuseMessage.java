@@ -0,0 +1,30 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+import com.msxzm.core.serializer.runtime.IntArrayList;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读取时复用已有的嵌套对象、集合和数组
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(reuse = true)
+public class ReuseMessage extends TestMessage {
+    @SerializerField
+    Item item;
+    @SerializerField
+    Item[] items;
+    @SerializerField
+    int[][] grid;
+    @SerializerField
+    List<Item> list;
+    @SerializerField
+    Map<String, Integer> map;
+    @SerializerField
+    IntArrayList ints;
+}
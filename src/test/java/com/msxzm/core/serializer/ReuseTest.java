@@ -0,0 +1,91 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.IntArrayList;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * reuse模式: 再次读取复用上次的对象，写出为null的字段读取后清空
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class ReuseTest {
+
+    private static ReuseMessage sample() {
+        ReuseMessage message = new ReuseMessage();
+        Item item = new Item(1, 2, "a");
+        message.item = item;
+        message.items = new Item[]{item, null};
+        message.grid = new int[][]{{1, 2}, {3}};
+        message.list = new ArrayList<>(Arrays.asList(item, new Item(2, null, "b")));
+        message.map = new HashMap<>();
+        message.map.put("k", 1);
+        message.ints = new IntArrayList();
+        message.ints.add(5);
+        return message;
+    }
+
+    @Test
+    public void reusesExistingInstances() throws IOException {
+        byte[] bytes = TestStreams.write(sample());
+        ReuseMessage result = TestStreams.read(bytes, new ReuseMessage());
+        Item item = result.item;
+        Item[] items = result.items;
+        int[][] grid = result.grid;
+        int[] row = result.grid[0];
+        Object list = result.list;
+        Object map = result.map;
+        IntArrayList ints = result.ints;
+
+        TestStreams.read(bytes, result);
+        assertSame(item, result.item);
+        assertSame(items, result.items);
+        assertSame(grid, result.grid);
+        assertSame(row, result.grid[0]);
+        assertSame(list, result.list);
+        assertSame(map, result.map);
+        assertSame(ints, result.ints);
+        assertEquals(sample().list, result.list);
+        assertEquals(sample().map, result.map);
+        assertEquals(1, result.ints.size());
+        assertEquals(5, result.ints.get(0));
+        assertEquals(Arrays.deepToString(sample().grid), Arrays.deepToString(result.grid));
+    }
+
+    @Test
+    public void clearsFieldsWrittenAsNull() throws IOException {
+        ReuseMessage result = TestStreams.read(TestStreams.write(sample()), new ReuseMessage());
+        ReuseMessage empty = new ReuseMessage();
+        empty.grid = new int[][]{null, {4}};
+        TestStreams.read(TestStreams.write(empty), result);
+        assertNull(result.item);
+        assertNull(result.items);
+        assertNull(result.list);
+        assertNull(result.map);
+        assertNull(result.ints);
+        assertNull(result.grid[0]);
+        assertArrayEquals(new int[]{4}, result.grid[1]);
+    }
+
+    @Test
+    public void shorterCollectionsDropStaleElements() throws IOException {
+        ReuseMessage result = TestStreams.read(TestStreams.write(sample()), new ReuseMessage());
+        ReuseMessage shorter = new ReuseMessage();
+        shorter.list = new ArrayList<>();
+        shorter.map = new HashMap<>();
+        shorter.ints = new IntArrayList();
+        TestStreams.read(TestStreams.write(shorter), result);
+        assertEquals(0, result.list.size());
+        assertEquals(0, result.map.size());
+        assertEquals(0, result.ints.size());
+    }
+}
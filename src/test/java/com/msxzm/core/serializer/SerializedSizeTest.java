@@ -0,0 +1,74 @@
+package com.msxzm.core.serializer;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * serializedSize与实际写出的字节数相同
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class SerializedSizeTest {
+
+    @Test
+    public void emptyMessages() throws IOException {
+        Wrappers wrappers = new Wrappers();
+        assertEquals(TestStreams.write(wrappers).length, wrappers.serializedSize());
+        Encoded encoded = new Encoded();
+        assertEquals(TestStreams.write(encoded).length, encoded.serializedSize());
+        PrimitiveArrays arrays = new PrimitiveArrays();
+        assertEquals(TestStreams.write(arrays).length, arrays.serializedSize());
+    }
+
+    @Test
+    public void nestedObjectsAndCollections() throws IOException {
+        Wrappers wrappers = new Wrappers();
+        wrappers.count = -1;
+        wrappers.total = Long.MAX_VALUE;
+        wrappers.flag = true;
+        wrappers.ratio = 0.5;
+        wrappers.name = "中文和ascii";
+        wrappers.item = new Item(1, null, "");
+        wrappers.values = Arrays.asList(1, null, Integer.MIN_VALUE);
+        assertEquals(TestStreams.write(wrappers).length, wrappers.serializedSize());
+    }
+
+    @Test
+    public void varintAndZigzagValues() throws IOException {
+        long[] values = {Long.MIN_VALUE, -129L, -1L, 0L, 127L, 128L, 1L << 35, Long.MAX_VALUE};
+        for (long value : values) {
+            Encoded encoded = new Encoded();
+            encoded.id = (int) value;
+            encoded.timestamp = value;
+            encoded.delta = value;
+            encoded.small = (short) value;
+            encoded.list = Collections.singletonList((int) value);
+            encoded.map = new HashMap<>();
+            encoded.map.put(value, (int) value);
+            assertEquals(String.valueOf(value), TestStreams.write(encoded).length, encoded.serializedSize());
+        }
+    }
+
+    @Test
+    public void arrays() throws IOException {
+        PrimitiveArrays arrays = new PrimitiveArrays();
+        arrays.ints = new int[]{1, 2, 3};
+        arrays.doubles = new double[0];
+        arrays.grid = new int[][]{{1}, null, {2, 3}};
+        assertEquals(TestStreams.write(arrays).length, arrays.serializedSize());
+    }
+
+    @Test
+    public void wideNullBitmap() throws IOException {
+        WideMessage message = new WideMessage();
+        assertEquals(TestStreams.write(message).length, message.serializedSize());
+        message.set(69, "last");
+        assertEquals(TestStreams.write(message).length, message.serializedSize());
+    }
+}
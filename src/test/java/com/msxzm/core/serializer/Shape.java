@@ -0,0 +1,15 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+/**
+ * 多态字段的抽象类型
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public abstract class Shape extends TestMessage {
+    @SerializerField
+    int id;
+}
@@ -0,0 +1,23 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.List;
+
+/**
+ * 多态字段
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public class ShapeHolder extends TestMessage {
+    @SerializerField
+    Shape shape;
+    @SerializerField
+    Shape none;
+    @SerializerField
+    List<Shape> shapes;
+    @SerializerField
+    Square square;
+}
@@ -0,0 +1,151 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferOutputStream;
+import com.msxzm.core.serializer.runtime.IntArrayList;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 生成的skipFrom: 不new对象，按字节数跳过整个对象，投影读取时嵌套对象、多态对象也用它跳过
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class SkipTest {
+    /** 写在对象后面的标记，跳过后应该正好读到它 */
+    private static final int MARKER = 0x5A5A5A5A;
+    /** 非静态内部类字段 */
+    private static final String INNER = "package skips;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import com.msxzm.base.serializer.SerializerField;\n"
+            + "@Serializable\n"
+            + "public class Holder extends com.msxzm.core.serializer.TestMessage {\n"
+            + "    @SerializerField Inner inner;\n"
+            + "    @Serializable\n"
+            + "    public class Inner extends com.msxzm.core.serializer.TestMessage {\n"
+            + "        @SerializerField int value;\n"
+            + "    }\n"
+            + "}\n";
+
+    /**
+     * 对象后面跟一个标记
+     * @param message 消息
+     * @return 字节
+     * @throws IOException IOException
+     */
+    private static byte[] writeWithMarker(TestMessage message) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        ByteBufferOutputStream outputStream = new ByteBufferOutputStream(buffer);
+        message.doWrite(outputStream);
+        outputStream.writeInt(MARKER);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * ByteBuffer流和基础流都跳过一次，检查正好停在标记上
+     * @param bytes 字节
+     * @param skipper 跳过方法
+     * @throws IOException IOException
+     */
+    private static void assertSkips(byte[] bytes, Skipper skipper) throws IOException {
+        for (int i = 0; i < 2; ++i) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            InputStream inputStream = i == 0 ? new ByteBufferInputStream(buffer) : new TestStreams.PlainInputStream(buffer);
+            skipper.skip(inputStream);
+            assertEquals(MARKER, inputStream.readInt());
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    public void skipsNestedAndPolymorphicValues() throws IOException {
+        ShapeHolder holder = new ShapeHolder();
+        Circle circle = new Circle();
+        circle.radius = 2.5;
+        BigSquare bigSquare = new BigSquare();
+        bigSquare.area = 81L;
+        holder.shape = circle;
+        holder.shapes = Arrays.asList(bigSquare, null, new Square());
+        holder.square = bigSquare;
+        assertSkips(writeWithMarker(holder), ShapeHolder::skipFrom);
+        assertSkips(writeWithMarker(new Item(3, null, "x")), Item::skipFrom);
+    }
+
+    @Test
+    public void skipsPackedAndPrimitiveLists() throws IOException {
+        PackedMessage message = new PackedMessage();
+        message.ints = Arrays.asList(1, null, 3, null, null, 6, 7, 8, 9);
+        message.longs = Collections.singleton(5L);
+        IntArrayList intList = new IntArrayList();
+        intList.add(7);
+        intList.add(-7);
+        message.intList = intList;
+        message.nestedLists = Arrays.asList(intList, null, new IntArrayList());
+        assertSkips(writeWithMarker(message), PackedMessage::skipFrom);
+    }
+
+    @Test
+    public void skipsTaggedStringTableAndInheritedFields() throws IOException {
+        TaggedV1 tagged = new TaggedV1();
+        tagged.name = "tagged";
+        tagged.item = new Item(1, 2, "i");
+        tagged.map = Collections.singletonMap("k", 1);
+        assertSkips(writeWithMarker(tagged), TaggedV1::skipFrom);
+
+        TableRows table = new TableRows();
+        Map<String, String> row = new HashMap<>();
+        row.put("name", "name");
+        table.locale = "name";
+        table.rows = Arrays.asList(row, row);
+        table.names = new String[]{"name", null, "other"};
+        table.later = Arrays.asList("name", "later");
+        table.tail = "other";
+        assertSkips(writeWithMarker(table), TableRows::skipFrom);
+
+        DirtySubEntity entity = new DirtySubEntity();
+        entity.name = "entity";
+        entity.position = new Item(2, 3, "p");
+        entity.level = 4;
+        assertSkips(writeWithMarker(entity), DirtySubEntity::skipFrom);
+    }
+
+    @Test
+    public void noSkipFromWithoutAStaticWayToSkip() throws Exception {
+        // 跟踪引用的对象可能只写了引用
+        assertFalse(hasSkipFrom(RefNode.class));
+        TestCompiler.Result result = TestCompiler.compile(Collections.emptyList(), INNER);
+        assertTrue(result.diagnostics.toString(), result.success);
+        // 非静态内部类不能有静态方法，引用它的类也不能在静态方法里new出来读掉
+        assertFalse(hasSkipFrom(result.load("skips.Holder$Inner")));
+        assertFalse(hasSkipFrom(result.load("skips.Holder")));
+    }
+
+    private static boolean hasSkipFrom(Class<?> type) {
+        for (Method method : type.getDeclaredMethods()) {
+            if (method.getName().equals("skipFrom") && Modifier.isStatic(method.getModifiers())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 跳过方法
+     */
+    private interface Skipper {
+        void skip(InputStream inputStream) throws IOException;
+    }
+}
@@ -0,0 +1,16 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+/**
+ * 多态子类(自身也有子类)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(typeId = 2)
+public class Square extends Shape {
+    @SerializerField
+    int side;
+}
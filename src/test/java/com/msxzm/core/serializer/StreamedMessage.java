@@ -0,0 +1,35 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 流式读取的字段
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public class StreamedMessage extends TestMessage {
+    @SerializerField
+    int id;
+    @SerializerField
+    @SerializerFieldOptions(stream = true)
+    List<Item> items;
+    @SerializerField
+    @SerializerFieldOptions(stream = true, encoding = Encoding.VARINT)
+    Map<String, Integer> counts;
+    @SerializerField
+    @SerializerFieldOptions(stream = true, chunkSize = 2)
+    Iterable<String> rows;
+    @SerializerField
+    List<Integer> plain;
+    @SerializerField
+    @SerializerFieldOptions(stream = true)
+    Set<Long> empty;
+    @SerializerField
+    String tail;
+}
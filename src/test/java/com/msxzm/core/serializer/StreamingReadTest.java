@@ -0,0 +1,81 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * 流式读取: 元素逐个回调，不放进集合，其他字段照常读取
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class StreamingReadTest {
+
+    private static StreamedMessage sample() {
+        StreamedMessage message = new StreamedMessage();
+        message.id = 7;
+        message.items = Arrays.asList(new Item(1, null, "a"), null, new Item(2, 3, "b"));
+        message.counts = new LinkedHashMap<>();
+        message.counts.put("a", 1);
+        message.counts.put(null, 2);
+        message.counts.put("c", null);
+        message.rows = Arrays.asList("r1", "r2", "r3");
+        message.plain = Arrays.asList(1, 2);
+        message.tail = "end";
+        return message;
+    }
+
+    @Test
+    public void callbacksSeeEveryElement() throws IOException {
+        StreamedMessage message = sample();
+        byte[] bytes = TestStreams.write(message);
+        assertEquals(bytes.length, message.serializedSize());
+
+        List<Object> seen = new ArrayList<>();
+        StreamedMessage result = new StreamedMessage();
+        result.items = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        result.doReadStream(new ByteBufferInputStream(buffer), seen::add, (key, value) -> seen.add(key + "=" + value), seen::add, seen::add);
+        assertFalse(buffer.hasRemaining());
+        assertEquals(Arrays.asList(new Item(1, null, "a"), null, new Item(2, 3, "b"), "a=1", "null=2", "c=null", "r1", "r2", "r3"), seen);
+        assertEquals(7, result.id);
+        assertNull(result.items);
+        assertNull(result.counts);
+        assertNull(result.rows);
+        assertEquals(Arrays.asList(1, 2), result.plain);
+        assertEquals("end", result.tail);
+    }
+
+    @Test
+    public void doReadIsUnaffected() throws IOException {
+        StreamedMessage result = TestStreams.readPlain(TestStreams.writePlain(sample()), new StreamedMessage());
+        assertEquals(sample().items, result.items);
+        assertEquals(sample().counts, result.counts);
+        assertEquals(Arrays.asList("r1", "r2", "r3"), result.rows);
+        assertNull(result.empty);
+    }
+
+    @Test
+    public void callbackExceptionsPropagate() throws IOException {
+        byte[] bytes = TestStreams.write(sample());
+        try {
+            new StreamedMessage().doReadStream(new ByteBufferInputStream(ByteBuffer.wrap(bytes)), item -> {
+                throw new IOException("stop");
+            }, (key, value) -> fail(), row -> fail(), value -> fail());
+            fail();
+        } catch (IOException e) {
+            assertEquals("stop", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 字符串字段(不使用字符串表)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public class StringRows extends TestMessage {
+    @SerializerField
+    String locale;
+    @SerializerField
+    List<Map<String, String>> rows;
+    @SerializerField
+    String[] names;
+    @SerializerField
+    String tail;
+}
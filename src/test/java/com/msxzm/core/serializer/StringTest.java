@@ -0,0 +1,124 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.StringTable;
+import com.msxzm.core.serializer.runtime.Strings;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 字符串: 快速路径与基础流格式相同，字符串表只写一次重复的字符串，损坏的长度和引用报错
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class StringTest {
+    /** 各种编码长度的字符串(单独的代理字符按String.getBytes替换为'?') */
+    private static final String[] NAMES = {"name", null, "", "é中😀", "\ud800x", "desc"};
+
+    private static List<Map<String, String>> rows() {
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            Map<String, String> row = new LinkedHashMap<>();
+            row.put("name", "zh_CN");
+            row.put("desc", "d" + (i % 2));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static String[] expectedNames() {
+        String[] names = NAMES.clone();
+        names[4] = "?x";
+        return names;
+    }
+
+    @Test
+    public void fastPathMatchesBaseStream() throws IOException {
+        StringRows message = new StringRows();
+        message.locale = "zh_CN";
+        message.rows = rows();
+        message.names = NAMES;
+        message.tail = new String(new char[100000]).replace('\0', '字');
+        byte[] bytes = TestStreams.write(message);
+        assertArrayEquals(bytes, TestStreams.writePlain(message));
+        assertEquals(bytes.length, message.serializedSize());
+        StringRows result = TestStreams.read(bytes, new StringRows());
+        assertEquals(message.rows, result.rows);
+        assertArrayEquals(expectedNames(), result.names);
+        assertEquals(message.tail, result.tail);
+    }
+
+    @Test
+    public void tableWritesRepeatsOnce() throws IOException {
+        StringRows plain = new StringRows();
+        plain.locale = "zh_CN";
+        plain.rows = rows();
+        plain.names = NAMES;
+        plain.tail = "desc";
+        TableRows table = new TableRows();
+        table.locale = plain.locale;
+        table.rows = plain.rows;
+        table.names = plain.names;
+        table.later = Arrays.asList("name", "name");
+        table.tail = plain.tail;
+
+        byte[] bytes = TestStreams.write(table);
+        assertEquals(bytes.length, table.serializedSize());
+        assertTrue(bytes.length < TestStreams.write(plain).length);
+        TableRows result = TestStreams.read(bytes, new TableRows());
+        assertEquals("zh_CN", result.locale);
+        assertEquals(plain.rows, result.rows);
+        assertArrayEquals(expectedNames(), result.names);
+        assertEquals(table.later, result.getLater());
+        assertEquals("desc", result.tail);
+    }
+
+    @Test
+    public void tableSurvivesProjection() throws IOException {
+        TableRows table = new TableRows();
+        table.locale = "zh_CN";
+        table.rows = rows();
+        table.tail = "zh_CN";
+        TableRows result = new TableRows();
+        result.doRead(new ByteBufferInputStream(ByteBuffer.wrap(TestStreams.write(table))), TableRows.FIELD_TAIL);
+        assertEquals("zh_CN", result.tail);
+        assertEquals(null, result.locale);
+    }
+
+    @Test
+    public void rejectsCorruptLengths() throws IOException {
+        try {
+            Strings.readString(new ByteBufferInputStream(ByteBuffer.wrap(new byte[]{-1, -1, -1, -1})));
+            fail();
+        } catch (EOFException e) {
+            fail(e.getMessage());
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("negative"));
+        }
+        try {
+            Strings.readString(new ByteBufferInputStream(ByteBuffer.wrap(new byte[]{0, 0, 0, 10, 'a'})));
+            fail();
+        } catch (EOFException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("10"));
+        }
+        try {
+            new StringTable().read(new ByteBufferInputStream(ByteBuffer.wrap(new byte[]{5})));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("out of range"));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 与StringRows字段相同，使用字符串表
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(stringTable = true, projection = true)
+public class TableRows extends TestMessage {
+    @SerializerField
+    String locale;
+    @SerializerField
+    List<Map<String, String>> rows;
+    @SerializerField
+    String[] names;
+    @SerializerField
+    @SerializerFieldOptions(lazy = true)
+    List<String> later;
+    @SerializerField
+    String tail;
+}
@@ -0,0 +1,90 @@
+package com.msxzm.core.serializer;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * tagged模式新旧版本互读: 不认识的字段跳过，缺少的字段恢复默认值
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class TaggedTest {
+
+    private static TaggedV1 v1() {
+        TaggedV1 message = new TaggedV1();
+        message.id = 3;
+        message.name = "old";
+        message.item = new Item(1, 2, "item");
+        message.width = 10;
+        message.map = Collections.singletonMap("k", 4);
+        return message;
+    }
+
+    private static TaggedV2 v2() {
+        TaggedV2 message = new TaggedV2();
+        message.id = -5;
+        message.item = new Item(7, null, "new");
+        message.extra = Arrays.asList(1, null, 3);
+        message.big = -99999999999L;
+        message.ratio = 2.5;
+        message.bytes = new byte[]{1, 2};
+        message.width = -10;
+        message.map = Collections.singletonMap("q", 5);
+        return message;
+    }
+
+    @Test
+    public void roundTripsEachVersion() throws IOException {
+        TaggedV1 v1 = TestStreams.read(TestStreams.write(v1()), new TaggedV1());
+        assertEquals(3, v1.id);
+        assertEquals("old", v1.name);
+        assertEquals(v1().item, v1.item);
+        assertEquals(10, v1.width);
+        assertEquals(v1().map, v1.map);
+
+        TaggedV2 source = v2();
+        byte[] bytes = TestStreams.write(source);
+        assertEquals(bytes.length, source.serializedSize());
+        TaggedV2 v2 = TestStreams.readPlain(bytes, new TaggedV2());
+        assertEquals(source.extra, v2.extra);
+        assertEquals(source.big, v2.big);
+        assertEquals(source.ratio, v2.ratio);
+        assertArrayEquals(source.bytes, v2.bytes);
+        assertEquals(-10, v2.width);
+    }
+
+    @Test
+    public void oldReaderSkipsNewFields() throws IOException {
+        TaggedV1 target = new TaggedV1();
+        target.name = "stale";
+        target.width = 11;
+        TestStreams.read(TestStreams.write(v2()), target);
+        assertEquals(-5, target.id);
+        assertEquals(v2().item, target.item);
+        assertEquals(v2().map, target.map);
+        // 删除的字段和线上类型变化的字段都恢复默认值
+        assertNull(target.name);
+        assertEquals(0, target.width);
+    }
+
+    @Test
+    public void newReaderDefaultsMissingFields() throws IOException {
+        TaggedV2 target = v2();
+        TestStreams.read(TestStreams.write(v1()), target);
+        assertEquals(3, target.id);
+        assertEquals(v1().item, target.item);
+        assertEquals(v1().map, target.map);
+        assertNull(target.extra);
+        assertEquals(0L, target.big);
+        assertNull(target.ratio);
+        assertNull(target.bytes);
+        assertEquals(0, target.width);
+    }
+}
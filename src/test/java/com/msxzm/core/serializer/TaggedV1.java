@@ -0,0 +1,31 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.Map;
+
+/**
+ * tagged模式的旧版本
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(tagged = true)
+public class TaggedV1 extends TestMessage {
+    @SerializerField
+    @SerializerFieldOptions(tag = 1)
+    int id;
+    @SerializerField
+    @SerializerFieldOptions(tag = 2)
+    String name;
+    @SerializerField
+    @SerializerFieldOptions(tag = 3)
+    Item item;
+    @SerializerField
+    @SerializerFieldOptions(tag = 8)
+    int width;
+    @SerializerField
+    @SerializerFieldOptions(tag = 9)
+    Map<String, Integer> map;
+}
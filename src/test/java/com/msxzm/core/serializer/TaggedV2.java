@@ -0,0 +1,41 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * tagged模式的新版本: 新增字段(4~7)，删除了name(2)，width(8)改成ZigZag变长(线上类型变化)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+@SerializableOptions(tagged = true)
+public class TaggedV2 extends TestMessage {
+    @SerializerField
+    @SerializerFieldOptions(tag = 1)
+    int id;
+    @SerializerField
+    @SerializerFieldOptions(tag = 3)
+    Item item;
+    @SerializerField
+    @SerializerFieldOptions(tag = 4)
+    List<Integer> extra;
+    @SerializerField
+    @SerializerFieldOptions(tag = 5)
+    long big;
+    @SerializerField
+    @SerializerFieldOptions(tag = 6)
+    Double ratio;
+    @SerializerField
+    @SerializerFieldOptions(tag = 7)
+    byte[] bytes;
+    @SerializerField
+    @SerializerFieldOptions(tag = 8, encoding = Encoding.ZIGZAG)
+    int width;
+    @SerializerField
+    @SerializerFieldOptions(tag = 9)
+    Map<String, Integer> map;
+}
@@ -0,0 +1,195 @@
+package com.msxzm.core.serializer;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 测试用的编译工具: 带处理器选项编译一段源码，检查编译结果或加载生成的类
+ * 处理器和运行时类从测试的classpath取
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+final class TestCompiler {
+    /** 包名 */
+    private static final Pattern PACKAGE = Pattern.compile("package\\s+([\\w.]+)\\s*;");
+    /** 类名 */
+    private static final Pattern CLASS = Pattern.compile("(?:class|interface|enum)\\s+(\\w+)");
+
+    private TestCompiler() {
+    }
+
+    /**
+     * 编译
+     * @param options 处理器选项，例如-Aserializer.metrics=true
+     * @param sources 源码(每段一个顶层类)
+     * @return 编译结果
+     * @throws IOException IOException
+     */
+    static Result compile(List<String> options, String... sources) throws IOException {
+        return compile(new SerializerProcessor(), options, Collections.emptyList(), Collections.emptyList(), sources);
+    }
+
+    /**
+     * 编译
+     * @param processor 注解处理器(编译后可以检查处理器的状态)
+     * @param options 处理器选项
+     * @param classpath 额外的classpath(之前编译的输出目录)
+     * @param classes 从classpath参与注解处理的类名(模拟增量编译时没有变更的类)
+     * @param sources 源码(每段一个顶层类)
+     * @return 编译结果
+     * @throws IOException IOException
+     */
+    static Result compile(Processor processor, List<String> options, List<Path> classpath, List<String> classes, String... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Path output = Files.createTempDirectory("serializer-test");
+        StringBuilder path = new StringBuilder(System.getProperty("java.class.path"));
+        classpath.forEach(entry -> path.append(File.pathSeparatorChar).append(entry));
+        List<String> arguments = new ArrayList<>(Arrays.asList("-d", output.toString(), "-classpath", path.toString(), "-encoding", "UTF-8"));
+        arguments.addAll(options);
+        List<JavaFileObject> units = new ArrayList<>();
+        for (String source : sources) {
+            units.add(new Source(source));
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, arguments, classes.isEmpty() ? null : classes, units);
+            task.setProcessors(Collections.singletonList(processor));
+            return new Result(task.call(), diagnostics.getDiagnostics(), output, classpath);
+        }
+    }
+
+    /**
+     * 编译结果
+     */
+    static final class Result {
+        /** 是否编译成功 */
+        final boolean success;
+        /** 编译信息 */
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+        /** 输出目录 */
+        final Path output;
+        /** 额外的classpath */
+        private final List<Path> classpath;
+        /** 加载输出目录的类加载器 */
+        private ClassLoader classLoader;
+
+        Result(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics, Path output, List<Path> classpath) {
+            this.success = success;
+            this.diagnostics = diagnostics;
+            this.output = output;
+            this.classpath = classpath;
+        }
+
+        /**
+         * 指定级别的编译信息
+         * @param kind 级别
+         * @return 信息
+         */
+        List<String> messages(Diagnostic.Kind kind) {
+            return diagnostics.stream().filter(d -> d.getKind() == kind).map(d -> d.getMessage(Locale.ROOT)).collect(Collectors.toList());
+        }
+
+        /**
+         * 输出目录下是否有某个文件
+         * @param path 相对路径
+         * @return 有 true
+         */
+        boolean hasFile(String path) {
+            return Files.exists(output.resolve(path));
+        }
+
+        /**
+         * 读输出目录下的文本文件
+         * @param path 相对路径
+         * @return 内容
+         * @throws IOException IOException
+         */
+        String readFile(String path) throws IOException {
+            return new String(Files.readAllBytes(output.resolve(path)), StandardCharsets.UTF_8);
+        }
+
+        /**
+         * 加载编译出的类
+         * @param name 类名
+         * @return 类
+         * @throws ClassNotFoundException 没有编译出这个类
+         * @throws IOException IOException
+         */
+        Class<?> load(String name) throws ClassNotFoundException, IOException {
+            if (classLoader == null) {
+                List<URL> urls = new ArrayList<>();
+                urls.add(output.toUri().toURL());
+                for (Path entry : classpath) {
+                    urls.add(entry.toUri().toURL());
+                }
+                classLoader = new URLClassLoader(urls.toArray(new URL[0]), TestCompiler.class.getClassLoader());
+            }
+            return Class.forName(name, true, classLoader);
+        }
+
+        /**
+         * 新建编译出的类的对象
+         * @param name 类名
+         * @return 对象
+         * @throws ReflectiveOperationException 反射异常
+         * @throws IOException IOException
+         */
+        TestMessage newMessage(String name) throws ReflectiveOperationException, IOException {
+            return (TestMessage) load(name).getConstructor().newInstance();
+        }
+    }
+
+    /**
+     * 内存中的源码
+     */
+    private static final class Source extends SimpleJavaFileObject {
+        /** 源码 */
+        private final String code;
+
+        Source(String code) {
+            super(URI.create("string:///" + className(code).replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+
+        /**
+         * 源码里的类名
+         * @param code 源码
+         * @return 全名
+         */
+        private static String className(String code) {
+            Matcher packageMatcher = PACKAGE.matcher(code);
+            Matcher classMatcher = CLASS.matcher(code);
+            if (!classMatcher.find()) {
+                throw new IllegalArgumentException("no class in source");
+            }
+            return packageMatcher.find() ? packageMatcher.group(1) + "." + classMatcher.group(1) : classMatcher.group(1);
+        }
+    }
+}
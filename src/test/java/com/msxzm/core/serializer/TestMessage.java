@@ -0,0 +1,47 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+
+import java.io.IOException;
+
+/**
+ * 测试消息基类
+ * doWrite、doRead由SerializerProcessor在子类中生成
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public abstract class TestMessage {
+
+    /**
+     * 写到输出流(嵌套对象由生成代码调用)
+     * @param outputStream 输出流
+     * @throws IOException IOException
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        doWrite(outputStream);
+    }
+
+    /**
+     * 从输入流读(嵌套对象由生成代码调用)
+     * @param inputStream 输入流
+     * @throws IOException IOException
+     */
+    public void readFrom(InputStream inputStream) throws IOException {
+        doRead(inputStream);
+    }
+
+    /**
+     * 序列化
+     * @param outputStream 输出流
+     * @throws IOException IOException
+     */
+    public abstract void doWrite(OutputStream outputStream) throws IOException;
+
+    /**
+     * 反序列化
+     * @param inputStream 输入流
+     * @throws IOException IOException
+     */
+    public abstract void doRead(InputStream inputStream) throws IOException;
+}
@@ -0,0 +1,196 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.stream.InputStream;
+import com.msxzm.base.stream.OutputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferInputStream;
+import com.msxzm.core.serializer.runtime.ByteBufferOutputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 测试用的读写工具
+ * ByteBuffer流实现了Bulk接口，Plain流只有基础流的方法(走逐个元素的路径)，两者格式相同
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+final class TestStreams {
+    /** 写缓冲大小 */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private TestStreams() {
+    }
+
+    /**
+     * 用ByteBuffer流写出
+     * @param message 消息
+     * @return 字节
+     * @throws IOException IOException
+     */
+    static byte[] write(TestMessage message) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        message.doWrite(new ByteBufferOutputStream(buffer));
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * 用只有基础流方法的流写出
+     * @param message 消息
+     * @return 字节
+     * @throws IOException IOException
+     */
+    static byte[] writePlain(TestMessage message) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        message.doWrite(new PlainOutputStream(buffer));
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * 用ByteBuffer流读到目标对象
+     * @param bytes 字节
+     * @param target 目标对象
+     * @param <T> 消息类型
+     * @return 目标对象
+     * @throws IOException IOException
+     */
+    static <T extends TestMessage> T read(byte[] bytes, T target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        target.doRead(new ByteBufferInputStream(buffer));
+        if (buffer.hasRemaining()) {
+            throw new IOException(buffer.remaining() + " bytes left");
+        }
+        return target;
+    }
+
+    /**
+     * 用只有基础流方法的流读到目标对象
+     * @param bytes 字节
+     * @param target 目标对象
+     * @param <T> 消息类型
+     * @return 目标对象
+     * @throws IOException IOException
+     */
+    static <T extends TestMessage> T readPlain(byte[] bytes, T target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        target.doRead(new PlainInputStream(buffer));
+        if (buffer.hasRemaining()) {
+            throw new IOException(buffer.remaining() + " bytes left");
+        }
+        return target;
+    }
+
+    /**
+     * 不实现BulkOutput的输出流
+     */
+    static final class PlainOutputStream extends OutputStream {
+        /** 实际写入的流 */
+        private final ByteBufferOutputStream delegate;
+
+        PlainOutputStream(ByteBuffer buffer) {
+            this.delegate = new ByteBufferOutputStream(buffer);
+        }
+
+        @Override
+        public void writeBoolean(boolean value) throws IOException {
+            delegate.writeBoolean(value);
+        }
+
+        @Override
+        public void writeByte(byte value) throws IOException {
+            delegate.writeByte(value);
+        }
+
+        @Override
+        public void writeShort(short value) throws IOException {
+            delegate.writeShort(value);
+        }
+
+        @Override
+        public void writeInt(int value) throws IOException {
+            delegate.writeInt(value);
+        }
+
+        @Override
+        public void writeLong(long value) throws IOException {
+            delegate.writeLong(value);
+        }
+
+        @Override
+        public void writeFloat(float value) throws IOException {
+            delegate.writeFloat(value);
+        }
+
+        @Override
+        public void writeDouble(double value) throws IOException {
+            delegate.writeDouble(value);
+        }
+
+        @Override
+        public void writeString(String value) throws IOException {
+            delegate.writeString(value);
+        }
+
+        @Override
+        public void write(Object value) throws IOException {
+            delegate.write(value);
+        }
+    }
+
+    /**
+     * 不实现BulkInput、SliceInput的输入流
+     */
+    static final class PlainInputStream extends InputStream {
+        /** 实际读取的流 */
+        private final ByteBufferInputStream delegate;
+
+        PlainInputStream(ByteBuffer buffer) {
+            this.delegate = new ByteBufferInputStream(buffer);
+        }
+
+        @Override
+        public boolean readBoolean() throws IOException {
+            return delegate.readBoolean();
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            return delegate.readByte();
+        }
+
+        @Override
+        public short readShort() throws IOException {
+            return delegate.readShort();
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            return delegate.readInt();
+        }
+
+        @Override
+        public long readLong() throws IOException {
+            return delegate.readLong();
+        }
+
+        @Override
+        public float readFloat() throws IOException {
+            return delegate.readFloat();
+        }
+
+        @Override
+        public double readDouble() throws IOException {
+            return delegate.readDouble();
+        }
+
+        @Override
+        public String readString() throws IOException {
+            return delegate.readString();
+        }
+
+        @Override
+        public <T> T read() throws IOException {
+            return delegate.read();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.core.serializer.TypeInfos.TypeInfo;
+import org.junit.Test;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 类型信息缓存: 缓存的分类与逐层遍历父类(不缓存)的结果一致，与查询顺序无关
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+public class TypeInfosTest {
+    /** 带各种继承关系的字段 */
+    private static final String HOLDER = "package typeinfo;\n"
+            + "import com.msxzm.base.serializer.Serializable;\n"
+            + "import java.util.*;\n"
+            + "public class Holder {\n"
+            + "    interface Tagged {}\n"
+            + "    @Serializable static abstract class Base implements Tagged {}\n"
+            + "    static class Mid extends Base {}\n"
+            + "    static class Leaf extends Mid implements Comparable<Leaf> { public int compareTo(Leaf o) { return 0; } }\n"
+            + "    static class Plain implements Tagged {}\n"
+            + "    static class MyList<T> extends ArrayList<T> {}\n"
+            + "    static class MyQueue extends ArrayDeque<String> {}\n"
+            + "    interface MyMap<K, V> extends SortedMap<K, V> {}\n"
+            + "    static abstract class MySet extends AbstractSet<Leaf> implements NavigableSet<Leaf> {}\n"
+            + "    Leaf leaf; Mid mid; Base base; Tagged tagged; Plain plain; Object object; String string;\n"
+            + "    List<Leaf> list; MyList<Base> myList; MyQueue queue; Deque<Mid> deque; PriorityQueue<Integer> priority;\n"
+            + "    Map<String, Mid> map; MyMap<Leaf, List<Base>> myMap; LinkedHashMap<Integer, Leaf> linked; EnumMap<TimeKind, Leaf> enumMap;\n"
+            + "    Set<Integer> set; MySet mySet; EnumSet<TimeKind> enumSet; Collection<Tagged> collection; Iterable<Leaf> iterable;\n"
+            + "    enum TimeKind { A, B }\n"
+            + "}\n";
+    /** 检查的基类 */
+    private static final List<Class<?>> BASES = Arrays.asList(Collection.class, List.class, Set.class, Queue.class, Map.class,
+            Iterable.class, Comparable.class, Object.class);
+
+    @Test
+    public void cachedClassificationMatchesTheUncachedWalk() throws Exception {
+        for (boolean reversed : new boolean[]{false, true}) {
+            Checker checker = new Checker(reversed);
+            TestCompiler.Result result = TestCompiler.compile(checker, Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), HOLDER);
+            assertTrue(result.diagnostics.toString(), result.success);
+            assertTrue(checker.mismatches.toString(), checker.mismatches.isEmpty());
+            assertTrue(String.valueOf(checker.checked), checker.checked > 40);
+        }
+    }
+
+    @Test
+    public void sameTypeSharesOneInfo() throws Exception {
+        Checker checker = new Checker(false);
+        TestCompiler.compile(checker, Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), HOLDER);
+        assertEquals(Collections.emptyList(), checker.unshared);
+    }
+
+    /**
+     * 对每个字段类型(包括泛型参数和所有父类)比较缓存和不缓存的分类
+     */
+    @SupportedAnnotationTypes("*")
+    private static final class Checker extends AbstractProcessor {
+        /** 是否倒序查询(先查父类再查子类) */
+        private final boolean reversed;
+        /** 不一致的类型 */
+        final List<String> mismatches = new ArrayList<>();
+        /** 同一个类型两次查询不是同一个对象 */
+        final List<String> unshared = new ArrayList<>();
+        /** 检查过的类型数 */
+        int checked;
+
+        Checker(boolean reversed) {
+            this.reversed = reversed;
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            Types types = processingEnv.getTypeUtils();
+            TypeInfos typeInfos = new TypeInfos(types);
+            List<TypeMirror> queue = new ArrayList<>();
+            for (Element root : roundEnv.getRootElements()) {
+                for (Element member : root.getEnclosedElements()) {
+                    if (member.getKind() == ElementKind.FIELD) {
+                        collect(types, member.asType(), queue);
+                    }
+                }
+                for (TypeElement nested : ElementFilter.typesIn(root.getEnclosedElements())) {
+                    collect(types, nested.asType(), queue);
+                }
+            }
+            if (reversed) {
+                Collections.reverse(queue);
+            }
+            for (TypeMirror type : queue) {
+                TypeInfo cached = typeInfos.get(type);
+                if (cached != typeInfos.get(type)) {
+                    unshared.add(type.toString());
+                }
+                if (cached.serializable != isSerializable(types, type)) {
+                    mismatches.add(type + " serializable");
+                }
+                if (cached.abstractType != types.asElement(type).getModifiers().contains(Modifier.ABSTRACT)) {
+                    mismatches.add(type + " abstract");
+                }
+                for (Class<?> base : BASES) {
+                    if (cached.supertypes.contains(base.getTypeName()) != isAssignableFrom(types, type, base)) {
+                        mismatches.add(type + " " + base.getSimpleName());
+                    }
+                }
+                ++checked;
+            }
+            return false;
+        }
+
+        /**
+         * 收集类型、泛型参数和所有父类
+         * @param types 类型工具
+         * @param type 类型
+         * @param queue 收集到的类型
+         */
+        private static void collect(Types types, TypeMirror type, List<TypeMirror> queue) {
+            if (type.getKind() != TypeKind.DECLARED || queue.contains(type)) {
+                return;
+            }
+            queue.add(type);
+            for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+                collect(types, argument, queue);
+            }
+            for (TypeMirror superType : types.directSupertypes(type)) {
+                collect(types, superType, queue);
+            }
+        }
+
+        /**
+         * 不缓存: 本身或父类有Serializable注解
+         * @param types 类型工具
+         * @param type 类型
+         * @return 是 true
+         */
+        private static boolean isSerializable(Types types, TypeMirror type) {
+            if (types.asElement(type).getAnnotation(Serializable.class) != null) {
+                return true;
+            }
+            for (TypeMirror superType : types.directSupertypes(type)) {
+                if (isSerializable(types, superType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 不缓存: 擦除后本身或父类是某个类
+         * @param types 类型工具
+         * @param type 类型
+         * @param clazz 基类
+         * @return 是 true
+         */
+        private static boolean isAssignableFrom(Types types, TypeMirror type, Class<?> clazz) {
+            if (types.erasure(type).toString().equals(clazz.getTypeName())) {
+                return true;
+            }
+            for (TypeMirror superType : types.directSupertypes(type)) {
+                if (isAssignableFrom(types, superType, clazz)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.List;
+
+/**
+ * 逐个元素编码的数值集合(与紧凑编码对比长度)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public class UnpackedMessage extends TestMessage {
+    @SerializerField
+    List<Integer> ints;
+}
@@ -0,0 +1,179 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+/**
+ * 可为null字段超过64个的消息(位图分两组)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public class WideMessage extends TestMessage {
+    @SerializerField
+    String s0;
+    @SerializerField
+    String s1;
+    @SerializerField
+    String s2;
+    @SerializerField
+    String s3;
+    @SerializerField
+    String s4;
+    @SerializerField
+    String s5;
+    @SerializerField
+    String s6;
+    @SerializerField
+    String s7;
+    @SerializerField
+    String s8;
+    @SerializerField
+    String s9;
+    @SerializerField
+    String s10;
+    @SerializerField
+    String s11;
+    @SerializerField
+    String s12;
+    @SerializerField
+    String s13;
+    @SerializerField
+    String s14;
+    @SerializerField
+    String s15;
+    @SerializerField
+    String s16;
+    @SerializerField
+    String s17;
+    @SerializerField
+    String s18;
+    @SerializerField
+    String s19;
+    @SerializerField
+    String s20;
+    @SerializerField
+    String s21;
+    @SerializerField
+    String s22;
+    @SerializerField
+    String s23;
+    @SerializerField
+    String s24;
+    @SerializerField
+    String s25;
+    @SerializerField
+    String s26;
+    @SerializerField
+    String s27;
+    @SerializerField
+    String s28;
+    @SerializerField
+    String s29;
+    @SerializerField
+    String s30;
+    @SerializerField
+    String s31;
+    @SerializerField
+    String s32;
+    @SerializerField
+    String s33;
+    @SerializerField
+    String s34;
+    @SerializerField
+    String s35;
+    @SerializerField
+    String s36;
+    @SerializerField
+    String s37;
+    @SerializerField
+    String s38;
+    @SerializerField
+    String s39;
+    @SerializerField
+    String s40;
+    @SerializerField
+    String s41;
+    @SerializerField
+    String s42;
+    @SerializerField
+    String s43;
+    @SerializerField
+    String s44;
+    @SerializerField
+    String s45;
+    @SerializerField
+    String s46;
+    @SerializerField
+    String s47;
+    @SerializerField
+    String s48;
+    @SerializerField
+    String s49;
+    @SerializerField
+    String s50;
+    @SerializerField
+    String s51;
+    @SerializerField
+    String s52;
+    @SerializerField
+    String s53;
+    @SerializerField
+    String s54;
+    @SerializerField
+    String s55;
+    @SerializerField
+    String s56;
+    @SerializerField
+    String s57;
+    @SerializerField
+    String s58;
+    @SerializerField
+    String s59;
+    @SerializerField
+    String s60;
+    @SerializerField
+    String s61;
+    @SerializerField
+    String s62;
+    @SerializerField
+    String s63;
+    @SerializerField
+    String s64;
+    @SerializerField
+    String s65;
+    @SerializerField
+    String s66;
+    @SerializerField
+    String s67;
+    @SerializerField
+    String s68;
+    @SerializerField
+    String s69;
+
+    /**
+     * 按下标取字段(测试用)
+     * @param index 下标
+     * @return 值
+     */
+    String get(int index) {
+        try {
+            return (String) WideMessage.class.getDeclaredField("s" + index).get(this);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 按下标设置字段(测试用)
+     * @param index 下标
+     * @param value 值
+     */
+    void set(int index, String value) {
+        try {
+            WideMessage.class.getDeclaredField("s" + index).set(this, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.msxzm.core.serializer;
+
+import com.msxzm.base.serializer.Serializable;
+import com.msxzm.base.serializer.SerializerField;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 只有可为null字段的消息(null标记全部在位图里)
+ * @author zenghongming
+ * @date 2026/10/18 23:58
+ */
+@Serializable
+public class Wrappers extends TestMessage {
+    @SerializerField
+    Integer count;
+    @SerializerField
+    Long total;
+    @SerializerField
+    Boolean flag;
+    @SerializerField
+    Double ratio;
+    @SerializerField
+    String name;
+    @SerializerField
+    Item item;
+    @SerializerField
+    List<Integer> values;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Wrappers)) {
+            return false;
+        }
+        Wrappers other = (Wrappers) o;
+        return Objects.equals(count, other.count) && Objects.equals(total, other.total) && Objects.equals(flag, other.flag)
+                && Objects.equals(ratio, other.ratio) && Objects.equals(name, other.name) && Objects.equals(item, other.item)
+                && Objects.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(count, total, name);
+    }
+
+    @Override
+    public String toString() {
+        return "Wrappers{" + count + ", " + total + ", " + flag + ", " + ratio + ", " + name + ", " + item + ", " + values + "}";
+    }
+}